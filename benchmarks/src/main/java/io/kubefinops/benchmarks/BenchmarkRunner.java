@@ -0,0 +1,34 @@
+package io.kubefinops.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the regular JMH command line, but writes the results as
+ * machine-readable JSON to {@code jmh-result.json} unless a result format or file is given explicitly
+ * ({@code -rf}/{@code -rff}).
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the selected benchmarks.
+     *
+     * @param args The JMH command line (benchmark regexps and options).
+     * @throws Exception If JMH fails to start.
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(List.of(args));
+        if (!options.contains("-rf")) {
+            options.addAll(List.of("-rf", "json"));
+        }
+        if (!options.contains("-rff")) {
+            options.addAll(List.of("-rff", "jmh-result.json"));
+        }
+        Main.main(options.toArray(String[]::new));
+    }
+}
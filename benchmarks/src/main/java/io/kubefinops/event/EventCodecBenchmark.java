@@ -0,0 +1,157 @@
+package io.kubefinops.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.kubefinops.event.codec.EventCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Serialization and deserialization cost of every event-contract class with the binary {@link EventCodec}
+ * versus Jackson JSON (configured like the JSON bindings: JSR-310 dates as ISO strings). The encoded size
+ * of each event in both encodings is printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventCodecBenchmark {
+
+    private static final Instant NOW = Instant.parse("2026-01-05T18:00:00.123Z");
+
+    @Param({"RecommendationCreatedEvent", "RecommendationApprovedEvent", "PolicyViolatedEvent",
+            "GitOpsPRCreatedEvent", "ChangeAppliedEvent", "ChangeFailedEvent", "ScalingBatchEvent"})
+    public String eventType;
+
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private Object event;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        event = sample(eventType);
+        json = mapper.writeValueAsBytes(event);
+        binary = EventCodec.encode(event);
+        System.out.printf("%n%s: JSON %,d bytes, binary %,d bytes%n", eventType, json.length, binary.length);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() throws IOException {
+        return mapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() throws IOException {
+        return mapper.readValue(json, event.getClass());
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return EventCodec.encode(event);
+    }
+
+    @Benchmark
+    public Object binaryDeserialize() {
+        return EventCodec.decode(binary, event.getClass());
+    }
+
+    private static Object sample(String type) {
+        Map<String, String> current = Map.of("cpu", "500m", "memory", "512Mi");
+        Map<String, String> suggested = Map.of("cpu", "250m", "memory", "256Mi");
+        return switch (type) {
+            case "RecommendationCreatedEvent" -> RecommendationCreatedEvent.builder()
+                    .id("3f1c9a52-8d1e-4c1b-9a7e-1f2d3c4b5a69")
+                    .workloadRef("deployment/checkout")
+                    .namespace("shop")
+                    .currentResources(current)
+                    .suggestedResources(suggested)
+                    .currentQuantities(ResourceQuantities.parse(current))
+                    .suggestedQuantities(ResourceQuantities.parse(suggested))
+                    .replicas(3)
+                    .confidenceScore(0.92)
+                    .estimatedMonthlySavings(18.75)
+                    .currency("USD")
+                    .createdAt(NOW)
+                    .build();
+            case "RecommendationApprovedEvent" -> RecommendationApprovedEvent.builder()
+                    .recommendationId("3f1c9a52-8d1e-4c1b-9a7e-1f2d3c4b5a69")
+                    .workloadRef("deployment/checkout")
+                    .namespace("shop")
+                    .approvedResources(suggested)
+                    .approvedQuantities(ResourceQuantities.parse(suggested))
+                    .replicas(3)
+                    .estimatedMonthlySavings(18.75)
+                    .currency("USD")
+                    .approvedBy("policy-service")
+                    .approvedAt(NOW)
+                    .build();
+            case "PolicyViolatedEvent" -> PolicyViolatedEvent.builder()
+                    .recommendationId("3f1c9a52-8d1e-4c1b-9a7e-1f2d3c4b5a69")
+                    .reason("Namespace budget exceeded. Current: $480.00, New: $32.50, Max: $500.00")
+                    .policyName("shop-budget")
+                    .details("deployment/checkout")
+                    .violatedAt(NOW)
+                    .build();
+            case "GitOpsPRCreatedEvent" -> GitOpsPRCreatedEvent.builder()
+                    .recommendationId("3f1c9a52-8d1e-4c1b-9a7e-1f2d3c4b5a69")
+                    .prUrl("https://github.com/example/gitops/pull/1287")
+                    .repository("example/gitops")
+                    .branchName("kubefinops/shop-checkout-3f1c9a52")
+                    .createdAt(NOW)
+                    .build();
+            case "ChangeAppliedEvent" -> ChangeAppliedEvent.builder()
+                    .recommendationId("3f1c9a52-8d1e-4c1b-9a7e-1f2d3c4b5a69")
+                    .workloadRef("deployment/checkout")
+                    .namespace("shop")
+                    .appliedResources(suggested)
+                    .replicas(3)
+                    .appliedAt(NOW)
+                    .build();
+            case "ChangeFailedEvent" -> ChangeFailedEvent.builder()
+                    .recommendationId("3f1c9a52-8d1e-4c1b-9a7e-1f2d3c4b5a69")
+                    .prUrl("https://github.com/example/gitops/pull/1287")
+                    .errorMessage("Argo CD sync failed: ImagePullBackOff")
+                    .failedAt(NOW)
+                    .build();
+            case "ScalingBatchEvent" -> ScalingBatchEvent.builder()
+                    .id("9b2e4f70-1c3d-4e5f-8a9b-0c1d2e3f4a5b")
+                    .namespace("shop")
+                    .transitions(IntStream.range(0, 20)
+                            .mapToObj(i -> ScalingTransition.builder()
+                                    .workloadRef("deployment/app-" + i)
+                                    .replicas(0)
+                                    .scheduleId("static:shop/*")
+                                    .reason("sleep")
+                                    .estimatedMonthlySavings(50.0)
+                                    .build())
+                            .toList())
+                    .dueAt(NOW)
+                    .createdAt(NOW)
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown event type " + type);
+        };
+    }
+}
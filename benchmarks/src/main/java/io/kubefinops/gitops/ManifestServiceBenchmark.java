@@ -0,0 +1,180 @@
+package io.kubefinops.gitops;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of one {@link ManifestService#updateManifest} call on a realistic Deployment: the application
+ * container plus sidecars (proxy, log shipper, metrics exporter), probes, env and volumes. The manifest is
+ * read, patched and written back to a temporary GitOps checkout on every call, alternating between two
+ * resource sets so that every write changes the file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ManifestServiceBenchmark {
+
+    private static final String NAMESPACE = "dev";
+    private static final String WORKLOAD = "checkout";
+    private static final Map<String, String> SMALL = Map.of("cpu", "250m", "memory", "256Mi");
+    private static final Map<String, String> LARGE = Map.of("cpu", "500m", "memory", "512Mi");
+
+    @Param({"1", "4"})
+    public int sidecarCount;
+
+    private final ManifestService manifestService = new ManifestService();
+    private Path basePath;
+    private boolean large;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        basePath = Files.createTempDirectory("gitops-bench");
+        Files.createDirectories(basePath.resolve(NAMESPACE));
+        Files.writeString(basePath.resolve(NAMESPACE).resolve(WORKLOAD + ".yaml"), deployment(sidecarCount));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(basePath)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void updateManifest() {
+        large = !large;
+        manifestService.updateManifest(basePath.toString(), "deployment/" + WORKLOAD, NAMESPACE,
+                large ? LARGE : SMALL, large ? 3 : 2, 12.5, "USD");
+    }
+
+    private static String deployment(int sidecars) {
+        StringBuilder yaml = new StringBuilder("""
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: checkout
+                  namespace: dev
+                  labels:
+                    app.kubernetes.io/name: checkout
+                    app.kubernetes.io/part-of: shop
+                  annotations:
+                    kubefinops.io/managed: "true"
+                spec:
+                  replicas: 2
+                  revisionHistoryLimit: 5
+                  selector:
+                    matchLabels:
+                      app.kubernetes.io/name: checkout
+                  strategy:
+                    type: RollingUpdate
+                    rollingUpdate:
+                      maxSurge: 25%
+                      maxUnavailable: 0
+                  template:
+                    metadata:
+                      labels:
+                        app.kubernetes.io/name: checkout
+                      annotations:
+                        prometheus.io/scrape: "true"
+                        prometheus.io/port: "9090"
+                    spec:
+                      serviceAccountName: checkout
+                      securityContext:
+                        runAsNonRoot: true
+                        fsGroup: 2000
+                      containers:
+                        - name: checkout
+                          image: registry.example.com/shop/checkout:1.42.0
+                          ports:
+                            - name: http
+                              containerPort: 8080
+                            - name: metrics
+                              containerPort: 9090
+                          env:
+                            - name: SPRING_PROFILES_ACTIVE
+                              value: prod
+                            - name: JAVA_TOOL_OPTIONS
+                              value: -XX:MaxRAMPercentage=75
+                            - name: DB_PASSWORD
+                              valueFrom:
+                                secretKeyRef:
+                                  name: checkout-db
+                                  key: password
+                          resources:
+                            requests:
+                              cpu: 500m
+                              memory: 512Mi
+                            limits:
+                              cpu: "1"
+                              memory: 1Gi
+                          readinessProbe:
+                            httpGet:
+                              path: /actuator/health/readiness
+                              port: http
+                            periodSeconds: 10
+                          livenessProbe:
+                            httpGet:
+                              path: /actuator/health/liveness
+                              port: http
+                            initialDelaySeconds: 30
+                          volumeMounts:
+                            - name: config
+                              mountPath: /config
+                              readOnly: true
+                """);
+        String[][] sidecarImages = {
+                {"envoy", "envoyproxy/envoy:v1.31.0"},
+                {"fluent-bit", "fluent/fluent-bit:3.1"},
+                {"otel-agent", "otel/opentelemetry-collector:0.108.0"},
+                {"cloudsql-proxy", "gcr.io/cloud-sql-connectors/cloud-sql-proxy:2.13.0"}};
+        for (int i = 0; i < sidecars; i++) {
+            String[] sidecar = sidecarImages[i % sidecarImages.length];
+            yaml.append("        - name: ").append(sidecar[0]).append('\n')
+                    .append("          image: ").append(sidecar[1]).append('\n')
+                    .append("""
+                                      resources:
+                                        requests:
+                                          cpu: 50m
+                                          memory: 64Mi
+                                        limits:
+                                          cpu: 200m
+                                          memory: 128Mi
+                                      volumeMounts:
+                                        - name: config
+                                          mountPath: /config
+                                          readOnly: true
+                            """);
+        }
+        yaml.append("""
+                      volumes:
+                        - name: config
+                          configMap:
+                            name: checkout-config
+                """);
+        return yaml.toString();
+    }
+}
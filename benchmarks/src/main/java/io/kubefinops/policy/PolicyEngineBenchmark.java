@@ -0,0 +1,141 @@
+package io.kubefinops.policy;
+
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.policy.budget.BudgetLedger;
+import io.kubefinops.policy.cache.PolicyCache;
+import io.kubefinops.policy.config.BudgetLedgerProperties;
+import io.kubefinops.policy.config.PolicyCacheProperties;
+import io.kubefinops.policy.domain.Policy;
+import io.kubefinops.policy.domain.Recommendation;
+import io.kubefinops.policy.repository.NamespaceBudgetRepository;
+import io.kubefinops.policy.repository.PolicyRepository;
+import io.kubefinops.policy.repository.RecommendationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cost of validating one recommendation with {@link PolicyEngine#validate}, against in-memory repository
+ * stubs so that only the engine is measured: the lookup of the namespace's compiled plan in the cached
+ * snapshot, the strictest resource limit and savings thresholds of its policies, plus the aggregate budget
+ * check, which reads the namespace total from the {@link BudgetLedger} (rebuilt once from {@code approvedCount}
+ * approved recommendations) instead of re-pricing them. The check runs as a budget reservation, released after
+ * each validation like the listener does. Run with {@code -prof gc} to see the allocation of the approve path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolicyEngineBenchmark {
+
+    private static final long MIB = 1024 * 1024;
+
+    @Param({"1", "20"})
+    public int policyCount;
+
+    @Param({"10", "1000"})
+    public int approvedCount;
+
+    @Param({"0", "20000"}) // Policies of other namespaces, compiled into plans of their own
+    public int otherNamespaces;
+
+    @Param({"true", "false"}) // false: documents stored before quantities were pre-parsed
+    public boolean preParsed;
+
+    private PolicyEngine engine;
+    private BudgetLedger ledger;
+    private Recommendation[] recommendations;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<Policy> policies = new ArrayList<>(policyCount);
+        for (int i = 0; i < policyCount; i++) {
+            policies.add(Policy.builder()
+                    .name("policy-" + i)
+                    .namespace(i % 2 == 0 ? "dev" : null)
+                    .maxCpu((4000 + i) + "m")
+                    .maxMemory((8 + i) + "Gi")
+                    .minMonthlySavings(0.5)
+                    .maxMonthlyCost(i == policyCount - 1 ? 1_000_000.0 : null)
+                    .build());
+        }
+        for (int i = 0; i < otherNamespaces; i++) {
+            policies.add(Policy.builder().name("ns-" + i).namespace("ns-" + i).maxCpu("2000m").build());
+        }
+        List<Recommendation> approved = new ArrayList<>(approvedCount);
+        for (int i = 0; i < approvedCount; i++) {
+            approved.add(recommendation("approved-" + i, random, "APPROVED"));
+        }
+        PolicyCache cache = new PolicyCache(stub(PolicyRepository.class, Map.of("findAll", () -> policies)), null,
+                new PolicyCacheProperties(), new SimpleMeterRegistry());
+        ledger = new BudgetLedger(
+                stub(NamespaceBudgetRepository.class, Map.of("findAll", List::of, "deleteAll", () -> null, "saveAll", () -> null)),
+                stub(RecommendationRepository.class, Map.of("findByStatusIn", approved::stream)),
+                null, new BudgetLedgerProperties(), new SimpleMeterRegistry());
+        engine = new PolicyEngine(cache, ledger);
+
+        recommendations = new Recommendation[256];
+        for (int i = 0; i < recommendations.length; i++) {
+            recommendations[i] = recommendation("rec-" + i, random, "PENDING");
+        }
+    }
+
+    @Benchmark
+    public ValidationResult validate() {
+        Recommendation recommendation = recommendations[next++ & (recommendations.length - 1)];
+        ValidationResult result = engine.validate(recommendation);
+        ledger.release(recommendation);
+        return result;
+    }
+
+    private Recommendation recommendation(String id, Random random, String status) {
+        ResourceQuantities suggested = new ResourceQuantities(50 + random.nextInt(2000), (64 + random.nextInt(4096)) * MIB);
+        return Recommendation.builder()
+                .id(id)
+                .workloadRef("deployment/app-" + id)
+                .namespace("dev")
+                .suggestedResources(suggested.toMap())
+                .suggestedQuantities(preParsed ? suggested : null)
+                .estimatedMonthlySavings(1.0 + random.nextInt(50))
+                .status(status)
+                .build();
+    }
+
+    /**
+     * Implements a Spring Data repository answering a few methods by name.
+     *
+     * @param type    The repository interface.
+     * @param answers The result of each answered method, supplied on every call.
+     * @return The stub.
+     */
+    private static <T> T stub(Class<T> type, Map<String, Supplier<?>> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, invoked, args) -> {
+            Supplier<?> answer = answers.get(invoked.getName());
+            if (answer != null) return answer.get();
+            if (invoked.getName().equals("toString")) return type.getSimpleName() + "Stub";
+            throw new UnsupportedOperationException(invoked.getName());
+        }));
+    }
+}
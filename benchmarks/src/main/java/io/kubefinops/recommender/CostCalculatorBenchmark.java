@@ -0,0 +1,92 @@
+package io.kubefinops.recommender;
+
+import io.kubefinops.event.ResourceQuantities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of pricing a whole fleet pass: one {@link CostCalculator} call per workload from resource maps
+ * (parsing on every call) or from pre-parsed quantities, versus one columnar {@link CostBatch} call through
+ * the scalar and the Vector API kernels. Build with {@code -Pvector-api} for {@code batchVector} to measure the
+ * Vector API kernel; the default build only contains the scalar one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class CostCalculatorBenchmark {
+
+    private static final long MIB = 1024 * 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    public int workloadCount;
+
+    private Map<String, String>[] currentMaps;
+    private Map<String, String>[] suggestedMaps;
+    private ResourceQuantities[] current;
+    private ResourceQuantities[] suggested;
+    private CostBatch batch;
+    private CostCalculator vectorCalculator;
+    private CostCalculator scalarCalculator;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        currentMaps = new Map[workloadCount];
+        suggestedMaps = new Map[workloadCount];
+        current = new ResourceQuantities[workloadCount];
+        suggested = new ResourceQuantities[workloadCount];
+        batch = new CostBatch(workloadCount);
+        Random random = new Random(42);
+        for (int i = 0; i < workloadCount; i++) {
+            current[i] = new ResourceQuantities(100 + random.nextInt(4000), (64 + random.nextInt(8192)) * MIB);
+            suggested[i] = new ResourceQuantities(10 + random.nextInt(4000), (64 + random.nextInt(8192)) * MIB);
+            currentMaps[i] = current[i].toMap();
+            suggestedMaps[i] = suggested[i].toMap();
+            batch.add(current[i], suggested[i]);
+        }
+        vectorCalculator = new CostCalculator(true);
+        scalarCalculator = new CostCalculator(false);
+    }
+
+    @Benchmark
+    public void perWorkloadMaps(Blackhole blackhole) {
+        for (int i = 0; i < workloadCount; i++) {
+            blackhole.consume(scalarCalculator.calculateMonthlySavings(currentMaps[i], suggestedMaps[i]));
+        }
+    }
+
+    @Benchmark
+    public void perWorkloadQuantities(Blackhole blackhole) {
+        for (int i = 0; i < workloadCount; i++) {
+            blackhole.consume(scalarCalculator.calculateMonthlySavings(current[i], suggested[i]));
+        }
+    }
+
+    @Benchmark
+    public double[] batchScalar() {
+        return scalarCalculator.calculateMonthlySavings(batch);
+    }
+
+    @Benchmark
+    public double[] batchVector() {
+        return vectorCalculator.calculateMonthlySavings(batch);
+    }
+}
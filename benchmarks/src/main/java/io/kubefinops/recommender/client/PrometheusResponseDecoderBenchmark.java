@@ -0,0 +1,71 @@
+package io.kubefinops.recommender.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding cost of the instant-vector responses of the per-namespace P95 queries issued by
+ * {@link PrometheusClient}: one series per workload, labelled by namespace and workload. The body is
+ * fed as 8 KiB network-sized chunks, like a WebClient response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrometheusResponseDecoderBenchmark {
+
+    private static final int CHUNK_BYTES = 8 * 1024;
+
+    @Param({"50", "1000", "20000"})
+    public int workloadCount;
+
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder("{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":[");
+        for (int i = 0; i < workloadCount; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"metric\":{\"namespace\":\"ns-").append(i % 20)
+                    .append("\",\"workload\":\"workload-").append(i)
+                    .append("\"},\"value\":[").append(1_700_000_000.123 + i % 7)
+                    .append(",\"").append(random.nextDouble() * 2).append("\"]}");
+        }
+        body = json.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void decodeVector(Blackhole blackhole) {
+        PrometheusResponseDecoder.decode(chunks(body))
+                .doOnNext(blackhole::consume)
+                .blockLast();
+    }
+
+    private static Flux<DataBuffer> chunks(byte[] body) {
+        return Flux.range(0, (body.length + CHUNK_BYTES - 1) / CHUNK_BYTES)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        ByteBuffer.wrap(body, i * CHUNK_BYTES, Math.min(CHUNK_BYTES, body.length - i * CHUNK_BYTES))));
+    }
+}
@@ -0,0 +1,138 @@
+package io.kubefinops.recommender.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding cost of the same synthetic container usage window pulled through the JSON range-query path
+ * ({@link PrometheusResponseDecoder}) versus the remote-read path ({@link RemoteReadResponseDecoder}).
+ * Both bodies are fed as 8 KiB network-sized chunks. The payload sizes of both encodings are printed
+ * during setup, since bandwidth is the other half of the comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RemoteReadVsJsonBenchmark {
+
+    private static final int CHUNK_BYTES = 8 * 1024;
+
+    @Param({"500", "2000"})
+    public int seriesCount;
+
+    @Param({"240", "1440"}) // 1h and 6h at a 15s scrape interval
+    public int samplesPerSeries;
+
+    private byte[] json;
+    private byte[] remoteRead;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<RawSeries> dataset = new ArrayList<>(seriesCount);
+        Random random = new Random(42);
+        for (int i = 0; i < seriesCount; i++) {
+            long[] timestamps = new long[samplesPerSeries];
+            double[] values = new double[samplesPerSeries];
+            long t = 1_700_000_000_000L;
+            double v = 0;
+            for (int s = 0; s < samplesPerSeries; s++) {
+                t += 15_000 + random.nextInt(50);
+                v += random.nextDouble() * 0.5;
+                timestamps[s] = t;
+                values[s] = v;
+            }
+            dataset.add(new RawSeries(Map.of(
+                    "namespace", "ns-" + (i % 20),
+                    "pod", "workload-" + (i / 3) + "-6d4cf56db6-" + i,
+                    "container", "app"), timestamps, values, samplesPerSeries));
+        }
+        json = toJson(dataset);
+        remoteRead = toFrames(dataset);
+        System.out.printf("%n%d series x %d samples: JSON %,d bytes, remote-read %,d bytes%n",
+                seriesCount, samplesPerSeries, json.length, remoteRead.length);
+    }
+
+    @Benchmark
+    public void jsonRangeQuery(Blackhole blackhole) {
+        PrometheusResponseDecoder.decode(chunks(json))
+                .doOnNext(blackhole::consume)
+                .blockLast();
+    }
+
+    @Benchmark
+    public void remoteReadChunks(Blackhole blackhole) {
+        RemoteReadResponseDecoder.decode(chunks(remoteRead))
+                .doOnNext(blackhole::consume)
+                .blockLast();
+    }
+
+    private static Flux<DataBuffer> chunks(byte[] body) {
+        return Flux.range(0, (body.length + CHUNK_BYTES - 1) / CHUNK_BYTES)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        ByteBuffer.wrap(body, i * CHUNK_BYTES, Math.min(CHUNK_BYTES, body.length - i * CHUNK_BYTES))));
+    }
+
+    private static byte[] toJson(List<RawSeries> dataset) {
+        StringBuilder body = new StringBuilder("{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":[");
+        for (int i = 0; i < dataset.size(); i++) {
+            RawSeries series = dataset.get(i);
+            if (i > 0) body.append(',');
+            body.append("{\"metric\":{");
+            boolean first = true;
+            for (Map.Entry<String, String> label : series.getLabels().entrySet()) {
+                if (!first) body.append(',');
+                body.append('"').append(label.getKey()).append("\":\"").append(label.getValue()).append('"');
+                first = false;
+            }
+            body.append("},\"values\":[");
+            for (int s = 0; s < series.getSize(); s++) {
+                if (s > 0) body.append(',');
+                body.append('[').append(series.getTimestampsMillis()[s] / 1000.0)
+                        .append(",\"").append(series.getValues()[s]).append("\"]");
+            }
+            body.append("]}");
+        }
+        return body.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toFrames(List<RawSeries> dataset) {
+        List<byte[]> frames = new ArrayList<>();
+        int total = 0;
+        for (int from = 0; from < dataset.size(); from += 50) {
+            byte[] frame = RemoteReadEncoder.encodeFrame(dataset.subList(from, Math.min(from + 50, dataset.size())), 0, 120);
+            frames.add(frame);
+            total += frame.length;
+        }
+        byte[] body = new byte[total];
+        int offset = 0;
+        for (byte[] frame : frames) {
+            System.arraycopy(frame, 0, body, offset, frame.length);
+            offset += frame.length;
+        }
+        return body;
+    }
+}
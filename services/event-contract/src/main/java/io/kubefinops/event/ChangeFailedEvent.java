@@ -16,4 +16,6 @@ public class ChangeFailedEvent {
     private String prUrl;
     private String errorMessage;
     private Instant failedAt;
+    private String workloadRef; // Together with namespace, the record key (see EventKeys)
+    private String namespace;
 }
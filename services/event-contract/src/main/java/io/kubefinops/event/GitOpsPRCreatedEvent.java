@@ -17,4 +17,6 @@ public class GitOpsPRCreatedEvent {
     private String repository;
     private String branchName;
     private Instant createdAt;
+    private String workloadRef; // Together with namespace, the record key (see EventKeys)
+    private String namespace;
 }
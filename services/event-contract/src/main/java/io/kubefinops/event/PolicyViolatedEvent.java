@@ -17,4 +17,6 @@ public class PolicyViolatedEvent {
     private String policyName;
     private String details;
     private Instant violatedAt;
+    private String workloadRef; // Together with namespace, the record key (see EventKeys)
+    private String namespace;
 }
@@ -0,0 +1,195 @@
+package io.kubefinops.event;
+
+/**
+ * Allocation-free parser and formatter for Kubernetes resource quantities.
+ * Accepts the full Kubernetes grammar: decimal SI suffixes (n, u, m, k, M, G, T, P, E), binary suffixes
+ * (Ki, Mi, Gi, Ti, Pi, Ei) and decimal exponents (e.g. "1e3", "12E6"). Values are converted to integer
+ * milli-units or whole units, rounding up like the Kubernetes API server does.
+ */
+public final class Quantity {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L};
+
+    private static final long KI = 1024L;
+    private static final long MI = KI * 1024;
+    private static final long GI = MI * 1024;
+
+    private Quantity() {
+    }
+
+    /**
+     * Parses a quantity into milli-units (e.g. CPU "500m" and "0.5" both yield 500).
+     *
+     * @param value The quantity string.
+     * @return The quantity in milli-units, rounded up.
+     * @throws IllegalArgumentException If the value is not a valid quantity or overflows.
+     */
+    public static long parseMillis(CharSequence value) {
+        return parse(value, 3);
+    }
+
+    /**
+     * Parses a quantity into whole units (e.g. memory "512Mi" yields 536870912 bytes).
+     *
+     * @param value The quantity string.
+     * @return The quantity in whole units, rounded up.
+     * @throws IllegalArgumentException If the value is not a valid quantity or overflows.
+     */
+    public static long parseUnits(CharSequence value) {
+        return parse(value, 0);
+    }
+
+    /**
+     * Formats milli-cores in the canonical CPU form ("2" for whole cores, "1500m" otherwise).
+     *
+     * @param millis The CPU quantity in milli-cores.
+     * @return The quantity string.
+     */
+    public static String formatCpu(long millis) {
+        return millis % 1000 == 0 ? Long.toString(millis / 1000) : millis + "m";
+    }
+
+    /**
+     * Formats bytes with the largest binary suffix that represents them exactly ("512Mi", "1536Ki").
+     *
+     * @param bytes The memory quantity in bytes.
+     * @return The quantity string.
+     */
+    public static String formatMemory(long bytes) {
+        if (bytes != 0 && bytes % GI == 0) return bytes / GI + "Gi";
+        if (bytes != 0 && bytes % MI == 0) return bytes / MI + "Mi";
+        if (bytes != 0 && bytes % KI == 0) return bytes / KI + "Ki";
+        return Long.toString(bytes);
+    }
+
+    /**
+     * Parses a quantity as an exact integer number scaled by 10^scale.
+     *
+     * @param value The quantity string.
+     * @param scale The decimal scale of the result (3 for milli-units, 0 for units).
+     * @return The scaled quantity, rounded up.
+     */
+    private static long parse(CharSequence value, int scale) {
+        int len = value == null ? 0 : value.length();
+        int start = 0;
+        while (start < len && value.charAt(start) == ' ') start++;
+        while (len > start && value.charAt(len - 1) == ' ') len--;
+        if (start == len) throw invalid(value);
+
+        int pos = start;
+        boolean negative = false;
+        char sign = value.charAt(pos);
+        if (sign == '+' || sign == '-') {
+            negative = sign == '-';
+            pos++;
+        }
+
+        // 1. Mantissa digits, keeping the position of the decimal point
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; pos < len; pos++) {
+            char c = value.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (mantissa > (Long.MAX_VALUE - 9) / 10) throw invalid(value);
+                mantissa = mantissa * 10 + (c - '0');
+                if (seenPoint) fractionDigits++;
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (!seenDigit) throw invalid(value);
+
+        // 2. Suffix: decimal exponent, binary suffix or decimal SI suffix
+        int exponent10 = 0;
+        int exponent2 = 0;
+        int suffixLength = len - pos;
+        if (suffixLength > 0) {
+            char c = value.charAt(pos);
+            if (suffixLength == 2 && value.charAt(pos + 1) == 'i') {
+                exponent2 = switch (c) {
+                    case 'K' -> 10;
+                    case 'M' -> 20;
+                    case 'G' -> 30;
+                    case 'T' -> 40;
+                    case 'P' -> 50;
+                    case 'E' -> 60;
+                    default -> throw invalid(value);
+                };
+            } else if ((c == 'e' || c == 'E') && suffixLength > 1) {
+                exponent10 = parseExponent(value, pos + 1, len);
+            } else if (suffixLength == 1) {
+                exponent10 = switch (c) {
+                    case 'n' -> -9;
+                    case 'u' -> -6;
+                    case 'm' -> -3;
+                    case 'k' -> 3;
+                    case 'M' -> 6;
+                    case 'G' -> 9;
+                    case 'T' -> 12;
+                    case 'P' -> 15;
+                    case 'E' -> 18;
+                    default -> throw invalid(value);
+                };
+            } else {
+                throw invalid(value);
+            }
+        }
+
+        // 3. result = mantissa * 2^exponent2 * 10^(exponent10 + scale - fractionDigits), rounded up
+        try {
+            long result = exponent2 == 0 ? mantissa : Math.multiplyExact(mantissa, 1L << exponent2);
+            int power = exponent10 + scale - fractionDigits;
+            if (power >= 0) {
+                if (power >= POWERS_OF_TEN.length) {
+                    if (result != 0) throw invalid(value);
+                } else {
+                    result = Math.multiplyExact(result, POWERS_OF_TEN[power]);
+                }
+            } else {
+                result = -power >= POWERS_OF_TEN.length
+                        ? (result == 0 ? 0 : 1)
+                        : Math.ceilDiv(result, POWERS_OF_TEN[-power]);
+            }
+            return negative ? -result : result;
+        } catch (ArithmeticException e) {
+            throw invalid(value);
+        }
+    }
+
+    /**
+     * Parses the signed decimal exponent following 'e' or 'E'.
+     *
+     * @param value The quantity string.
+     * @param start The first exponent character.
+     * @param end   The end of the quantity.
+     * @return The exponent.
+     */
+    private static int parseExponent(CharSequence value, int start, int end) {
+        int pos = start;
+        boolean negative = false;
+        if (value.charAt(pos) == '+' || value.charAt(pos) == '-') {
+            negative = value.charAt(pos) == '-';
+            pos++;
+        }
+        if (pos == end || end - pos > 3) throw invalid(value);
+        int exponent = 0;
+        for (; pos < end; pos++) {
+            char c = value.charAt(pos);
+            if (c < '0' || c > '9') throw invalid(value);
+            exponent = exponent * 10 + (c - '0');
+        }
+        return negative ? -exponent : exponent;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence value) {
+        return new IllegalArgumentException("Invalid resource quantity: '" + value + "'");
+    }
+}
@@ -0,0 +1,48 @@
+package io.kubefinops.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Approvals of one namespace resulting from the same {@link RecommendationBatchEvent} (or scaling batch),
+ * published as one record. Fields shared by the whole batch live in the envelope and are left unset on the
+ * items; {@link #toEvents()} restores the standalone events.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationApprovedBatchEvent {
+    private String id;
+    private String namespace;
+    private String currency;
+    private String approvedBy;
+    private Instant approvedAt;
+    private List<RecommendationApprovedEvent> approvals; // Items without namespace, currency, approvedBy and approvedAt
+
+    /**
+     * Expands the batch into standalone events, filling the shared fields into every item.
+     * Values set on an item take precedence over the envelope.
+     *
+     * @return The approvals, in batch order.
+     */
+    public List<RecommendationApprovedEvent> toEvents() {
+        List<RecommendationApprovedEvent> events = new ArrayList<>(approvals == null ? 0 : approvals.size());
+        if (approvals == null) return events;
+        for (RecommendationApprovedEvent item : approvals) {
+            events.add(item.toBuilder()
+                    .namespace(item.getNamespace() != null ? item.getNamespace() : namespace)
+                    .currency(item.getCurrency() != null ? item.getCurrency() : currency)
+                    .approvedBy(item.getApprovedBy() != null ? item.getApprovedBy() : approvedBy)
+                    .approvedAt(item.getApprovedAt() != null ? item.getApprovedAt() : approvedAt)
+                    .build());
+        }
+        return events;
+    }
+}
@@ -9,7 +9,7 @@ import java.time.Instant;
 import java.util.Map;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class RecommendationApprovedEvent {
@@ -17,6 +17,7 @@ public class RecommendationApprovedEvent {
     private String workloadRef;
     private String namespace;
     private Map<String, String> approvedResources;
+    private ResourceQuantities approvedQuantities; // Pre-parsed form of approvedResources
     private Integer replicas;
     private Double estimatedMonthlySavings;
     private String currency;
@@ -0,0 +1,46 @@
+package io.kubefinops.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recommendations of one namespace from the same analysis pass, published as one record instead of one
+ * {@link RecommendationCreatedEvent} each. Fields shared by the whole batch live in the envelope and are
+ * left unset on the items; {@link #toEvents()} restores the standalone events.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationBatchEvent {
+    private String id;
+    private String namespace;
+    private String currency;
+    private Instant createdAt;
+    private List<RecommendationCreatedEvent> recommendations; // Items without namespace, currency and createdAt
+
+    /**
+     * Expands the batch into standalone events, filling the shared fields into every item.
+     * Values set on an item take precedence over the envelope.
+     *
+     * @return The recommendations, in batch order.
+     */
+    public List<RecommendationCreatedEvent> toEvents() {
+        List<RecommendationCreatedEvent> events = new ArrayList<>(recommendations == null ? 0 : recommendations.size());
+        if (recommendations == null) return events;
+        for (RecommendationCreatedEvent item : recommendations) {
+            events.add(item.toBuilder()
+                    .namespace(item.getNamespace() != null ? item.getNamespace() : namespace)
+                    .currency(item.getCurrency() != null ? item.getCurrency() : currency)
+                    .createdAt(item.getCreatedAt() != null ? item.getCreatedAt() : createdAt)
+                    .build());
+        }
+        return events;
+    }
+}
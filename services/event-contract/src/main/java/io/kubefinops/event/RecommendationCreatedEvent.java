@@ -9,7 +9,7 @@ import java.time.Instant;
 import java.util.Map;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class RecommendationCreatedEvent {
@@ -18,6 +18,8 @@ public class RecommendationCreatedEvent {
     private String namespace;
     private Map<String, String> currentResources;
     private Map<String, String> suggestedResources;
+    private ResourceQuantities currentQuantities; // Pre-parsed form of currentResources
+    private ResourceQuantities suggestedQuantities; // Pre-parsed form of suggestedResources
     private Integer replicas;
     private Double confidenceScore;
     private Double estimatedMonthlySavings;
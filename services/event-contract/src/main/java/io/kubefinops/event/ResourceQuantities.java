@@ -0,0 +1,85 @@
+package io.kubefinops.event;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Pre-parsed CPU and memory quantities of a workload, in primitive milli-cores and bytes.
+ * Serialized in a compact array form, e.g. {@code [500,536870912]}, and parsed at most once
+ * at the edge (from a legacy resource map) so downstream pricing and policy checks do pure arithmetic.
+ */
+@Value
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"cpuMillis", "memoryBytes"})
+public class ResourceQuantities {
+
+    private static final double BYTES_PER_GIB = 1024.0 * 1024.0 * 1024.0;
+
+    long cpuMillis;
+    long memoryBytes;
+
+    @JsonCreator
+    public ResourceQuantities(@JsonProperty("cpuMillis") long cpuMillis, @JsonProperty("memoryBytes") long memoryBytes) {
+        this.cpuMillis = cpuMillis;
+        this.memoryBytes = memoryBytes;
+    }
+
+    /**
+     * Parses a Kubernetes resource map ({"cpu": "500m", "memory": "512Mi"}). Missing entries count as zero.
+     *
+     * @param resources The resource map, may be null.
+     * @return The parsed quantities.
+     * @throws IllegalArgumentException If a value is not a valid quantity.
+     */
+    public static ResourceQuantities parse(Map<String, String> resources) {
+        if (resources == null) return new ResourceQuantities(0, 0);
+        String cpu = resources.get("cpu");
+        String memory = resources.get("memory");
+        return new ResourceQuantities(
+                cpu == null ? 0 : Quantity.parseMillis(cpu),
+                memory == null ? 0 : Quantity.parseUnits(memory));
+    }
+
+    /**
+     * Returns the typed quantities if present, otherwise parses the legacy resource map.
+     *
+     * @param quantities The typed quantities, may be null (events from older producers).
+     * @param resources  The resource map.
+     * @return The quantities.
+     */
+    public static ResourceQuantities orParse(ResourceQuantities quantities, Map<String, String> resources) {
+        return quantities != null ? quantities : parse(resources);
+    }
+
+    /**
+     * Renders the quantities as a Kubernetes resource map in canonical form.
+     *
+     * @return The resource map.
+     */
+    public Map<String, String> toMap() {
+        return Map.of("cpu", Quantity.formatCpu(cpuMillis), "memory", Quantity.formatMemory(memoryBytes));
+    }
+
+    /**
+     * Returns the CPU quantity in cores.
+     *
+     * @return The number of cores.
+     */
+    public double cpuCores() {
+        return cpuMillis / 1000.0;
+    }
+
+    /**
+     * Returns the memory quantity in GiB.
+     *
+     * @return The memory in GiB.
+     */
+    public double memoryGib() {
+        return memoryBytes / BYTES_PER_GIB;
+    }
+}
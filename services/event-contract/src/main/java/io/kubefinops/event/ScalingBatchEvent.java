@@ -0,0 +1,24 @@
+package io.kubefinops.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Scheduled sleep/wake transitions of one namespace that fell due in the same scheduler tick.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScalingBatchEvent {
+    private String id;
+    private String namespace;
+    private List<ScalingTransition> transitions;
+    private Instant dueAt; // Scheduler tick that fired the transitions
+    private Instant createdAt;
+}
@@ -0,0 +1,21 @@
+package io.kubefinops.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One workload's scheduled replica change inside a {@link ScalingBatchEvent}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScalingTransition {
+    private String workloadRef;
+    private Integer replicas;
+    private String scheduleId;
+    private String reason; // e.g. "sleep" or "wake", with the schedule name
+    private Double estimatedMonthlySavings;
+}
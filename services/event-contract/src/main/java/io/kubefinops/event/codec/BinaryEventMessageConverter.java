@@ -0,0 +1,45 @@
+package io.kubefinops.event.codec;
+
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+/**
+ * Spring message converter for {@link EventCodec} payloads. Registered as a bean, Spring Cloud Stream
+ * selects it for bindings (or inbound messages) whose content type is {@value EventCodec#CONTENT_TYPE};
+ * messages carrying {@code application/json} keep going through the JSON converter, so both encodings
+ * can be consumed while producers are switched over.
+ */
+public class BinaryEventMessageConverter extends AbstractMessageConverter {
+
+    public static final MimeType MIME_TYPE = MimeType.valueOf(EventCodec.CONTENT_TYPE);
+
+    public BinaryEventMessageConverter() {
+        super(MIME_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EventCodec.supports(clazz);
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, @Nullable Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] payload)) {
+            return null;
+        }
+        try {
+            return EventCodec.decode(payload, targetClass);
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException(message, "Could not decode " + targetClass.getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, @Nullable MessageHeaders headers, @Nullable Object conversionHint) {
+        return EventCodec.encode(payload);
+    }
+}
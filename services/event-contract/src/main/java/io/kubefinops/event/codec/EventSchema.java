@@ -0,0 +1,23 @@
+package io.kubefinops.event.codec;
+
+/**
+ * Binary layout of one event type: its type id and the field writer/reader pair.
+ *
+ * @param typeId  The type id written in the payload header. Never reused for another type.
+ * @param type    The event class.
+ * @param encoder Writes the fields of an event.
+ * @param decoder Reads the fields of an event, skipping unknown ones.
+ * @param <T>     The event type.
+ */
+record EventSchema<T>(int typeId, Class<T> type, Encoder<T> encoder, Decoder<T> decoder) {
+
+    @FunctionalInterface
+    interface Encoder<T> {
+        void write(T event, WireWriter out);
+    }
+
+    @FunctionalInterface
+    interface Decoder<T> {
+        T read(WireReader in);
+    }
+}
@@ -0,0 +1,357 @@
+package io.kubefinops.event.codec;
+
+import io.kubefinops.event.ChangeAppliedEvent;
+import io.kubefinops.event.ChangeFailedEvent;
+import io.kubefinops.event.GitOpsPRCreatedEvent;
+import io.kubefinops.event.PolicyViolatedEvent;
+import io.kubefinops.event.RecommendationApprovedBatchEvent;
+import io.kubefinops.event.RecommendationApprovedEvent;
+import io.kubefinops.event.RecommendationBatchEvent;
+import io.kubefinops.event.RecommendationCreatedEvent;
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.event.ScalingBatchEvent;
+import io.kubefinops.event.ScalingTransition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field numbers of every event type. They are part of the contract, like protobuf tags: a field keeps its
+ * number forever, removed fields leave their number unused, and new fields take new numbers. Readers skip
+ * the numbers they do not know, so producers and consumers can be upgraded in any order.
+ */
+final class EventSchemas {
+
+    static final List<EventSchema<?>> ALL = List.of(
+            new EventSchema<>(1, RecommendationCreatedEvent.class, EventSchemas::writeCreated, EventSchemas::readCreated),
+            new EventSchema<>(2, RecommendationApprovedEvent.class, EventSchemas::writeApproved, EventSchemas::readApproved),
+            new EventSchema<>(3, PolicyViolatedEvent.class, EventSchemas::writeViolated, EventSchemas::readViolated),
+            new EventSchema<>(4, GitOpsPRCreatedEvent.class, EventSchemas::writePrCreated, EventSchemas::readPrCreated),
+            new EventSchema<>(5, ChangeAppliedEvent.class, EventSchemas::writeApplied, EventSchemas::readApplied),
+            new EventSchema<>(6, ChangeFailedEvent.class, EventSchemas::writeFailed, EventSchemas::readFailed),
+            new EventSchema<>(7, ScalingBatchEvent.class, EventSchemas::writeBatch, EventSchemas::readBatch),
+            new EventSchema<>(8, RecommendationBatchEvent.class, EventSchemas::writeCreatedBatch, EventSchemas::readCreatedBatch),
+            new EventSchema<>(9, RecommendationApprovedBatchEvent.class, EventSchemas::writeApprovedBatch, EventSchemas::readApprovedBatch));
+
+    private EventSchemas() {
+    }
+
+    private static void writeCreated(RecommendationCreatedEvent e, WireWriter out) {
+        out.string(1, e.getId())
+                .string(2, e.getWorkloadRef())
+                .string(3, e.getNamespace())
+                .map(4, e.getCurrentResources())
+                .map(5, e.getSuggestedResources());
+        writeQuantities(out, 6, e.getCurrentQuantities());
+        writeQuantities(out, 7, e.getSuggestedQuantities());
+        out.sint(8, e.getReplicas())
+                .float64(9, e.getConfidenceScore())
+                .float64(10, e.getEstimatedMonthlySavings())
+                .string(11, e.getCurrency())
+                .instant(12, e.getCreatedAt());
+    }
+
+    private static RecommendationCreatedEvent readCreated(WireReader in) {
+        RecommendationCreatedEvent e = new RecommendationCreatedEvent();
+        Map<String, String> current = null;
+        Map<String, String> suggested = null;
+        for (int field; (field = in.next()) != -1; ) {
+            switch (field) {
+                case 1 -> e.setId(in.string());
+                case 2 -> e.setWorkloadRef(in.string());
+                case 3 -> e.setNamespace(in.string());
+                case 4 -> current = in.mapEntry(current);
+                case 5 -> suggested = in.mapEntry(suggested);
+                case 6 -> e.setCurrentQuantities(readQuantities(in));
+                case 7 -> e.setSuggestedQuantities(readQuantities(in));
+                case 8 -> e.setReplicas((int) in.sint());
+                case 9 -> e.setConfidenceScore(in.float64());
+                case 10 -> e.setEstimatedMonthlySavings(in.float64());
+                case 11 -> e.setCurrency(in.string());
+                case 12 -> e.setCreatedAt(in.instant());
+                default -> in.skip();
+            }
+        }
+        e.setCurrentResources(current);
+        e.setSuggestedResources(suggested);
+        return e;
+    }
+
+    private static void writeApproved(RecommendationApprovedEvent e, WireWriter out) {
+        out.string(1, e.getRecommendationId())
+                .string(2, e.getWorkloadRef())
+                .string(3, e.getNamespace())
+                .map(4, e.getApprovedResources());
+        writeQuantities(out, 5, e.getApprovedQuantities());
+        out.sint(6, e.getReplicas())
+                .float64(7, e.getEstimatedMonthlySavings())
+                .string(8, e.getCurrency())
+                .string(9, e.getApprovedBy())
+                .instant(10, e.getApprovedAt());
+    }
+
+    private static RecommendationApprovedEvent readApproved(WireReader in) {
+        RecommendationApprovedEvent e = new RecommendationApprovedEvent();
+        Map<String, String> approved = null;
+        for (int field; (field = in.next()) != -1; ) {
+            switch (field) {
+                case 1 -> e.setRecommendationId(in.string());
+                case 2 -> e.setWorkloadRef(in.string());
+                case 3 -> e.setNamespace(in.string());
+                case 4 -> approved = in.mapEntry(approved);
+                case 5 -> e.setApprovedQuantities(readQuantities(in));
+                case 6 -> e.setReplicas((int) in.sint());
+                case 7 -> e.setEstimatedMonthlySavings(in.float64());
+                case 8 -> e.setCurrency(in.string());
+                case 9 -> e.setApprovedBy(in.string());
+                case 10 -> e.setApprovedAt(in.instant());
+                default -> in.skip();
+            }
+        }
+        e.setApprovedResources(approved);
+        return e;
+    }
+
+    private static void writeViolated(PolicyViolatedEvent e, WireWriter out) {
+        out.string(1, e.getRecommendationId())
+                .string(2, e.getReason())
+                .string(3, e.getPolicyName())
+                .string(4, e.getDetails())
+                .instant(5, e.getViolatedAt())
+                .string(6, e.getWorkloadRef())
+                .string(7, e.getNamespace());
+    }
+
+    private static PolicyViolatedEvent readViolated(WireReader in) {
+        PolicyViolatedEvent e = new PolicyViolatedEvent();
+        for (int field; (field = in.next()) != -1; ) {
+            switch (field) {
+                case 1 -> e.setRecommendationId(in.string());
+                case 2 -> e.setReason(in.string());
+                case 3 -> e.setPolicyName(in.string());
+                case 4 -> e.setDetails(in.string());
+                case 5 -> e.setViolatedAt(in.instant());
+                case 6 -> e.setWorkloadRef(in.string());
+                case 7 -> e.setNamespace(in.string());
+                default -> in.skip();
+            }
+        }
+        return e;
+    }
+
+    private static void writePrCreated(GitOpsPRCreatedEvent e, WireWriter out) {
+        out.string(1, e.getRecommendationId())
+                .string(2, e.getPrUrl())
+                .string(3, e.getRepository())
+                .string(4, e.getBranchName())
+                .instant(5, e.getCreatedAt())
+                .string(6, e.getWorkloadRef())
+                .string(7, e.getNamespace());
+    }
+
+    private static GitOpsPRCreatedEvent readPrCreated(WireReader in) {
+        GitOpsPRCreatedEvent e = new GitOpsPRCreatedEvent();
+        for (int field; (field = in.next()) != -1; ) {
+            switch (field) {
+                case 1 -> e.setRecommendationId(in.string());
+                case 2 -> e.setPrUrl(in.string());
+                case 3 -> e.setRepository(in.string());
+                case 4 -> e.setBranchName(in.string());
+                case 5 -> e.setCreatedAt(in.instant());
+                case 6 -> e.setWorkloadRef(in.string());
+                case 7 -> e.setNamespace(in.string());
+                default -> in.skip();
+            }
+        }
+        return e;
+    }
+
+    private static void writeApplied(ChangeAppliedEvent e, WireWriter out) {
+        out.string(1, e.getRecommendationId())
+                .string(2, e.getWorkloadRef())
+                .string(3, e.getNamespace())
+                .map(4, e.getAppliedResources())
+                .sint(5, e.getReplicas())
+                .instant(6, e.getAppliedAt());
+    }
+
+    private static ChangeAppliedEvent readApplied(WireReader in) {
+        ChangeAppliedEvent e = new ChangeAppliedEvent();
+        Map<String, String> applied = null;
+        for (int field; (field = in.next()) != -1; ) {
+            switch (field) {
+                case 1 -> e.setRecommendationId(in.string());
+                case 2 -> e.setWorkloadRef(in.string());
+                case 3 -> e.setNamespace(in.string());
+                case 4 -> applied = in.mapEntry(applied);
+                case 5 -> e.setReplicas((int) in.sint());
+                case 6 -> e.setAppliedAt(in.instant());
+                default -> in.skip();
+            }
+        }
+        e.setAppliedResources(applied);
+        return e;
+    }
+
+    private static void writeFailed(ChangeFailedEvent e, WireWriter out) {
+        out.string(1, e.getRecommendationId())
+                .string(2, e.getPrUrl())
+                .string(3, e.getErrorMessage())
+                .instant(4, e.getFailedAt())
+                .string(5, e.getWorkloadRef())
+                .string(6, e.getNamespace());
+    }
+
+    private static ChangeFailedEvent readFailed(WireReader in) {
+        ChangeFailedEvent e = new ChangeFailedEvent();
+        for (int field; (field = in.next()) != -1; ) {
+            switch (field) {
+                case 1 -> e.setRecommendationId(in.string());
+                case 2 -> e.setPrUrl(in.string());
+                case 3 -> e.setErrorMessage(in.string());
+                case 4 -> e.setFailedAt(in.instant());
+                case 5 -> e.setWorkloadRef(in.string());
+                case 6 -> e.setNamespace(in.string());
+                default -> in.skip();
+            }
+        }
+        return e;
+    }
+
+    private static void writeBatch(ScalingBatchEvent e, WireWriter out) {
+        out.string(1, e.getId())
+                .string(2, e.getNamespace());
+        if (e.getTransitions() != null) {
+            for (ScalingTransition t : e.getTransitions()) {
+                int start = out.beginMessage(3);
+                out.string(1, t.getWorkloadRef())
+                        .sint(2, t.getReplicas())
+                        .string(3, t.getScheduleId())
+                        .string(4, t.getReason())
+                        .float64(5, t.getEstimatedMonthlySavings());
+                out.endMessage(start);
+            }
+        }
+        out.instant(4, e.getDueAt())
+                .instant(5, e.getCreatedAt());
+    }
+
+    private static ScalingBatchEvent readBatch(WireReader in) {
+        ScalingBatchEvent e = new ScalingBatchEvent();
+        List<ScalingTransition> transitions = new ArrayList<>();
+        for (int field; (field = in.next()) != -1; ) {
+            switch (field) {
+                case 1 -> e.setId(in.string());
+                case 2 -> e.setNamespace(in.string());
+                case 3 -> transitions.add(readTransition(in.message()));
+                case 4 -> e.setDueAt(in.instant());
+                case 5 -> e.setCreatedAt(in.instant());
+                default -> in.skip();
+            }
+        }
+        e.setTransitions(transitions);
+        return e;
+    }
+
+    private static ScalingTransition readTransition(WireReader in) {
+        ScalingTransition t = new ScalingTransition();
+        for (int field; (field = in.next()) != -1; ) {
+            switch (field) {
+                case 1 -> t.setWorkloadRef(in.string());
+                case 2 -> t.setReplicas((int) in.sint());
+                case 3 -> t.setScheduleId(in.string());
+                case 4 -> t.setReason(in.string());
+                case 5 -> t.setEstimatedMonthlySavings(in.float64());
+                default -> in.skip();
+            }
+        }
+        return t;
+    }
+
+    private static void writeCreatedBatch(RecommendationBatchEvent e, WireWriter out) {
+        out.string(1, e.getId())
+                .string(2, e.getNamespace())
+                .string(3, e.getCurrency())
+                .instant(4, e.getCreatedAt());
+        if (e.getRecommendations() != null) {
+            for (RecommendationCreatedEvent item : e.getRecommendations()) {
+                int start = out.beginMessage(5);
+                writeCreated(item, out);
+                out.endMessage(start);
+            }
+        }
+    }
+
+    private static RecommendationBatchEvent readCreatedBatch(WireReader in) {
+        RecommendationBatchEvent e = new RecommendationBatchEvent();
+        List<RecommendationCreatedEvent> items = new ArrayList<>();
+        for (int field; (field = in.next()) != -1; ) {
+            switch (field) {
+                case 1 -> e.setId(in.string());
+                case 2 -> e.setNamespace(in.string());
+                case 3 -> e.setCurrency(in.string());
+                case 4 -> e.setCreatedAt(in.instant());
+                case 5 -> items.add(readCreated(in.message()));
+                default -> in.skip();
+            }
+        }
+        e.setRecommendations(items);
+        return e;
+    }
+
+    private static void writeApprovedBatch(RecommendationApprovedBatchEvent e, WireWriter out) {
+        out.string(1, e.getId())
+                .string(2, e.getNamespace())
+                .string(3, e.getCurrency())
+                .string(4, e.getApprovedBy())
+                .instant(5, e.getApprovedAt());
+        if (e.getApprovals() != null) {
+            for (RecommendationApprovedEvent item : e.getApprovals()) {
+                int start = out.beginMessage(6);
+                writeApproved(item, out);
+                out.endMessage(start);
+            }
+        }
+    }
+
+    private static RecommendationApprovedBatchEvent readApprovedBatch(WireReader in) {
+        RecommendationApprovedBatchEvent e = new RecommendationApprovedBatchEvent();
+        List<RecommendationApprovedEvent> items = new ArrayList<>();
+        for (int field; (field = in.next()) != -1; ) {
+            switch (field) {
+                case 1 -> e.setId(in.string());
+                case 2 -> e.setNamespace(in.string());
+                case 3 -> e.setCurrency(in.string());
+                case 4 -> e.setApprovedBy(in.string());
+                case 5 -> e.setApprovedAt(in.instant());
+                case 6 -> items.add(readApproved(in.message()));
+                default -> in.skip();
+            }
+        }
+        e.setApprovals(items);
+        return e;
+    }
+
+    private static void writeQuantities(WireWriter out, int field, ResourceQuantities quantities) {
+        if (quantities == null) return;
+        int start = out.beginMessage(field);
+        out.sint(1, quantities.getCpuMillis())
+                .sint(2, quantities.getMemoryBytes());
+        out.endMessage(start);
+    }
+
+    private static ResourceQuantities readQuantities(WireReader in) {
+        WireReader message = in.message();
+        long cpuMillis = 0;
+        long memoryBytes = 0;
+        for (int field; (field = message.next()) != -1; ) {
+            switch (field) {
+                case 1 -> cpuMillis = message.sint();
+                case 2 -> memoryBytes = message.sint();
+                default -> message.skip();
+            }
+        }
+        return new ResourceQuantities(cpuMillis, memoryBytes);
+    }
+}
@@ -0,0 +1,187 @@
+package io.kubefinops.event.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Protobuf wire-format reader for event payloads written by {@link WireWriter}. Reads one field at a time:
+ * {@link #next()} positions on the next field, then the matching accessor reads its value. Fields unknown to
+ * this version of the contract are skipped with {@link #skip()}.
+ */
+final class WireReader {
+
+    private final byte[] buf;
+    private final int limit;
+    private int pos;
+    private int tag;
+
+    WireReader(byte[] buf, int offset, int length) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * Reads the payload format version (the first byte).
+     *
+     * @return The version.
+     */
+    int version() {
+        checkAvailable(1);
+        return buf[pos++] & 0xFF;
+    }
+
+    /**
+     * Reads the raw event type id following the version.
+     *
+     * @return The type id.
+     */
+    int typeId() {
+        return (int) readRawVarint();
+    }
+
+    /**
+     * Advances to the next field.
+     *
+     * @return The field number, or -1 at the end of the message.
+     */
+    int next() {
+        if (pos >= limit) return -1;
+        tag = (int) readRawVarint();
+        return tag >>> 3;
+    }
+
+    /**
+     * Reads the current field as a UTF-8 string.
+     *
+     * @return The value.
+     */
+    String string() {
+        int length = length();
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    /**
+     * Reads the current field as a zigzag-encoded signed integer.
+     *
+     * @return The value.
+     */
+    long sint() {
+        long raw = readRawVarint();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Reads the current field as a fixed64 double.
+     *
+     * @return The value.
+     */
+    double float64() {
+        checkAvailable(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (buf[pos++] & 0xFFL) << (8 * i);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Reads the current field as a timestamp message.
+     *
+     * @return The value.
+     */
+    Instant instant() {
+        WireReader message = message();
+        long seconds = 0;
+        long nanos = 0;
+        for (int field; (field = message.next()) != -1; ) {
+            switch (field) {
+                case 1 -> seconds = message.sint();
+                case 2 -> nanos = message.sint();
+                default -> message.skip();
+            }
+        }
+        return Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    /**
+     * Reads the current field as one map entry and adds it to a map, creating the map on the first entry.
+     *
+     * @param map The map decoded so far, may be null.
+     * @return The map including the entry.
+     */
+    Map<String, String> mapEntry(Map<String, String> map) {
+        Map<String, String> result = map != null ? map : new HashMap<>(4);
+        WireReader entry = message();
+        String key = null;
+        String value = null;
+        for (int field; (field = entry.next()) != -1; ) {
+            switch (field) {
+                case 1 -> key = entry.string();
+                case 2 -> value = entry.string();
+                default -> entry.skip();
+            }
+        }
+        if (key != null) result.put(key, value);
+        return result;
+    }
+
+    /**
+     * Returns a reader over the current embedded message and skips past it.
+     *
+     * @return The nested reader.
+     */
+    WireReader message() {
+        int length = length();
+        WireReader nested = new WireReader(buf, pos, length);
+        pos += length;
+        return nested;
+    }
+
+    /**
+     * Skips the current field.
+     */
+    void skip() {
+        switch (tag & 7) {
+            case 0 -> readRawVarint();
+            case 1 -> advance(8);
+            case 2 -> advance(length());
+            case 5 -> advance(4);
+            default -> throw new IllegalArgumentException("Unsupported wire type " + (tag & 7));
+        }
+    }
+
+    private int length() {
+        long length = readRawVarint();
+        if (length < 0 || length > limit - pos) {
+            throw new IllegalArgumentException("Truncated event payload");
+        }
+        return (int) length;
+    }
+
+    private void advance(int bytes) {
+        checkAvailable(bytes);
+        pos += bytes;
+    }
+
+    private void checkAvailable(int bytes) {
+        if (limit - pos < bytes) {
+            throw new IllegalArgumentException("Truncated event payload");
+        }
+    }
+
+    private long readRawVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            checkAvailable(1);
+            byte b = buf[pos++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalArgumentException("Malformed varint in event payload");
+    }
+}
@@ -0,0 +1,197 @@
+package io.kubefinops.event.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Protobuf wire-format writer for event payloads. Unlike proto3, a field is written whenever its value is
+ * non-null (zeros and empty strings included), so the decoder can tell an absent value from a zero one.
+ * Embedded messages are written in place: their length is back-patched once the message is complete.
+ */
+final class WireWriter {
+
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+
+    private byte[] buf;
+    private int pos;
+
+    WireWriter(int initialCapacity) {
+        this.buf = new byte[initialCapacity];
+    }
+
+    /**
+     * Writes the payload header: format version and event type.
+     *
+     * @param version The format version.
+     * @param typeId  The event type id.
+     * @return This writer.
+     */
+    WireWriter header(int version, int typeId) {
+        ensure(1);
+        buf[pos++] = (byte) version;
+        writeRawVarint(typeId);
+        return this;
+    }
+
+    /**
+     * Writes a string field. Null values are omitted.
+     *
+     * @param field The field number.
+     * @param value The value.
+     * @return This writer.
+     */
+    WireWriter string(int field, String value) {
+        if (value == null) return this;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeTag(field, LENGTH_DELIMITED);
+        writeRawVarint(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+        return this;
+    }
+
+    /**
+     * Writes a signed integer field (zigzag varint). Null values are omitted.
+     *
+     * @param field The field number.
+     * @param value The value.
+     * @return This writer.
+     */
+    WireWriter sint(int field, Number value) {
+        if (value == null) return this;
+        long v = value.longValue();
+        writeTag(field, VARINT);
+        writeRawVarint((v << 1) ^ (v >> 63));
+        return this;
+    }
+
+    /**
+     * Writes a double field (fixed64, little-endian). Null values are omitted.
+     *
+     * @param field The field number.
+     * @param value The value.
+     * @return This writer.
+     */
+    WireWriter float64(int field, Double value) {
+        if (value == null) return this;
+        long bits = Double.doubleToRawLongBits(value);
+        writeTag(field, FIXED64);
+        ensure(8);
+        for (int i = 0; i < 8; i++) {
+            buf[pos++] = (byte) (bits >>> (8 * i));
+        }
+        return this;
+    }
+
+    /**
+     * Writes a timestamp as an embedded message of epoch seconds (field 1) and nanos (field 2),
+     * like {@code google.protobuf.Timestamp}. Null values are omitted.
+     *
+     * @param field The field number.
+     * @param value The value.
+     * @return This writer.
+     */
+    WireWriter instant(int field, Instant value) {
+        if (value == null) return this;
+        int start = beginMessage(field);
+        sint(1, value.getEpochSecond());
+        sint(2, value.getNano());
+        endMessage(start);
+        return this;
+    }
+
+    /**
+     * Writes a string map as repeated entry messages of key (field 1) and value (field 2), like a protobuf map.
+     * Null maps are omitted.
+     *
+     * @param field The field number.
+     * @param value The value.
+     * @return This writer.
+     */
+    WireWriter map(int field, Map<String, String> value) {
+        if (value == null) return this;
+        // An empty map is written as one empty entry, so that it decodes as empty rather than absent
+        if (value.isEmpty()) {
+            endMessage(beginMessage(field));
+            return this;
+        }
+        for (Map.Entry<String, String> entry : value.entrySet()) {
+            int start = beginMessage(field);
+            string(1, entry.getKey());
+            string(2, entry.getValue());
+            endMessage(start);
+        }
+        return this;
+    }
+
+    /**
+     * Starts an embedded message field. Fields written until {@link #endMessage(int)} belong to it.
+     *
+     * @param field The field number.
+     * @return The position to pass to {@link #endMessage(int)}.
+     */
+    int beginMessage(int field) {
+        writeTag(field, LENGTH_DELIMITED);
+        ensure(1);
+        return pos++; // One byte reserved for the length, widened in endMessage if needed
+    }
+
+    /**
+     * Completes an embedded message by writing its length.
+     *
+     * @param start The position returned by {@link #beginMessage(int)}.
+     */
+    void endMessage(int start) {
+        int length = pos - start - 1;
+        int lengthBytes = varintSize(length);
+        if (lengthBytes > 1) {
+            ensure(lengthBytes - 1);
+            System.arraycopy(buf, start + 1, buf, start + lengthBytes, length);
+            pos += lengthBytes - 1;
+        }
+        int p = start;
+        int v = length;
+        while ((v & ~0x7F) != 0) {
+            buf[p++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[p] = (byte) v;
+    }
+
+    /**
+     * Returns the encoded payload.
+     *
+     * @return The payload bytes.
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    private void writeTag(int field, int wireType) {
+        writeRawVarint(((long) field << 3) | wireType);
+    }
+
+    private void writeRawVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    private static int varintSize(int value) {
+        return value < (1 << 7) ? 1 : value < (1 << 14) ? 2 : value < (1 << 21) ? 3 : value < (1 << 28) ? 4 : 5;
+    }
+
+    private void ensure(int bytes) {
+        if (pos + bytes > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + bytes));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.kubefinops.event.kafka;
+
+import io.kubefinops.event.ChangeAppliedEvent;
+import io.kubefinops.event.ChangeFailedEvent;
+import io.kubefinops.event.GitOpsPRCreatedEvent;
+import io.kubefinops.event.PolicyViolatedEvent;
+import io.kubefinops.event.RecommendationApprovedBatchEvent;
+import io.kubefinops.event.RecommendationApprovedEvent;
+import io.kubefinops.event.RecommendationBatchEvent;
+import io.kubefinops.event.RecommendationCreatedEvent;
+import io.kubefinops.event.ScalingBatchEvent;
+
+/**
+ * Record keys of the event-contract classes. Events about one workload are keyed {@code namespace/workloadRef},
+ * so they land on one partition and are consumed in order; batch envelopes, which span a namespace, are keyed
+ * by the namespace alone.
+ */
+public final class EventKeys {
+
+    private EventKeys() {
+    }
+
+    /**
+     * Builds the key of a workload.
+     *
+     * @param namespace   The namespace.
+     * @param workloadRef The workload reference (e.g. deployment/nginx), or null for a namespace-wide key.
+     * @return The key, or null if the namespace is unknown.
+     */
+    public static String of(String namespace, String workloadRef) {
+        if (namespace == null) return null;
+        return workloadRef == null ? namespace : namespace + "/" + workloadRef;
+    }
+
+    /**
+     * Returns the record key of an event.
+     *
+     * @param event The event.
+     * @return The key, or null if the event carries no namespace (events of older producers).
+     */
+    public static String keyOf(Object event) {
+        return switch (event) {
+            case RecommendationCreatedEvent e -> of(e.getNamespace(), e.getWorkloadRef());
+            case RecommendationApprovedEvent e -> of(e.getNamespace(), e.getWorkloadRef());
+            case PolicyViolatedEvent e -> of(e.getNamespace(), e.getWorkloadRef());
+            case GitOpsPRCreatedEvent e -> of(e.getNamespace(), e.getWorkloadRef());
+            case ChangeAppliedEvent e -> of(e.getNamespace(), e.getWorkloadRef());
+            case ChangeFailedEvent e -> of(e.getNamespace(), e.getWorkloadRef());
+            case RecommendationBatchEvent e -> e.getNamespace();
+            case RecommendationApprovedBatchEvent e -> e.getNamespace();
+            case ScalingBatchEvent e -> e.getNamespace();
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns the namespace part of a key.
+     *
+     * @param key The key.
+     * @return The namespace, or null for a null key.
+     */
+    public static String namespaceOf(String key) {
+        if (key == null) return null;
+        int slash = key.indexOf('/');
+        return slash < 0 ? key : key.substring(0, slash);
+    }
+}
@@ -0,0 +1,91 @@
+package io.kubefinops.event.kafka;
+
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Kafka glue for keyed events: outbound messages carry their {@link EventKeys key} as the record key, and
+ * inbound records are handed to a {@link StripedExecutor}, retried there and acknowledged once processed or
+ * dead-lettered. With the binding's ack mode set to MANUAL and asynchronous acks enabled on the container,
+ * offsets are committed only up to the oldest record still being processed, even though records complete out
+ * of order across stripes.
+ */
+public final class KeyedMessages {
+
+    private KeyedMessages() {
+    }
+
+    /**
+     * Wraps an event in a message keyed by {@link EventKeys#keyOf(Object)}.
+     *
+     * @param event The event.
+     * @param <T>   The event type.
+     * @return The message (without a key if the event has none).
+     */
+    public static <T> Message<T> withKey(T event) {
+        MessageBuilder<T> builder = MessageBuilder.withPayload(event);
+        String key = EventKeys.keyOf(event);
+        if (key != null) {
+            builder.setHeader(KafkaHeaders.KEY, key.getBytes(StandardCharsets.UTF_8)); // Binder key serializer is byte[]
+        }
+        return builder.build();
+    }
+
+    /**
+     * Processes an inbound record on the lane of a key, retrying it there as the policy allows. The record is
+     * acknowledged once the handler succeeded, or once it was handed to the dead letter handler after the last
+     * failed attempt. If dead-lettering fails too, the record is left unacknowledged: its offset is not
+     * committed and it is redelivered after the next rebalance or restart.
+     *
+     * @param executor   The striped executor.
+     * @param stripeKey  The ordering key (records with equal keys are processed in order).
+     * @param message    The inbound message.
+     * @param handler    The handler, given the payload and the stripe index it runs on.
+     * @param retry      The attempts and backoff of the handler.
+     * @param deadLetter Receives the record and the last failure once the attempts are exhausted.
+     * @param <T>        The payload type.
+     * @return A future completed once the record is acknowledged, exceptionally if the handler never succeeded.
+     */
+    public static <T> CompletableFuture<Void> dispatch(StripedExecutor executor, String stripeKey, Message<T> message,
+                                                       ObjIntConsumer<T> handler, RetryPolicy retry,
+                                                       BiConsumer<Message<T>, RuntimeException> deadLetter) {
+        Acknowledgment ack = message.getHeaders().get(KafkaHeaders.ACKNOWLEDGMENT, Acknowledgment.class);
+        return executor.submit(stripeKey, stripe -> {
+            RuntimeException failure = retry.run(() -> handler.accept(message.getPayload(), stripe));
+            if (failure != null) deadLetter.accept(message, failure); // Throws (without acking) if it fails
+            if (ack != null) ack.acknowledge();
+            if (failure != null) throw failure;
+        });
+    }
+
+    /**
+     * Builds the dead letter of an inbound record: the same payload and key, with the original topic,
+     * partition and offset and the failure in the headers the Kafka binder uses for its own DLQ records.
+     *
+     * @param message The inbound message.
+     * @param error   The failure of the last attempt.
+     * @param <T>     The payload type.
+     * @return The message to publish to the dead letter topic.
+     */
+    public static <T> Message<T> deadLetter(Message<T> message, Throwable error) {
+        MessageBuilder<T> builder = MessageBuilder.fromMessage(withKey(message.getPayload()))
+                .setHeader(KafkaHeaders.DLT_EXCEPTION_FQCN, error.getClass().getName())
+                .setHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE, String.valueOf(error.getMessage()));
+        copyHeader(message, builder, KafkaHeaders.RECEIVED_TOPIC, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        copyHeader(message, builder, KafkaHeaders.RECEIVED_PARTITION, KafkaHeaders.DLT_ORIGINAL_PARTITION);
+        copyHeader(message, builder, KafkaHeaders.OFFSET, KafkaHeaders.DLT_ORIGINAL_OFFSET);
+        return builder.build();
+    }
+
+    private static void copyHeader(Message<?> from, MessageBuilder<?> to, String header, String as) {
+        Object value = from.getHeaders().get(header);
+        if (value != null) to.setHeader(as, value);
+    }
+}
@@ -0,0 +1,53 @@
+package io.kubefinops.event.kafka;
+
+/**
+ * Attempts and exponential backoff for records processed on a {@link StripedExecutor} lane, mirroring the
+ * binder's consumer retry settings (maxAttempts, backOffInitialInterval, backOffMaxInterval, backOffMultiplier).
+ * Backoffs sleep on the lane, so later records of the same key wait and stay in order.
+ *
+ * @param maxAttempts           The attempts per record, including the first one.
+ * @param initialIntervalMillis The backoff after the first failure.
+ * @param maxIntervalMillis     The upper bound of a backoff.
+ * @param multiplier            The backoff growth per attempt.
+ */
+public record RetryPolicy(int maxAttempts, long initialIntervalMillis, long maxIntervalMillis, double multiplier) {
+
+    /**
+     * A single attempt, without retries.
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 1.0);
+
+    public RetryPolicy {
+        maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Runs a task until it succeeds or the attempts are exhausted.
+     *
+     * @param task The task.
+     * @return Null on success, otherwise the failure of the last attempt (earlier ones are suppressed into it).
+     */
+    RuntimeException run(Runnable task) {
+        RuntimeException failure = null;
+        long backOff = initialIntervalMillis;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                task.run();
+                return null;
+            } catch (RuntimeException e) {
+                if (failure != null) e.addSuppressed(failure);
+                failure = e;
+            }
+            if (attempt < maxAttempts && backOff > 0) {
+                try {
+                    Thread.sleep(backOff);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return failure; // Shutting down: give up on the remaining attempts
+                }
+                backOff = Math.min(maxIntervalMillis, (long) (backOff * multiplier));
+            }
+        }
+        return failure;
+    }
+}
@@ -0,0 +1,102 @@
+package io.kubefinops.event.kafka;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs tasks on a fixed set of serial lanes (stripes), each backed by one virtual thread. A key always maps
+ * to the same stripe, so tasks of one key run one at a time and in submission order, while tasks of keys
+ * on different stripes run in parallel. Submitting blocks once {@code maxInFlight} tasks are queued or
+ * running, which backpressures the Kafka consumer thread instead of buffering without bound.
+ */
+public final class StripedExecutor implements AutoCloseable {
+
+    private final ExecutorService[] lanes;
+    private final Semaphore permits;
+    private final int maxInFlight;
+
+    /**
+     * Creates the lanes.
+     *
+     * @param name        The thread name prefix.
+     * @param stripes     The number of lanes.
+     * @param maxInFlight The max tasks queued or running across all lanes.
+     */
+    public StripedExecutor(String name, int stripes, int maxInFlight) {
+        if (stripes < 1) throw new IllegalArgumentException("At least one stripe is required");
+        this.lanes = new ExecutorService[stripes];
+        for (int i = 0; i < stripes; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofVirtual().name(name + "-" + i).factory());
+        }
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.permits = new Semaphore(this.maxInFlight);
+    }
+
+    /**
+     * Returns the number of lanes.
+     *
+     * @return The number of stripes.
+     */
+    public int stripes() {
+        return lanes.length;
+    }
+
+    /**
+     * Maps a key to its lane. Keys without a value all share the first lane.
+     *
+     * @param key The key.
+     * @return The stripe index.
+     */
+    public int stripeOf(String key) {
+        if (key == null) return 0;
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    /**
+     * Queues a task on the lane of its key, blocking while the in-flight limit is reached.
+     *
+     * @param key  The ordering key.
+     * @param task The task, given the index of the lane it runs on.
+     * @return A future completed when the task has run (exceptionally if it threw).
+     */
+    public CompletableFuture<Void> submit(String key, IntConsumer task) {
+        int stripe = stripeOf(key);
+        permits.acquireUninterruptibly();
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    task.accept(stripe);
+                } finally {
+                    permits.release();
+                }
+            }, lanes[stripe]);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of tasks queued or running.
+     *
+     * @return The in-flight task count.
+     */
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Stops accepting tasks and waits for the queued ones to finish.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.kubefinops.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuantityTest {
+
+    /**
+     * Unit test verifying that CPU quantities in every Kubernetes notation parse to the same milli-cores.
+     */
+    @Test
+    void shouldParseCpuQuantitiesToMillis() {
+        assertThat(Quantity.parseMillis("500m")).isEqualTo(500);
+        assertThat(Quantity.parseMillis("0.5")).isEqualTo(500);
+        assertThat(Quantity.parseMillis("1")).isEqualTo(1000);
+        assertThat(Quantity.parseMillis("2.25")).isEqualTo(2250);
+        assertThat(Quantity.parseMillis("250000u")).isEqualTo(250);
+        assertThat(Quantity.parseMillis("1n")).isEqualTo(1); // rounded up
+        assertThat(Quantity.parseMillis("1e3")).isEqualTo(1_000_000);
+        assertThat(Quantity.parseMillis(" 100m ")).isEqualTo(100);
+    }
+
+    /**
+     * Unit test verifying binary, decimal and exponent memory suffixes, and that a bare number is bytes.
+     */
+    @Test
+    void shouldParseMemoryQuantitiesToBytes() {
+        assertThat(Quantity.parseUnits("1")).isEqualTo(1);
+        assertThat(Quantity.parseUnits("512Mi")).isEqualTo(512L * 1024 * 1024);
+        assertThat(Quantity.parseUnits("1.5Gi")).isEqualTo(1536L * 1024 * 1024);
+        assertThat(Quantity.parseUnits("2Ti")).isEqualTo(2L << 40);
+        assertThat(Quantity.parseUnits("1Ei")).isEqualTo(1L << 60);
+        assertThat(Quantity.parseUnits("128k")).isEqualTo(128_000);
+        assertThat(Quantity.parseUnits("1G")).isEqualTo(1_000_000_000);
+        assertThat(Quantity.parseUnits("1E")).isEqualTo(1_000_000_000_000_000_000L);
+        assertThat(Quantity.parseUnits("12E6")).isEqualTo(12_000_000);
+        assertThatThrownBy(() -> Quantity.parseUnits("12Xi")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Quantity.parseUnits("8Ei")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Quantity.parseUnits("Mi")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Unit test verifying the canonical map form and the compact JSON wire form of ResourceQuantities.
+     */
+    @Test
+    void shouldRoundTripResourceQuantities() throws Exception {
+        ResourceQuantities quantities = ResourceQuantities.parse(Map.of("cpu", "1500m", "memory", "1024Mi"));
+
+        assertThat(quantities.toMap()).isEqualTo(Map.of("cpu", "1500m", "memory", "1Gi"));
+        ObjectMapper mapper = new ObjectMapper();
+        String json = mapper.writeValueAsString(quantities);
+        assertThat(json).isEqualTo("[1500,1073741824]");
+        assertThat(mapper.readValue(json, ResourceQuantities.class)).isEqualTo(quantities);
+    }
+}
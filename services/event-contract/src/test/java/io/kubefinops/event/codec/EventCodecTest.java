@@ -0,0 +1,140 @@
+package io.kubefinops.event.codec;
+
+import io.kubefinops.event.ChangeAppliedEvent;
+import io.kubefinops.event.ChangeFailedEvent;
+import io.kubefinops.event.GitOpsPRCreatedEvent;
+import io.kubefinops.event.PolicyViolatedEvent;
+import io.kubefinops.event.RecommendationApprovedBatchEvent;
+import io.kubefinops.event.RecommendationApprovedEvent;
+import io.kubefinops.event.RecommendationBatchEvent;
+import io.kubefinops.event.RecommendationCreatedEvent;
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.event.ScalingBatchEvent;
+import io.kubefinops.event.ScalingTransition;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCodecTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-05T18:00:00.123456789Z");
+
+    /**
+     * Unit test verifying that every event-contract class survives an encode/decode round trip,
+     * including zero values (a sleep to 0 replicas) and empty maps, which must not turn into nulls.
+     */
+    @Test
+    void shouldRoundTripEveryEventType() {
+        // Given
+        Map<String, String> suggested = Map.of("cpu", "250m", "memory", "256Mi");
+        List<Object> events = List.of(
+                RecommendationCreatedEvent.builder()
+                        .id("rec-1").workloadRef("deployment/checkout").namespace("shop")
+                        .currentResources(Map.of("cpu", "500m", "memory", "512Mi")).suggestedResources(suggested)
+                        .currentQuantities(new ResourceQuantities(500, 512L << 20)).suggestedQuantities(ResourceQuantities.parse(suggested))
+                        .replicas(3).confidenceScore(0.92).estimatedMonthlySavings(18.75).currency("USD").createdAt(NOW)
+                        .build(),
+                RecommendationApprovedEvent.builder()
+                        .recommendationId("rec-1").workloadRef("deployment/checkout").namespace("shop")
+                        .approvedResources(suggested).approvedQuantities(ResourceQuantities.parse(suggested))
+                        .replicas(0).estimatedMonthlySavings(-1.5).currency("USD").approvedBy("policy-service").approvedAt(NOW)
+                        .build(),
+                PolicyViolatedEvent.builder().recommendationId("rec-1").reason("Budget exceeded: 100€").policyName("budget").details("").violatedAt(NOW)
+                        .workloadRef("deployment/checkout").namespace("shop").build(),
+                GitOpsPRCreatedEvent.builder().recommendationId("rec-1").prUrl("https://git/pr/1").repository("org/repo").branchName("b").createdAt(NOW)
+                        .workloadRef("deployment/checkout").namespace("shop").build(),
+                ChangeAppliedEvent.builder().recommendationId("rec-1").workloadRef("deployment/checkout").namespace("shop")
+                        .appliedResources(Map.of()).replicas(0).appliedAt(NOW).build(),
+                ChangeFailedEvent.builder().recommendationId("rec-1").errorMessage("sync failed").failedAt(Instant.EPOCH.minusSeconds(1)).build(),
+                ScalingBatchEvent.builder().id("batch-1").namespace("shop")
+                        .transitions(List.of(
+                                ScalingTransition.builder().workloadRef("deployment/a").replicas(0).scheduleId("s").reason("sleep").estimatedMonthlySavings(50.0).build(),
+                                ScalingTransition.builder().workloadRef("deployment/b").replicas(2).reason("wake").build()))
+                        .dueAt(NOW).createdAt(NOW)
+                        .build(),
+                RecommendationBatchEvent.builder().id("batch-2").namespace("shop").currency("USD").createdAt(NOW)
+                        .recommendations(List.of(
+                                RecommendationCreatedEvent.builder().id("rec-1").workloadRef("deployment/a").suggestedResources(suggested).build(),
+                                RecommendationCreatedEvent.builder().id("rec-2").workloadRef("deployment/b").currency("EUR").build()))
+                        .build(),
+                RecommendationApprovedBatchEvent.builder().id("batch-3").namespace("shop").currency("USD").approvedAt(NOW)
+                        .approvals(List.of(RecommendationApprovedEvent.builder().recommendationId("rec-1").replicas(0).build()))
+                        .build());
+
+        for (Object event : events) {
+            // When
+            byte[] payload = EventCodec.encode(event);
+
+            // Then
+            assertThat(EventCodec.decode(payload, event.getClass())).isEqualTo(event);
+        }
+    }
+
+    /**
+     * Unit test verifying schema evolution: fields added by a newer producer are skipped, absent fields
+     * decode as null, and payloads of another format version or event type are rejected.
+     */
+    @Test
+    void shouldSkipUnknownFieldsAndRejectIncompatiblePayloads() {
+        // Given a payload from a newer producer, with an extra string (field 99) and an extra message (field 100)
+        PolicyViolatedEvent event = PolicyViolatedEvent.builder().recommendationId("rec-1").reason("too big").build();
+        WireWriter newer = new WireWriter(64).header(EventCodec.FORMAT_VERSION, 3);
+        newer.string(99, "added later").string(1, "rec-1");
+        int start = newer.beginMessage(100);
+        newer.sint(1, 42).float64(2, 1.0);
+        newer.endMessage(start);
+        newer.string(2, "too big");
+
+        // When
+        PolicyViolatedEvent decoded = EventCodec.decode(newer.toByteArray(), PolicyViolatedEvent.class);
+
+        // Then
+        assertThat(decoded).isEqualTo(event);
+        assertThat(decoded.getViolatedAt()).isNull();
+
+        byte[] payload = EventCodec.encode(event);
+        byte[] nextVersion = payload.clone();
+        nextVersion[0] = (byte) (EventCodec.FORMAT_VERSION + 1);
+        assertThatThrownBy(() -> EventCodec.decode(nextVersion, PolicyViolatedEvent.class))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("version");
+        assertThatThrownBy(() -> EventCodec.decode(payload, ChangeFailedEvent.class))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("ChangeFailedEvent");
+        assertThatThrownBy(() -> EventCodec.decode(Arrays.copyOf(payload, payload.length - 2), PolicyViolatedEvent.class))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Truncated");
+    }
+
+    /**
+     * Unit test verifying that the message converter only handles the binary content type,
+     * leaving JSON messages to the JSON converter.
+     */
+    @Test
+    void shouldConvertOnlyBinaryContentType() {
+        // Given
+        BinaryEventMessageConverter converter = new BinaryEventMessageConverter();
+        ChangeFailedEvent event = ChangeFailedEvent.builder().recommendationId("rec-1").failedAt(NOW).build();
+        MessageHeaders binary = new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, BinaryEventMessageConverter.MIME_TYPE));
+
+        // When
+        Message<?> outbound = converter.toMessage(event, binary);
+
+        // Then
+        assertThat(outbound.getPayload()).isInstanceOf(byte[].class);
+        assertThat(converter.fromMessage(outbound, ChangeFailedEvent.class)).isEqualTo(event);
+
+        Message<byte[]> json = MessageBuilder.withPayload("{}".getBytes())
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .build();
+        assertThat(converter.fromMessage(json, ChangeFailedEvent.class)).isNull();
+        assertThat(converter.toMessage("not an event", binary)).isNull();
+    }
+}
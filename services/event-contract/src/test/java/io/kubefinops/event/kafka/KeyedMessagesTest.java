@@ -0,0 +1,193 @@
+package io.kubefinops.event.kafka;
+
+import io.kubefinops.event.PolicyViolatedEvent;
+import io.kubefinops.event.RecommendationBatchEvent;
+import io.kubefinops.event.RecommendationCreatedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyedMessagesTest {
+
+    /**
+     * Unit test verifying that workload events are keyed namespace/workloadRef, batches by namespace,
+     * and that events without a namespace are sent without a key.
+     */
+    @Test
+    void shouldKeyEventsByNamespaceAndWorkload() {
+        // Given
+        RecommendationCreatedEvent created = RecommendationCreatedEvent.builder().namespace("shop").workloadRef("deployment/checkout").build();
+        RecommendationBatchEvent batch = RecommendationBatchEvent.builder().namespace("shop").build();
+        PolicyViolatedEvent legacy = PolicyViolatedEvent.builder().recommendationId("rec-1").build();
+
+        // When
+        Message<RecommendationCreatedEvent> message = KeyedMessages.withKey(created);
+
+        // Then
+        assertThat(new String(message.getHeaders().get(KafkaHeaders.KEY, byte[].class), StandardCharsets.UTF_8))
+                .isEqualTo("shop/deployment/checkout");
+        assertThat(EventKeys.keyOf(batch)).isEqualTo("shop");
+        assertThat(EventKeys.namespaceOf(EventKeys.keyOf(created))).isEqualTo("shop");
+        assertThat(KeyedMessages.withKey(legacy).getHeaders()).doesNotContainKey(KafkaHeaders.KEY);
+    }
+
+    /**
+     * Unit test verifying that records of one key are processed in arrival order while other keys run
+     * in parallel, and that every record is acknowledged only after its handler has run.
+     */
+    @Test
+    void shouldProcessKeysInParallelAndEachKeyInOrder() throws Exception {
+        // Given
+        List<String> keys = List.of("dev/deployment/a", "dev/deployment/b", "prod/deployment/c", "prod/deployment/d");
+        Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger acked = new AtomicInteger();
+        CountDownLatch overlap = new CountDownLatch(2);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // When
+        try (StripedExecutor executor = new StripedExecutor("test-dispatch", 64, 16)) {
+            assertThat(keys.stream().map(executor::stripeOf).distinct()).hasSizeGreaterThan(1);
+            for (int seq = 0; seq < 50; seq++) {
+                for (String key : keys) {
+                    int value = seq;
+                    Acknowledgment ack = () -> {
+                        assertThat(processed.get(key)).contains(value);
+                        acked.incrementAndGet();
+                    };
+                    Message<Integer> record = MessageBuilder.withPayload(value).setHeader(KafkaHeaders.ACKNOWLEDGMENT, ack).build();
+                    futures.add(KeyedMessages.dispatch(executor, key, record, (payload, stripe) -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        overlap.countDown();
+                        await(overlap);
+                        processed.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(payload);
+                        running.decrementAndGet();
+                    }, RetryPolicy.NONE, (failed, error) -> {
+                        throw error;
+                    }));
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+
+        // Then
+        for (String key : keys) {
+            assertThat(processed.get(key)).isSorted().hasSize(50);
+        }
+        assertThat(maxRunning.get()).isGreaterThan(1);
+        assertThat(acked.get()).isEqualTo(200);
+    }
+
+    /**
+     * Unit test verifying that a failing handler is retried on its lane, that a record is acknowledged once a
+     * retry succeeds, and that a record whose attempts are exhausted is acknowledged only after it was
+     * dead-lettered (and left unacknowledged if dead-lettering fails too).
+     */
+    @Test
+    void shouldRetryFailingRecordsAndAckOnlyAfterSuccessOrDeadLetter() throws Exception {
+        // Given
+        RetryPolicy retry = new RetryPolicy(3, 1, 4, 2.0);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger acked = new AtomicInteger();
+        List<String> deadLetters = Collections.synchronizedList(new ArrayList<>());
+        Acknowledgment ack = acked::incrementAndGet;
+
+        try (StripedExecutor executor = new StripedExecutor("test-retry", 4, 16)) {
+            // When: a transient failure succeeds on the second attempt
+            KeyedMessages.dispatch(executor, "dev/deployment/a", message("transient", ack), (payload, stripe) -> {
+                if (attempts.incrementAndGet() < 2) throw new IllegalStateException("Mongo unavailable");
+            }, retry, (failed, error) -> deadLetters.add(failed.getPayload())).get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(attempts.get()).isEqualTo(2);
+            assertThat(acked.get()).isEqualTo(1);
+            assertThat(deadLetters).isEmpty();
+
+            // When: every attempt fails
+            attempts.set(0);
+            CompletableFuture<Void> exhausted = KeyedMessages.dispatch(executor, "dev/deployment/a", message("poison", ack),
+                    (payload, stripe) -> {
+                        attempts.incrementAndGet();
+                        throw new IllegalStateException("Invalid recommendation");
+                    }, retry, (failed, error) -> {
+                        assertThat(acked.get()).isEqualTo(1); // Not acked before it is dead-lettered
+                        deadLetters.add(failed.getPayload());
+                    });
+
+            // Then
+            assertThatThrownBy(() -> exhausted.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("Invalid recommendation");
+            assertThat(attempts.get()).isEqualTo(3);
+            assertThat(deadLetters).containsExactly("poison");
+            assertThat(acked.get()).isEqualTo(2);
+
+            // When: dead-lettering fails too
+            CompletableFuture<Void> lost = KeyedMessages.dispatch(executor, "dev/deployment/a", message("unlucky", ack),
+                    (payload, stripe) -> {
+                        throw new IllegalStateException("Invalid recommendation");
+                    }, RetryPolicy.NONE, (failed, error) -> {
+                        throw new IllegalStateException("Kafka unavailable", error);
+                    });
+
+            // Then: the record is left unacknowledged, to be redelivered
+            assertThatThrownBy(() -> lost.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(acked.get()).isEqualTo(2);
+        }
+    }
+
+    /**
+     * Unit test verifying that a dead letter keeps the payload and key of the record and carries the
+     * original topic and the failure in the binder's DLQ headers.
+     */
+    @Test
+    void shouldBuildDeadLetterWithOriginAndFailure() {
+        // Given
+        RecommendationCreatedEvent created = RecommendationCreatedEvent.builder().namespace("shop").workloadRef("deployment/checkout").build();
+        Message<RecommendationCreatedEvent> record = MessageBuilder.withPayload(created)
+                .setHeader(KafkaHeaders.RECEIVED_TOPIC, "recommendation.created")
+                .setHeader(KafkaHeaders.OFFSET, 42L)
+                .build();
+
+        // When
+        Message<RecommendationCreatedEvent> deadLetter = KeyedMessages.deadLetter(record, new IllegalStateException("Mongo unavailable"));
+
+        // Then
+        assertThat(deadLetter.getPayload()).isSameAs(created);
+        assertThat(new String(deadLetter.getHeaders().get(KafkaHeaders.KEY, byte[].class), StandardCharsets.UTF_8))
+                .isEqualTo("shop/deployment/checkout");
+        assertThat(deadLetter.getHeaders())
+                .containsEntry(KafkaHeaders.DLT_ORIGINAL_TOPIC, "recommendation.created")
+                .containsEntry(KafkaHeaders.DLT_ORIGINAL_OFFSET, 42L)
+                .containsEntry(KafkaHeaders.DLT_EXCEPTION_FQCN, IllegalStateException.class.getName())
+                .containsEntry(KafkaHeaders.DLT_EXCEPTION_MESSAGE, "Mongo unavailable")
+                .doesNotContainKey(KafkaHeaders.DLT_ORIGINAL_PARTITION);
+    }
+
+    private static Message<String> message(String payload, Acknowledgment ack) {
+        return MessageBuilder.withPayload(payload).setHeader(KafkaHeaders.ACKNOWLEDGMENT, ack).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
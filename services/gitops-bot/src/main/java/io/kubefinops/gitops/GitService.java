@@ -29,11 +29,25 @@ public class GitService {
      * @throws IOException     If an I/O error occurs.
      */
     public Git cloneOrOpenRepo() throws GitAPIException, IOException {
-        File cloneDir = new File(gitProperties.getClonePath());
+        return cloneOrOpenRepo(0);
+    }
+
+    /**
+     * Clones or opens the working copy of one dispatch lane. Lanes run concurrently, so each one has its
+     * own clone: lane 0 uses the configured clone path, lane n the clone path suffixed with {@code -n}.
+     *
+     * @param lane The dispatch lane (stripe) index.
+     * @return The Git object representing the repository.
+     * @throws GitAPIException If a Git error occurs.
+     * @throws IOException     If an I/O error occurs.
+     */
+    public Git cloneOrOpenRepo(int lane) throws GitAPIException, IOException {
+        String clonePath = lane == 0 ? gitProperties.getClonePath() : gitProperties.getClonePath() + "-" + lane;
+        File cloneDir = new File(clonePath);
         File gitDir = new File(cloneDir, ".git");
         
         if (cloneDir.exists() && gitDir.exists()) {
-            log.info("Opening existing repository at {}", gitProperties.getClonePath());
+            log.info("Opening existing repository at {}", clonePath);
             Git git = Git.open(cloneDir);
             // Optional: git.pull().setCredentialsProvider(getCredentialsProvider()).call();
             return git;
@@ -41,11 +55,11 @@ public class GitService {
 
         // If directory exists but is not a git repo, clean it up first
         if (cloneDir.exists()) {
-            log.warn("Directory {} exists but is not a valid Git repository. Re-cloning.", gitProperties.getClonePath());
+            log.warn("Directory {} exists but is not a valid Git repository. Re-cloning.", clonePath);
             FileSystemUtils.deleteRecursively(cloneDir);
         }
 
-        log.info("Cloning repository {} into {}", gitProperties.getUrl(), gitProperties.getClonePath());
+        log.info("Cloning repository {} into {}", gitProperties.getUrl(), clonePath);
         return Git.cloneRepository()
                 .setURI(gitProperties.getUrl())
                 .setDirectory(cloneDir)
@@ -55,7 +69,8 @@ public class GitService {
     }
 
     /**
-     * Creates a new branch with the given name and checks it out.
+     * Creates a new branch with the given name and checks it out. A branch left behind by a failed attempt
+     * of the same workflow is reset and its uncommitted changes discarded, so the workflow can be retried.
      *
      * @param git        The Git object.
      * @param branchName The name of the branch to create.
@@ -65,6 +80,8 @@ public class GitService {
         log.info("Creating and checking out branch: {}", branchName);
         git.checkout()
                 .setCreateBranch(true)
+                .setForceRefUpdate(true)
+                .setForced(true)
                 .setName(branchName)
                 .call();
     }
@@ -1,16 +1,27 @@
 package io.kubefinops.gitops;
 
 import io.kubefinops.event.GitOpsPRCreatedEvent;
+import io.kubefinops.event.RecommendationApprovedBatchEvent;
 import io.kubefinops.event.RecommendationApprovedEvent;
+import io.kubefinops.event.kafka.EventKeys;
+import io.kubefinops.event.kafka.KeyedMessages;
+import io.kubefinops.event.kafka.RetryPolicy;
+import io.kubefinops.event.kafka.StripedExecutor;
 import io.kubefinops.gitops.config.GitProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.binder.ConsumerProperties;
+import org.springframework.cloud.stream.config.BindingProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 @Slf4j
 @Service
@@ -21,6 +32,8 @@ public class RecommendationApprovedListener {
     private final GitService gitService;
     private final StreamBridge streamBridge;
     private final GitProperties gitProperties;
+    private final StripedExecutor gitopsExecutor;
+    private final BindingServiceProperties bindingServiceProperties;
 
     private static final String PR_CREATED_BINDING = "prCreated-out-0";
 
@@ -32,45 +45,123 @@ public class RecommendationApprovedListener {
      * @return A Consumer that processes the event.
      */
     @Bean
-    public Consumer<RecommendationApprovedEvent> handleApprovedRecommendation() {
-        return event -> {
+    public Consumer<Message<RecommendationApprovedEvent>> handleApprovedRecommendation() {
+        return message -> dispatch("handleApprovedRecommendation-in-0", message, (event, lane) -> {
             log.info("RECEIVED APPROVED RECOMMENDATION: {} for workload {}", 
                     event.getRecommendationId(), event.getWorkloadRef());
             
             String branchName = "fix/rightsize-" + event.getRecommendationId().substring(0, 8);
+            String commitMessage = String.format("chore: rightsizing %s based on recommendation %s", 
+                    event.getWorkloadRef(), event.getRecommendationId());
+            applyChanges(List.of(event), branchName, commitMessage, lane);
+        });
+    }
+
+    /**
+     * Handles a RecommendationApprovedBatchEvent: the approvals of one namespace are applied on a single
+     * branch with a single commit (and Pull Request), instead of one workflow per recommendation.
+     *
+     * @return A Consumer that processes the batch.
+     */
+    @Bean
+    public Consumer<Message<RecommendationApprovedBatchEvent>> handleApprovedBatch() {
+        return message -> dispatch("handleApprovedBatch-in-0", message, (batch, lane) -> {
+            List<RecommendationApprovedEvent> events = batch.toEvents();
+            log.info("RECEIVED APPROVED BATCH: {} with {} recommendations for namespace {}", 
+                    batch.getId(), events.size(), batch.getNamespace());
+            if (events.isEmpty()) return;
+
+            String branchName = "fix/rightsize-" + batch.getNamespace() + "-" + batch.getId().substring(0, 8);
+            String commitMessage = String.format("chore: rightsizing %d workloads in %s based on batch %s", 
+                    events.size(), batch.getNamespace(), batch.getId());
+            applyChanges(events, branchName, commitMessage, lane);
+        });
+    }
+
+    /**
+     * Runs the workflow of an inbound record on the lane of its key (namespace/workloadRef, or the namespace
+     * of a batch): records of one key are applied in order, other keys in parallel on their own clones.
+     * A failing workflow is retried on its lane with the binding's maxAttempts and backoff, then the record is
+     * published to {@code error.<destination>.<group>} like the binder's DLQ. The record is acknowledged only
+     * once the workflow succeeded or the record was dead-lettered.
+     *
+     * @param binding The input binding of the record, whose retry settings and DLQ apply.
+     * @param message The inbound record.
+     * @param handler The workflow, given the payload and its lane.
+     * @param <T>     The event type.
+     */
+    private <T> void dispatch(String binding, Message<T> message, ObjIntConsumer<T> handler) {
+        ConsumerProperties consumer = bindingServiceProperties.getConsumerProperties(binding);
+        RetryPolicy retry = new RetryPolicy(consumer.getMaxAttempts(), consumer.getBackOffInitialInterval(),
+                consumer.getBackOffMaxInterval(), consumer.getBackOffMultiplier());
+        KeyedMessages.dispatch(gitopsExecutor, EventKeys.keyOf(message.getPayload()), message, handler, retry,
+                        (record, error) -> deadLetter(binding, record, error))
+                .exceptionally(e -> {
+                    log.error("Failed to process {}", message.getPayload().getClass().getSimpleName(), e);
+                    return null;
+                });
+    }
+
+    /**
+     * Publishes a record whose attempts are exhausted to the dead letter topic of its binding.
+     *
+     * @param binding The input binding of the record.
+     * @param message The inbound record.
+     * @param error   The failure of the last attempt.
+     */
+    private void deadLetter(String binding, Message<?> message, RuntimeException error) {
+        BindingProperties properties = bindingServiceProperties.getBindingProperties(binding);
+        String topic = "error." + properties.getDestination() + "." + properties.getGroup();
+        if (!streamBridge.send(topic, KeyedMessages.deadLetter(message, error))) {
+            throw new IllegalStateException("Failed to dead-letter a record of " + binding + " to " + topic, error);
+        }
+    }
+
+    /**
+     * Runs the GitOps workflow for a set of approved recommendations: creates a branch, updates every
+     * manifest, commits/pushes once and publishes a GitOpsPRCreatedEvent per recommendation.
+     *
+     * @param events        The approved recommendations.
+     * @param branchName    The branch to create.
+     * @param commitMessage The commit message.
+     * @param lane          The dispatch lane, which selects the working copy.
+     */
+    private void applyChanges(List<RecommendationApprovedEvent> events, String branchName, String commitMessage, int lane) {
+        try (org.eclipse.jgit.api.Git git = gitService.cloneOrOpenRepo(lane)) {
+            log.info(">>> GITOPS BOT ACTION START <<<");
             
-            try (org.eclipse.jgit.api.Git git = gitService.cloneOrOpenRepo()) {
-                log.info(">>> GITOPS BOT ACTION START <<<");
-                
-                gitService.createBranch(git, branchName);
-                
-                String repoPath = git.getRepository().getWorkTree().getAbsolutePath();
+            gitService.createBranch(git, branchName);
+            
+            String repoPath = git.getRepository().getWorkTree().getAbsolutePath();
+            for (RecommendationApprovedEvent event : events) {
                 manifestService.updateManifest(repoPath, event.getWorkloadRef(), event.getNamespace(), 
                         event.getApprovedResources(), event.getReplicas(), event.getEstimatedMonthlySavings(), event.getCurrency());
-                
-                String commitMessage = String.format("chore: rightsizing %s based on recommendation %s", 
-                        event.getWorkloadRef(), event.getRecommendationId());
-                
-                gitService.commitAndPush(git, commitMessage);
-                
-                log.info("6. CREATING PULL REQUEST (Simulated) in GitOps repo for recommendation {}", event.getRecommendationId());
-                
-                // Send GitOpsPRCreatedEvent
+            }
+            
+            gitService.commitAndPush(git, commitMessage);
+            
+            log.info("6. CREATING PULL REQUEST (Simulated) in GitOps repo for branch {}", branchName);
+            
+            // Send GitOpsPRCreatedEvent
+            for (RecommendationApprovedEvent event : events) {
                 GitOpsPRCreatedEvent prCreatedEvent = GitOpsPRCreatedEvent.builder()
                         .recommendationId(event.getRecommendationId())
                         .prUrl("https://github.com/simulated/repo/pull/123") // Simulated URL
                         .repository(gitProperties.getUrl())
                         .branchName(branchName)
                         .createdAt(Instant.now())
+                        .workloadRef(event.getWorkloadRef())
+                        .namespace(event.getNamespace())
                         .build();
                 
-                streamBridge.send(PR_CREATED_BINDING, prCreatedEvent);
-                
-                log.info(">>> GITOPS BOT ACTION COMPLETE <<<");
-                
-            } catch (Exception e) {
-                log.error("Failed to process GitOps workflow for recommendation {}", event.getRecommendationId(), e);
+                streamBridge.send(PR_CREATED_BINDING, KeyedMessages.withKey(prCreatedEvent));
             }
-        };
+            
+            log.info(">>> GITOPS BOT ACTION COMPLETE <<<");
+            
+        } catch (Exception e) {
+            log.error("Failed to process GitOps workflow for {} recommendations on branch {}", events.size(), branchName, e);
+            throw new IllegalStateException("GitOps workflow failed on branch " + branchName, e); // Retried by dispatch
+        }
     }
 }
@@ -4,7 +4,11 @@ import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientBuilder;
 import io.kubefinops.event.ChangeAppliedEvent;
+import io.kubefinops.event.Quantity;
+import io.kubefinops.event.RecommendationApprovedBatchEvent;
 import io.kubefinops.event.RecommendationApprovedEvent;
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.event.kafka.KeyedMessages;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
@@ -50,6 +54,17 @@ public class SyncMonitor {
         };
     }
 
+    /**
+     * Consumes RecommendationApprovedBatchEvents and monitors every recommendation of the batch.
+     *
+     * @return A Consumer that registers the batch for monitoring.
+     */
+    @Bean
+    public Consumer<RecommendationApprovedBatchEvent> monitorSyncBatch() {
+        Consumer<RecommendationApprovedEvent> monitor = monitorSync();
+        return batch -> batch.toEvents().forEach(monitor);
+    }
+
     /**
      * periodically verifies if the pending recommendations have been applied to the cluster.
      * Checks if the actual deployment state matches the recommended state.
@@ -82,7 +97,7 @@ public class SyncMonitor {
                             .appliedAt(Instant.now())
                             .build();
 
-                    streamBridge.send("changeApplied-out-0", appliedEvent);
+                    streamBridge.send("changeApplied-out-0", KeyedMessages.withKey(appliedEvent));
                     pendingVerifications.remove(event.getRecommendationId());
                 }
             } catch (Exception e) {
@@ -105,15 +120,15 @@ public class SyncMonitor {
             if (!event.getReplicas().equals(actualReplicas)) return false;
         }
 
-        // 2. Check resources (simplified check)
+        // 2. Check resources (simplified check), comparing parsed milli-cores so "1" and "1000m" match
         if (event.getApprovedResources() != null && !event.getApprovedResources().isEmpty()) {
             var container = deployment.getSpec().getTemplate().getSpec().getContainers().get(0);
             var requests = container.getResources().getRequests();
             
             if (event.getApprovedResources().containsKey("cpu")) {
-                String approvedCpu = event.getApprovedResources().get("cpu");
-                String actualCpu = requests.get("cpu").getAmount();
-                if (!approvedCpu.equals(actualCpu)) return false;
+                long approvedCpu = ResourceQuantities.orParse(event.getApprovedQuantities(), event.getApprovedResources()).getCpuMillis();
+                var actualCpu = requests == null ? null : requests.get("cpu");
+                if (actualCpu == null || approvedCpu != Quantity.parseMillis(actualCpu.toString())) return false;
             }
         }
 
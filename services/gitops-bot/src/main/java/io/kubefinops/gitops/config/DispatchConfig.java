@@ -0,0 +1,44 @@
+package io.kubefinops.gitops.config;
+
+import io.kubefinops.event.kafka.StripedExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+
+@Configuration
+public class DispatchConfig {
+
+    /**
+     * Lanes on which approved recommendations are applied, striped by record key. Each lane works in its
+     * own clone of the GitOps repository (see {@code GitService#cloneOrOpenRepo(int)}).
+     *
+     * @param properties    The dispatch settings.
+     * @param meterRegistry The meter registry for the in-flight gauge.
+     * @return The striped executor (closed with the context, draining queued records).
+     */
+    @Bean
+    public StripedExecutor gitopsExecutor(DispatchProperties properties, MeterRegistry meterRegistry) {
+        StripedExecutor executor = new StripedExecutor("gitops-workflow", properties.getStripes(), properties.getMaxInFlight());
+        meterRegistry.gauge("event_dispatch_in_flight", executor, StripedExecutor::inFlight);
+        return executor;
+    }
+
+    /**
+     * Enables asynchronous acks on the MANUAL-ack bindings, so an offset is only committed once every
+     * record before it has been applied, whatever order the lanes finish in.
+     *
+     * @return The container customizer.
+     */
+    @Bean
+    public ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> asyncAcksCustomizer() {
+        return (container, destination, group) -> {
+            ContainerProperties properties = container.getContainerProperties();
+            if (properties.getAckMode() == ContainerProperties.AckMode.MANUAL) {
+                properties.setAsyncAcks(true);
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package io.kubefinops.gitops.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.dispatch")
+public class DispatchProperties {
+    private int stripes = 16; // Serial lanes (one virtual thread each); records of one key always use the same lane
+    private int maxInFlight = 256; // Records queued or running across lanes before the consumer thread blocks
+}
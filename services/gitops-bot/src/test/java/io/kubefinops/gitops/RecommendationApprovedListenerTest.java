@@ -0,0 +1,120 @@
+package io.kubefinops.gitops;
+
+import io.kubefinops.event.GitOpsPRCreatedEvent;
+import io.kubefinops.event.RecommendationApprovedBatchEvent;
+import io.kubefinops.event.RecommendationApprovedEvent;
+import io.kubefinops.event.kafka.StripedExecutor;
+import io.kubefinops.gitops.config.GitProperties;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.stream.binder.ConsumerProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationApprovedListenerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ManifestService manifestService;
+
+    @Mock
+    private GitService gitService;
+
+    @Mock
+    private StreamBridge streamBridge;
+
+    @Mock
+    private BindingServiceProperties bindingServiceProperties;
+
+    private StripedExecutor gitopsExecutor;
+    private RecommendationApprovedListener listener;
+
+    @BeforeEach
+    void setUp() {
+        GitProperties gitProperties = new GitProperties();
+        gitProperties.setUrl("https://example.com/gitops.git");
+        gitopsExecutor = new StripedExecutor("test-gitops", 2, 16);
+        listener = new RecommendationApprovedListener(manifestService, gitService, streamBridge, gitProperties,
+                gitopsExecutor, bindingServiceProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gitopsExecutor.close();
+    }
+
+    /**
+     * Unit test verifying that the approvals of a batch are applied on a single branch with a single commit,
+     * that every manifest update receives the namespace and currency restored from the envelope, and that a
+     * GitOpsPRCreatedEvent per recommendation points at the shared branch.
+     */
+    @Test
+    void shouldApplyBatchOnOneBranchAndCommit() throws Exception {
+        // Given
+        when(bindingServiceProperties.getConsumerProperties("handleApprovedBatch-in-0")).thenReturn(new ConsumerProperties());
+        Git git = Git.init().setDirectory(tempDir.toFile()).call();
+        when(gitService.cloneOrOpenRepo(anyInt())).thenReturn(git);
+        RecommendationApprovedBatchEvent batch = RecommendationApprovedBatchEvent.builder()
+                .id("batch-0001-shop")
+                .namespace("shop")
+                .currency("USD")
+                .approvedAt(Instant.parse("2026-10-17T08:00:00Z"))
+                .approvals(List.of(approval("rec-1", "deployment/checkout"), approval("rec-2", "deployment/cart")))
+                .build();
+
+        // When
+        listener.handleApprovedBatch().accept(MessageBuilder.withPayload(batch).build());
+
+        // Then
+        ArgumentCaptor<Message<?>> prs = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge, timeout(2000).times(2)).send(eq("prCreated-out-0"), prs.capture());
+        verify(gitService, times(1)).cloneOrOpenRepo(anyInt());
+        verify(gitService, times(1)).createBranch(git, "fix/rightsize-shop-batch-00");
+        verify(gitService, times(1)).commitAndPush(eq(git), anyString());
+        verify(manifestService).updateManifest(anyString(), eq("deployment/checkout"), eq("shop"), eq(Map.of("cpu", "250m")), any(), eq(5.0), eq("USD"));
+        verify(manifestService).updateManifest(anyString(), eq("deployment/cart"), eq("shop"), eq(Map.of("cpu", "250m")), any(), eq(5.0), eq("USD"));
+        assertThat(prs.getAllValues()).extracting(message -> (GitOpsPRCreatedEvent) message.getPayload())
+                .allSatisfy(pr -> {
+                    assertThat(pr.getBranchName()).isEqualTo("fix/rightsize-shop-batch-00");
+                    assertThat(pr.getNamespace()).isEqualTo("shop");
+                })
+                .extracting(GitOpsPRCreatedEvent::getRecommendationId)
+                .containsExactly("rec-1", "rec-2");
+    }
+
+    private static RecommendationApprovedEvent approval(String id, String workloadRef) {
+        return RecommendationApprovedEvent.builder()
+                .recommendationId(id)
+                .workloadRef(workloadRef)
+                .approvedResources(Map.of("cpu", "250m"))
+                .estimatedMonthlySavings(5.0)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package io.kubefinops.gitops;
+
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.apps.DeploymentList;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.AppsAPIGroupDSL;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.dsl.RollableScalableResource;
+import io.kubefinops.event.ChangeAppliedEvent;
+import io.kubefinops.event.RecommendationApprovedBatchEvent;
+import io.kubefinops.event.RecommendationApprovedEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncMonitorTest {
+
+    /**
+     * Unit test verifying that every approval of a batch is monitored with the namespace restored from the
+     * envelope, and that a ChangeAppliedEvent is published for each one once its deployment matches.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldMonitorEveryApprovalOfBatch() {
+        // Given
+        StreamBridge streamBridge = mock(StreamBridge.class);
+        KubernetesClient kubernetesClient = mock(KubernetesClient.class);
+        AppsAPIGroupDSL apps = mock(AppsAPIGroupDSL.class);
+        MixedOperation<Deployment, DeploymentList, RollableScalableResource<Deployment>> deployments = mock(MixedOperation.class);
+        NonNamespaceOperation<Deployment, DeploymentList, RollableScalableResource<Deployment>> shop = mock(NonNamespaceOperation.class);
+        RollableScalableResource<Deployment> checkout = mock(RollableScalableResource.class);
+        RollableScalableResource<Deployment> cart = mock(RollableScalableResource.class);
+        when(kubernetesClient.apps()).thenReturn(apps);
+        when(apps.deployments()).thenReturn(deployments);
+        when(deployments.inNamespace("shop")).thenReturn(shop);
+        when(shop.withName("checkout")).thenReturn(checkout);
+        when(shop.withName("cart")).thenReturn(cart);
+        when(checkout.get()).thenReturn(deployment(1, "250m"));
+        when(cart.get()).thenReturn(deployment(2, "500m"));
+        SyncMonitor syncMonitor = new SyncMonitor(streamBridge);
+        ReflectionTestUtils.setField(syncMonitor, "kubernetesClient", kubernetesClient);
+        RecommendationApprovedBatchEvent batch = RecommendationApprovedBatchEvent.builder()
+                .id("batch-1")
+                .namespace("shop")
+                .approvals(List.of(
+                        approval("rec-1", "deployment/checkout", 1, "250m"),
+                        approval("rec-2", "deployment/cart", 2, "0.5")))
+                .build();
+
+        // When
+        syncMonitor.monitorSyncBatch().accept(batch);
+        syncMonitor.verifyAppliedChanges();
+        syncMonitor.verifyAppliedChanges();
+
+        // Then
+        ArgumentCaptor<Message<?>> applied = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge, times(2)).send(eq("changeApplied-out-0"), applied.capture());
+        assertThat(applied.getAllValues()).extracting(message -> (ChangeAppliedEvent) message.getPayload())
+                .allSatisfy(event -> assertThat(event.getNamespace()).isEqualTo("shop"))
+                .extracting(ChangeAppliedEvent::getRecommendationId)
+                .containsExactlyInAnyOrder("rec-1", "rec-2");
+    }
+
+    private static RecommendationApprovedEvent approval(String id, String workloadRef, int replicas, String cpu) {
+        return RecommendationApprovedEvent.builder()
+                .recommendationId(id)
+                .workloadRef(workloadRef)
+                .approvedResources(Map.of("cpu", cpu))
+                .replicas(replicas)
+                .build();
+    }
+
+    private static Deployment deployment(int replicas, String cpu) {
+        return new DeploymentBuilder()
+                .withNewSpec()
+                .withReplicas(replicas)
+                .withNewTemplate()
+                .withNewSpec()
+                .addNewContainer()
+                .withName("app")
+                .withNewResources()
+                .addToRequests("cpu", new Quantity(cpu))
+                .endResources()
+                .endContainer()
+                .endSpec()
+                .endTemplate()
+                .endSpec()
+                .build();
+    }
+}
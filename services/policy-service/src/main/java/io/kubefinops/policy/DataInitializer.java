@@ -1,5 +1,6 @@
 package io.kubefinops.policy;
 
+import io.kubefinops.policy.cache.PolicyCache;
 import io.kubefinops.policy.domain.Policy;
 import io.kubefinops.policy.repository.PolicyRepository;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Component;
 public class DataInitializer implements CommandLineRunner {
 
     private final PolicyRepository policyRepository;
+    private final PolicyCache policyCache;
 
     /**
      * executed on application startup to seed default policies if the database is empty.
@@ -44,6 +46,7 @@ public class DataInitializer implements CommandLineRunner {
             policyRepository.save(globalLimit);
             policyRepository.save(prodLimit);
             
+            policyCache.refresh(); // Visible at once, even without change streams
             log.info("Default policies seeded successfully.");
         }
     }
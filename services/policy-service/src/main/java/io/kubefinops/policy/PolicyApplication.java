@@ -2,8 +2,10 @@ package io.kubefinops.policy;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PolicyApplication {
     public static void main(String[] args) {
         SpringApplication.run(PolicyApplication.class, args);
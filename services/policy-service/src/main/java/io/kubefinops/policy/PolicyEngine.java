@@ -1,13 +1,18 @@
 package io.kubefinops.policy;
 
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.policy.budget.BudgetLedger;
+import io.kubefinops.policy.cache.PolicyCache;
+import io.kubefinops.policy.cache.PolicySnapshot;
 import io.kubefinops.policy.domain.Policy;
 import io.kubefinops.policy.domain.Recommendation;
-import io.kubefinops.policy.repository.PolicyRepository;
+import io.kubefinops.policy.plan.CompiledPolicy;
+import io.kubefinops.policy.plan.PolicyPlan;
+import io.kubefinops.policy.rule.RuleExpression;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -15,153 +20,191 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class PolicyEngine {
 
-    private final PolicyRepository policyRepository;
-    private final io.kubefinops.policy.repository.RecommendationRepository recommendationRepository;
+    private final PolicyCache policyCache;
+    private final BudgetLedger budgetLedger;
 
     /**
      * Validates a recommendation against all active policies for the given namespace.
+     * Policies come from the current in-memory {@link PolicyCache} snapshot, so the lookup does no I/O.
+     * If a policy caps the namespace budget, an approval {@link BudgetLedger#reserve reserves} its cost with
+     * the check, so concurrent validations in the namespace cannot both fit under the cap with the same
+     * headroom; the caller must {@link BudgetLedger#release release} it once the result is recorded.
      *
      * @param recommendation The recommendation to validate.
      * @return A ValidationResult indicating if the recommendation is valid or providing a reason for rejection.
      */
     public ValidationResult validate(Recommendation recommendation) {
-        List<Policy> activePolicies = policyRepository.findByNamespaceOrNamespaceIsNull(recommendation.getNamespace());
+        return validate(recommendation, policyCache.snapshot());
+    }
+
+    /**
+     * Validates a recommendation against a given policy snapshot, so that all the recommendations of a batch
+     * are checked against the same policies even if the cache reloads meanwhile.
+     * The namespace's compiled {@link PolicyPlan} is checked cheapest first: the strictest CPU, memory and
+     * savings thresholds (primitive comparisons), the compiled rule expressions, then the budget, the only
+     * check taking a lock. An approval allocates nothing beyond its budget reservation; the policies are
+     * walked one by one only to report the first violated one.
+     *
+     * @param recommendation The recommendation to validate.
+     * @param snapshot       The policies to validate against.
+     * @return A ValidationResult indicating if the recommendation is valid or providing a reason for rejection.
+     */
+    public ValidationResult validate(Recommendation recommendation, PolicySnapshot snapshot) {
+        PolicyPlan plan = snapshot.planFor(recommendation.getNamespace());
         
-        if (activePolicies.isEmpty()) {
+        if (plan.isEmpty()) {
             log.info("No policies found for namespace {}. Auto-approving.", recommendation.getNamespace());
             return ValidationResult.valid();
         }
 
-        for (Policy policy : activePolicies) {
-            ValidationResult result = checkPolicy(recommendation, policy);
-            if (!result.isValid()) {
-                return result;
-            }
+        ResourceQuantities quantities = suggestedQuantities(recommendation);
+
+        // 1. Strictest thresholds, then rule expressions: a recommendation passing them complies with every policy
+        if (exceeds(recommendation, quantities, plan.maxCpuMillis(), plan.maxMemoryBytes(), plan.minMonthlySavings())
+                || breaksRule(recommendation, quantities, plan.rules())) {
+            double currentTotalCost = plan.budgeted() ? budgetLedger.projectedCost(recommendation.getNamespace()) : 0.0;
+            return firstViolation(recommendation, quantities, plan, currentTotalCost);
+        }
+        if (!plan.budgeted()) {
+            return ValidationResult.valid();
+        }
+
+        // 2. Namespace budget (AGGREGATE), reserved atomically with the check
+        double newRecommendationCost = BudgetLedger.monthlyCost(quantities);
+        double currentTotalCost = budgetLedger.reserve(recommendation, newRecommendationCost, plan.maxMonthlyCost());
+        if (currentTotalCost + newRecommendationCost <= plan.maxMonthlyCost()) {
+            return ValidationResult.valid();
         }
+        return firstViolation(recommendation, quantities, plan, currentTotalCost);
+    }
+
+    /**
+     * Returns true if a recommendation breaks a CPU, memory or savings threshold.
+     *
+     * @param recommendation    The recommendation.
+     * @param quantities        Its suggested quantities.
+     * @param maxCpuMillis      The CPU limit in milli-cores.
+     * @param maxMemoryBytes    The memory limit in bytes.
+     * @param minMonthlySavings The savings threshold.
+     * @return Whether a threshold is broken.
+     */
+    private boolean exceeds(Recommendation recommendation, ResourceQuantities quantities,
+                            long maxCpuMillis, long maxMemoryBytes, double minMonthlySavings) {
+        if (quantities.getCpuMillis() > maxCpuMillis && hasResource(recommendation, "cpu")) return true;
+        if (quantities.getMemoryBytes() > maxMemoryBytes && hasResource(recommendation, "memory")) return true;
+        Double savings = recommendation.getEstimatedMonthlySavings();
+        return savings != null && savings < minMonthlySavings;
+    }
 
-        return ValidationResult.valid();
+    /**
+     * Returns true if a recommendation does not satisfy one of the rule expressions.
+     *
+     * @param recommendation The recommendation.
+     * @param quantities     Its suggested quantities.
+     * @param rules          The compiled rules.
+     * @return Whether a rule is broken.
+     */
+    private boolean breaksRule(Recommendation recommendation, ResourceQuantities quantities, RuleExpression[] rules) {
+        for (RuleExpression rule : rules) {
+            if (!rule.test(recommendation, quantities)) return true;
+        }
+        return false;
     }
 
     /**
-     * Checks if a recommendation complies with a specific policy.
-     * Verifies resource limits, savings thresholds, and aggregate namespace budgets.
+     * Finds the first policy, in collection order, that a rejected recommendation violates, and the first
+     * of its checks that fails: resource limits, savings threshold, rule expression, then namespace budget.
      *
-     * @param recommendation The recommendation to check.
-     * @param policy         The policy to enforce.
-     * @return A ValidationResult indicating compliance or violation.
+     * @param recommendation   The rejected recommendation.
+     * @param quantities       Its suggested quantities.
+     * @param plan             The plan it was rejected by.
+     * @param currentTotalCost The namespace cost the budget was checked against.
+     * @return The violation.
      */
-    private ValidationResult checkPolicy(Recommendation recommendation, Policy policy) {
+    private ValidationResult firstViolation(Recommendation recommendation, ResourceQuantities quantities,
+                                            PolicyPlan plan, double currentTotalCost) {
         Map<String, String> suggested = recommendation.getSuggestedResources();
-        
-        // 1. Check individual Resource Limits
-        if (policy.getMaxCpu() != null && suggested.containsKey("cpu")) {
-            if (isExceeding(suggested.get("cpu"), policy.getMaxCpu())) {
-                String reason = String.format("Suggested CPU %s exceeds limit %s", suggested.get("cpu"), policy.getMaxCpu());
+        for (CompiledPolicy compiled : plan.policies()) {
+            Policy policy = compiled.policy();
+
+            // 1. Check individual Resource Limits (milli-cores vs milli-cores, bytes vs bytes)
+            if (quantities.getCpuMillis() > compiled.maxCpuMillis() && hasResource(recommendation, "cpu")) {
+                String reason = String.format("Suggested CPU %s exceeds limit %s", displayed(suggested, "cpu", quantities), policy.getMaxCpu());
                 return ValidationResult.invalid(reason, policy.getName());
             }
-        }
 
-        if (policy.getMaxMemory() != null && suggested.containsKey("memory")) {
-            if (isExceeding(suggested.get("memory"), policy.getMaxMemory())) {
-                String reason = String.format("Suggested Memory %s exceeds limit %s", suggested.get("memory"), policy.getMaxMemory());
+            if (quantities.getMemoryBytes() > compiled.maxMemoryBytes() && hasResource(recommendation, "memory")) {
+                String reason = String.format("Suggested Memory %s exceeds limit %s", displayed(suggested, "memory", quantities), policy.getMaxMemory());
                 return ValidationResult.invalid(reason, policy.getName());
             }
-        }
 
-        // 2. Check Savings Threshold
-        if (policy.getMinMonthlySavings() != null && recommendation.getEstimatedMonthlySavings() != null) {
-            if (recommendation.getEstimatedMonthlySavings() < policy.getMinMonthlySavings()) {
+            // 2. Check Savings Threshold
+            Double savings = recommendation.getEstimatedMonthlySavings();
+            if (savings != null && savings < compiled.minMonthlySavings()) {
                 String reason = String.format("Estimated savings $%.2f is below threshold $%.2f", 
-                        recommendation.getEstimatedMonthlySavings(), policy.getMinMonthlySavings());
+                        savings, policy.getMinMonthlySavings());
+                return ValidationResult.invalid(reason, policy.getName());
+            }
+
+            // 3. Check Rule Expression
+            if (compiled.rule() != null && !compiled.rule().test(recommendation, quantities)) {
+                String reason = String.format("Rule '%s' is not satisfied", compiled.rule().source());
                 return ValidationResult.invalid(reason, policy.getName());
             }
-        }
 
-        // 3. Check Namespace Budget (AGGREGATE)
-        if (policy.getMaxMonthlyCost() != null) {
-            double currentTotalCost = calculateCurrentNamespaceCost(recommendation.getNamespace());
-            double newRecommendationCost = estimateCost(recommendation.getSuggestedResources());
-            
-            if ((currentTotalCost + newRecommendationCost) > policy.getMaxMonthlyCost()) {
+            // 4. Check Namespace Budget (AGGREGATE)
+            double newRecommendationCost = BudgetLedger.monthlyCost(quantities);
+            if (compiled.budgeted() && (currentTotalCost + newRecommendationCost) > compiled.maxMonthlyCost()) {
                 String reason = String.format("Namespace budget exceeded. Current: $%.2f, New: $%.2f, Max: $%.2f", 
                         currentTotalCost, newRecommendationCost, policy.getMaxMonthlyCost());
                 log.warn("Policy {} violated: {}", policy.getName(), reason);
                 return ValidationResult.invalid(reason, policy.getName());
             }
         }
-        
-        return ValidationResult.valid();
-    }
-
-    /**
-     * Calculates the total estimated monthly cost of all approved recommendations in a namespace.
-     *
-     * @param namespace The namespace to calculate cost for.
-     * @return The total estimated monthly cost.
-     */
-    private double calculateCurrentNamespaceCost(String namespace) {
-        List<Recommendation> approved = recommendationRepository.findByNamespaceAndStatusIn(namespace, List.of("APPROVED"));
-        return approved.stream()
-                .mapToDouble(r -> estimateCost(r.getSuggestedResources()))
-                .sum();
+        throw new IllegalStateException("Policy plan of namespace " + recommendation.getNamespace() + " rejected a compliant recommendation");
     }
 
     /**
-     * Estimates the monthly cost of a given set of resources based on a simple cost model.
+     * Returns the pre-parsed suggested quantities of a recommendation, parsing the resource map only
+     * for recommendations stored before quantities were introduced.
      *
-     * @param resources The map of resource requirements.
-     * @return The estimated monthly cost.
+     * @param recommendation The recommendation.
+     * @return The suggested quantities (zero if unparseable).
      */
-    private double estimateCost(Map<String, String> resources) {
-        if (resources == null) return 0.0;
-        double cpu = parseResource(resources.getOrDefault("cpu", "0m")) / 1000.0;
-        double mem = parseResource(resources.getOrDefault("memory", "0Mi")) / (1024.0 * 1024.0 * 1024.0);
-        
-        // Simple mock cost model: $30 per CPU core, $5 per GB RAM per month
-        return (cpu * 30.0) + (mem * 5.0);
+    private ResourceQuantities suggestedQuantities(Recommendation recommendation) {
+        if (recommendation.getSuggestedQuantities() != null) {
+            return recommendation.getSuggestedQuantities();
+        }
+        try {
+            return ResourceQuantities.parse(recommendation.getSuggestedResources());
+        } catch (IllegalArgumentException e) {
+            log.error("Error parsing resources of recommendation {}: {}", recommendation.getId(), e.getMessage());
+            return new ResourceQuantities(0, 0);
+        }
     }
 
     /**
-     * Checks if a suggested resource value exceeds a defined limit.
+     * Returns true if the recommendation suggests a value for a resource.
      *
-     * @param suggested The suggested resource value (e.g., "500m").
-     * @param limit     The limit value (e.g., "1000m").
-     * @return True if suggested value exceeds the limit, false otherwise.
+     * @param recommendation The recommendation.
+     * @param resource       "cpu" or "memory".
+     * @return Whether the resource is present.
      */
-    private boolean isExceeding(String suggested, String limit) {
-        try {
-            double sVal = parseResource(suggested);
-            double lVal = parseResource(limit);
-            return sVal > lVal;
-        } catch (Exception e) {
-            log.error("Error parsing resources: {} vs {}", suggested, limit);
-            return false; 
-        }
+    private boolean hasResource(Recommendation recommendation, String resource) {
+        Map<String, String> suggested = recommendation.getSuggestedResources();
+        return suggested != null ? suggested.containsKey(resource) : recommendation.getSuggestedQuantities() != null;
     }
 
     /**
-     * Parses a Kubernetes resource string into a double value representing the quantity.
-     * Handles units like 'm' (milli-cores), 'Gi' (Gibibytes), 'Mi', 'Ki'.
+     * Returns the suggested value of a resource as shown in violation messages.
      *
-     * @param value The resource string to parse.
-     * @return The parsed value as a double.
+     * @param suggested  The suggested resource map, may be null.
+     * @param resource   "cpu" or "memory".
+     * @param quantities The parsed quantities.
+     * @return The display value.
      */
-    private double parseResource(String value) {
-        String cleanValue = value.toLowerCase().trim();
-        if (cleanValue.endsWith("m")) {
-            return Double.parseDouble(cleanValue.replace("m", ""));
-        } else if (cleanValue.endsWith("gi")) {
-            return Double.parseDouble(cleanValue.replace("gi", "")) * 1024 * 1024 * 1024;
-        } else if (cleanValue.endsWith("mi")) {
-            return Double.parseDouble(cleanValue.replace("mi", "")) * 1024 * 1024;
-        } else if (cleanValue.endsWith("ki")) {
-            return Double.parseDouble(cleanValue.replace("ki", "")) * 1024;
-        }
-        // Assume raw number is bytes or full CPU units
-        try {
-            return Double.parseDouble(cleanValue) * 1000;
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+    private String displayed(Map<String, String> suggested, String resource, ResourceQuantities quantities) {
+        if (suggested != null && suggested.containsKey(resource)) return suggested.get(resource);
+        return quantities.toMap().get(resource);
     }
 }
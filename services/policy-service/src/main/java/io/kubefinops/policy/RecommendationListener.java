@@ -1,17 +1,45 @@
 package io.kubefinops.policy;
 
+import io.kubefinops.event.ChangeAppliedEvent;
 import io.kubefinops.event.PolicyViolatedEvent;
+import io.kubefinops.event.RecommendationApprovedBatchEvent;
 import io.kubefinops.event.RecommendationApprovedEvent;
+import io.kubefinops.event.RecommendationBatchEvent;
 import io.kubefinops.event.RecommendationCreatedEvent;
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.event.ScalingBatchEvent;
+import io.kubefinops.event.ScalingTransition;
+import io.kubefinops.event.kafka.EventKeys;
+import io.kubefinops.event.kafka.KeyedMessages;
+import io.kubefinops.event.kafka.RetryPolicy;
+import io.kubefinops.event.kafka.StripedExecutor;
+import io.kubefinops.policy.budget.BudgetLedger;
+import io.kubefinops.policy.cache.PolicyCache;
+import io.kubefinops.policy.cache.PolicySnapshot;
 import io.kubefinops.policy.domain.Recommendation;
 import io.kubefinops.policy.repository.RecommendationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.binder.ConsumerProperties;
+import org.springframework.cloud.stream.config.BindingProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.function.Consumer;
 
 @Slf4j
@@ -23,8 +51,14 @@ public class RecommendationListener {
     private final PolicyEngine policyEngine;
     private final StreamBridge streamBridge;
     private final io.micrometer.core.instrument.MeterRegistry meterRegistry;
+    private final StripedExecutor validationExecutor;
+    private final BudgetLedger budgetLedger;
+    private final PolicyCache policyCache;
+    private final MongoTemplate mongoTemplate;
+    private final BindingServiceProperties bindingServiceProperties;
 
     private static final String APPROVAL_BINDING = "recommendationApproved-out-0";
+    private static final String APPROVAL_BATCH_BINDING = "recommendationApprovedBatch-out-0";
     private static final String VIOLATION_BINDING = "policyViolated-out-0";
 
     /**
@@ -35,32 +69,201 @@ public class RecommendationListener {
      * @return A Consumer that processes the recommendation.
      */
     @Bean
-    public Consumer<RecommendationCreatedEvent> validateRecommendation() {
-        return event -> {
-            log.info("Received recommendation for validation: {} - Workload: {}", 
-                    event.getId(), event.getWorkloadRef());
-
-            Recommendation recommendation = Recommendation.builder()
-                    .id(event.getId())
-                    .workloadRef(event.getWorkloadRef())
-                    .namespace(event.getNamespace())
-                    .currentResources(event.getCurrentResources())
-                    .suggestedResources(event.getSuggestedResources())
-                    .replicas(event.getReplicas())
-                    .confidenceScore(event.getConfidenceScore())
-                    .estimatedMonthlySavings(event.getEstimatedMonthlySavings())
-                    .currency(event.getCurrency())
-                    .createdAt(event.getCreatedAt())
-                    .status("PENDING")
-                    .build();
-
-            // 1. Validate against policies
-            ValidationResult validationResult = policyEngine.validate(recommendation);
-            
+    public Consumer<Message<RecommendationCreatedEvent>> validateRecommendation() {
+        return message -> dispatch("validateRecommendation-in-0", message, event -> {
+            RecommendationApprovedEvent approved = validate(event);
+            if (approved != null) {
+                streamBridge.send(APPROVAL_BINDING, KeyedMessages.withKey(approved));
+            }
+        });
+    }
+
+    /**
+     * Batch mode of {@link #validateRecommendation()}, enabled with {@code VALIDATION_CONSUMER=validateRecommendations}:
+     * consumes the RecommendationCreatedEvents of one poll together on the listener thread. The whole poll is
+     * validated against one policy snapshot, the results are persisted with one unordered bulk write, and the
+     * approvals (one RecommendationApprovedBatchEvent per namespace) and violations are published afterwards,
+     * back to back. The batch size and wait are set on the binding's Kafka consumer (max.poll.records,
+     * fetch.min.bytes and fetch.max.wait.ms); offsets are committed once the batch returns.
+     *
+     * @return A Consumer that processes the polled recommendations.
+     */
+    @Bean
+    public Consumer<Message<List<RecommendationCreatedEvent>>> validateRecommendations() {
+        return message -> {
+            List<RecommendationCreatedEvent> events = message.getPayload();
+            PolicySnapshot snapshot = policyCache.snapshot();
+            List<Outcome> outcomes = new ArrayList<>(events.size());
+            try {
+                // 1. Validate against one snapshot; a failing record is logged and skipped like in record mode
+                for (RecommendationCreatedEvent event : events) {
+                    try {
+                        outcomes.add(evaluate(event, snapshot));
+                    } catch (RuntimeException e) {
+                        log.error("Failed to validate recommendation {} of a batch", event.getId(), e);
+                    }
+                }
+                if (outcomes.isEmpty()) return;
+
+                // 2. Persist every result with one unordered bulk write (replays overwrite the same documents)
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recommendation.class);
+                for (Outcome outcome : outcomes) {
+                    bulk.replaceOne(Query.query(Criteria.where("_id").is(outcome.recommendation().getId())),
+                            outcome.recommendation(), FindAndReplaceOptions.options().upsert());
+                }
+                bulk.execute();
+
+                // 3. Count the approvals against their namespace budgets, in batch order
+                for (Outcome outcome : outcomes) {
+                    if (outcome.approval() != null) budgetLedger.approve(outcome.recommendation());
+                }
+            } finally {
+                outcomes.forEach(outcome -> budgetLedger.release(outcome.recommendation()));
+            }
+
+            // 4. Publish the results in one pass
+            Map<String, List<RecommendationApprovedEvent>> approvals = new LinkedHashMap<>();
+            for (Outcome outcome : outcomes) {
+                if (outcome.approval() != null) {
+                    approvals.computeIfAbsent(outcome.approval().getNamespace(), ns -> new ArrayList<>()).add(outcome.approval());
+                } else {
+                    streamBridge.send(VIOLATION_BINDING, KeyedMessages.withKey(outcome.violation()));
+                }
+            }
+            approvals.forEach(this::sendApprovals);
+            meterRegistry.summary("recommendation_validation_batch_size").record(events.size());
+        };
+    }
+
+    /**
+     * Consumes the recommendations of a namespace batched in one record and validates each of them.
+     * The approvals are published together as one RecommendationApprovedBatchEvent.
+     *
+     * @return A Consumer that processes the batch.
+     */
+    @Bean
+    public Consumer<Message<RecommendationBatchEvent>> validateRecommendationBatch() {
+        return message -> dispatch("validateRecommendationBatch-in-0", message, batch -> {
+            List<RecommendationCreatedEvent> events = batch.toEvents();
+            log.info("Received batch {} of {} recommendations for namespace {}", batch.getId(), events.size(), batch.getNamespace());
+            List<RecommendationApprovedEvent> approvals = new ArrayList<>(events.size());
+            for (RecommendationCreatedEvent event : events) {
+                RecommendationApprovedEvent approved = validate(event);
+                if (approved != null) approvals.add(approved);
+            }
+            sendApprovals(batch.getNamespace(), approvals);
+        });
+    }
+
+    /**
+     * Consumes the scheduled sleep/wake transitions of a namespace, batched per scheduler tick,
+     * and validates each transition like an individual recommendation.
+     * The approvals are published together as one RecommendationApprovedBatchEvent.
+     *
+     * @return A Consumer that processes the batch.
+     */
+    @Bean
+    public Consumer<Message<ScalingBatchEvent>> validateScalingBatch() {
+        return message -> dispatch("validateScalingBatch-in-0", message, batch -> {
+            log.info("Received {} scheduled transitions for namespace {}", batch.getTransitions().size(), batch.getNamespace());
+            List<RecommendationApprovedEvent> approvals = new ArrayList<>(batch.getTransitions().size());
+            for (ScalingTransition transition : batch.getTransitions()) {
+                RecommendationApprovedEvent approved = validate(RecommendationCreatedEvent.builder()
+                        .id(UUID.randomUUID().toString())
+                        .workloadRef(transition.getWorkloadRef())
+                        .namespace(batch.getNamespace())
+                        .suggestedResources(Collections.emptyMap()) // Only replicas change
+                        .replicas(transition.getReplicas())
+                        .confidenceScore(1.0)
+                        .estimatedMonthlySavings(transition.getEstimatedMonthlySavings())
+                        .currency("USD")
+                        .createdAt(batch.getDueAt())
+                        .build());
+                if (approved != null) approvals.add(approved);
+            }
+            sendApprovals(batch.getNamespace(), approvals);
+        });
+    }
+
+    /**
+     * Consumes ChangeAppliedEvents from the GitOps bot and moves the applied recommendation to the
+     * applied part of its namespace budget. Runs on the lane of the workload, after its validation.
+     *
+     * @return A Consumer that records the change.
+     */
+    @Bean
+    public Consumer<Message<ChangeAppliedEvent>> recordChangeApplied() {
+        return message -> dispatch("recordChangeApplied-in-0", message, event -> budgetLedger.apply(event.getRecommendationId()));
+    }
+
+    /**
+     * Validates one recommendation, publishes the violation if it is rejected and persists the result.
+     * The approval is returned to the caller, which publishes it on its own or as part of a batch.
+     *
+     * @param event The recommendation to validate.
+     * @return The approval event, or null if the recommendation was rejected.
+     */
+    private RecommendationApprovedEvent validate(RecommendationCreatedEvent event) {
+        Outcome outcome = evaluate(event, policyCache.snapshot());
+        // Any budget reserved by the validation is released once the result is recorded (or failed to be)
+        try {
+            if (outcome.violation() != null) {
+                streamBridge.send(VIOLATION_BINDING, KeyedMessages.withKey(outcome.violation()));
+            }
+
+            // 3. Save final status to MongoDB and turn the budget reservation into a ledger entry
+            repository.save(outcome.recommendation());
+            if (outcome.approval() != null) {
+                budgetLedger.approve(outcome.recommendation());
+            }
+            return outcome.approval();
+        } finally {
+            budgetLedger.release(outcome.recommendation());
+        }
+    }
+
+    /**
+     * Validates one recommendation against a policy snapshot and builds its approval or violation event,
+     * without persisting or publishing anything. A budget reserved by an approval stays reserved until the
+     * caller releases it; it is released here only if building the result fails.
+     *
+     * @param event    The recommendation to validate.
+     * @param snapshot The policies to validate against.
+     * @return The validated recommendation with its approval or violation event.
+     */
+    private Outcome evaluate(RecommendationCreatedEvent event, PolicySnapshot snapshot) {
+        log.info("Received recommendation for validation: {} - Workload: {}", 
+                event.getId(), event.getWorkloadRef());
+
+        // Older producers only send the resource maps: parse them once here
+        ResourceQuantities suggested = ResourceQuantities.orParse(event.getSuggestedQuantities(), event.getSuggestedResources());
+
+        Recommendation recommendation = Recommendation.builder()
+                .id(event.getId())
+                .workloadRef(event.getWorkloadRef())
+                .namespace(event.getNamespace())
+                .currentResources(event.getCurrentResources())
+                .suggestedResources(event.getSuggestedResources())
+                .currentQuantities(ResourceQuantities.orParse(event.getCurrentQuantities(), event.getCurrentResources()))
+                .suggestedQuantities(suggested)
+                .replicas(event.getReplicas())
+                .confidenceScore(event.getConfidenceScore())
+                .estimatedMonthlySavings(event.getEstimatedMonthlySavings())
+                .currency(event.getCurrency())
+                .createdAt(event.getCreatedAt())
+                .status("PENDING")
+                .build();
+
+        // 1. Validate against policies
+        ValidationResult validationResult = policyEngine.validate(recommendation, snapshot);
+        try {
+            RecommendationApprovedEvent approvedEvent = null;
+            PolicyViolatedEvent violationEvent = null;
+
             if (validationResult.isValid()) {
                 recommendation.setStatus("APPROVED");
                 log.info("Recommendation {} APPROVED", event.getId());
-                
+
                 // Metrics
                 meterRegistry.counter("recommendations_total", "status", "approved", "namespace", event.getNamespace()).increment();
                 if (event.getEstimatedMonthlySavings() != null) {
@@ -71,19 +274,18 @@ public class RecommendationListener {
                             .increment(event.getEstimatedMonthlySavings());
                 }
 
-                // 2. Send approval event
-                RecommendationApprovedEvent approvedEvent = RecommendationApprovedEvent.builder()
+                // 2. Build approval event
+                approvedEvent = RecommendationApprovedEvent.builder()
                         .recommendationId(event.getId())
                         .workloadRef(event.getWorkloadRef())
                         .namespace(event.getNamespace())
                         .approvedResources(event.getSuggestedResources())
+                        .approvedQuantities(suggested)
                         .replicas(event.getReplicas())
                         .estimatedMonthlySavings(event.getEstimatedMonthlySavings())
                         .currency(event.getCurrency())
                         .approvedAt(Instant.now())
                         .build();
-                
-                streamBridge.send(APPROVAL_BINDING, approvedEvent);
             } else {
                 recommendation.setStatus("REJECTED");
                 recommendation.setRejectionReason(validationResult.getReason());
@@ -91,19 +293,97 @@ public class RecommendationListener {
 
                 meterRegistry.counter("recommendations_total", "status", "rejected", "namespace", event.getNamespace()).increment();
 
-                // 2. Send violation event
-                PolicyViolatedEvent violationEvent = PolicyViolatedEvent.builder()
+                // 2. Build violation event
+                violationEvent = PolicyViolatedEvent.builder()
                         .recommendationId(event.getId())
                         .policyName(validationResult.getPolicyName())
                         .reason(validationResult.getReason())
                         .violatedAt(Instant.now())
+                        .workloadRef(event.getWorkloadRef())
+                        .namespace(event.getNamespace())
                         .build();
-
-                streamBridge.send(VIOLATION_BINDING, violationEvent);
             }
 
-            // 3. Save final status to MongoDB
-            repository.save(recommendation);
-        };
+            return new Outcome(recommendation, approvedEvent, violationEvent);
+        } catch (RuntimeException e) {
+            budgetLedger.release(recommendation);
+            throw e;
+        }
+    }
+
+    /**
+     * Publishes the approvals of a batch as one RecommendationApprovedBatchEvent, moving the shared fields
+     * to the envelope. Nothing is sent if every recommendation was rejected.
+     *
+     * @param namespace The namespace of the batch.
+     * @param approvals The approvals, in batch order.
+     */
+    private void sendApprovals(String namespace, List<RecommendationApprovedEvent> approvals) {
+        if (approvals.isEmpty()) return;
+        String currency = approvals.get(0).getCurrency();
+        List<RecommendationApprovedEvent> items = new ArrayList<>(approvals.size());
+        for (RecommendationApprovedEvent approval : approvals) {
+            items.add(approval.toBuilder()
+                    .namespace(null)
+                    .currency(currency != null && currency.equals(approval.getCurrency()) ? null : approval.getCurrency())
+                    .approvedAt(null)
+                    .build());
+        }
+        streamBridge.send(APPROVAL_BATCH_BINDING, KeyedMessages.withKey(RecommendationApprovedBatchEvent.builder()
+                .id(UUID.randomUUID().toString())
+                .namespace(namespace)
+                .currency(currency)
+                .approvedAt(approvals.get(0).getApprovedAt())
+                .approvals(items)
+                .build()));
+    }
+
+    /**
+     * Validates an inbound record on the lane of its key: records of one workload (or, for batches, of one
+     * namespace) are validated one at a time and in partition order, all others in parallel. Validations of
+     * one namespace may therefore overlap; the {@link BudgetLedger} reservations keep its budget check exact.
+     * A failing record is retried on its lane with the binding's maxAttempts and backoff, then published to
+     * {@code error.<destination>.<group>} like the binder's DLQ. The record is acknowledged only once it was
+     * processed or dead-lettered.
+     *
+     * @param binding The input binding of the record, whose retry settings and DLQ apply.
+     * @param message The inbound record.
+     * @param handler The validation.
+     * @param <T>     The event type.
+     */
+    private <T> void dispatch(String binding, Message<T> message, Consumer<T> handler) {
+        String key = EventKeys.keyOf(message.getPayload());
+        ConsumerProperties consumer = bindingServiceProperties.getConsumerProperties(binding);
+        RetryPolicy retry = new RetryPolicy(consumer.getMaxAttempts(), consumer.getBackOffInitialInterval(),
+                consumer.getBackOffMaxInterval(), consumer.getBackOffMultiplier());
+        KeyedMessages.dispatch(validationExecutor, key, message, (event, stripe) -> handler.accept(event), retry,
+                        (record, error) -> deadLetter(binding, record, error))
+                .exceptionally(e -> {
+                    log.error("Failed to validate {} for {}", message.getPayload().getClass().getSimpleName(), key, e);
+                    return null;
+                });
+    }
+
+    /**
+     * Publishes a record whose attempts are exhausted to the dead letter topic of its binding.
+     *
+     * @param binding The input binding of the record.
+     * @param message The inbound record.
+     * @param error   The failure of the last attempt.
+     */
+    private void deadLetter(String binding, Message<?> message, RuntimeException error) {
+        BindingProperties properties = bindingServiceProperties.getBindingProperties(binding);
+        String topic = "error." + properties.getDestination() + "." + properties.getGroup();
+        if (!streamBridge.send(topic, KeyedMessages.deadLetter(message, error))) {
+            throw new IllegalStateException("Failed to dead-letter a record of " + binding + " to " + topic, error);
+        }
+        meterRegistry.counter("event_dead_letters_total", "binding", binding).increment();
+    }
+
+    /**
+     * Result of validating one recommendation: the recommendation with its final status, and either its
+     * approval or its violation event.
+     */
+    private record Outcome(Recommendation recommendation, RecommendationApprovedEvent approval, PolicyViolatedEvent violation) {
     }
 }
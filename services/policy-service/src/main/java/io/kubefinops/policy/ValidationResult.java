@@ -4,17 +4,19 @@ import lombok.Value;
 
 @Value
 public class ValidationResult {
+    private static final ValidationResult VALID = new ValidationResult(true, null, null);
+
     boolean valid;
     String reason;
     String policyName;
 
     /**
-     * Creates a successful validation result.
+     * Returns the successful validation result (a shared instance, the result being immutable).
      *
      * @return A valid ValidationResult.
      */
     public static ValidationResult valid() {
-        return new ValidationResult(true, null, null);
+        return VALID;
     }
 
     /**
@@ -0,0 +1,482 @@
+package io.kubefinops.policy.budget;
+
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.policy.config.BudgetLedgerProperties;
+import io.kubefinops.policy.domain.NamespaceBudget;
+import io.kubefinops.policy.domain.Recommendation;
+import io.kubefinops.policy.repository.NamespaceBudgetRepository;
+import io.kubefinops.policy.repository.RecommendationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Per-namespace running cost of the active (approved or applied) recommendations, so the budget check reads
+ * one in-memory value instead of re-pricing the namespace history. The ledger changes only when a
+ * recommendation is approved, superseded by a newer approval of the same workload, or applied; each change is
+ * one atomic {@code $inc} on the {@code namespace_budgets} document, whose new value replaces the cached one.
+ * The document also records the cost counted for each active recommendation, and an approval is only added
+ * if its id is not recorded yet, so a redelivered recommendation is never counted twice. The counted costs are
+ * cached with the totals; they are re-read only when another replica changed the namespace since they were loaded.
+ * When the stored ledger is empty (or a rebuild is requested) it is recomputed from the recommendations.
+ * <p>
+ * Validations of one namespace may run concurrently, so the budget check and the claim on the budget are one
+ * step: {@link #reserve} checks the budget under the namespace's lock stripe against the ledger plus the cost
+ * already reserved by validations in progress, and reserves the cost if it fits. The reservation is
+ * replaced by the ledger entry on {@link #approve} and dropped by {@link #release}.
+ */
+@Slf4j
+@Service
+public class BudgetLedger {
+
+    public static final String APPROVED = "APPROVED";
+    public static final String APPLIED = "APPLIED";
+    public static final String SUPERSEDED = "SUPERSEDED";
+    private static final List<String> ACTIVE = List.of(APPROVED, APPLIED);
+    private static final String COUNTED = "counted";
+
+    private final NamespaceBudgetRepository budgetRepository;
+    private final RecommendationRepository recommendationRepository;
+    private final MongoTemplate mongoTemplate;
+    private final BudgetLedgerProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, NamespaceBudget> budgets = new ConcurrentHashMap<>();
+    private final Map<String, Counted> countedCosts = new ConcurrentHashMap<>();
+    private final Map<String, Reservations> reservations = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks;
+    private final Counter[] contention;
+    private volatile boolean loaded;
+
+    public BudgetLedger(NamespaceBudgetRepository budgetRepository, RecommendationRepository recommendationRepository,
+                        MongoTemplate mongoTemplate, BudgetLedgerProperties properties, MeterRegistry meterRegistry) {
+        this.budgetRepository = budgetRepository;
+        this.recommendationRepository = recommendationRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("budget_ledger_namespaces", budgets, Map::size);
+        this.locks = new ReentrantLock[Math.max(1, properties.getLockStripes())];
+        this.contention = new Counter[locks.length];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+            contention[i] = meterRegistry.counter("budget_lock_contention_total", "stripe", String.valueOf(i));
+        }
+    }
+
+    /**
+     * Loads (or rebuilds) the ledger as soon as the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ensureLoaded();
+    }
+
+    /**
+     * Returns the cost currently counted against a namespace budget.
+     *
+     * @param namespace The namespace.
+     * @return The total monthly cost of its approved and applied recommendations.
+     */
+    public double currentCost(String namespace) {
+        ensureLoaded();
+        return committedCost(namespace);
+    }
+
+    /**
+     * Reserves the cost of a recommendation if it fits under a budget, atomically with respect to other
+     * reservations in the namespace. The budget is checked against the ledger plus the cost reserved by
+     * validations still in progress; the cost is reserved exactly when {@code current + cost <= maxTotalCost}
+     * for the returned current cost. A redelivered recommendation the ledger already counts is checked without
+     * its own committed cost, read from the cached counted costs.
+     *
+     * @param recommendation The recommendation being validated.
+     * @param cost           The monthly cost it adds to the namespace.
+     * @param maxTotalCost   The namespace budget.
+     * @return The namespace cost the check was made against, without this recommendation.
+     */
+    public double reserve(Recommendation recommendation, double cost, double maxTotalCost) {
+        ensureLoaded();
+        String namespace = recommendation.getNamespace();
+        Counted counted = counted(namespace); // May read Mongo, so before taking the lock
+        ReentrantLock lock = lock(namespace);
+        try {
+            double current = committedCost(namespace) + reservedCost(namespace);
+            if (current + cost > maxTotalCost) {
+                current -= counted.costOf(recommendation.getId());
+            }
+            if (current + cost <= maxTotalCost && cost > 0.0) {
+                reservations.computeIfAbsent(namespace, ns -> new Reservations()).add(recommendation.getId(), cost);
+            }
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the cost of a namespace including the reservations in progress, as seen by {@link #reserve}.
+     *
+     * @param namespace The namespace.
+     * @return The ledger cost plus the reserved cost.
+     */
+    public double projectedCost(String namespace) {
+        ensureLoaded();
+        ReentrantLock lock = lock(namespace);
+        try {
+            return committedCost(namespace) + reservedCost(namespace);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the reservation of a recommendation, if any. Called once its validation is over, whatever the
+     * outcome; an approved recommendation is counted by the ledger by then.
+     *
+     * @param recommendation The recommendation.
+     */
+    public void release(Recommendation recommendation) {
+        String namespace = recommendation.getNamespace();
+        if (!reservations.containsKey(namespace)) return;
+        ReentrantLock lock = lock(namespace);
+        try {
+            Reservations reserved = reservations.get(namespace);
+            if (reserved != null) {
+                reserved.remove(recommendation.getId()); // Kept when empty, so the next reservation allocates less
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records an approved (and already persisted) recommendation: its cost is added to the namespace, and
+     * earlier active recommendations of the same workload are marked SUPERSEDED and their cost removed.
+     * Replica-only recommendations (no suggested resources) do not change the sizing and are not recorded.
+     * The change is applied only on the first approval of the recommendation: a redelivered one, already
+     * counted by the ledger, leaves it unchanged.
+     *
+     * @param recommendation The approved recommendation.
+     */
+    public void approve(Recommendation recommendation) {
+        if (recommendation.getSuggestedQuantities() == null
+                && (recommendation.getSuggestedResources() == null || recommendation.getSuggestedResources().isEmpty())) return;
+        ensureLoaded();
+        String namespace = recommendation.getNamespace();
+        double cost = costOf(recommendation);
+        double approvedDelta = cost;
+        double appliedDelta = 0.0;
+        Update update = new Update().set(COUNTED + "." + recommendation.getId(), cost);
+
+        // 1. Find the earlier approvals of the workload it supersedes
+        List<Recommendation> superseded = new ArrayList<>();
+        for (Recommendation previous : recommendationRepository.findByNamespaceAndWorkloadRefAndStatusIn(
+                namespace, recommendation.getWorkloadRef(), ACTIVE)) {
+            if (previous.getId().equals(recommendation.getId())) continue;
+            if (APPLIED.equals(previous.getStatus())) appliedDelta -= costOf(previous);
+            else approvedDelta -= costOf(previous);
+            update.unset(COUNTED + "." + previous.getId());
+            superseded.add(previous);
+        }
+
+        // 2. Apply the net change, unless the recommendation is already counted
+        Criteria notCounted = Criteria.where(COUNTED + "." + recommendation.getId()).exists(false);
+        if (!increment(namespace, notCounted, update, approvedDelta, appliedDelta)) {
+            log.info("Recommendation {} is already counted in the budget of {}; ignoring the redelivered approval",
+                    recommendation.getId(), namespace);
+            meterRegistry.counter("budget_ledger_replays_total").increment();
+            return;
+        }
+        Counted counted = countedCosts.get(namespace);
+        counted.costs.put(recommendation.getId(), cost);
+        superseded.forEach(previous -> counted.costs.remove(previous.getId()));
+
+        // 3. Mark the superseded approvals
+        if (!superseded.isEmpty()) {
+            superseded.forEach(previous -> previous.setStatus(SUPERSEDED));
+            recommendationRepository.saveAll(superseded);
+            meterRegistry.counter("budget_ledger_superseded_total").increment(superseded.size());
+        }
+    }
+
+    /**
+     * Records that an approved recommendation was applied to the cluster, moving its cost from the
+     * approved to the applied part of the namespace. Unknown, superseded or already applied recommendations
+     * are ignored, so redelivered events do not count twice.
+     *
+     * @param recommendationId The applied recommendation.
+     */
+    public void apply(String recommendationId) {
+        ensureLoaded();
+        Recommendation recommendation = recommendationRepository.findById(recommendationId).orElse(null);
+        if (recommendation == null || !APPROVED.equals(recommendation.getStatus())) return;
+        recommendation.setStatus(APPLIED);
+        recommendationRepository.save(recommendation);
+        double cost = costOf(recommendation);
+        increment(recommendation.getNamespace(), null, new Update(), -cost, cost);
+    }
+
+    /**
+     * Recomputes every namespace from the active recommendations and replaces the stored ledger. Versions
+     * carry on from the replaced documents, so other replicas keep accepting later updates.
+     */
+    public synchronized void rebuild() {
+        long startNanos = System.nanoTime();
+        Map<String, Long> versions = new HashMap<>();
+        budgetRepository.findAll().forEach(budget -> versions.put(budget.getNamespace(), budget.getVersion()));
+        Map<String, NamespaceBudget> totals = new HashMap<>();
+        try (Stream<Recommendation> active = recommendationRepository.findByStatusIn(ACTIVE)) {
+            active.filter(r -> r.getNamespace() != null).forEach(r -> {
+                NamespaceBudget budget = totals.computeIfAbsent(r.getNamespace(),
+                        ns -> NamespaceBudget.builder().namespace(ns).version(versions.getOrDefault(ns, 0L) + 1).updatedAt(Instant.now())
+                                .counted(new HashMap<>()).build());
+                double cost = costOf(r);
+                if (APPLIED.equals(r.getStatus())) budget.setAppliedCost(budget.getAppliedCost() + cost);
+                else budget.setApprovedCost(budget.getApprovedCost() + cost);
+                budget.getCounted().put(r.getId(), cost);
+            });
+        }
+        budgetRepository.deleteAll();
+        budgetRepository.saveAll(totals.values());
+        budgets.clear();
+        countedCosts.clear();
+        totals.forEach(this::cache);
+        log.info("Rebuilt the budget ledger of {} namespaces in {} ms", totals.size(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Estimates the monthly cost of a given set of resources based on a simple cost model.
+     *
+     * @param resources The resource quantities.
+     * @return The estimated monthly cost.
+     */
+    public static double monthlyCost(ResourceQuantities resources) {
+        // Simple mock cost model: $30 per CPU core, $5 per GB RAM per month
+        return (resources.cpuCores() * 30.0) + (resources.memoryGib() * 5.0);
+    }
+
+    /**
+     * Returns the ledger cost of a namespace, without reservations.
+     *
+     * @param namespace The namespace.
+     * @return The approved plus applied cost.
+     */
+    private double committedCost(String namespace) {
+        NamespaceBudget budget = budgets.get(namespace);
+        return budget == null ? 0.0 : budget.totalCost();
+    }
+
+    /**
+     * Returns the counted costs of a namespace, re-read from Mongo (once) when the cached totals show updates
+     * made by another replica since they were loaded, as those may have counted further recommendations.
+     *
+     * @param namespace The namespace.
+     * @return The counted cost of each active recommendation.
+     */
+    private Counted counted(String namespace) {
+        Counted counted = countedCosts.computeIfAbsent(namespace, ns -> new Counted(Map.of(), 0L));
+        NamespaceBudget budget = budgets.get(namespace);
+        if (budget == null || counted.covers(budget.getVersion())) return counted;
+        Query query = Query.query(Criteria.where("_id").is(namespace));
+        query.fields().include(COUNTED).include("version");
+        NamespaceBudget stored = mongoTemplate.findOne(query, NamespaceBudget.class);
+        if (stored == null) return counted;
+        Counted refreshed = new Counted(stored.getCounted() == null ? Map.of() : stored.getCounted(), stored.getVersion());
+        countedCosts.put(namespace, refreshed);
+        meterRegistry.counter("budget_ledger_counted_refreshes_total").increment();
+        return refreshed;
+    }
+
+    /**
+     * Returns the cost reserved in a namespace. Callers hold the namespace's lock stripe.
+     *
+     * @param namespace The namespace.
+     * @return The reserved cost.
+     */
+    private double reservedCost(String namespace) {
+        Reservations reserved = reservations.get(namespace);
+        return reserved == null ? 0.0 : reserved.total;
+    }
+
+    /**
+     * Acquires the lock stripe of a namespace, counting the acquisitions that had to wait.
+     *
+     * @param namespace The namespace.
+     * @return The held lock.
+     */
+    private ReentrantLock lock(String namespace) {
+        int hash = namespace == null ? 0 : namespace.hashCode();
+        int stripe = Math.floorMod(hash ^ (hash >>> 16), locks.length);
+        ReentrantLock lock = locks[stripe];
+        if (!lock.tryLock()) {
+            contention[stripe].increment();
+            lock.lock();
+        }
+        return lock;
+    }
+
+    /**
+     * Adds to the stored ledger of a namespace with one atomic update and caches the resulting totals.
+     * Results of concurrent updates may arrive out of order, so the cached totals only move to a later version.
+     * With a guard, the update is only applied if the stored document matches it; the counted ids are
+     * left out of the returned document, and the cached ones are kept up to date by the caller.
+     *
+     * @param namespace     The namespace.
+     * @param guard         The condition on the stored document, or null.
+     * @param update        Further changes made with the increment.
+     * @param approvedDelta The change of the approved cost.
+     * @param appliedDelta  The change of the applied cost.
+     * @return False if the guard did not match, so nothing was changed.
+     */
+    private boolean increment(String namespace, Criteria guard, Update update, double approvedDelta, double appliedDelta) {
+        Criteria criteria = Criteria.where("_id").is(namespace);
+        Query query = Query.query(guard == null ? criteria : criteria.andOperator(guard));
+        query.fields().exclude(COUNTED);
+        NamespaceBudget updated;
+        try {
+            updated = mongoTemplate.findAndModify(query,
+                    update.inc("approvedCost", approvedDelta).inc("appliedCost", appliedDelta).inc("version", 1)
+                            .set("updatedAt", Instant.now()),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    NamespaceBudget.class);
+        } catch (DuplicateKeyException e) {
+            return false; // The namespace exists but does not match the guard, so the upsert tried to insert it
+        }
+        countedCosts.computeIfAbsent(namespace, ns -> new Counted(Map.of(), 0L)).localUpdates.incrementAndGet();
+        if (updated != null) {
+            budgets.merge(namespace, updated, (cached, fresh) -> fresh.getVersion() >= cached.getVersion() ? fresh : cached);
+        }
+        meterRegistry.counter("budget_ledger_updates_total").increment();
+        return true;
+    }
+
+    /**
+     * Caches the totals of a stored namespace budget and, separately, its counted costs.
+     *
+     * @param namespace The namespace.
+     * @param budget    The stored budget.
+     */
+    private void cache(String namespace, NamespaceBudget budget) {
+        budgets.put(namespace, NamespaceBudget.builder().namespace(namespace).approvedCost(budget.getApprovedCost())
+                .appliedCost(budget.getAppliedCost()).version(budget.getVersion()).updatedAt(budget.getUpdatedAt()).build());
+        countedCosts.put(namespace, new Counted(budget.getCounted() == null ? Map.of() : budget.getCounted(), budget.getVersion()));
+    }
+
+    /**
+     * Loads the stored ledger on first use, rebuilding it when it is empty or a rebuild is configured.
+     */
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            List<NamespaceBudget> stored = budgetRepository.findAll();
+            if (stored.isEmpty() || properties.isRebuildOnStartup()) {
+                rebuild();
+            } else {
+                stored.forEach(budget -> cache(budget.getNamespace(), budget));
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * Prices a recommendation from its pre-parsed suggested quantities, parsing the resource map only for
+     * recommendations stored before quantities were introduced.
+     *
+     * @param recommendation The recommendation.
+     * @return The estimated monthly cost (zero if unparseable).
+     */
+    private double costOf(Recommendation recommendation) {
+        try {
+            return monthlyCost(ResourceQuantities.orParse(recommendation.getSuggestedQuantities(), recommendation.getSuggestedResources()));
+        } catch (IllegalArgumentException e) {
+            log.error("Error parsing resources of recommendation {}: {}", recommendation.getId(), e.getMessage());
+            return 0.0;
+        }
+    }
+
+    /**
+     * Cached counted costs of one namespace, complete as of a stored version plus the updates made since by
+     * this replica. A cached version beyond that means another replica changed the namespace.
+     */
+    private static final class Counted {
+        private final Map<String, Double> costs;
+        private final long version;
+        private final AtomicLong localUpdates = new AtomicLong();
+
+        Counted(Map<String, Double> costs, long version) {
+            this.costs = new ConcurrentHashMap<>(costs);
+            this.version = version;
+        }
+
+        /**
+         * Returns the counted cost of a recommendation.
+         *
+         * @param recommendationId The recommendation.
+         * @return Its counted cost, zero if it is not counted.
+         */
+        double costOf(String recommendationId) {
+            return costs.getOrDefault(recommendationId, 0.0);
+        }
+
+        /**
+         * Tells whether the counted costs include every update up to a stored version.
+         *
+         * @param storedVersion The version of the cached totals.
+         * @return True if no other replica changed the namespace in between.
+         */
+        boolean covers(long storedVersion) {
+            return storedVersion <= version + localUpdates.get();
+        }
+    }
+
+    /**
+     * Costs reserved by the validations in progress in one namespace, guarded by the namespace's lock stripe.
+     */
+    private static final class Reservations {
+        private final Map<String, Double> byRecommendation = new HashMap<>();
+        private double total;
+
+        /**
+         * Adds (or replaces) a reservation.
+         *
+         * @param recommendationId The recommendation.
+         * @param cost             The reserved cost.
+         */
+        void add(String recommendationId, double cost) {
+            Double previous = byRecommendation.put(recommendationId, cost);
+            total += cost - (previous == null ? 0.0 : previous);
+        }
+
+        /**
+         * Removes a reservation.
+         *
+         * @param recommendationId The recommendation.
+         */
+        void remove(String recommendationId) {
+            Double cost = byRecommendation.remove(recommendationId);
+            if (cost != null) total -= cost;
+            if (byRecommendation.isEmpty()) total = 0.0; // Drop accumulated rounding
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.kubefinops.policy.cache;
+
+import io.kubefinops.policy.config.PolicyCacheProperties;
+import io.kubefinops.policy.repository.PolicyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Holds the current {@link PolicySnapshot}, so that validation looks policies up without any I/O.
+ * The snapshot is loaded on first use and replaced as a whole whenever the policies collection changes:
+ * a Mongo change stream triggers a reload on every insert, update or delete, and a periodic reload covers
+ * deployments without change streams (standalone servers) and any event missed while the stream reconnects.
+ */
+@Slf4j
+@Service
+public class PolicyCache {
+
+    private static final String COLLECTION = "policies";
+
+    private final PolicyRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final PolicyCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private volatile PolicySnapshot snapshot;
+    private MessageListenerContainer changeStreams;
+
+    public PolicyCache(PolicyRepository repository, MongoTemplate mongoTemplate, PolicyCacheProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("policy_cache_policies", this, cache -> cache.snapshot == null ? 0 : cache.snapshot.size());
+    }
+
+    /**
+     * Returns the current snapshot, loading it on first use.
+     *
+     * @return The policy snapshot.
+     */
+    public PolicySnapshot snapshot() {
+        PolicySnapshot current = snapshot;
+        return current != null ? current : refresh("initial");
+    }
+
+    /**
+     * Reloads the policies after a known change (e.g. policies seeded by this service).
+     *
+     * @return The new snapshot.
+     */
+    public PolicySnapshot refresh() {
+        return refresh("manual");
+    }
+
+    /**
+     * Subscribes to the change stream of the policies collection once the application is ready.
+     * If the server does not support change streams, the periodic reload keeps the snapshot current.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isChangeStream()) return;
+        changeStreams = new DefaultMessageListenerContainer(mongoTemplate);
+        ChangeStreamRequest<Document> request = ChangeStreamRequest.<Document>builder(message -> reloadQuietly("change-stream"))
+                .collection(COLLECTION)
+                .build();
+        changeStreams.register(request, Document.class, error ->
+                log.warn("Policy change stream unavailable, relying on the {} reload: {}", properties.getPollInterval(), error.getMessage()));
+        changeStreams.start();
+    }
+
+    /**
+     * Periodically reloads the policies. A failed read keeps the current snapshot.
+     */
+    @Scheduled(fixedDelayString = "${app.policy-cache.poll-interval:60s}", initialDelayString = "${app.policy-cache.poll-interval:60s}")
+    public void poll() {
+        reloadQuietly("poll");
+    }
+
+    /**
+     * Closes the change stream subscription.
+     */
+    @PreDestroy
+    public void stop() {
+        if (changeStreams != null) {
+            changeStreams.stop();
+        }
+    }
+
+    /**
+     * Reads the whole collection and swaps in the new snapshot. Reloads are serialized, so a slow read can
+     * never replace the result of a later one.
+     *
+     * @param trigger What caused the reload, for the metrics.
+     * @return The new snapshot.
+     */
+    private synchronized PolicySnapshot refresh(String trigger) {
+        PolicySnapshot loaded = PolicySnapshot.of(repository.findAll());
+        snapshot = loaded;
+        meterRegistry.counter("policy_cache_reloads_total", "trigger", trigger).increment();
+        log.debug("Loaded {} policies ({})", loaded.size(), trigger);
+        return loaded;
+    }
+
+    private void reloadQuietly(String trigger) {
+        try {
+            refresh(trigger);
+        } catch (Exception e) {
+            log.warn("Could not reload policies ({}), keeping the {} cached ones: {}", trigger,
+                    snapshot == null ? 0 : snapshot.size(), e.getMessage());
+        }
+    }
+}
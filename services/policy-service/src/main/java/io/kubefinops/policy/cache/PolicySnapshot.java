@@ -0,0 +1,94 @@
+package io.kubefinops.policy.cache;
+
+import io.kubefinops.policy.domain.Policy;
+import io.kubefinops.policy.plan.CompiledPolicy;
+import io.kubefinops.policy.plan.PolicyPlan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the policies collection, indexed by namespace. The list of a namespace already holds the
+ * global policies (namespace null) merged with its own, in collection order, i.e. the same policies and order
+ * as {@code findByNamespaceOrNamespaceIsNull}; namespaces without policies of their own share the global list.
+ * Each list is compiled into a {@link PolicyPlan} when the snapshot is built, every policy being parsed once.
+ */
+public final class PolicySnapshot {
+
+    public static final PolicySnapshot EMPTY = of(List.of());
+
+    private final Map<String, PolicyPlan> byNamespace;
+    private final PolicyPlan global;
+    private final int size;
+
+    private PolicySnapshot(Map<String, PolicyPlan> byNamespace, PolicyPlan global, int size) {
+        this.byNamespace = byNamespace;
+        this.global = global;
+        this.size = size;
+    }
+
+    /**
+     * Indexes a full read of the policies collection.
+     *
+     * @param policies Every policy, in collection order.
+     * @return The snapshot.
+     */
+    public static PolicySnapshot of(List<Policy> policies) {
+        // 1. One list per namespace that has policies of its own
+        Map<String, List<Policy>> merged = new HashMap<>();
+        List<Policy> global = new ArrayList<>();
+        for (Policy policy : policies) {
+            if (policy.getNamespace() != null) merged.putIfAbsent(policy.getNamespace(), new ArrayList<>());
+        }
+
+        // 2. Fill them in collection order, global policies going to every list
+        for (Policy policy : policies) {
+            if (policy.getNamespace() == null) {
+                global.add(policy);
+                merged.values().forEach(list -> list.add(policy));
+            } else {
+                merged.get(policy.getNamespace()).add(policy);
+            }
+        }
+
+        // 3. Compile them, sharing the compiled global policies
+        Map<Policy, CompiledPolicy> compiled = new IdentityHashMap<>();
+        Map<String, PolicyPlan> byNamespace = new HashMap<>(merged.size() * 2);
+        merged.forEach((ns, list) -> byNamespace.put(ns, PolicyPlan.of(list, compiled)));
+        return new PolicySnapshot(byNamespace, PolicyPlan.of(global, compiled), policies.size());
+    }
+
+    /**
+     * Returns the policies that apply to a namespace.
+     *
+     * @param namespace The namespace.
+     * @return The global and namespace policies, in collection order.
+     */
+    public List<Policy> forNamespace(String namespace) {
+        return planFor(namespace).sources();
+    }
+
+    /**
+     * Returns the compiled policies that apply to a namespace.
+     *
+     * @param namespace The namespace.
+     * @return The evaluation plan (empty if no policy applies).
+     */
+    public PolicyPlan planFor(String namespace) {
+        if (namespace == null) return global;
+        PolicyPlan plan = byNamespace.get(namespace);
+        return plan != null ? plan : global;
+    }
+
+    /**
+     * Returns the number of policies in the snapshot.
+     *
+     * @return The policy count.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,13 @@
+package io.kubefinops.policy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.budget-ledger")
+public class BudgetLedgerProperties {
+    private boolean rebuildOnStartup = false; // Re-price the active recommendations on startup instead of trusting the stored ledger (always done when it is empty)
+    private int lockStripes = 64; // Locks guarding budget check-and-reserve; a namespace always maps to the same lock
+}
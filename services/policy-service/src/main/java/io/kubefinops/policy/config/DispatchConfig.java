@@ -0,0 +1,45 @@
+package io.kubefinops.policy.config;
+
+import io.kubefinops.event.kafka.StripedExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+
+@Configuration
+public class DispatchConfig {
+
+    /**
+     * Lanes on which inbound recommendations are validated. Records are striped by their key, so the
+     * recommendations of one workload are validated in order; budget checks of a namespace may run on several
+     * lanes at once and are serialized by the budget ledger reservations instead.
+     *
+     * @param properties    The dispatch settings.
+     * @param meterRegistry The meter registry for the in-flight gauge.
+     * @return The striped executor (closed with the context, draining queued records).
+     */
+    @Bean
+    public StripedExecutor validationExecutor(DispatchProperties properties, MeterRegistry meterRegistry) {
+        StripedExecutor executor = new StripedExecutor("policy-validation", properties.getStripes(), properties.getMaxInFlight());
+        meterRegistry.gauge("event_dispatch_in_flight", executor, StripedExecutor::inFlight);
+        return executor;
+    }
+
+    /**
+     * Commits offsets only past records that are fully processed: with MANUAL acks, records acknowledged
+     * out of order by different lanes are held back until the gaps before them are filled.
+     *
+     * @return The container customizer.
+     */
+    @Bean
+    public ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> asyncAcksCustomizer() {
+        return (container, destination, group) -> {
+            ContainerProperties properties = container.getContainerProperties();
+            if (properties.getAckMode() == ContainerProperties.AckMode.MANUAL) {
+                properties.setAsyncAcks(true);
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package io.kubefinops.policy.config;
+
+import io.kubefinops.event.codec.BinaryEventMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+
+@Configuration
+public class EventCodecConfig {
+
+    /**
+     * Lets the bindings decode binary recommendations and scaling batches, and encode the approvals
+     * and violations this service publishes, when their content type is application/x-kubefinops-event.
+     *
+     * @return The message converter.
+     */
+    @Bean
+    public MessageConverter binaryEventMessageConverter() {
+        return new BinaryEventMessageConverter();
+    }
+}
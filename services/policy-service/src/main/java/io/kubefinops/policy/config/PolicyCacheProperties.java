@@ -0,0 +1,15 @@
+package io.kubefinops.policy.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.policy-cache")
+public class PolicyCacheProperties {
+    private boolean changeStream = true; // Reload on change stream events of the policies collection (needs a replica set)
+    private Duration pollInterval = Duration.ofSeconds(60); // Full reload period, the fallback when change streams are unavailable
+}
@@ -0,0 +1,40 @@
+package io.kubefinops.policy.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Running monthly cost of the recommendations approved in a namespace, kept up to date with {@code $inc}
+ * updates instead of re-pricing the namespace history on every validation.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "namespace_budgets")
+public class NamespaceBudget {
+
+    @Id
+    private String namespace;
+    private double approvedCost; // Approved recommendations not applied to the cluster yet
+    private double appliedCost;  // Approved recommendations confirmed applied
+    private long version;       // Incremented by every update, so concurrent results are cached in order
+    private Instant updatedAt;
+    private Map<String, Double> counted; // Cost of each active recommendation by id, so an approval is counted once
+
+    /**
+     * Returns the cost counted against the namespace budget.
+     *
+     * @return The approved plus applied cost.
+     */
+    public double totalCost() {
+        return approvedCost + appliedCost;
+    }
+}
@@ -24,6 +24,7 @@ public class Policy {
     private String maxMemory; // e.g., "2Gi"
     private Double minMonthlySavings; // e.g., 2.0
     private Double maxMonthlyCost;    // e.g., 500.0 (max budget for namespace)
+    private String expression;        // e.g., "memory >= currentMemory * 0.6" (see RuleExpression)
     
     @Builder.Default
     private boolean enabled = true;
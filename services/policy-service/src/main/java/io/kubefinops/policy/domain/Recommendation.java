@@ -1,5 +1,6 @@
 package io.kubefinops.policy.domain;
 
+import io.kubefinops.event.ResourceQuantities;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,13 +24,15 @@ public class Recommendation {
     private String namespace;
     private Map<String, String> currentResources;
     private Map<String, String> suggestedResources;
+    private ResourceQuantities currentQuantities; // Parsed once on ingestion; null on documents stored before it existed
+    private ResourceQuantities suggestedQuantities;
     private Integer replicas;
     private Double confidenceScore;
     private Double estimatedMonthlySavings;
     private String currency;
     private Instant createdAt;
     
-    // Status field for future processing (e.g. PENDING, APPROVED, REJECTED)
+    // Status field for future processing (e.g. PENDING, APPROVED, APPLIED, SUPERSEDED, REJECTED)
     @Builder.Default
     private String status = "PENDING";
     private String rejectionReason;
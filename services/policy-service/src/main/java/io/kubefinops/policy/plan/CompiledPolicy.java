@@ -0,0 +1,29 @@
+package io.kubefinops.policy.plan;
+
+import io.kubefinops.policy.domain.Policy;
+import io.kubefinops.policy.rule.RuleExpression;
+
+/**
+ * A policy with its thresholds parsed into primitives, and its rule expression compiled, once, when the
+ * snapshot is loaded. Absent (or unparseable) limits become values that never trip the check, so evaluation
+ * needs no null tests.
+ *
+ * @param policy            The source policy (name and original limit strings for violation messages).
+ * @param maxCpuMillis      The CPU limit in milli-cores, or {@link Long#MAX_VALUE}.
+ * @param maxMemoryBytes    The memory limit in bytes, or {@link Long#MAX_VALUE}.
+ * @param minMonthlySavings The savings threshold, or negative infinity.
+ * @param maxMonthlyCost    The namespace budget, or positive infinity.
+ * @param rule              The compiled rule expression, or null.
+ */
+public record CompiledPolicy(Policy policy, long maxCpuMillis, long maxMemoryBytes,
+                             double minMonthlySavings, double maxMonthlyCost, RuleExpression rule) {
+
+    /**
+     * Returns true if the policy caps the namespace budget.
+     *
+     * @return Whether the budget check applies.
+     */
+    public boolean budgeted() {
+        return maxMonthlyCost != Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,187 @@
+package io.kubefinops.policy.plan;
+
+import io.kubefinops.event.Quantity;
+import io.kubefinops.policy.domain.Policy;
+import io.kubefinops.policy.rule.RuleExpression;
+import io.kubefinops.policy.rule.RuleSyntaxException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * The policies that apply to one namespace, compiled for evaluation. Besides the policies in collection order,
+ * the plan holds the strictest value of every threshold across them: a recommendation within all of those
+ * passes every policy, so the approve path is four primitive comparisons whatever the number of policies
+ * (plus one evaluation per rule expression), and the policies are only walked one by one to name the first
+ * violated policy of a rejection.
+ */
+@Slf4j
+public final class PolicyPlan {
+
+    public static final PolicyPlan EMPTY = new PolicyPlan(new CompiledPolicy[0], List.of());
+
+    private final CompiledPolicy[] policies;
+    private final List<Policy> sources;
+    private final RuleExpression[] rules;
+    private final long maxCpuMillis;
+    private final long maxMemoryBytes;
+    private final double minMonthlySavings;
+    private final double maxMonthlyCost;
+
+    private PolicyPlan(CompiledPolicy[] policies, List<Policy> sources) {
+        long cpu = Long.MAX_VALUE;
+        long memory = Long.MAX_VALUE;
+        double savings = Double.NEGATIVE_INFINITY;
+        double cost = Double.POSITIVE_INFINITY;
+        List<RuleExpression> rules = new ArrayList<>();
+        for (CompiledPolicy policy : policies) {
+            if (policy.rule() != null) rules.add(policy.rule());
+            cpu = Math.min(cpu, policy.maxCpuMillis());
+            memory = Math.min(memory, policy.maxMemoryBytes());
+            savings = Math.max(savings, policy.minMonthlySavings());
+            cost = Math.min(cost, policy.maxMonthlyCost());
+        }
+        this.policies = policies;
+        this.sources = sources;
+        this.rules = rules.toArray(RuleExpression[]::new);
+        this.maxCpuMillis = cpu;
+        this.maxMemoryBytes = memory;
+        this.minMonthlySavings = savings;
+        this.maxMonthlyCost = cost;
+    }
+
+    /**
+     * Compiles the policies of a namespace, reusing the policies already compiled for other namespaces.
+     *
+     * @param policies The policies, in collection order.
+     * @param compiled The compiled policies shared across plans, filled on demand.
+     * @return The plan.
+     */
+    public static PolicyPlan of(List<Policy> policies, Map<Policy, CompiledPolicy> compiled) {
+        if (policies.isEmpty()) return EMPTY;
+        CompiledPolicy[] plan = new CompiledPolicy[policies.size()];
+        for (int i = 0; i < plan.length; i++) {
+            plan[i] = compiled.computeIfAbsent(policies.get(i), PolicyPlan::compile);
+        }
+        return new PolicyPlan(plan, List.copyOf(policies));
+    }
+
+    /**
+     * Parses the thresholds of a policy.
+     *
+     * @param policy The policy.
+     * @return The compiled policy.
+     */
+    static CompiledPolicy compile(Policy policy) {
+        return new CompiledPolicy(policy,
+                limit(policy, policy.getMaxCpu(), Quantity::parseMillis),
+                limit(policy, policy.getMaxMemory(), Quantity::parseUnits),
+                policy.getMinMonthlySavings() != null ? policy.getMinMonthlySavings() : Double.NEGATIVE_INFINITY,
+                policy.getMaxMonthlyCost() != null ? policy.getMaxMonthlyCost() : Double.POSITIVE_INFINITY,
+                rule(policy));
+    }
+
+    private static RuleExpression rule(Policy policy) {
+        if (policy.getExpression() == null || policy.getExpression().isBlank()) return null;
+        try {
+            return RuleExpression.compile(policy.getExpression());
+        } catch (RuleSyntaxException e) {
+            log.error("Error compiling rule of policy {}, ignoring it: {}", policy.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static long limit(Policy policy, String value, ToLongFunction<String> parser) {
+        if (value == null) return Long.MAX_VALUE;
+        try {
+            return parser.applyAsLong(value);
+        } catch (IllegalArgumentException e) {
+            log.error("Error parsing resource limit {} of policy {}, ignoring it", value, policy.getName());
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Returns true if no policy applies.
+     *
+     * @return Whether the plan is empty.
+     */
+    public boolean isEmpty() {
+        return policies.length == 0;
+    }
+
+    /**
+     * Returns the compiled policies in collection order.
+     *
+     * @return The policies (not to be modified).
+     */
+    public CompiledPolicy[] policies() {
+        return policies;
+    }
+
+    /**
+     * Returns the source policies in collection order.
+     *
+     * @return The policies.
+     */
+    public List<Policy> sources() {
+        return sources;
+    }
+
+    /**
+     * Returns the rule expressions of the policies, in collection order.
+     *
+     * @return The rules (not to be modified).
+     */
+    public RuleExpression[] rules() {
+        return rules;
+    }
+
+    /**
+     * Returns true if a policy caps the namespace budget.
+     *
+     * @return Whether the budget check applies.
+     */
+    public boolean budgeted() {
+        return maxMonthlyCost != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the strictest CPU limit.
+     *
+     * @return The limit in milli-cores, or {@link Long#MAX_VALUE}.
+     */
+    public long maxCpuMillis() {
+        return maxCpuMillis;
+    }
+
+    /**
+     * Returns the strictest memory limit.
+     *
+     * @return The limit in bytes, or {@link Long#MAX_VALUE}.
+     */
+    public long maxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    /**
+     * Returns the highest savings threshold.
+     *
+     * @return The threshold, or negative infinity.
+     */
+    public double minMonthlySavings() {
+        return minMonthlySavings;
+    }
+
+    /**
+     * Returns the smallest namespace budget.
+     *
+     * @return The budget, or positive infinity.
+     */
+    public double maxMonthlyCost() {
+        return maxMonthlyCost;
+    }
+}
@@ -0,0 +1,9 @@
+package io.kubefinops.policy.repository;
+
+import io.kubefinops.policy.domain.NamespaceBudget;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NamespaceBudgetRepository extends MongoRepository<NamespaceBudget, String> {
+}
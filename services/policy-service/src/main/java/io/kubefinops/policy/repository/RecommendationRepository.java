@@ -5,8 +5,13 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface RecommendationRepository extends MongoRepository<Recommendation, String> {
     List<Recommendation> findByNamespaceAndStatusIn(String namespace, List<String> statuses);
+
+    List<Recommendation> findByNamespaceAndWorkloadRefAndStatusIn(String namespace, String workloadRef, List<String> statuses);
+
+    Stream<Recommendation> findByStatusIn(List<String> statuses);
 }
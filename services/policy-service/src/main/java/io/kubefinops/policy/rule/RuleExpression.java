@@ -0,0 +1,70 @@
+package io.kubefinops.policy.rule;
+
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.policy.domain.Recommendation;
+
+/**
+ * A policy rule over recommendation fields, e.g. {@code memory >= currentMemory * 0.6} (memory may drop by
+ * 40% at most) or {@code namespace != 'prod' || confidence >= 0.8}. The expression is parsed once and
+ * compiled into a tree of specialized lambdas (constants folded, comparisons against constants inlined),
+ * so evaluating it is a few virtual calls on primitives, without interpretation or allocation.
+ * <p>
+ * Language:
+ * <ul>
+ *   <li>Numbers: {@code cpu}, {@code currentCpu} (cores), {@code memory}, {@code currentMemory} (bytes),
+ *       {@code replicas}, {@code confidence}, {@code savings} (estimated monthly savings) and {@code cost}
+ *       (estimated monthly cost of the suggested resources). Missing values are zero.</li>
+ *   <li>Text: {@code namespace}, {@code workloadRef}, compared with {@code ==} and {@code !=} to quoted literals.</li>
+ *   <li>Literals: numbers with an optional Kubernetes suffix ({@code 500m}, {@code 2Gi}, {@code 1k}),
+ *       {@code 'text'}, {@code true}, {@code false}.</li>
+ *   <li>Operators, by increasing precedence: {@code ||}, {@code &&}, {@code !}, comparisons
+ *       ({@code < <= > >= == !=}), {@code + -}, {@code * /}, unary {@code -}; parentheses;
+ *       functions {@code min(a, b)}, {@code max(a, b)}, {@code abs(a)}.</li>
+ * </ul>
+ */
+public final class RuleExpression {
+
+    private final String source;
+    private final RuleParser.Cond condition;
+
+    private RuleExpression(String source, RuleParser.Cond condition) {
+        this.source = source;
+        this.condition = condition;
+    }
+
+    /**
+     * Parses and compiles an expression.
+     *
+     * @param source The expression.
+     * @return The compiled rule.
+     * @throws RuleSyntaxException If the expression is not valid.
+     */
+    public static RuleExpression compile(String source) {
+        return new RuleExpression(source, new RuleParser(source).parse());
+    }
+
+    /**
+     * Evaluates the rule.
+     *
+     * @param recommendation The recommendation.
+     * @param suggested      Its suggested quantities (parsed by the caller for legacy recommendations).
+     * @return True if the recommendation satisfies the rule.
+     */
+    public boolean test(Recommendation recommendation, ResourceQuantities suggested) {
+        return condition.test(recommendation, suggested);
+    }
+
+    /**
+     * Returns the expression as written.
+     *
+     * @return The source.
+     */
+    public String source() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,396 @@
+package io.kubefinops.policy.rule;
+
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.policy.budget.BudgetLedger;
+import io.kubefinops.policy.domain.Recommendation;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Recursive-descent parser of {@link RuleExpression}s that compiles while it parses: every grammar rule returns
+ * the lambda evaluating it ({@link Num}, {@link Cond} or {@link Text}), so the result is a tree of small
+ * lambdas rather than a syntax tree to interpret. Constant operands are folded and comparisons or
+ * arithmetic against a constant capture it as a primitive.
+ */
+final class RuleParser {
+
+    /**
+     * Numeric sub-expression.
+     */
+    @FunctionalInterface
+    interface Num {
+        double eval(Recommendation r, ResourceQuantities s);
+    }
+
+    /**
+     * Boolean sub-expression.
+     */
+    @FunctionalInterface
+    interface Cond {
+        boolean test(Recommendation r, ResourceQuantities s);
+    }
+
+    /**
+     * Text sub-expression.
+     */
+    @FunctionalInterface
+    interface Text {
+        String eval(Recommendation r);
+    }
+
+    private record Const(double value) implements Num {
+        @Override
+        public double eval(Recommendation r, ResourceQuantities s) {
+            return value;
+        }
+    }
+
+    private record TextConst(String value) implements Text {
+        @Override
+        public String eval(Recommendation r) {
+            return value;
+        }
+    }
+
+    private static final Cond TRUE = (r, s) -> true;
+    private static final Cond FALSE = (r, s) -> false;
+
+    private static final Map<String, Num> NUMBERS = Map.of(
+            "cpu", (r, s) -> s.cpuCores(),
+            "memory", (r, s) -> s.getMemoryBytes(),
+            "currentCpu", (r, s) -> r.getCurrentQuantities() == null ? 0.0 : r.getCurrentQuantities().cpuCores(),
+            "currentMemory", (r, s) -> r.getCurrentQuantities() == null ? 0.0 : r.getCurrentQuantities().getMemoryBytes(),
+            "replicas", (r, s) -> r.getReplicas() == null ? 0.0 : r.getReplicas(),
+            "confidence", (r, s) -> r.getConfidenceScore() == null ? 0.0 : r.getConfidenceScore(),
+            "savings", (r, s) -> r.getEstimatedMonthlySavings() == null ? 0.0 : r.getEstimatedMonthlySavings(),
+            "cost", (r, s) -> BudgetLedger.monthlyCost(s));
+
+    private static final Map<String, Text> TEXTS = Map.of(
+            "namespace", Recommendation::getNamespace,
+            "workloadRef", Recommendation::getWorkloadRef);
+
+    private static final Map<String, Double> UNITS = Map.of(
+            "m", 1e-3, "k", 1e3, "M", 1e6, "G", 1e9, "T", 1e12,
+            "Ki", 1024.0, "Mi", 1024.0 * 1024, "Gi", 1024.0 * 1024 * 1024, "Ti", 1024.0 * 1024 * 1024 * 1024);
+
+    private final String source;
+    private int pos;
+
+    RuleParser(String source) {
+        this.source = Objects.requireNonNull(source, "source");
+    }
+
+    /**
+     * Parses the whole expression.
+     *
+     * @return The compiled condition.
+     * @throws RuleSyntaxException If the expression is not a valid condition.
+     */
+    Cond parse() {
+        Object expression = or();
+        skipSpaces();
+        if (pos < source.length()) throw error("Unexpected '" + source.charAt(pos) + "'", pos);
+        return cond(expression, 0);
+    }
+
+    // expression := and ('||' and)*
+    private Object or() {
+        int at = skipSpaces();
+        Object left = and();
+        while (accept("||")) {
+            Cond a = cond(left, at);
+            int rightAt = skipSpaces();
+            Cond b = cond(and(), rightAt);
+            left = (Cond) (r, s) -> a.test(r, s) || b.test(r, s);
+        }
+        return left;
+    }
+
+    // and := not ('&&' not)*
+    private Object and() {
+        int at = skipSpaces();
+        Object left = not();
+        while (accept("&&")) {
+            Cond a = cond(left, at);
+            int rightAt = skipSpaces();
+            Cond b = cond(not(), rightAt);
+            left = (Cond) (r, s) -> a.test(r, s) && b.test(r, s);
+        }
+        return left;
+    }
+
+    // not := '!' not | comparison
+    private Object not() {
+        int at = skipSpaces();
+        if (source.startsWith("!", pos) && !source.startsWith("!=", pos)) {
+            pos++;
+            Cond operand = cond(not(), at + 1);
+            return (Cond) (r, s) -> !operand.test(r, s);
+        }
+        return comparison();
+    }
+
+    // comparison := sum (('<' | '<=' | '>' | '>=' | '==' | '!=') sum)?
+    private Object comparison() {
+        int at = skipSpaces();
+        Object left = sum();
+        String op = acceptAny("<=", ">=", "==", "!=", "<", ">");
+        if (op == null) return left;
+        int rightAt = skipSpaces();
+        Object right = sum();
+        if (left instanceof Text || right instanceof Text) {
+            return textComparison(op, left, right, at);
+        }
+        return numberComparison(op, num(left, at), num(right, rightAt));
+    }
+
+    // sum := product (('+' | '-') product)*
+    private Object sum() {
+        int at = skipSpaces();
+        Object left = product();
+        String op;
+        while ((op = acceptAny("+", "-")) != null) {
+            int rightAt = skipSpaces();
+            left = arithmetic(op.charAt(0), num(left, at), num(product(), rightAt));
+        }
+        return left;
+    }
+
+    // product := unary (('*' | '/') unary)*
+    private Object product() {
+        int at = skipSpaces();
+        Object left = unary();
+        String op;
+        while ((op = acceptAny("*", "/")) != null) {
+            int rightAt = skipSpaces();
+            left = arithmetic(op.charAt(0), num(left, at), num(unary(), rightAt));
+        }
+        return left;
+    }
+
+    // unary := '-' unary | primary
+    private Object unary() {
+        int at = skipSpaces();
+        if (accept("-")) {
+            Num operand = num(unary(), at + 1);
+            if (operand instanceof Const c) return new Const(-c.value());
+            return (Num) (r, s) -> -operand.eval(r, s);
+        }
+        return primary();
+    }
+
+    // primary := number | text | 'true' | 'false' | field | function '(' arguments ')' | '(' expression ')'
+    private Object primary() {
+        int at = skipSpaces();
+        if (pos >= source.length()) throw error("Unexpected end of rule", at);
+        char c = source.charAt(pos);
+        if (c == '(') {
+            pos++;
+            Object inner = or();
+            expect(")");
+            return inner;
+        }
+        if (c == '\'' || c == '"') return text(c);
+        if (Character.isDigit(c) || c == '.') return number();
+        if (Character.isLetter(c)) {
+            String name = identifier();
+            return switch (name) {
+                case "true" -> TRUE;
+                case "false" -> FALSE;
+                case "min", "max", "abs" -> function(name);
+                default -> field(name, at);
+            };
+        }
+        throw error("Unexpected '" + c + "'", at);
+    }
+
+    private Object field(String name, int at) {
+        Num number = NUMBERS.get(name);
+        if (number != null) return number;
+        Text text = TEXTS.get(name);
+        if (text != null) return text;
+        throw error("Unknown field '" + name + "'", at);
+    }
+
+    private Object function(String name) {
+        expect("(");
+        int at = skipSpaces();
+        Num a = num(or(), at);
+        if (name.equals("abs")) {
+            expect(")");
+            if (a instanceof Const c) return new Const(Math.abs(c.value()));
+            return (Num) (r, s) -> Math.abs(a.eval(r, s));
+        }
+        expect(",");
+        int secondAt = skipSpaces();
+        Num b = num(or(), secondAt);
+        expect(")");
+        boolean min = name.equals("min");
+        if (a instanceof Const x && b instanceof Const y) {
+            return new Const(min ? Math.min(x.value(), y.value()) : Math.max(x.value(), y.value()));
+        }
+        if (min) return (Num) (r, s) -> Math.min(a.eval(r, s), b.eval(r, s));
+        return (Num) (r, s) -> Math.max(a.eval(r, s), b.eval(r, s));
+    }
+
+    private Const number() {
+        int start = pos;
+        while (pos < source.length() && (Character.isDigit(source.charAt(pos)) || source.charAt(pos) == '.')) pos++;
+        double value;
+        try {
+            value = Double.parseDouble(source.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + source.substring(start, pos) + "'", start);
+        }
+        int unitAt = pos;
+        String unit = identifier();
+        if (unit.isEmpty()) return new Const(value);
+        Double factor = UNITS.get(unit);
+        if (factor == null) throw error("Unknown unit '" + unit + "'", unitAt);
+        return new Const(value * factor);
+    }
+
+    private TextConst text(char quote) {
+        int start = pos++;
+        int end = source.indexOf(quote, pos);
+        if (end < 0) throw error("Unterminated text", start);
+        pos = end + 1;
+        return new TextConst(source.substring(start + 1, end));
+    }
+
+    private String identifier() {
+        int start = pos;
+        while (pos < source.length() && Character.isLetterOrDigit(source.charAt(pos))) pos++;
+        return source.substring(start, pos);
+    }
+
+    private static Num arithmetic(char op, Num a, Num b) {
+        if (a instanceof Const x && b instanceof Const y) {
+            return new Const(switch (op) {
+                case '+' -> x.value() + y.value();
+                case '-' -> x.value() - y.value();
+                case '*' -> x.value() * y.value();
+                default -> x.value() / y.value();
+            });
+        }
+        if (b instanceof Const y) {
+            double v = y.value();
+            return switch (op) {
+                case '+' -> (r, s) -> a.eval(r, s) + v;
+                case '-' -> (r, s) -> a.eval(r, s) - v;
+                case '*' -> (r, s) -> a.eval(r, s) * v;
+                default -> (r, s) -> a.eval(r, s) / v;
+            };
+        }
+        return switch (op) {
+            case '+' -> (r, s) -> a.eval(r, s) + b.eval(r, s);
+            case '-' -> (r, s) -> a.eval(r, s) - b.eval(r, s);
+            case '*' -> (r, s) -> a.eval(r, s) * b.eval(r, s);
+            default -> (r, s) -> a.eval(r, s) / b.eval(r, s);
+        };
+    }
+
+    private static Cond numberComparison(String op, Num a, Num b) {
+        if (a instanceof Const x && b instanceof Const y) {
+            return compare(op, x.value(), y.value()) ? TRUE : FALSE;
+        }
+        if (a instanceof Const) {
+            return numberComparison(mirror(op), b, a);
+        }
+        if (b instanceof Const y) {
+            double v = y.value();
+            return switch (op) {
+                case "<" -> (r, s) -> a.eval(r, s) < v;
+                case "<=" -> (r, s) -> a.eval(r, s) <= v;
+                case ">" -> (r, s) -> a.eval(r, s) > v;
+                case ">=" -> (r, s) -> a.eval(r, s) >= v;
+                case "==" -> (r, s) -> a.eval(r, s) == v;
+                default -> (r, s) -> a.eval(r, s) != v;
+            };
+        }
+        return switch (op) {
+            case "<" -> (r, s) -> a.eval(r, s) < b.eval(r, s);
+            case "<=" -> (r, s) -> a.eval(r, s) <= b.eval(r, s);
+            case ">" -> (r, s) -> a.eval(r, s) > b.eval(r, s);
+            case ">=" -> (r, s) -> a.eval(r, s) >= b.eval(r, s);
+            case "==" -> (r, s) -> a.eval(r, s) == b.eval(r, s);
+            default -> (r, s) -> a.eval(r, s) != b.eval(r, s);
+        };
+    }
+
+    private Cond textComparison(String op, Object left, Object right, int at) {
+        if (!(left instanceof Text a) || !(right instanceof Text b)) throw error("Text can only be compared to text", at);
+        if (!op.equals("==") && !op.equals("!=")) throw error("Text can only be compared with == or !=", at);
+        boolean equal = op.equals("==");
+        if (a instanceof TextConst) {
+            Text swapped = a;
+            a = b;
+            b = swapped;
+        }
+        Text field = a;
+        if (b instanceof TextConst(String value)) {
+            return equal ? (r, s) -> value.equals(field.eval(r)) : (r, s) -> !value.equals(field.eval(r));
+        }
+        Text other = b;
+        return equal ? (r, s) -> Objects.equals(field.eval(r), other.eval(r)) : (r, s) -> !Objects.equals(field.eval(r), other.eval(r));
+    }
+
+    private static boolean compare(String op, double a, double b) {
+        return switch (op) {
+            case "<" -> a < b;
+            case "<=" -> a <= b;
+            case ">" -> a > b;
+            case ">=" -> a >= b;
+            case "==" -> a == b;
+            default -> a != b;
+        };
+    }
+
+    private static String mirror(String op) {
+        return switch (op) {
+            case "<" -> ">";
+            case "<=" -> ">=";
+            case ">" -> "<";
+            case ">=" -> "<=";
+            default -> op;
+        };
+    }
+
+    private Cond cond(Object term, int at) {
+        if (term instanceof Cond c) return c;
+        throw error("Expected a condition", at);
+    }
+
+    private Num num(Object term, int at) {
+        if (term instanceof Num n) return n;
+        throw error("Expected a number", at);
+    }
+
+    private boolean accept(String token) {
+        skipSpaces();
+        if (!source.startsWith(token, pos)) return false;
+        pos += token.length();
+        return true;
+    }
+
+    private String acceptAny(String... tokens) {
+        for (String token : tokens) {
+            if (accept(token)) return token;
+        }
+        return null;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) throw error("Expected '" + token + "'", pos);
+    }
+
+    private int skipSpaces() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) pos++;
+        return pos;
+    }
+
+    private RuleSyntaxException error(String message, int at) {
+        return new RuleSyntaxException(message, source, at);
+    }
+}
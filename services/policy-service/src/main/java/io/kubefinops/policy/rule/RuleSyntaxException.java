@@ -0,0 +1,30 @@
+package io.kubefinops.policy.rule;
+
+/**
+ * Thrown when a policy rule expression cannot be compiled.
+ */
+public class RuleSyntaxException extends IllegalArgumentException {
+
+    private final int position;
+
+    /**
+     * Creates the exception.
+     *
+     * @param message  What is wrong.
+     * @param source   The expression.
+     * @param position The offset in the expression where the problem was found.
+     */
+    public RuleSyntaxException(String message, String source, int position) {
+        super(message + " at position " + position + " in '" + source + "'");
+        this.position = position;
+    }
+
+    /**
+     * Returns the offset in the expression where the problem was found.
+     *
+     * @return The position.
+     */
+    public int getPosition() {
+        return position;
+    }
+}
@@ -1,12 +1,17 @@
 package io.kubefinops.policy;
 
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.policy.budget.BudgetLedger;
+import io.kubefinops.policy.cache.PolicyCache;
+import io.kubefinops.policy.config.PolicyCacheProperties;
 import io.kubefinops.policy.domain.Policy;
 import io.kubefinops.policy.domain.Recommendation;
+import io.kubefinops.policy.plan.PolicyPlan;
 import io.kubefinops.policy.repository.PolicyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -16,7 +21,12 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,16 +35,25 @@ class PolicyEngineTest {
     @Mock
     private PolicyRepository policyRepository;
 
-    @InjectMocks
+    @Mock
+    private BudgetLedger budgetLedger;
+
+    private PolicyCache policyCache;
     private PolicyEngine policyEngine;
 
+    @BeforeEach
+    void setUp() {
+        policyCache = new PolicyCache(policyRepository, null, new PolicyCacheProperties(), new SimpleMeterRegistry());
+        policyEngine = new PolicyEngine(policyCache, budgetLedger);
+    }
+
     /**
      * Unit test verifying that recommendations are approved when no policies are defined.
      * When the repository returns no policies for a namespace, validation should pass.
      */
     @Test
     void shouldApproveWhenNoPoliciesExist() {
-        when(policyRepository.findByNamespaceOrNamespaceIsNull(anyString())).thenReturn(Collections.emptyList());
+        when(policyRepository.findAll()).thenReturn(Collections.emptyList());
         
         Recommendation rec = Recommendation.builder()
                 .namespace("test")
@@ -55,7 +74,7 @@ class PolicyEngineTest {
                 .maxCpu("200m")
                 .build();
         
-        when(policyRepository.findByNamespaceOrNamespaceIsNull("prod")).thenReturn(List.of(policy));
+        when(policyRepository.findAll()).thenReturn(List.of(policy));
         
         Recommendation rec = Recommendation.builder()
                 .namespace("prod")
@@ -75,7 +94,7 @@ class PolicyEngineTest {
                 .maxCpu("1000m")
                 .build();
         
-        when(policyRepository.findByNamespaceOrNamespaceIsNull("prod")).thenReturn(List.of(policy));
+        when(policyRepository.findAll()).thenReturn(List.of(policy));
         
         Recommendation rec = Recommendation.builder()
                 .namespace("prod")
@@ -95,7 +114,7 @@ class PolicyEngineTest {
                 .maxMemory("1Gi")
                 .build();
         
-        when(policyRepository.findByNamespaceOrNamespaceIsNull("prod")).thenReturn(List.of(policy));
+        when(policyRepository.findAll()).thenReturn(List.of(policy));
         
         Recommendation rec = Recommendation.builder()
                 .namespace("prod")
@@ -115,7 +134,7 @@ class PolicyEngineTest {
                 .minMonthlySavings(10.0)
                 .build();
         
-        when(policyRepository.findByNamespaceOrNamespaceIsNull("prod")).thenReturn(List.of(policy));
+        when(policyRepository.findAll()).thenReturn(List.of(policy));
         
         Recommendation rec = Recommendation.builder()
                 .namespace("prod")
@@ -136,7 +155,7 @@ class PolicyEngineTest {
                 .minMonthlySavings(10.0)
                 .build();
         
-        when(policyRepository.findByNamespaceOrNamespaceIsNull("prod")).thenReturn(List.of(policy));
+        when(policyRepository.findAll()).thenReturn(List.of(policy));
         
         Recommendation rec = Recommendation.builder()
                 .namespace("prod")
@@ -146,4 +165,136 @@ class PolicyEngineTest {
         
         assertTrue(policyEngine.validate(rec).isValid());
     }
+
+    /**
+     * Unit test verifying that a bare memory number is interpreted as bytes (not milli-units),
+     * so 1000 bytes fit under a 2Ki limit, and that pre-parsed quantities are used when present.
+     */
+    @Test
+    void shouldCompareMemoryInBytes() {
+        Policy policy = Policy.builder()
+                .maxMemory("2Ki")
+                .build();
+
+        when(policyRepository.findAll()).thenReturn(List.of(policy));
+
+        Recommendation rawBytes = Recommendation.builder()
+                .namespace("prod")
+                .suggestedResources(Map.of("memory", "1000"))
+                .build();
+        Recommendation parsed = Recommendation.builder()
+                .namespace("prod")
+                .suggestedResources(Map.of("memory", "4Ki"))
+                .suggestedQuantities(new ResourceQuantities(0, 4096))
+                .build();
+
+        assertTrue(policyEngine.validate(rawBytes).isValid());
+        assertFalse(policyEngine.validate(parsed).isValid());
+    }
+
+    /**
+     * Unit test verifying that policies are read once into the snapshot, with global policies merged into
+     * every namespace, and that validations keep using it without repository calls until it is reloaded.
+     */
+    @Test
+    void shouldValidateFromSnapshotUntilReloaded() {
+        // Given
+        Policy global = Policy.builder().name("global").maxCpu("1000m").build();
+        Policy prod = Policy.builder().name("prod").namespace("prod").maxCpu("300m").build();
+        when(policyRepository.findAll()).thenReturn(List.of(global, prod));
+        Recommendation rec = Recommendation.builder()
+                .namespace("prod")
+                .suggestedResources(Map.of("cpu", "500m"))
+                .build();
+        Recommendation dev = Recommendation.builder()
+                .namespace("dev")
+                .suggestedResources(Map.of("cpu", "500m"))
+                .build();
+
+        // When
+        ValidationResult first = policyEngine.validate(rec);
+        ValidationResult second = policyEngine.validate(dev);
+
+        // Then
+        assertThat(first.getPolicyName()).isEqualTo("prod");
+        assertTrue(second.isValid());
+        assertThat(policyCache.snapshot().forNamespace("prod")).containsExactly(global, prod);
+        verify(policyRepository, times(1)).findAll();
+
+        // When the policy is relaxed, the change is picked up on the next reload
+        when(policyRepository.findAll()).thenReturn(List.of(global, Policy.builder().name("prod").namespace("prod").maxCpu("800m").build()));
+        assertFalse(policyEngine.validate(rec).isValid());
+        policyCache.refresh();
+        assertTrue(policyEngine.validate(rec).isValid());
+    }
+
+    /**
+     * Unit test verifying that the compiled plan of a namespace keeps the strictest thresholds (ignoring
+     * unparseable limits), approves within them with a single budget reservation, and reports a rejection
+     * against the first violated policy in collection order, as if the policies were checked one by one.
+     */
+    @Test
+    void shouldEvaluateCompiledPlanInPolicyOrder() {
+        // Given
+        Policy budget = Policy.builder().name("budget").maxMonthlyCost(100.0).build();
+        Policy cpu = Policy.builder().name("cpu").namespace("prod").maxCpu("200m").build();
+        Policy broken = Policy.builder().name("broken").namespace("prod").maxCpu("lots").build();
+        when(policyRepository.findAll()).thenReturn(List.of(budget, cpu, broken));
+        Recommendation small = Recommendation.builder()
+                .namespace("prod")
+                .suggestedResources(Map.of("cpu", "100m"))
+                .build();
+        Recommendation large = Recommendation.builder()
+                .namespace("prod")
+                .suggestedResources(Map.of("cpu", "500m"))
+                .build();
+        when(budgetLedger.reserve(eq(small), anyDouble(), eq(100.0))).thenReturn(50.0);
+        when(budgetLedger.projectedCost("prod")).thenReturn(90.0);
+
+        // When
+        PolicyPlan plan = policyCache.snapshot().planFor("prod");
+        ValidationResult approved = policyEngine.validate(small);
+        ValidationResult rejected = policyEngine.validate(large);
+
+        // Then
+        assertThat(plan.maxCpuMillis()).isEqualTo(200);
+        assertThat(plan.maxMonthlyCost()).isEqualTo(100.0);
+        assertTrue(approved.isValid());
+        assertThat(rejected.getPolicyName()).isEqualTo("budget");
+        assertThat(rejected.getReason()).startsWith("Namespace budget exceeded. Current: $90.00");
+        verify(budgetLedger, never()).reserve(eq(large), anyDouble(), anyDouble());
+    }
+
+    /**
+     * Unit test verifying that a recommendation breaking a policy's rule expression is rejected with the
+     * rule as reason, while an invalid expression is ignored like an unparseable limit.
+     */
+    @Test
+    void shouldRejectWhenRuleExpressionNotSatisfied() {
+        // Given
+        Policy memoryDrop = Policy.builder().name("memory-drop").expression("memory >= currentMemory * 0.6").build();
+        Policy broken = Policy.builder().name("broken").expression("memory >>").build();
+        when(policyRepository.findAll()).thenReturn(List.of(memoryDrop, broken));
+        Recommendation moderate = Recommendation.builder()
+                .namespace("prod")
+                .currentQuantities(ResourceQuantities.parse(Map.of("memory", "4Gi")))
+                .suggestedResources(Map.of("memory", "3Gi"))
+                .build();
+        Recommendation aggressive = Recommendation.builder()
+                .namespace("prod")
+                .currentQuantities(ResourceQuantities.parse(Map.of("memory", "4Gi")))
+                .suggestedResources(Map.of("memory", "1Gi"))
+                .build();
+
+        // When
+        ValidationResult approved = policyEngine.validate(moderate);
+        ValidationResult rejected = policyEngine.validate(aggressive);
+
+        // Then
+        assertThat(policyCache.snapshot().planFor("prod").rules()).hasSize(1);
+        assertTrue(approved.isValid());
+        assertFalse(rejected.isValid());
+        assertThat(rejected.getPolicyName()).isEqualTo("memory-drop");
+        assertThat(rejected.getReason()).isEqualTo("Rule 'memory >= currentMemory * 0.6' is not satisfied");
+    }
 }
@@ -2,10 +2,12 @@ package io.kubefinops.policy;
 
 import io.kubefinops.event.RecommendationApprovedEvent;
 import io.kubefinops.event.RecommendationCreatedEvent;
+import io.kubefinops.event.codec.EventCodec;
 import io.kubefinops.policy.domain.Recommendation;
 import io.kubefinops.policy.repository.RecommendationRepository;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,7 +17,6 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.KafkaMessageListenerContainer;
 import org.springframework.kafka.listener.MessageListener;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.KafkaContainer;
@@ -103,7 +104,7 @@ class RecommendationFlowIntegrationTest {
 
     /**
      * Helper method to configure and start a Kafka consumer listening to the recommendation.approved topic.
-     * The consumer deserializes RecommendationApprovedEvent messages and adds them to the provided queue
+     * The consumer decodes RecommendationApprovedEvent messages and adds them to the provided queue
      * for test assertions.
      *
      * @param queue the blocking queue to receive deserialized approval events from Kafka
@@ -115,8 +116,8 @@ class RecommendationFlowIntegrationTest {
                 ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"
         );
 
-        JsonDeserializer<RecommendationApprovedEvent> deserializer = new JsonDeserializer<>(RecommendationApprovedEvent.class);
-        deserializer.addTrustedPackages("io.kubefinops.*");
+        // Events are published with the binary codec (see the binding content-type)
+        Deserializer<RecommendationApprovedEvent> deserializer = (topic, data) -> EventCodec.decode(data, RecommendationApprovedEvent.class);
 
         DefaultKafkaConsumerFactory<String, RecommendationApprovedEvent> cf = 
                 new DefaultKafkaConsumerFactory<>(consumerProps, new StringDeserializer(), deserializer);
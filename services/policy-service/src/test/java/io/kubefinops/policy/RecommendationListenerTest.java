@@ -0,0 +1,227 @@
+package io.kubefinops.policy;
+
+import io.kubefinops.event.PolicyViolatedEvent;
+import io.kubefinops.event.RecommendationApprovedBatchEvent;
+import io.kubefinops.event.RecommendationApprovedEvent;
+import io.kubefinops.event.RecommendationBatchEvent;
+import io.kubefinops.event.RecommendationCreatedEvent;
+import io.kubefinops.event.ScalingBatchEvent;
+import io.kubefinops.event.ScalingTransition;
+import io.kubefinops.event.kafka.StripedExecutor;
+import io.kubefinops.policy.budget.BudgetLedger;
+import io.kubefinops.policy.cache.PolicyCache;
+import io.kubefinops.policy.config.PolicyCacheProperties;
+import io.kubefinops.policy.domain.Policy;
+import io.kubefinops.policy.domain.Recommendation;
+import io.kubefinops.policy.repository.PolicyRepository;
+import io.kubefinops.policy.repository.RecommendationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.stream.binder.ConsumerProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationListenerTest {
+
+    @Mock
+    private RecommendationRepository repository;
+
+    @Mock
+    private PolicyRepository policyRepository;
+
+    @Mock
+    private StreamBridge streamBridge;
+
+    @Mock
+    private BudgetLedger budgetLedger;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private BindingServiceProperties bindingServiceProperties;
+
+    private StripedExecutor validationExecutor;
+    private RecommendationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        PolicyCache policyCache = new PolicyCache(policyRepository, null, new PolicyCacheProperties(), new SimpleMeterRegistry());
+        PolicyEngine policyEngine = new PolicyEngine(policyCache, budgetLedger);
+        validationExecutor = new StripedExecutor("test-validation", 4, 16);
+        listener = new RecommendationListener(repository, policyEngine, streamBridge, new SimpleMeterRegistry(),
+                validationExecutor, budgetLedger, policyCache, mongoTemplate, bindingServiceProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validationExecutor.close();
+    }
+
+    /**
+     * Unit test verifying that a polled batch is validated against one policy snapshot, persisted with a
+     * single unordered bulk write instead of one save per record, and published as one approval batch per
+     * namespace plus the violations.
+     */
+    @Test
+    void shouldValidateBatchWithOneBulkWrite() {
+        // Given
+        when(policyRepository.findAll()).thenReturn(List.of(Policy.builder().name("Limit CPU").maxCpu("1000m").build()));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recommendation.class)).thenReturn(bulkOperations);
+        Message<List<RecommendationCreatedEvent>> batch = MessageBuilder.withPayload(List.of(
+                created("rec-1", "shop", "500m"),
+                created("rec-2", "shop", "2000m"),
+                created("rec-3", "billing", "250m"))).build();
+
+        // When
+        listener.validateRecommendations().accept(batch);
+
+        // Then
+        verify(policyRepository, times(1)).findAll();
+        verify(bulkOperations, times(3)).replaceOne(any(Query.class), any(Recommendation.class), any(FindAndReplaceOptions.class));
+        verify(bulkOperations).execute();
+        verify(repository, never()).save(any());
+        verify(budgetLedger, times(2)).approve(any());
+        verify(budgetLedger, times(3)).release(any());
+
+        ArgumentCaptor<Message<?>> approvals = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge, times(2)).send(eq("recommendationApprovedBatch-out-0"), approvals.capture());
+        assertThat(approvals.getAllValues()).extracting(m -> ((RecommendationApprovedBatchEvent) m.getPayload()).getNamespace())
+                .containsExactly("shop", "billing");
+        ArgumentCaptor<Message<?>> violations = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge).send(eq("policyViolated-out-0"), violations.capture());
+        assertThat(((PolicyViolatedEvent) violations.getValue().getPayload()).getRecommendationId()).isEqualTo("rec-2");
+    }
+
+    /**
+     * Unit test verifying that a namespace batch is expanded with the shared envelope fields restored on every
+     * recommendation, that each one is validated and saved, and that the approvals are answered with a single
+     * RecommendationApprovedBatchEvent (the rejections with their own violations).
+     */
+    @Test
+    void shouldAnswerRecommendationBatchWithOneApprovalBatch() {
+        // Given
+        when(policyRepository.findAll()).thenReturn(List.of(Policy.builder().name("Limit CPU").maxCpu("1000m").build()));
+        when(bindingServiceProperties.getConsumerProperties("validateRecommendationBatch-in-0")).thenReturn(new ConsumerProperties());
+        Instant createdAt = Instant.parse("2026-10-17T08:00:00Z");
+        RecommendationBatchEvent batch = RecommendationBatchEvent.builder()
+                .id("batch-1")
+                .namespace("shop")
+                .currency("USD")
+                .createdAt(createdAt)
+                .recommendations(List.of(item("rec-1", "500m"), item("rec-2", "2000m"), item("rec-3", "750m")))
+                .build();
+
+        // When
+        listener.validateRecommendationBatch().accept(MessageBuilder.withPayload(batch).build());
+
+        // Then
+        ArgumentCaptor<Message<?>> approvals = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge, timeout(2000)).send(eq("recommendationApprovedBatch-out-0"), approvals.capture());
+        RecommendationApprovedBatchEvent approved = (RecommendationApprovedBatchEvent) approvals.getValue().getPayload();
+        assertThat(approved.getNamespace()).isEqualTo("shop");
+        assertThat(approved.getCurrency()).isEqualTo("USD");
+        assertThat(approved.getApprovals()).allSatisfy(item -> assertThat(item.getNamespace()).isNull());
+        assertThat(approved.toEvents()).extracting(RecommendationApprovedEvent::getRecommendationId).containsExactly("rec-1", "rec-3");
+        assertThat(approved.toEvents()).allSatisfy(event -> assertThat(event.getNamespace()).isEqualTo("shop"));
+
+        ArgumentCaptor<Recommendation> saved = ArgumentCaptor.forClass(Recommendation.class);
+        verify(repository, times(3)).save(saved.capture());
+        assertThat(saved.getAllValues()).allSatisfy(recommendation -> {
+            assertThat(recommendation.getNamespace()).isEqualTo("shop");
+            assertThat(recommendation.getCurrency()).isEqualTo("USD");
+            assertThat(recommendation.getCreatedAt()).isEqualTo(createdAt);
+        });
+        assertThat(saved.getAllValues()).extracting(Recommendation::getStatus).containsExactly("APPROVED", "REJECTED", "APPROVED");
+        verify(streamBridge).send(eq("policyViolated-out-0"), any(Message.class));
+        verify(streamBridge, never()).send(eq("recommendationApproved-out-0"), any(Message.class));
+        verify(budgetLedger, times(2)).approve(any());
+    }
+
+    /**
+     * Unit test verifying that the transitions of a scaling batch are validated as replica-only
+     * recommendations of the batch namespace and approved together in one RecommendationApprovedBatchEvent.
+     */
+    @Test
+    void shouldAnswerScalingBatchWithOneApprovalBatch() {
+        // Given
+        when(policyRepository.findAll()).thenReturn(List.of(Policy.builder().name("Limit CPU").maxCpu("1000m").build()));
+        when(bindingServiceProperties.getConsumerProperties("validateScalingBatch-in-0")).thenReturn(new ConsumerProperties());
+        Instant dueAt = Instant.parse("2026-10-17T20:00:00Z");
+        ScalingBatchEvent batch = ScalingBatchEvent.builder()
+                .id("scaling-1")
+                .namespace("dev")
+                .dueAt(dueAt)
+                .transitions(List.of(
+                        ScalingTransition.builder().workloadRef("deployment/nginx").replicas(0).estimatedMonthlySavings(12.0).build(),
+                        ScalingTransition.builder().workloadRef("deployment/api").replicas(0).estimatedMonthlySavings(8.0).build()))
+                .build();
+
+        // When
+        listener.validateScalingBatch().accept(MessageBuilder.withPayload(batch).build());
+
+        // Then
+        ArgumentCaptor<Message<?>> approvals = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge, timeout(2000)).send(eq("recommendationApprovedBatch-out-0"), approvals.capture());
+        List<RecommendationApprovedEvent> approved = ((RecommendationApprovedBatchEvent) approvals.getValue().getPayload()).toEvents();
+        assertThat(approved).extracting(RecommendationApprovedEvent::getWorkloadRef).containsExactly("deployment/nginx", "deployment/api");
+        assertThat(approved).allSatisfy(event -> {
+            assertThat(event.getNamespace()).isEqualTo("dev");
+            assertThat(event.getReplicas()).isZero();
+            assertThat(event.getApprovedResources()).isEmpty();
+        });
+        ArgumentCaptor<Recommendation> saved = ArgumentCaptor.forClass(Recommendation.class);
+        verify(repository, times(2)).save(saved.capture());
+        assertThat(saved.getAllValues()).allSatisfy(recommendation -> assertThat(recommendation.getCreatedAt()).isEqualTo(dueAt));
+        verify(streamBridge, never()).send(eq("policyViolated-out-0"), any(Message.class));
+    }
+
+    private static RecommendationCreatedEvent item(String id, String cpu) {
+        return RecommendationCreatedEvent.builder()
+                .id(id)
+                .workloadRef("deployment/" + id)
+                .suggestedResources(Map.of("cpu", cpu))
+                .estimatedMonthlySavings(10.0)
+                .build();
+    }
+
+    private static RecommendationCreatedEvent created(String id, String namespace, String cpu) {
+        return RecommendationCreatedEvent.builder()
+                .id(id)
+                .workloadRef("deployment/" + id)
+                .namespace(namespace)
+                .suggestedResources(Map.of("cpu", cpu))
+                .estimatedMonthlySavings(10.0)
+                .currency("USD")
+                .build();
+    }
+}
@@ -0,0 +1,283 @@
+package io.kubefinops.policy.budget;
+
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.policy.config.BudgetLedgerProperties;
+import io.kubefinops.policy.domain.NamespaceBudget;
+import io.kubefinops.policy.domain.Recommendation;
+import io.kubefinops.policy.repository.NamespaceBudgetRepository;
+import io.kubefinops.policy.repository.RecommendationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetLedgerTest {
+
+    @Mock
+    private NamespaceBudgetRepository budgetRepository;
+
+    @Mock
+    private RecommendationRepository recommendationRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final Map<String, NamespaceBudget> stored = new HashMap<>();
+    private BudgetLedger budgetLedger;
+
+    @BeforeEach
+    void setUp() {
+        budgetLedger = new BudgetLedger(budgetRepository, recommendationRepository, mongoTemplate,
+                new BudgetLedgerProperties(), new SimpleMeterRegistry());
+        // Applies the $inc, $set and $unset of each update to the stored ledger like the server would, failing
+        // the upsert with a duplicate key when the guard on the counted ids does not match
+        lenient().when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(NamespaceBudget.class)))
+                .thenAnswer(invocation -> {
+                    Document query = invocation.getArgument(0, Query.class).getQueryObject();
+                    Document update = invocation.getArgument(1, Update.class).getUpdateObject();
+                    String namespace = query.getString("_id");
+                    NamespaceBudget budget = stored.computeIfAbsent(namespace, ns -> NamespaceBudget.builder().namespace(ns).counted(new HashMap<>()).build());
+                    for (Document guard : query.getList("$and", Document.class, List.of())) {
+                        String field = guard.keySet().iterator().next();
+                        if (budget.getCounted().containsKey(field.substring("counted.".length()))) {
+                            throw new DuplicateKeyException("E11000 duplicate key error: " + namespace);
+                        }
+                    }
+                    Document inc = update.get("$inc", Document.class);
+                    budget.setApprovedCost(budget.getApprovedCost() + inc.getDouble("approvedCost"));
+                    budget.setAppliedCost(budget.getAppliedCost() + inc.getDouble("appliedCost"));
+                    budget.setVersion(budget.getVersion() + inc.getInteger("version"));
+                    update.get("$set", Document.class).forEach((field, value) -> {
+                        if (field.startsWith("counted.")) budget.getCounted().put(field.substring("counted.".length()), (Double) value);
+                    });
+                    Document unset = update.get("$unset", Document.class);
+                    if (unset != null) unset.keySet().forEach(field -> budget.getCounted().remove(field.substring("counted.".length())));
+                    return NamespaceBudget.builder().namespace(namespace).version(budget.getVersion())
+                            .approvedCost(budget.getApprovedCost()).appliedCost(budget.getAppliedCost()).build();
+                });
+        lenient().when(mongoTemplate.findOne(any(Query.class), eq(NamespaceBudget.class)))
+                .thenAnswer(invocation -> stored.get(invocation.getArgument(0, Query.class).getQueryObject().getString("_id")));
+    }
+
+    /**
+     * Unit test verifying that an approval adds its cost to the namespace, that a newer approval of the same
+     * workload supersedes the previous one instead of counting twice, and that applying it moves the cost
+     * to the applied part without changing the total.
+     */
+    @Test
+    void shouldTrackApprovalsSupersedesAndApplies() {
+        // Given
+        when(budgetRepository.findAll()).thenReturn(List.of(NamespaceBudget.builder().namespace("dev").approvedCost(7.0).build()));
+        Recommendation first = approved("rec-1", 1000, 0);   // $30
+        Recommendation second = approved("rec-2", 2000, 0);  // $60
+        when(recommendationRepository.findByNamespaceAndWorkloadRefAndStatusIn(eq("prod"), eq("deployment/api"), anyList()))
+                .thenReturn(List.of(first))
+                .thenReturn(List.of(first, second));
+
+        // When
+        budgetLedger.approve(first);
+        double afterFirst = budgetLedger.currentCost("prod");
+        budgetLedger.approve(second);
+        when(recommendationRepository.findById("rec-2")).thenReturn(Optional.of(second));
+        budgetLedger.apply("rec-2");
+        budgetLedger.apply("rec-2");
+
+        // Then
+        assertThat(afterFirst).isEqualTo(30.0);
+        assertThat(first.getStatus()).isEqualTo(BudgetLedger.SUPERSEDED);
+        assertThat(second.getStatus()).isEqualTo(BudgetLedger.APPLIED);
+        assertThat(budgetLedger.currentCost("prod")).isEqualTo(60.0);
+        assertThat(stored.get("prod").getApprovedCost()).isEqualTo(0.0);
+        assertThat(stored.get("prod").getAppliedCost()).isEqualTo(60.0);
+        assertThat(budgetLedger.currentCost("dev")).isEqualTo(7.0);
+        verify(recommendationRepository, never()).findByStatusIn(anyList());
+    }
+
+    /**
+     * Unit test verifying that a redelivered recommendation is not counted twice: the budget check excludes its
+     * own committed cost instead of rejecting it, and approving it again leaves the ledger and the approvals it
+     * superseded unchanged.
+     */
+    @Test
+    void shouldIgnoreRedeliveredApprovals() {
+        // Given
+        when(budgetRepository.findAll()).thenReturn(List.of());
+        when(recommendationRepository.findByStatusIn(anyList())).thenReturn(Stream.empty());
+        Recommendation first = approved("rec-1", 1000, 0);   // $30
+        Recommendation second = approved("rec-2", 1000, 0);  // $30
+        when(recommendationRepository.findByNamespaceAndWorkloadRefAndStatusIn(eq("prod"), eq("deployment/api"), anyList()))
+                .thenReturn(List.of(first))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(second));
+        budgetLedger.approve(first);
+        budgetLedger.approve(second);
+
+        // When: rec-2 is redelivered and validated again against a $50 budget
+        Recommendation replay = approved("rec-2", 1000, 0);
+        double current = budgetLedger.reserve(replay, 30.0, 50.0);
+        budgetLedger.approve(replay);
+        budgetLedger.release(replay);
+
+        // Then
+        assertThat(current).isEqualTo(0.0);
+        assertThat(budgetLedger.currentCost("prod")).isEqualTo(30.0);
+        assertThat(stored.get("prod").getApprovedCost()).isEqualTo(30.0);
+        assertThat(stored.get("prod").getCounted()).containsOnlyKeys("rec-2");
+        verify(recommendationRepository, times(1)).saveAll(anyList());
+        assertThat(budgetLedger.reserve(approved("rec-3", 1000, 0), 30.0, 50.0)).isEqualTo(30.0);
+    }
+
+    /**
+     * Unit test verifying that over-budget checks read the cached counted costs instead of Mongo, and that they
+     * are re-read once when another replica changed the namespace.
+     */
+    @Test
+    void shouldCheckCountedCostsInMemory() {
+        // Given: rec-1 was counted before startup
+        Map<String, Double> counted = new HashMap<>(Map.of("rec-1", 30.0));
+        NamespaceBudget prod = NamespaceBudget.builder().namespace("prod").approvedCost(30.0).version(3).counted(counted).build();
+        stored.put("prod", prod);
+        when(budgetRepository.findAll()).thenReturn(List.of(prod));
+
+        // When: the namespace is at its $40 budget
+        for (int i = 0; i < 10; i++) {
+            assertThat(budgetLedger.reserve(approved("rec-new-" + i, 1000, 0), 30.0, 40.0)).isEqualTo(30.0);
+        }
+        Recommendation rec1 = approved("rec-1", 1000, 0);
+        double replay = budgetLedger.reserve(rec1, 30.0, 40.0);
+        budgetLedger.release(rec1);
+
+        // Then
+        assertThat(replay).isEqualTo(0.0);
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(NamespaceBudget.class));
+
+        // When another replica counts rec-2 before this one applies rec-1
+        prod.getCounted().put("rec-2", 30.0);
+        prod.setApprovedCost(60.0);
+        prod.setVersion(4);
+        when(recommendationRepository.findById("rec-1")).thenReturn(Optional.of(rec1));
+        budgetLedger.apply("rec-1");
+        double otherReplay = budgetLedger.reserve(approved("rec-2", 1000, 0), 30.0, 40.0);
+        budgetLedger.reserve(approved("rec-new", 1000, 0), 30.0, 40.0);
+
+        // Then the counted costs are re-read once
+        assertThat(otherReplay).isEqualTo(30.0);
+        verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(NamespaceBudget.class));
+    }
+
+    /**
+     * Unit test verifying that an empty stored ledger is rebuilt from the active recommendations on first use,
+     * pricing legacy recommendations from their resource maps.
+     */
+    @Test
+    void shouldRebuildEmptyLedgerFromRecommendations() {
+        // Given
+        Recommendation applied = approved("rec-1", 1000, 0);
+        applied.setStatus(BudgetLedger.APPLIED);
+        Recommendation legacy = Recommendation.builder().id("rec-2").namespace("prod").workloadRef("deployment/web")
+                .suggestedResources(Map.of("cpu", "500m", "memory", "2Gi")).status(BudgetLedger.APPROVED).build();
+        when(budgetRepository.findAll()).thenReturn(List.of());
+        when(recommendationRepository.findByStatusIn(anyList())).thenReturn(Stream.of(applied, legacy));
+
+        // When
+        double cost = budgetLedger.currentCost("prod");
+
+        // Then
+        assertThat(cost).isEqualTo(30.0 + 15.0 + 10.0);
+        assertThat(budgetLedger.currentCost("dev")).isEqualTo(0.0);
+        verify(budgetRepository).deleteAll();
+        verify(budgetRepository).saveAll(any());
+    }
+
+    /**
+     * Unit test verifying that concurrent validations of one namespace cannot overbook its budget: the check
+     * sees the cost reserved by the others, and a released reservation frees its share of the budget.
+     */
+    @Test
+    void shouldReserveBudgetAtomicallyAcrossThreads() throws Exception {
+        // Given
+        when(budgetRepository.findAll()).thenReturn(List.of());
+        when(recommendationRepository.findByStatusIn(anyList())).thenReturn(Stream.empty());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Recommendation> candidates = new ArrayList<>();
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        // When: 16 validations of $30 race for a $100 budget
+        try (ExecutorService threads = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 16; i++) {
+                Recommendation candidate = approved("rec-" + i, 1000, 0);
+                candidates.add(candidate);
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return budgetLedger.reserve(candidate, 30.0, 100.0) + 30.0 <= 100.0;
+                }, threads));
+            }
+            start.countDown();
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+
+        // Then
+        List<Recommendation> reserved = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).get()) reserved.add(candidates.get(i));
+        }
+        assertThat(reserved).hasSize(3);
+        Recommendation late = approved("rec-late", 1000, 0);
+        assertThat(budgetLedger.reserve(late, 30.0, 100.0)).isEqualTo(90.0);
+        budgetLedger.release(reserved.get(0));
+        budgetLedger.release(reserved.get(0));
+        assertThat(budgetLedger.reserve(late, 30.0, 100.0)).isEqualTo(60.0);
+        assertThat(budgetLedger.projectedCost("prod")).isEqualTo(90.0);
+        assertThat(budgetLedger.currentCost("prod")).isEqualTo(0.0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Recommendation approved(String id, long cpuMillis, long memoryBytes) {
+        return Recommendation.builder()
+                .id(id)
+                .namespace("prod")
+                .workloadRef("deployment/api")
+                .suggestedResources(Map.of("cpu", cpuMillis + "m"))
+                .suggestedQuantities(new ResourceQuantities(cpuMillis, memoryBytes))
+                .status(BudgetLedger.APPROVED)
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package io.kubefinops.policy.rule;
+
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.policy.domain.Recommendation;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleExpressionTest {
+
+    private static final long GIB = 1024L * 1024 * 1024;
+
+    /**
+     * Unit test verifying that rules read the recommendation fields, honour operator precedence and
+     * understand Kubernetes quantity suffixes.
+     */
+    @Test
+    void shouldEvaluateRulesOverRecommendationFields() {
+        // Given
+        Recommendation recommendation = Recommendation.builder()
+                .namespace("prod")
+                .workloadRef("deployment/checkout")
+                .currentQuantities(new ResourceQuantities(2000, 4 * GIB))
+                .replicas(3)
+                .confidenceScore(0.9)
+                .estimatedMonthlySavings(25.0)
+                .build();
+        ResourceQuantities suggested = new ResourceQuantities(500, 3 * GIB);
+
+        // When / Then
+        assertThat(test("memory >= currentMemory * 0.6", recommendation, suggested)).isTrue();
+        assertThat(test("memory >= currentMemory * 0.8", recommendation, suggested)).isFalse();
+        assertThat(test("cpu <= 500m && memory >= 2Gi", recommendation, suggested)).isTrue();
+        assertThat(test("namespace != 'prod' || confidence >= 0.8", recommendation, suggested)).isTrue();
+        assertThat(test("workloadRef == 'deployment/checkout' && replicas > 3", recommendation, suggested)).isFalse();
+        assertThat(test("1 + 2 * 3 == 7 && (1 + 2) * 3 == 9 && -2 * -3 == 6", recommendation, suggested)).isTrue();
+        assertThat(test("savings * 12 > 250 && cost == 0.5 * 30 + 3 * 5", recommendation, suggested)).isTrue();
+        assertThat(test("min(cpu, currentCpu) == 0.5 && max(cpu, 1) == 1 && abs(cpu - currentCpu) == 1.5",
+                recommendation, suggested)).isTrue();
+        assertThat(test("!(cpu > 1) && !false", recommendation, suggested)).isTrue();
+    }
+
+    /**
+     * Unit test verifying that fields missing from a recommendation evaluate to zero.
+     */
+    @Test
+    void shouldTreatMissingFieldsAsZero() {
+        // Given
+        Recommendation recommendation = Recommendation.builder().build();
+        ResourceQuantities suggested = new ResourceQuantities(0, 0);
+
+        // When / Then
+        assertThat(test("currentMemory == 0 && replicas == 0 && confidence == 0 && savings == 0", recommendation, suggested)).isTrue();
+        assertThat(test("namespace != 'prod'", recommendation, suggested)).isTrue();
+    }
+
+    /**
+     * Unit test verifying that invalid rules are rejected when compiled, with the position of the error.
+     */
+    @Test
+    void shouldRejectInvalidRulesWithPosition() {
+        assertThatThrownBy(() -> RuleExpression.compile("memmory > 1"))
+                .isInstanceOf(RuleSyntaxException.class)
+                .hasMessageContaining("Unknown field 'memmory'")
+                .extracting(e -> ((RuleSyntaxException) e).getPosition()).isEqualTo(0);
+        assertThatThrownBy(() -> RuleExpression.compile("memory >= 2Gb"))
+                .isInstanceOf(RuleSyntaxException.class)
+                .hasMessageContaining("Unknown unit 'Gb'");
+        assertThatThrownBy(() -> RuleExpression.compile("namespace == 'prod"))
+                .isInstanceOf(RuleSyntaxException.class)
+                .hasMessageContaining("Unterminated text");
+        assertThatThrownBy(() -> RuleExpression.compile("namespace > 1"))
+                .isInstanceOf(RuleSyntaxException.class)
+                .hasMessageContaining("Text can only be compared");
+        assertThatThrownBy(() -> RuleExpression.compile("cpu + 1"))
+                .isInstanceOf(RuleSyntaxException.class)
+                .hasMessageContaining("Expected a condition");
+        assertThatThrownBy(() -> RuleExpression.compile("cpu > 1 )"))
+                .isInstanceOf(RuleSyntaxException.class)
+                .hasMessageContaining("at position 8");
+    }
+
+    private static boolean test(String rule, Recommendation recommendation, ResourceQuantities suggested) {
+        return RuleExpression.compile(rule).test(recommendation, suggested);
+    }
+}
@@ -0,0 +1,99 @@
+package io.kubefinops.recommender;
+
+import io.kubefinops.recommender.config.OffloadProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking work (Kafka sends, report indexing) off the Reactor Netty event loops, on virtual threads
+ * or a bounded elastic pool. Callers bound the outstanding work with {@link #maxOutstanding()} as the
+ * concurrency of the stage that offloads, so a slow broker backpressures analysis instead of queuing without limit.
+ */
+@Slf4j
+@Component
+public class BlockingOffloader {
+
+    private final Scheduler scheduler;
+    private final int maxOutstanding;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    public BlockingOffloader(OffloadProperties properties, MeterRegistry meterRegistry) {
+        this.scheduler = "bounded-elastic".equals(properties.getExecutor())
+                ? Schedulers.newBoundedElastic(properties.getThreadCap(), properties.getMaxOutstanding(), "recommender-offload")
+                : Schedulers.fromExecutorService(Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("recommender-offload-", 0).factory()), "recommender-offload");
+        this.maxOutstanding = properties.getMaxOutstanding();
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("recommender_offload_outstanding", outstanding);
+    }
+
+    /**
+     * Runs a blocking task on the offload executor.
+     *
+     * @param task     The task name, used as a metric tag.
+     * @param runnable The blocking work.
+     * @return A Mono completing once the task ran, or erroring with the task's failure.
+     */
+    public Mono<Void> offload(String task, Runnable runnable) {
+        return Mono.<Void>fromRunnable(() -> {
+                    long startNanos = System.nanoTime();
+                    try {
+                        runnable.run();
+                    } finally {
+                        meterRegistry.timer("recommender_offload_task_duration", "task", task)
+                                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                    }
+                })
+                .subscribeOn(scheduler)
+                .doOnSubscribe(s -> outstanding.incrementAndGet())
+                .doFinally(signal -> outstanding.decrementAndGet());
+    }
+
+    /**
+     * Returns the offload executor, for blocking stages of {@link java.util.concurrent.CompletableFuture} chains
+     * (e.g. {@code thenRunAsync}) that would otherwise run on the thread completing the previous stage.
+     *
+     * @return An executor running tasks on the offload scheduler.
+     */
+    public Executor executor() {
+        return scheduler::schedule;
+    }
+
+    /**
+     * Records blocking work that is about to run on a non-blocking (event loop or parallel) thread.
+     * Such calls stall every request multiplexed on that loop, so each one is counted and logged.
+     *
+     * @param task The task name, used as a metric tag.
+     */
+    public void checkBlockingAllowed(String task) {
+        if (Schedulers.isInNonBlockingThread()) {
+            meterRegistry.counter("recommender_blocking_on_event_loop_total", "task", task).increment();
+            log.warn("Blocking task '{}' is running on non-blocking thread {}", task, Thread.currentThread().getName());
+        }
+    }
+
+    /**
+     * Returns the bound on outstanding blocking tasks, to be used as the concurrency of the offloading stage.
+     *
+     * @return The max number of tasks running or queued.
+     */
+    public int maxOutstanding() {
+        return maxOutstanding;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
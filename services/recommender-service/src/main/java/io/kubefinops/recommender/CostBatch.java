@@ -0,0 +1,79 @@
+package io.kubefinops.recommender;
+
+import io.kubefinops.event.ResourceQuantities;
+
+import java.util.Arrays;
+
+/**
+ * Columnar batch of current and suggested resources, priced in one {@link CostCalculator} call.
+ * Each column is a primitive array indexed by workload, so pricing kernels stream over contiguous memory.
+ */
+public class CostBatch {
+
+    long[] currentCpuMillis;
+    long[] currentMemoryBytes;
+    long[] suggestedCpuMillis;
+    long[] suggestedMemoryBytes;
+    double[] savings;
+    private int size;
+
+    public CostBatch(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 8);
+        this.currentCpuMillis = new long[capacity];
+        this.currentMemoryBytes = new long[capacity];
+        this.suggestedCpuMillis = new long[capacity];
+        this.suggestedMemoryBytes = new long[capacity];
+        this.savings = new double[capacity];
+    }
+
+    /**
+     * Appends one workload to the batch.
+     *
+     * @param current   The current resources.
+     * @param suggested The suggested resources.
+     * @return The index of the workload in the batch.
+     */
+    public int add(ResourceQuantities current, ResourceQuantities suggested) {
+        if (size == currentCpuMillis.length) grow();
+        currentCpuMillis[size] = current.getCpuMillis();
+        currentMemoryBytes[size] = current.getMemoryBytes();
+        suggestedCpuMillis[size] = suggested.getCpuMillis();
+        suggestedMemoryBytes[size] = suggested.getMemoryBytes();
+        return size++;
+    }
+
+    /**
+     * Returns the monthly savings of a workload, valid after the batch was priced.
+     *
+     * @param index The workload index.
+     * @return The estimated monthly savings.
+     */
+    public double savings(int index) {
+        return savings[index];
+    }
+
+    /**
+     * Returns the number of workloads in the batch.
+     *
+     * @return The batch size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empties the batch, keeping its arrays for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = currentCpuMillis.length * 2;
+        currentCpuMillis = Arrays.copyOf(currentCpuMillis, capacity);
+        currentMemoryBytes = Arrays.copyOf(currentMemoryBytes, capacity);
+        suggestedCpuMillis = Arrays.copyOf(suggestedCpuMillis, capacity);
+        suggestedMemoryBytes = Arrays.copyOf(suggestedMemoryBytes, capacity);
+        savings = Arrays.copyOf(savings, capacity);
+    }
+}
@@ -1,67 +1,102 @@
 package io.kubefinops.recommender;
 
+import io.kubefinops.event.ResourceQuantities;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import java.util.Map;
 
+@Slf4j
 @Component
 public class CostCalculator {
 
     // Hypothetical pricing: $30 per 1 vCPU monthly, $5 per 1 GB monthly
     private static final double CPU_MONTHLY_PRICE = 30.0;
     private static final double MEM_GB_MONTHLY_PRICE = 5.0;
+    private static final double PRICE_PER_MILLI_CORE = CPU_MONTHLY_PRICE / 1000.0;
+    private static final double PRICE_PER_MEMORY_BYTE = MEM_GB_MONTHLY_PRICE / (1024.0 * 1024 * 1024);
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "io.kubefinops.recommender.VectorCostKernel";
+
+    private final CostKernel kernel;
+
+    public CostCalculator() {
+        this(ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent());
+    }
+
+    CostCalculator(boolean vectorized) {
+        this.kernel = vectorized ? vectorKernel() : new ScalarCostKernel();
+        log.info("Batch cost kernel: {}", isVectorized()
+                ? "vector"
+                : "scalar (build with -Pvector-api and run with --add-modules " + VECTOR_MODULE + " to vectorize)");
+    }
+
+    /**
+     * Loads the Vector API kernel, which is only compiled by the vector-api build profile.
+     *
+     * @return The vector kernel, or the scalar one if this build does not contain it.
+     */
+    private static CostKernel vectorKernel() {
+        try {
+            return (CostKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarCostKernel();
+        }
+    }
+
+    /**
+     * Tells whether the Vector API kernel was loaded, rather than its scalar fallback.
+     *
+     * @return True if batches are priced with SIMD lanes.
+     */
+    boolean isVectorized() {
+        return !(kernel instanceof ScalarCostKernel);
+    }
+
+    /**
+     * Prices every workload of a batch in one pass over its columns, filling the savings column.
+     * Uses SIMD lanes when the Vector API module is loaded, and an equivalent scalar loop otherwise.
+     *
+     * @param batch The current and suggested resources of each workload.
+     * @return The savings column, indexed like the batch (only the first {@link CostBatch#size()} entries are valid).
+     */
+    public double[] calculateMonthlySavings(CostBatch batch) {
+        kernel.price(batch, PRICE_PER_MILLI_CORE, PRICE_PER_MEMORY_BYTE);
+        return batch.savings;
+    }
 
     /**
      * Calculates the estimated monthly savings by switching from current to suggested resources.
+     * Pure arithmetic on pre-parsed quantities; nothing is parsed or allocated.
      *
      * @param current   The current resource allocation.
      * @param suggested The suggested resource allocation.
      * @return The estimated monthly savings, or 0 if no savings (or cost increase).
      */
-    public double calculateMonthlySavings(Map<String, String> current, Map<String, String> suggested) {
+    public double calculateMonthlySavings(ResourceQuantities current, ResourceQuantities suggested) {
         double currentCost = calculateMonthlyCost(current);
         double suggestedCost = calculateMonthlyCost(suggested);
         return Math.max(0, currentCost - suggestedCost);
     }
 
     /**
-     * Calculates the estimated monthly cost for a given set of resources.
-     *
-     * @param resources The map of resource requirements.
-     * @return The estimated monthly cost.
-     */
-    private double calculateMonthlyCost(Map<String, String> resources) {
-        double cpu = parseCpu(resources.getOrDefault("cpu", "0m"));
-        double mem = parseMemoryGb(resources.getOrDefault("memory", "0Mi"));
-        
-        return (cpu * CPU_MONTHLY_PRICE) + (mem * MEM_GB_MONTHLY_PRICE);
-    }
-
-    /**
-     * Parses a CPU resource string into a number of cores.
+     * Calculates the estimated monthly savings from Kubernetes resource maps.
+     * Parses both maps once; prefer the {@link ResourceQuantities} overload on hot paths.
      *
-     * @param value The CPU resource string (e.g., "500m", "1").
-     * @return The number of CPU cores.
+     * @param current   The current resource allocation.
+     * @param suggested The suggested resource allocation.
+     * @return The estimated monthly savings, or 0 if no savings (or cost increase).
      */
-    private double parseCpu(String value) {
-        if (value.endsWith("m")) {
-            return Double.parseDouble(value.replace("m", "")) / 1000.0;
-        }
-        return Double.parseDouble(value);
+    public double calculateMonthlySavings(Map<String, String> current, Map<String, String> suggested) {
+        return calculateMonthlySavings(ResourceQuantities.parse(current), ResourceQuantities.parse(suggested));
     }
 
     /**
-     * Parses a memory resource string into Gigabytes.
+     * Calculates the estimated monthly cost for a given set of resources.
      *
-     * @param value The memory resource string (e.g., "512Mi", "1Gi").
-     * @return The memory in Gigabytes.
+     * @param resources The resource quantities.
+     * @return The estimated monthly cost.
      */
-    private double parseMemoryGb(String value) {
-        String clean = value.toLowerCase();
-        if (clean.endsWith("gi")) {
-            return Double.parseDouble(clean.replace("gi", ""));
-        } else if (clean.endsWith("mi")) {
-            return Double.parseDouble(clean.replace("mi", "")) / 1024.0;
-        }
-        return Double.parseDouble(clean) / (1024.0 * 1024.0 * 1024.0);
+    private double calculateMonthlyCost(ResourceQuantities resources) {
+        return (resources.cpuCores() * CPU_MONTHLY_PRICE) + (resources.memoryGib() * MEM_GB_MONTHLY_PRICE);
     }
 }
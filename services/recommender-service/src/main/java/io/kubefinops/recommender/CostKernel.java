@@ -0,0 +1,16 @@
+package io.kubefinops.recommender;
+
+/**
+ * Prices a {@link CostBatch}: savings[i] = max(0, cpuDelta[i] * cpuPrice + memoryDelta[i] * memoryPrice).
+ */
+interface CostKernel {
+
+    /**
+     * Computes the savings column of a batch.
+     *
+     * @param batch                  The batch to price.
+     * @param pricePerMilliCore      Monthly price of one milli-core.
+     * @param pricePerMemoryByte     Monthly price of one byte of memory.
+     */
+    void price(CostBatch batch, double pricePerMilliCore, double pricePerMemoryByte);
+}
@@ -0,0 +1,46 @@
+package io.kubefinops.recommender;
+
+import io.kubefinops.recommender.config.OffloadProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.concurrent.EventExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpResources;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects blocked Reactor Netty event loops. Every probe interval, a no-op task is submitted to each client
+ * event loop and the delay until it runs is recorded as {@code reactor_netty_event_loop_lag}. A loop stalled
+ * by blocking I/O shows up as lag (and in the max) long before it shows up as Prometheus request latency.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventLoopLagMonitor {
+
+    private final OffloadProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Submits one lag probe to every event loop used by WebClient.
+     */
+    @Scheduled(fixedRateString = "${app.offload.lag-probe-interval:1s}")
+    public void probe() {
+        int index = 0;
+        for (EventExecutor loop : HttpResources.get().onClient(true)) {
+            Timer lag = meterRegistry.timer("reactor_netty_event_loop_lag", "loop", String.valueOf(index++));
+            long submittedNanos = System.nanoTime();
+            loop.execute(() -> {
+                long lagNanos = System.nanoTime() - submittedNanos;
+                lag.record(lagNanos, TimeUnit.NANOSECONDS);
+                if (lagNanos > properties.getLagWarnThreshold().toNanos()) {
+                    log.warn("Event loop {} lagged {} ms", Thread.currentThread().getName(), TimeUnit.NANOSECONDS.toMillis(lagNanos));
+                }
+            });
+        }
+    }
+}
@@ -1,15 +1,32 @@
 package io.kubefinops.recommender;
 
+import io.kubefinops.event.RecommendationBatchEvent;
 import io.kubefinops.event.RecommendationCreatedEvent;
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.event.kafka.KeyedMessages;
+import io.kubefinops.recommender.client.QueryRejectedException;
+import io.kubefinops.recommender.config.AnalysisProperties;
+import io.kubefinops.recommender.domain.Workload;
+import io.kubefinops.recommender.usage.UsageSource;
+import io.kubefinops.recommender.usage.WorkloadUsage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -17,61 +34,282 @@ import java.util.UUID;
 public class RecommendationProducer {
 
     private final StreamBridge streamBridge;
-    private final io.kubefinops.recommender.client.PrometheusClient prometheusClient;
+    private final UsageSource usageSource;
     private final CostCalculator costCalculator;
     private final ReportService reportService;
     private final io.micrometer.core.instrument.MeterRegistry meterRegistry;
+    private final WorkloadInventory workloadInventory;
+    private final AnalysisProperties analysisProperties;
+    private final BlockingOffloader offloader;
+    private final SuggestionHysteresis hysteresis;
     private static final String BINDING_NAME = "recommendationCreated-out-0";
+    private static final String BATCH_BINDING_NAME = "recommendationBatch-out-0";
+    private static final long MIB = 1024 * 1024;
+    private static final ResourceQuantities CURRENT_RESOURCES = new ResourceQuantities(500, 512 * MIB);
+
+    private final AtomicBoolean passInProgress = new AtomicBoolean(false);
+    private volatile double lastPassThroughput;
 
     /**
-     * Periodically generates resource recommendations for workloads.
-     * Fetches usage metrics from Prometheus, calculates savings, and publishes a RecommendationCreatedEvent.
+     * Periodically runs a fleet-wide analysis pass.
+     * Enumerates every workload, looks up usage once per namespace from the configured UsageSource
+     * (bounded concurrency across namespaces),
+     * calculates savings, and publishes the recommendations of each namespace in RecommendationBatchEvents
+     * of up to {@code app.analysis.batch-size} (or one RecommendationCreatedEvent per workload if batching is off).
+     * Publishing blocks, so it runs on the {@link BlockingOffloader} with a bounded number of outstanding sends.
+     * A new pass is skipped while the previous one is still running.
      */
     @Scheduled(fixedRateString = "${app.scheduler.rate:30000}", initialDelayString = "${app.scheduler.delay:0}")
     public void generateRecommendation() {
-        String namespace = "dev";
-        String deployment = "nginx";
-
-        reactor.core.publisher.Mono.zip(
-                prometheusClient.getP95CpuUsage(namespace, deployment),
-                prometheusClient.getP95MemoryUsage(namespace, deployment)
-        ).subscribe(tuple -> {
-            Double cpuUsage = tuple.getT1();
-            Double memUsage = tuple.getT2();
-
-            // Rightsizing logic: 20% buffer
-            String suggestedCpu = String.format("%.0fm", Math.max(cpuUsage, 0.01) * 1200);
-            String suggestedMem = String.format("%.0fMi", (Math.max(memUsage, 1024 * 1024 * 64) / (1024 * 1024)) * 1.2);
-
-            Map<String, String> currentResources = Map.of("cpu", "500m", "memory", "512Mi");
-            Map<String, String> suggestedResources = Map.of("cpu", suggestedCpu, "memory", suggestedMem);
-
-            double monthlySavings = costCalculator.calculateMonthlySavings(currentResources, suggestedResources);
-            String recId = UUID.randomUUID().toString();
-
-            RecommendationCreatedEvent event = RecommendationCreatedEvent.builder()
-                    .id(recId)
-                    .workloadRef("deployment/" + deployment)
-                    .namespace(namespace)
-                    .currentResources(currentResources)
-                    .suggestedResources(suggestedResources)
-                    .confidenceScore(0.90)
-                    .estimatedMonthlySavings(monthlySavings)
-                    .currency("USD")
-                    .createdAt(Instant.now())
-                    .build();
-
-            log.info("Sending recommendation for {} (CPU: {}, MEM: {}, Savings: ${})", 
-                    deployment, suggestedCpu, suggestedMem, String.format("%.2f", monthlySavings));
-            
-            // Export metrics
-            meterRegistry.counter("recommendations_created_total", "namespace", namespace).increment();
-            meterRegistry.counter("recommendation_savings_total", "namespace", namespace).increment(monthlySavings);
-
-            streamBridge.send(BINDING_NAME, event);
-
-            // Generate report
-            reportService.generateAndStoreReport(recId, event.getWorkloadRef(), suggestedResources, monthlySavings);
+        if (!passInProgress.compareAndSet(false, true)) {
+            log.warn("Previous analysis pass is still running, skipping this tick");
+            meterRegistry.counter("recommender_pass_skipped_total").increment();
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        AtomicInteger analyzed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger missing = new AtomicInteger();
+        AtomicInteger suppressed = new AtomicInteger();
+        hysteresis.evictExpired();
+
+        workloadInventory.discoverWorkloads()
+                .flatMap(workloads -> Flux.fromIterable(groupByNamespace(workloads).entrySet())
+                        .flatMap(namespaceWorkloads -> analyzeNamespace(namespaceWorkloads.getKey(), namespaceWorkloads.getValue(), missing, suppressed)
+                                .timeout(analysisProperties.getNamespaceTimeout())
+                                .onErrorResume(e -> {
+                                    if (e instanceof QueryRejectedException) {
+                                        failed.addAndGet(namespaceWorkloads.getValue().size());
+                                        log.warn("Usage queries for namespace {} were shed: {}", namespaceWorkloads.getKey(), e.getMessage());
+                                    } else if (!(e instanceof TimeoutException)) {
+                                        failed.addAndGet(namespaceWorkloads.getValue().size());
+                                        log.error("Analysis failed for namespace {}", namespaceWorkloads.getKey(), e);
+                                    }
+                                    return Mono.empty();
+                                }), analysisProperties.getConcurrency())
+                        .take(analysisProperties.getPassDeadline())
+                        .flatMapIterable(this::partition)
+                        // Kafka sends and report archival block: keep them off the Netty event loops
+                        .flatMap(chunk -> offloader.offload("publish", () -> publish(chunk))
+                                .doOnSuccess(done -> {
+                                    analyzed.addAndGet(chunk.size());
+                                    chunk.forEach(event -> hysteresis.recordEmitted(event.getNamespace(), event.getWorkloadRef(), event.getSuggestedQuantities()));
+                                })
+                                .onErrorResume(e -> {
+                                    failed.addAndGet(chunk.size());
+                                    log.error("Failed to publish {} recommendations for namespace {}", chunk.size(), chunk.get(0).getNamespace(), e);
+                                    return Mono.empty();
+                                }), offloader.maxOutstanding())
+                        .then(Mono.just(workloads.size())))
+                .doFinally(signal -> passInProgress.set(false))
+                .subscribe(
+                        total -> recordPassMetrics(total, analyzed.get(), failed.get(), missing.get(), suppressed.get(), startNanos),
+                        e -> log.error("Analysis pass failed", e));
+    }
+
+    /**
+     * Groups workloads by namespace, preserving discovery order.
+     *
+     * @param workloads The workloads to group.
+     * @return The workloads keyed by namespace.
+     */
+    private Map<String, List<Workload>> groupByNamespace(List<Workload> workloads) {
+        Map<String, List<Workload>> byNamespace = new LinkedHashMap<>();
+        for (Workload workload : workloads) {
+            byNamespace.computeIfAbsent(workload.getNamespace(), ns -> new ArrayList<>()).add(workload);
+        }
+        return byNamespace;
+    }
+
+    /**
+     * Analyzes all workloads of a namespace from a single usage lookup.
+     * Workloads without usage data are skipped and counted as missing, never sized as if idle.
+     * Suggestions inside the hysteresis band of the last emitted one are suppressed (see {@link SuggestionHysteresis}).
+     * The savings of all sized workloads are priced in one columnar {@link CostBatch} call.
+     *
+     * @param namespace  The namespace to analyze.
+     * @param workloads  The workloads of that namespace.
+     * @param missing    The counter of workloads skipped for lack of usage data.
+     * @param suppressed The counter of workloads whose suggestion did not change enough to be published.
+     * @return A Mono emitting one recommendation event per workload with a significant change.
+     */
+    private Mono<List<RecommendationCreatedEvent>> analyzeNamespace(String namespace, List<Workload> workloads,
+                                                                   AtomicInteger missing, AtomicInteger suppressed) {
+        return usageSource.namespaceUsage(namespace).map(usage -> {
+            // 1. Size every workload with usage data, keeping only significant changes
+            List<Workload> sized = new ArrayList<>(workloads.size());
+            List<ResourceQuantities> suggestions = new ArrayList<>(workloads.size());
+            CostBatch batch = new CostBatch(workloads.size());
+            for (Workload workload : workloads) {
+                WorkloadUsage workloadUsage = usage.get(workload.getName());
+                if (workloadUsage == null) {
+                    missing.incrementAndGet();
+                    continue;
+                }
+                ResourceQuantities suggested = suggestResources(workloadUsage.getCpuCores(), workloadUsage.getMemoryBytes());
+                if (!hysteresis.shouldEmit(namespace, workload.getWorkloadRef(), suggested)) {
+                    suppressed.incrementAndGet();
+                    continue;
+                }
+                sized.add(workload);
+                suggestions.add(suggested);
+                batch.add(CURRENT_RESOURCES, suggested);
+            }
+
+            // 2. Price the whole namespace at once
+            double[] savings = costCalculator.calculateMonthlySavings(batch);
+
+            // 3. Build the events
+            List<RecommendationCreatedEvent> events = new ArrayList<>(sized.size());
+            for (int i = 0; i < sized.size(); i++) {
+                events.add(buildRecommendation(sized.get(i), suggestions.get(i), savings[i]));
+            }
+            return events;
         });
     }
+
+    /**
+     * Applies the rightsizing rules to the observed usage of a workload.
+     *
+     * @param cpuUsage The P95 CPU usage in cores.
+     * @param memUsage The P95 memory usage in bytes.
+     * @return The suggested resources.
+     */
+    private ResourceQuantities suggestResources(double cpuUsage, double memUsage) {
+        // Rightsizing logic: 20% buffer
+        long suggestedCpuMillis = Math.round(Math.max(cpuUsage, 0.01) * 1200);
+        long suggestedMemMib = Math.round((Math.max(memUsage, 64 * MIB) / MIB) * 1.2);
+        return new ResourceQuantities(suggestedCpuMillis, suggestedMemMib * MIB);
+    }
+
+    /**
+     * Builds the recommendation event of a sized workload.
+     *
+     * @param workload       The analyzed workload.
+     * @param suggested      The suggested resources.
+     * @param monthlySavings The estimated monthly savings.
+     * @return The recommendation event.
+     */
+    private RecommendationCreatedEvent buildRecommendation(Workload workload, ResourceQuantities suggested, double monthlySavings) {
+        return RecommendationCreatedEvent.builder()
+                .id(UUID.randomUUID().toString())
+                .workloadRef(workload.getWorkloadRef())
+                .namespace(workload.getNamespace())
+                .currentResources(CURRENT_RESOURCES.toMap())
+                .suggestedResources(suggested.toMap())
+                .currentQuantities(CURRENT_RESOURCES)
+                .suggestedQuantities(suggested)
+                .confidenceScore(0.90)
+                .estimatedMonthlySavings(monthlySavings)
+                .currency("USD")
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    /**
+     * Splits the recommendations of a namespace into the chunks published as one record each:
+     * batches of up to {@code app.analysis.batch-size}, or single events if batching is off.
+     *
+     * @param events The recommendations of one namespace.
+     * @return The chunks, in order.
+     */
+    private List<List<RecommendationCreatedEvent>> partition(List<RecommendationCreatedEvent> events) {
+        int size = analysisProperties.getBatchSize() > 0 ? analysisProperties.getBatchSize() : 1;
+        List<List<RecommendationCreatedEvent>> chunks = new ArrayList<>((events.size() + size - 1) / size);
+        for (int from = 0; from < events.size(); from += size) {
+            chunks.add(events.subList(from, Math.min(from + size, events.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Publishes a chunk of recommendations of one namespace to Kafka, as one batch record or as single
+     * events depending on {@code app.analysis.batch-size}, exports their metrics and stores their reports.
+     *
+     * @param events The recommendations to publish.
+     */
+    private void publish(List<RecommendationCreatedEvent> events) {
+        offloader.checkBlockingAllowed("publish");
+        String namespace = events.get(0).getNamespace();
+        double chunkSavings = 0;
+        for (RecommendationCreatedEvent event : events) {
+            log.info("Sending recommendation for {}/{} (CPU: {}, MEM: {}, Savings: ${})",
+                    namespace, event.getWorkloadRef(), event.getSuggestedResources().get("cpu"),
+                    event.getSuggestedResources().get("memory"), String.format("%.2f", event.getEstimatedMonthlySavings()));
+            chunkSavings += event.getEstimatedMonthlySavings();
+        }
+
+        // Export metrics
+        meterRegistry.counter("recommendations_created_total", "namespace", namespace).increment(events.size());
+        meterRegistry.counter("recommendation_savings_total", "namespace", namespace).increment(chunkSavings);
+
+        if (analysisProperties.getBatchSize() > 0) {
+            streamBridge.send(BATCH_BINDING_NAME, KeyedMessages.withKey(toBatch(namespace, events)));
+        } else {
+            events.forEach(event -> streamBridge.send(BINDING_NAME, KeyedMessages.withKey(event)));
+        }
+
+        // Generate reports
+        for (RecommendationCreatedEvent event : events) {
+            reportService.generateAndStoreReport(event.getId(), event.getWorkloadRef(), event.getSuggestedResources(), event.getEstimatedMonthlySavings());
+        }
+    }
+
+    /**
+     * Wraps recommendations of one namespace in a batch envelope, moving the shared fields to the envelope.
+     *
+     * @param namespace The namespace of the recommendations.
+     * @param events    The recommendations.
+     * @return The batch event.
+     */
+    private RecommendationBatchEvent toBatch(String namespace, List<RecommendationCreatedEvent> events) {
+        String currency = events.get(0).getCurrency();
+        List<RecommendationCreatedEvent> items = new ArrayList<>(events.size());
+        for (RecommendationCreatedEvent event : events) {
+            items.add(event.toBuilder()
+                    .namespace(null)
+                    .currency(currency.equals(event.getCurrency()) ? null : event.getCurrency())
+                    .createdAt(null) // All sized in the same namespace analysis
+                    .build());
+        }
+        return RecommendationBatchEvent.builder()
+                .id(UUID.randomUUID().toString())
+                .namespace(namespace)
+                .currency(currency)
+                .createdAt(events.get(0).getCreatedAt())
+                .recommendations(items)
+                .build();
+    }
+
+    /**
+     * Records the sizing metrics of a completed analysis pass.
+     *
+     * @param total      The number of workloads enumerated for the pass.
+     * @param analyzed   The number of workloads that produced a recommendation.
+     * @param failed     The number of workloads whose analysis failed.
+     * @param missing    The number of workloads skipped for lack of usage data.
+     * @param suppressed The number of workloads whose unchanged suggestion was not published.
+     * @param startNanos The pass start time from {@link System#nanoTime()}.
+     */
+    private void recordPassMetrics(int total, int analyzed, int failed, int missing, int suppressed, long startNanos) {
+        Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
+        int stragglers = Math.max(0, total - analyzed - failed - missing - suppressed);
+        double seconds = Math.max(duration.toNanos() / 1_000_000_000.0, 1e-9);
+        lastPassThroughput = analyzed / seconds;
+
+        meterRegistry.timer("recommender_pass_duration").record(duration);
+        meterRegistry.gauge("recommender_pass_workloads_per_second", this, producer -> producer.lastPassThroughput);
+        meterRegistry.counter("recommender_pass_workloads_total").increment(analyzed);
+        meterRegistry.counter("recommender_pass_stragglers_total").increment(stragglers);
+        meterRegistry.counter("recommender_pass_missing_usage_total").increment(missing);
+        meterRegistry.counter("recommender_pass_suppressed_total").increment(suppressed);
+
+        if (stragglers > 0) {
+            log.warn("Analysis pass left {} of {} workloads unfinished (deadline {}, per-namespace timeout {})",
+                    stragglers, total, analysisProperties.getPassDeadline(), analysisProperties.getNamespaceTimeout());
+        }
+        log.info("Analysis pass finished: {} workloads, {} published, {} unchanged, {} failed, {} without usage data in {} ms ({} workloads/s)",
+                total, analyzed, suppressed, failed, missing, duration.toMillis(), String.format("%.1f", lastPassThroughput));
+    }
 }
@@ -1,37 +1,103 @@
 package io.kubefinops.recommender;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.kubefinops.recommender.config.ReportArchiveProperties;
 import io.kubefinops.recommender.domain.RecommendationReport;
 import io.kubefinops.recommender.repository.RecommendationReportRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.minio.BucketExistsArgs;
 import io.minio.MakeBucketArgs;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Archives recommendation reports in batches. Reports are buffered for up to
+ * {@code app.report-archive.flush-interval} (or until a batch is full), then written to MinIO as one
+ * gzip-compressed NDJSON segment through the async client, and indexed with one bulk MongoDB insert.
+ * Each indexed report points at its segment and line.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ReportService {
 
+    private static final DateTimeFormatter SEGMENT_PREFIX = DateTimeFormatter.ofPattern("yyyy/MM/dd").withZone(ZoneOffset.UTC);
+
     private final RecommendationReportRepository repository;
     private final MinioClient minioClient;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MinioAsyncClient minioAsyncClient;
+    private final ReportArchiveProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final BlockingOffloader offloader;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final List<RecommendationReport> buffer = new ArrayList<>();
+    private final AtomicInteger uploading = new AtomicInteger();
+    private long oldestBufferedNanos;
+    private volatile boolean bucketReady;
 
     @Value("${minio.bucket}")
     private String bucketName;
 
+    public ReportService(RecommendationReportRepository repository, MinioClient minioClient, MinioAsyncClient minioAsyncClient,
+                         ReportArchiveProperties properties, MeterRegistry meterRegistry, BlockingOffloader offloader) {
+        this.repository = repository;
+        this.minioClient = minioClient;
+        this.minioAsyncClient = minioAsyncClient;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.offloader = offloader;
+        meterRegistry.gauge("report_archive_pending", this, service -> service.pendingCount());
+    }
+
     /**
-     * Generates a detailed JSON report for a recommendation, uploads it to MinIO (S3),
-     * and saves the metadata to the database.
+     * Checks once at startup that the report bucket exists, creating it if needed.
+     * If MinIO is unreachable, the check is retried before the next flush.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureBucket() {
+        try {
+            boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
+            if (!found) {
+                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+            }
+            bucketReady = true;
+        } catch (Exception e) {
+            log.error("Could not verify report bucket {}, will retry on next flush", bucketName, e);
+        }
+    }
+
+    /**
+     * Generates a detailed report for a recommendation and queues it for archival.
+     * The report is written to MinIO (S3) and indexed in the database by the next flush.
      *
      * @param recommendationId The ID of the recommendation.
      * @param workloadRef      The workload reference.
@@ -39,43 +105,170 @@ public class ReportService {
      * @param savings          The estimated savings.
      */
     public void generateAndStoreReport(String recommendationId, String workloadRef, Map<String, String> suggested, Double savings) {
-        log.info("Generating detailed report for recommendation: {}", recommendationId);
-        
+        RecommendationReport report = RecommendationReport.builder()
+                .id(UUID.randomUUID().toString())
+                .recommendationId(recommendationId)
+                .workloadRef(workloadRef)
+                .suggestedResources(suggested)
+                .estimatedMonthlySavings(savings)
+                .generatedAt(Instant.now())
+                .build();
+
+        List<RecommendationReport> fullBatch = null;
+        long startNanos = 0;
+        synchronized (buffer) {
+            if (buffer.size() + uploading.get() >= properties.getMaxPendingReports()) {
+                meterRegistry.counter("report_archive_dropped_total", "reason", "overflow").increment();
+                log.warn("Report archive backlog full, dropping report for recommendation {}", recommendationId);
+                return;
+            }
+            if (buffer.isEmpty()) oldestBufferedNanos = System.nanoTime();
+            buffer.add(report);
+            if (buffer.size() >= properties.getMaxBatchSize()) {
+                startNanos = oldestBufferedNanos;
+                fullBatch = drain();
+            }
+        }
+        if (fullBatch != null) {
+            archive(fullBatch, startNanos);
+        }
+    }
+
+    /**
+     * Flushes the buffered reports whose batch did not fill up within the flush interval.
+     */
+    @Scheduled(fixedDelayString = "${app.report-archive.flush-interval:2s}")
+    public void flush() {
+        List<RecommendationReport> batch;
+        long startNanos;
+        synchronized (buffer) {
+            if (buffer.isEmpty()) return;
+            startNanos = oldestBufferedNanos;
+            batch = drain();
+        }
+        archive(batch, startNanos);
+    }
+
+    /**
+     * Flushes the remaining reports on shutdown and waits for their upload.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        List<RecommendationReport> batch;
+        long startNanos;
+        synchronized (buffer) {
+            startNanos = oldestBufferedNanos;
+            batch = drain();
+        }
+        if (batch.isEmpty()) return;
         try {
-            // 1. Ensure bucket exists
-            boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
-            if (!found) {
-                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+            archive(batch, startNanos).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("Failed to archive {} reports on shutdown", batch.size(), e);
+        }
+    }
+
+    /**
+     * Moves the buffered reports to a new batch, counted as uploading until archived.
+     * Must be called while holding the buffer lock.
+     *
+     * @return The drained reports, in arrival order.
+     */
+    private List<RecommendationReport> drain() {
+        List<RecommendationReport> batch = new ArrayList<>(buffer);
+        buffer.clear();
+        uploading.addAndGet(batch.size());
+        return batch;
+    }
+
+    /**
+     * Writes a batch as one NDJSON segment and indexes it with a single bulk insert.
+     *
+     * @param batch      The reports to archive.
+     * @param startNanos When the oldest report of the batch was buffered, for the flush latency metric.
+     * @return A future completing once the batch is uploaded and indexed (never completes exceptionally).
+     */
+    CompletableFuture<Void> archive(List<RecommendationReport> batch, long startNanos) {
+        meterRegistry.summary("report_archive_batch_size").record(batch.size());
+        try {
+            // 1. Create the bucket if the startup check failed
+            if (!bucketReady) ensureBucket();
+
+            // 2. Point every report at its segment line and encode the segment
+            String object = String.format("reports/segments/%s/%d-%s.ndjson.gz",
+                    SEGMENT_PREFIX.format(Instant.now()), System.currentTimeMillis(), UUID.randomUUID());
+            String s3Path = String.format("s3://%s/%s", bucketName, object);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setS3Path(s3Path);
+                batch.get(i).setSegmentLine(i);
             }
+            byte[] segment = encodeSegment(batch);
 
-            // 2. Prepare report content
-            RecommendationReport report = RecommendationReport.builder()
-                    .id(UUID.randomUUID().toString())
-                    .recommendationId(recommendationId)
-                    .workloadRef(workloadRef)
-                    .suggestedResources(suggested)
-                    .estimatedMonthlySavings(savings)
-                    .s3Path(String.format("s3://%s/reports/%s.json", bucketName, recommendationId))
-                    .generatedAt(Instant.now())
-                    .build();
-
-            // 3. Upload to MinIO
-            byte[] content = objectMapper.writeValueAsBytes(report);
-            minioClient.putObject(
-                    PutObjectArgs.builder()
+            // 3. Upload asynchronously (one PUT of the known segment length; only a segment larger than partSize
+            //    would be sent in parts), then bulk index on the offload executor rather than on the MinIO
+            //    client's callback thread
+            return minioAsyncClient.putObject(PutObjectArgs.builder()
                             .bucket(bucketName)
-                            .object("reports/" + recommendationId + ".json")
-                            .stream(new ByteArrayInputStream(content), content.length, -1)
-                            .contentType("application/json")
-                            .build()
-            );
+                            .object(object)
+                            .stream(new ByteArrayInputStream(segment), segment.length, properties.getPartSize())
+                            .contentType("application/x-ndjson")
+                            .headers(Map.of("Content-Encoding", "gzip"))
+                            .build())
+                    .thenRunAsync(() -> repository.insert(batch), offloader.executor())
+                    .handle((ignored, e) -> {
+                        uploading.addAndGet(-batch.size());
+                        if (e == null) {
+                            meterRegistry.timer("report_archive_flush_latency").record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                            log.info("Archived {} reports to {}", batch.size(), s3Path);
+                        } else {
+                            onFailure(batch, e);
+                        }
+                        return null;
+                    });
+        } catch (Exception e) {
+            uploading.addAndGet(-batch.size());
+            onFailure(batch, e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 
-            // 4. Save metadata to MongoDB
-            repository.save(report);
-            log.info("Report successfully uploaded to S3 and indexed: {}", report.getS3Path());
+    /**
+     * Encodes reports as gzip-compressed newline-delimited JSON.
+     *
+     * @param batch The reports to encode.
+     * @return The compressed segment.
+     * @throws IOException If a report cannot be serialized.
+     */
+    private byte[] encodeSegment(List<RecommendationReport> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size() * 128);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            for (RecommendationReport report : batch) {
+                out.write(objectMapper.writeValueAsBytes(report));
+                out.write('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to generate or upload report for recommendation {}", recommendationId, e);
+    /**
+     * Records a failed batch. Reports are not retried; the recommendations themselves were already published.
+     *
+     * @param batch The batch that could not be archived.
+     * @param e     The failure.
+     */
+    private void onFailure(List<RecommendationReport> batch, Throwable e) {
+        meterRegistry.counter("report_archive_dropped_total", "reason", "error").increment(batch.size());
+        log.error("Failed to archive a batch of {} reports", batch.size(), e);
+    }
+
+    /**
+     * Returns the number of reports buffered or being uploaded.
+     *
+     * @return The pending report count.
+     */
+    private double pendingCount() {
+        synchronized (buffer) {
+            return buffer.size() + uploading.get();
         }
     }
 }
@@ -0,0 +1,21 @@
+package io.kubefinops.recommender;
+
+/**
+ * Portable scalar pricing loop, used when the Vector API module is not available.
+ */
+class ScalarCostKernel implements CostKernel {
+
+    @Override
+    public void price(CostBatch batch, double pricePerMilliCore, double pricePerMemoryByte) {
+        long[] currentCpu = batch.currentCpuMillis;
+        long[] currentMemory = batch.currentMemoryBytes;
+        long[] suggestedCpu = batch.suggestedCpuMillis;
+        long[] suggestedMemory = batch.suggestedMemoryBytes;
+        double[] savings = batch.savings;
+        for (int i = 0; i < batch.size(); i++) {
+            double delta = (currentCpu[i] - suggestedCpu[i]) * pricePerMilliCore
+                    + (currentMemory[i] - suggestedMemory[i]) * pricePerMemoryByte;
+            savings[i] = Math.max(0.0, delta);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.kubefinops.recommender;
+
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.recommender.config.HysteresisProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the last suggestion emitted per workload and suppresses new ones that fall inside the
+ * hysteresis band. A suggestion is emitted when CPU or memory moved by at least both the absolute and the
+ * relative threshold (so small workloads are not flapped by tiny absolute changes, nor large ones by tiny
+ * relative changes), or when the last emission is older than the max age.
+ * State is in-memory: after a restart (or a shard rebalance) every workload is emitted once more.
+ */
+@Component
+@RequiredArgsConstructor
+public class SuggestionHysteresis {
+
+    private final HysteresisProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Emission> lastEmitted = new ConcurrentHashMap<>();
+
+    /**
+     * Decides whether a suggestion is worth publishing, counting suppressed ones. Emissions are counted by
+     * {@link #recordEmitted} once the suggestion was actually published.
+     *
+     * @param namespace   The namespace of the workload.
+     * @param workloadRef The workload reference.
+     * @param suggested   The new suggestion.
+     * @return True if the suggestion should be published.
+     */
+    public boolean shouldEmit(String namespace, String workloadRef, ResourceQuantities suggested) {
+        return shouldEmit(namespace, workloadRef, suggested, System.currentTimeMillis());
+    }
+
+    boolean shouldEmit(String namespace, String workloadRef, ResourceQuantities suggested, long nowMillis) {
+        if (!properties.isEnabled()) return true;
+
+        Emission last = lastEmitted.get(key(namespace, workloadRef));
+        if (last == null || isExpired(last, nowMillis)
+                || exceeds(suggested.getCpuMillis(), last.resources.getCpuMillis(), properties.getCpuAbsoluteMillis(), properties.getCpuRelative())
+                || exceeds(suggested.getMemoryBytes(), last.resources.getMemoryBytes(), properties.getMemoryAbsoluteBytes(), properties.getMemoryRelative())) {
+            return true;
+        }
+        meterRegistry.counter("recommender_hysteresis_total", "decision", "suppressed", "reason", "unchanged").increment();
+        return false;
+    }
+
+    /**
+     * Records a suggestion as published, making it the new reference of the workload, and counts the emission
+     * with the reason it passed the band.
+     *
+     * @param namespace   The namespace of the workload.
+     * @param workloadRef The workload reference.
+     * @param suggested   The published suggestion.
+     */
+    public void recordEmitted(String namespace, String workloadRef, ResourceQuantities suggested) {
+        recordEmitted(namespace, workloadRef, suggested, System.currentTimeMillis());
+    }
+
+    void recordEmitted(String namespace, String workloadRef, ResourceQuantities suggested, long nowMillis) {
+        if (!properties.isEnabled() || suggested == null) return;
+        Emission last = lastEmitted.put(key(namespace, workloadRef), new Emission(suggested, nowMillis));
+        String reason = last == null ? "first" : isExpired(last, nowMillis) ? "expired" : "changed";
+        meterRegistry.counter("recommender_hysteresis_total", "decision", "emitted", "reason", reason).increment();
+    }
+
+    /**
+     * Forgets emissions older than twice the max age. Their workloads would be re-emitted anyway, but an
+     * emission is kept for one more max age after it expires, so that its re-emission is still counted as
+     * expired. Bounds the state when workloads are deleted or their namespace moves to another replica.
+     */
+    public void evictExpired() {
+        evictExpired(System.currentTimeMillis());
+    }
+
+    void evictExpired(long nowMillis) {
+        long cutoff = nowMillis - 2 * properties.getMaxAge().toMillis();
+        lastEmitted.values().removeIf(emission -> emission.emittedAtMillis < cutoff);
+    }
+
+    private boolean isExpired(Emission emission, long nowMillis) {
+        return nowMillis - emission.emittedAtMillis >= properties.getMaxAge().toMillis();
+    }
+
+    private static boolean exceeds(long value, long reference, long absolute, double relative) {
+        long delta = Math.abs(value - reference);
+        return delta >= absolute && delta >= relative * reference;
+    }
+
+    private static String key(String namespace, String workloadRef) {
+        return namespace + "/" + workloadRef;
+    }
+
+    private record Emission(ResourceQuantities resources, long emittedAtMillis) {
+    }
+}
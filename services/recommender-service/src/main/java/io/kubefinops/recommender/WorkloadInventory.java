@@ -0,0 +1,61 @@
+package io.kubefinops.recommender;
+
+import io.kubefinops.recommender.client.PrometheusClient;
+import io.kubefinops.recommender.config.AnalysisProperties;
+import io.kubefinops.recommender.domain.Workload;
+import io.kubefinops.recommender.shard.ShardCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkloadInventory {
+
+    private final PrometheusClient prometheusClient;
+    private final AnalysisProperties analysisProperties;
+    private final ShardCoordinator shardCoordinator;
+
+    /**
+     * Enumerates every workload that should be analyzed in the current pass.
+     * Only the namespaces owned by this replica (see {@link ShardCoordinator}) are returned.
+     *
+     * @return A Mono emitting the workloads to analyze.
+     */
+    public Mono<List<Workload>> discoverWorkloads() {
+        return discoverAllWorkloads()
+                .map(workloads -> workloads.stream()
+                        .filter(w -> shardCoordinator.owns(w.getNamespace()))
+                        .toList());
+    }
+
+    /**
+     * Enumerates the workloads of every namespace, whichever replica owns it.
+     * Deployments are discovered from kube-state-metrics; excluded namespaces are filtered out.
+     * If discovery returns nothing (e.g. kube-state-metrics is not installed), the configured
+     * static workload list is used instead.
+     *
+     * @return A Mono emitting the workloads.
+     */
+    public Mono<List<Workload>> discoverAllWorkloads() {
+        return prometheusClient.listDeployments()
+                .map(discovered -> discovered.stream()
+                        .filter(w -> !analysisProperties.getExcludedNamespaces().contains(w.getNamespace()))
+                        .distinct()
+                        .toList())
+                .map(workloads -> {
+                    if (!workloads.isEmpty()) {
+                        return workloads;
+                    }
+                    log.debug("No workloads discovered from Prometheus, falling back to static list {}",
+                            analysisProperties.getStaticWorkloads());
+                    return analysisProperties.getStaticWorkloads().stream()
+                            .map(Workload::parse)
+                            .toList();
+                });
+    }
+}
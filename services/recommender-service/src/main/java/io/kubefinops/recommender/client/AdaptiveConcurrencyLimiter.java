@@ -0,0 +1,158 @@
+package io.kubefinops.recommender.client;
+
+import io.kubefinops.recommender.config.PrometheusLimiterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * AIMD concurrency limiter for outgoing Prometheus queries.
+ * Each fast, successful query grows the limit by 1/limit (about +1 per window of queries); a query that
+ * fails or exceeds the latency threshold multiplies it by the backoff ratio. Queries above the limit wait
+ * in a bounded FIFO queue and are shed with {@link QueryRejectedException} when the queue is full or
+ * the wait exceeds the queue timeout, so a slow Prometheus receives less load rather than more.
+ */
+class AdaptiveConcurrencyLimiter {
+
+    private final PrometheusLimiterProperties properties;
+    private final Deque<MonoSink<Void>> waiting = new ArrayDeque<>();
+    private final Counter rejected;
+
+    private double limit;
+    private int inFlight;
+
+    AdaptiveConcurrencyLimiter(PrometheusLimiterProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+        this.rejected = meterRegistry.counter("prometheus_query_rejected_total");
+        meterRegistry.gauge("prometheus_query_limit", this, AdaptiveConcurrencyLimiter::limit);
+        meterRegistry.gauge("prometheus_query_in_flight", this, AdaptiveConcurrencyLimiter::inFlight);
+        meterRegistry.gauge("prometheus_query_queue_depth", this, AdaptiveConcurrencyLimiter::queueDepth);
+    }
+
+    /**
+     * Runs a query once a concurrency slot is available and feeds its outcome back into the limit.
+     *
+     * @param query Supplies the query to run.
+     * @param <T>   The element type.
+     * @return The query result, or a {@link QueryRejectedException} if it was shed.
+     */
+    <T> Flux<T> run(Supplier<Flux<T>> query) {
+        return acquire().thenMany(Flux.defer(() -> {
+            long startNanos = System.nanoTime();
+            return query.get()
+                    .doOnComplete(() -> release(System.nanoTime() - startNanos <= properties.getLatencyThreshold().toNanos()))
+                    .doOnError(e -> release(false))
+                    .doOnCancel(this::releaseWithoutSample);
+        }));
+    }
+
+    /**
+     * Takes a slot immediately, or queues the caller until one is released.
+     * Sinks are only signalled outside the lock, so subscriber code never runs while holding it.
+     *
+     * @return A Mono completing once the caller holds a slot.
+     */
+    private Mono<Void> acquire() {
+        return Mono.<Void>create(sink -> {
+            int queued;
+            synchronized (this) {
+                if (inFlight < (int) limit) {
+                    inFlight++;
+                    queued = -1;
+                } else if ((queued = waiting.size()) < properties.getMaxQueue()) {
+                    waiting.addLast(sink);
+                    sink.onCancel(() -> {
+                        boolean stillWaiting;
+                        synchronized (this) {
+                            stillWaiting = waiting.remove(sink);
+                        }
+                        if (!stillWaiting) releaseWithoutSample(); // slot was handed over as the wait timed out
+                    });
+                    return;
+                }
+            }
+            if (queued < 0) {
+                sink.success();
+            } else {
+                rejected.increment();
+                sink.error(new QueryRejectedException("Prometheus query queue full (" + queued + " waiting)"));
+            }
+        }).timeout(properties.getQueueTimeout())
+                .onErrorMap(TimeoutException.class, e -> {
+                    rejected.increment();
+                    return new QueryRejectedException("Prometheus query waited longer than " + properties.getQueueTimeout());
+                });
+    }
+
+    /**
+     * Releases a slot and adjusts the limit: additive increase on a fast success, multiplicative decrease otherwise.
+     *
+     * @param healthy Whether the query succeeded within the latency threshold.
+     */
+    private void release(boolean healthy) {
+        synchronized (this) {
+            if (healthy) {
+                limit = Math.min(properties.getMaxLimit(), limit + 1.0 / limit);
+            } else {
+                limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+            }
+        }
+        releaseWithoutSample();
+    }
+
+    /**
+     * Releases a slot without adjusting the limit and hands free slots to waiting queries.
+     * The queries to wake are collected under the lock and signalled after releasing it.
+     */
+    private void releaseWithoutSample() {
+        List<MonoSink<Void>> woken = new ArrayList<>(1);
+        synchronized (this) {
+            inFlight--;
+            MonoSink<Void> next;
+            while (inFlight < (int) limit && (next = waiting.pollFirst()) != null) {
+                inFlight++;
+                woken.add(next);
+            }
+        }
+        for (MonoSink<Void> sink : woken) {
+            sink.success();
+        }
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     *
+     * @return The limit.
+     */
+    synchronized double limit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of queries currently running.
+     *
+     * @return The in-flight count.
+     */
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Returns the number of queries waiting for a slot.
+     *
+     * @return The queue depth.
+     */
+    synchronized int queueDepth() {
+        return waiting.size();
+    }
+}
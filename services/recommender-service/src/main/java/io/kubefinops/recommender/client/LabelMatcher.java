@@ -0,0 +1,24 @@
+package io.kubefinops.recommender.client;
+
+import lombok.Value;
+
+/**
+ * Series selector term of a remote-read query (the equivalent of {@code name="value"} in PromQL).
+ */
+@Value
+public class LabelMatcher {
+
+    public enum Type { EQ, NEQ, RE, NRE } // Ordinals match the prometheus.LabelMatcher.Type enum
+
+    Type type;
+    String name;
+    String value;
+
+    public static LabelMatcher eq(String name, String value) {
+        return new LabelMatcher(Type.EQ, name, value);
+    }
+
+    public static LabelMatcher neq(String name, String value) {
+        return new LabelMatcher(Type.NEQ, name, value);
+    }
+}
@@ -0,0 +1,25 @@
+package io.kubefinops.recommender.client;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * A single decoded Prometheus sample. All samples of one series share the same labels instance.
+ */
+@Value
+public class PromSample {
+    Map<String, String> labels;
+    long timestampMillis;
+    double value;
+
+    /**
+     * Returns the value of a label of the series this sample belongs to.
+     *
+     * @param name The label name.
+     * @return The label value, or null if the series does not carry it.
+     */
+    public String label(String name) {
+        return labels.get(name);
+    }
+}
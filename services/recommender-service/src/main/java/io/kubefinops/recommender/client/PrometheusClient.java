@@ -1,85 +1,237 @@
 package io.kubefinops.recommender.client;
 
+import io.kubefinops.recommender.config.PrometheusCacheProperties;
+import io.kubefinops.recommender.config.PrometheusLimiterProperties;
+import io.kubefinops.recommender.domain.Workload;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.xerial.snappy.Snappy;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
 @Component
 public class PrometheusClient {
 
+    // ReplicaSet-managed pods are named <deployment>-<replicaset hash>-<pod suffix>
+    private static final String POD_TO_WORKLOAD_REGEX = "(.+)-[a-z0-9]+-[a-z0-9]+";
+
     private final WebClient webClient;
     private final String prometheusUrl;
+    private final PrometheusCacheProperties cacheProperties;
+    private final QueryCache cache;
+    private final AdaptiveConcurrencyLimiter limiter;
 
-    public PrometheusClient(WebClient.Builder webClientBuilder, @Value("${prometheus.url}") String prometheusUrl) {
+    public PrometheusClient(WebClient.Builder webClientBuilder, @Value("${prometheus.url}") String prometheusUrl,
+                            PrometheusCacheProperties cacheProperties, PrometheusLimiterProperties limiterProperties,
+                            MeterRegistry meterRegistry) {
         this.prometheusUrl = prometheusUrl;
         this.webClient = webClientBuilder.baseUrl(prometheusUrl).build();
+        this.cacheProperties = cacheProperties;
+        this.cache = new QueryCache(cacheProperties.getTtl(), cacheProperties.getLoadTimeout(),
+                cacheProperties.getMaxEntries(), cacheProperties.getMaxEntrySamples(), meterRegistry);
+        this.limiter = new AdaptiveConcurrencyLimiter(limiterProperties, meterRegistry);
+    }
+
+    /**
+     * Fetches the 95th percentile of CPU usage for every workload of a namespace in a single query.
+     * Like the local usage sources, the percentile is taken per (pod, container) series rather than over the
+     * workload total: each container's P95 over the last 5 minutes, then the P95 across the workload's containers.
+     * The owning workload is derived from the pod name once, server-side, instead of one regex per workload.
+     *
+     * @param namespace The namespace to analyze.
+     * @return A Mono emitting CPU usage in cores, keyed by workload name.
+     */
+    public Mono<Map<String, Double>> getP95CpuUsageByWorkload(String namespace) {
+        String query = String.format("quantile by (namespace, workload) (0.95, quantile_over_time(0.95, %s[5m:30s]))",
+                withWorkloadLabel(String.format("sum by (namespace, pod, container) (rate(container_cpu_usage_seconds_total{namespace='%s', container!=''}[1m]))", namespace)));
+        return queryByWorkload(query);
+    }
+
+    /**
+     * Fetches the 95th percentile of memory working set bytes for every workload of a namespace in a single query,
+     * windowed like the CPU query: each container's P95 over the last 5 minutes, then the P95 across the
+     * workload's containers.
+     *
+     * @param namespace The namespace to analyze.
+     * @return A Mono emitting memory usage in bytes, keyed by workload name.
+     */
+    public Mono<Map<String, Double>> getP95MemoryUsageByWorkload(String namespace) {
+        String query = String.format("quantile by (namespace, workload) (0.95, quantile_over_time(0.95, %s[5m:30s]))",
+                withWorkloadLabel(String.format("sum by (namespace, pod, container) (container_memory_working_set_bytes{namespace='%s', container!=''})", namespace)));
+        return queryByWorkload(query);
     }
 
     /**
-     * Fetches the 95th percentile of CPU usage for a given deployment over the last 5 minutes.
+     * Wraps a selector so that every series carries a "workload" label derived from its pod name
+     * (e.g., "nginx-7c5ddbdf54-x2k9p" becomes "nginx").
      *
-     * @param namespace  The namespace of the deployment.
-     * @param deployment The name of the deployment.
-     * @return A Mono emitting the CPU usage value.
+     * @param selector The PromQL expression producing per-pod series.
+     * @return The expression with the workload label attached.
      */
-    public Mono<Double> getP95CpuUsage(String namespace, String deployment) {
-        String query = String.format("histogram_quantile(0.95, sum(rate(container_cpu_usage_seconds_total{namespace='%s', pod=~'%s-.*'}[5m])) by (le))", 
-                namespace, deployment);
-        return queryPrometheus(query);
+    private String withWorkloadLabel(String selector) {
+        return String.format("label_replace(%s, 'workload', '$1', 'pod', '%s')", selector, POD_TO_WORKLOAD_REGEX);
     }
 
     /**
-     * Fetches the 95th percentile of memory working set bytes for a given deployment.
+     * Executes a grouped PromQL query and demultiplexes the result vector by its "workload" label.
      *
-     * @param namespace  The namespace of the deployment.
-     * @param deployment The name of the deployment.
-     * @return A Mono emitting the memory usage in bytes.
+     * @param query The PromQL query string, grouped by (namespace, workload).
+     * @return A Mono emitting the values keyed by workload name; NaN samples are left out as missing.
+     *         Errors (including shed queries) are propagated so callers never mistake them for zero usage.
      */
-    public Mono<Double> getP95MemoryUsage(String namespace, String deployment) {
-        String query = String.format("quantile(0.95, sum(container_memory_working_set_bytes{namespace='%s', pod=~'%s-.*'}) by (pod))", 
-                namespace, deployment);
-        return queryPrometheus(query);
+    private Mono<Map<String, Double>> queryByWorkload(String query) {
+        return query(query)
+                .filter(sample -> sample.label("workload") != null && !Double.isNaN(sample.getValue()))
+                .collect(HashMap<String, Double>::new, (values, sample) -> values.put(sample.label("workload"), sample.getValue()))
+                .map(values -> (Map<String, Double>) values)
+                .doOnError(e -> log.warn("Batched query failed: {}", e.getMessage()));
     }
 
     /**
-     * Executes a PromQL query against the Prometheus API.
+     * Lists every deployment known to kube-state-metrics, one entry per namespace/deployment pair.
+     *
+     * @return A Mono emitting the discovered workloads (empty on error).
+     */
+    public Mono<List<Workload>> listDeployments() {
+        String query = "count by (namespace, deployment) (kube_deployment_spec_replicas)";
+        return query(query)
+                .filter(sample -> sample.label("namespace") != null && sample.label("deployment") != null)
+                .map(sample -> new Workload(sample.label("namespace"), sample.label("deployment")))
+                .collectList()
+                .onErrorResume(e -> {
+                    log.warn("Workload discovery query failed: {}", e.getMessage());
+                    return Mono.just(List.of());
+                });
+    }
+
+    /**
+     * Executes an instant PromQL query and streams the decoded samples of its result.
+     * The query is evaluated at the current time aligned down to the cache evaluation step, so identical
+     * queries issued within one step share a single cached or in-flight result.
+     * Requests that miss the cache go through the adaptive concurrency limiter.
+     * The response body is decoded incrementally as it arrives (see {@link PrometheusResponseDecoder}).
      *
      * @param query The PromQL query string.
-     * @return A Mono emitting the result value as a Double.
+     * @return A Flux emitting one typed sample per result series.
+     */
+    public Flux<PromSample> query(String query) {
+        if (!cacheProperties.isEnabled()) {
+            return fetch(query, null);
+        }
+        long stepMillis = cacheProperties.getEvaluationStep().toMillis();
+        long evaluationMillis = Math.floorDiv(System.currentTimeMillis(), stepMillis) * stepMillis;
+        return cache.get(evaluationMillis + "|" + query, () -> fetch(query, evaluationMillis));
+    }
+
+    /**
+     * Sends an instant query to Prometheus.
+     *
+     * @param query            The PromQL query string.
+     * @param evaluationMillis The evaluation time in epoch milliseconds, or null for the server's current time.
+     * @return A Flux emitting the decoded samples.
+     */
+    private Flux<PromSample> fetch(String query, Long evaluationMillis) {
+        return limiter.run(() -> webClient.get()
+                .uri(uriBuilder -> {
+                    uriBuilder.path("/api/v1/query").queryParam("query", "{query}");
+                    if (evaluationMillis != null) uriBuilder.queryParam("time", evaluationMillis / 1000.0);
+                    return uriBuilder.build(query);
+                })
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .transform(PrometheusResponseDecoder::decode));
+    }
+
+    /**
+     * Executes a range PromQL query and streams every decoded sample of the resulting matrix.
+     * Identical ranges share one cached or in-flight result.
+     *
+     * @param query       The PromQL query string.
+     * @param startMillis The range start in epoch milliseconds (inclusive).
+     * @param endMillis   The range end in epoch milliseconds (inclusive).
+     * @param step        The query resolution.
+     * @return A Flux emitting every sample of every series.
+     */
+    public Flux<PromSample> queryRange(String query, long startMillis, long endMillis, Duration step) {
+        if (!cacheProperties.isEnabled()) {
+            return fetchRange(query, startMillis, endMillis, step);
+        }
+        return cache.get(startMillis + "-" + endMillis + "/" + step.toMillis() + "|" + query,
+                () -> fetchRange(query, startMillis, endMillis, step));
+    }
+
+    /**
+     * Sends a range query to Prometheus.
+     *
+     * @param query       The PromQL query string.
+     * @param startMillis The range start in epoch milliseconds.
+     * @param endMillis   The range end in epoch milliseconds.
+     * @param step        The query resolution.
+     * @return A Flux emitting the decoded samples.
      */
-    private Mono<Double> queryPrometheus(String query) {
-        return webClient.get()
+    private Flux<PromSample> fetchRange(String query, long startMillis, long endMillis, Duration step) {
+        return limiter.run(() -> webClient.get()
                 .uri(uriBuilder -> uriBuilder
-                        .path("/api/v1/query")
+                        .path("/api/v1/query_range")
                         .queryParam("query", "{query}")
+                        .queryParam("start", startMillis / 1000.0)
+                        .queryParam("end", endMillis / 1000.0)
+                        .queryParam("step", step.toSeconds() + "s")
                         .build(query))
                 .retrieve()
-                .bodyToMono(Map.class)
-                .map(response -> {
-                    try {
-                        Map<String, Object> data = (Map<String, Object>) response.get("data");
-                        if (data == null) return 0.0;
-                        
-                        java.util.List<Object> result = (java.util.List<Object>) data.get("result");
-                        if (result == null || result.isEmpty()) return 0.0;
-                        
-                        Map<String, Object> firstResult = (Map<String, Object>) result.get(0);
-                        java.util.List<Object> value = (java.util.List<Object>) firstResult.get("value");
-                        
-                        if (value != null && value.size() >= 2) {
-                            String valStr = (String) value.get(1);
-                            return Double.parseDouble(valStr);
-                        }
-                        return 0.0;
-                    } catch (Exception e) {
-                        return 0.0;
-                    }
-                })
-                .onErrorReturn(0.0);
+                .bodyToFlux(DataBuffer.class)
+                .transform(PrometheusResponseDecoder::decode));
+    }
+
+    /**
+     * Reads raw samples through the remote-read API (snappy-compressed protobuf request, streamed XOR chunk
+     * response). Much cheaper than range queries for long windows: samples travel in their TSDB encoding and
+     * are decoded straight into primitive arrays (see {@link RemoteReadResponseDecoder}).
+     * Requests go through the adaptive concurrency limiter but are not cached.
+     *
+     * @param matchers    The series selector.
+     * @param startMillis The range start in epoch milliseconds.
+     * @param endMillis   The range end in epoch milliseconds.
+     * @return A Flux emitting the raw series.
+     */
+    public Flux<RawSeries> remoteRead(List<LabelMatcher> matchers, long startMillis, long endMillis) {
+        return limiter.run(() -> Mono.fromCallable(() -> compress(RemoteReadCodec.encodeReadRequest(startMillis, endMillis, matchers)))
+                .flatMapMany(request -> webClient.post()
+                        .uri("/api/v1/read")
+                        .contentType(MediaType.parseMediaType("application/x-protobuf"))
+                        .header("Content-Encoding", "snappy")
+                        .header("X-Prometheus-Remote-Read-Version", "0.1.0")
+                        .accept(MediaType.parseMediaType("application/x-streamed-protobuf; proto=prometheus.ChunkedReadResponse"))
+                        .bodyValue(request)
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class))
+                .transform(RemoteReadResponseDecoder::decode));
+    }
+
+    /**
+     * Compresses a request body with snappy block compression, as the remote-read protocol requires.
+     *
+     * @param body The uncompressed body.
+     * @return The compressed body.
+     */
+    private static byte[] compress(byte[] body) {
+        try {
+            return Snappy.compress(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,236 @@
+package io.kubefinops.recommender.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.core.io.NumberInput;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental decoder for Prometheus HTTP API responses (vector, matrix and scalar results).
+ * Body chunks are pushed into Jackson's non-blocking parser as they arrive, so the response is never
+ * buffered as a whole and no generic Map/List tree is built: only label maps (one per series) and
+ * {@link PromSample}s with primitive timestamp/value are allocated.
+ * A decoder instance is stateful and handles exactly one response.
+ */
+class PrometheusResponseDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int MAX_TRACKED_DEPTH = 8;
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+
+    // Field name of the current member at each nesting depth (root object is depth 1)
+    private final String[] fieldAtDepth = new String[MAX_TRACKED_DEPTH];
+    private int depth;
+
+    private Map<String, String> labels = Map.of();
+    private int pairIndex;
+    private long pairTimestampMillis;
+
+    private String status;
+    private String errorType;
+    private String error;
+
+    PrometheusResponseDecoder() {
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Decodes a streamed response body into typed samples.
+     *
+     * @param body The raw response body chunks.
+     * @return A Flux emitting every sample of the result, in response order.
+     */
+    static Flux<PromSample> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            PrometheusResponseDecoder decoder = new PrometheusResponseDecoder();
+            return body.concatMapIterable(decoder::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.finish())));
+        });
+    }
+
+    /**
+     * Feeds one body chunk to the parser and returns the samples completed by it.
+     * The buffer is released once consumed.
+     *
+     * @param buffer The body chunk.
+     * @return The samples decoded from this chunk (possibly empty).
+     */
+    List<PromSample> feed(DataBuffer buffer) {
+        List<PromSample> samples = new ArrayList<>();
+        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+            while (chunks.hasNext()) {
+                feeder.feedInput(chunks.next());
+                drain(samples);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return samples;
+    }
+
+    /**
+     * Signals the end of the body and returns any samples still pending in the parser.
+     *
+     * @return The remaining samples.
+     * @throws IllegalStateException If Prometheus reported an error status.
+     */
+    List<PromSample> finish() {
+        List<PromSample> samples = new ArrayList<>();
+        try {
+            feeder.endOfInput();
+            drain(samples);
+            parser.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if ("error".equals(status)) {
+            throw new IllegalStateException("Prometheus query failed: " + errorType + ": " + error);
+        }
+        return samples;
+    }
+
+    /**
+     * Consumes every token currently available in the parser.
+     *
+     * @param out The list receiving completed samples.
+     * @throws IOException If the JSON is malformed.
+     */
+    private void drain(List<PromSample> out) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    onContainerStart(token);
+                    depth++;
+                    if (depth < MAX_TRACKED_DEPTH) fieldAtDepth[depth] = null;
+                }
+                case END_OBJECT, END_ARRAY -> depth--;
+                case FIELD_NAME -> {
+                    if (depth < MAX_TRACKED_DEPTH) fieldAtDepth[depth] = parser.currentName();
+                }
+                default -> onScalar(token, out);
+            }
+        }
+    }
+
+    /**
+     * Tracks the start of objects/arrays that delimit series, label sets and sample pairs.
+     * Called before the depth is incremented.
+     *
+     * @param token START_OBJECT or START_ARRAY.
+     */
+    private void onContainerStart(JsonToken token) {
+        if (depth == 2 && isResult()) {
+            pairIndex = 0; // "result": [...] (scalar results are a bare pair)
+            labels = Map.of();
+        } else if (depth == 3 && token == JsonToken.START_OBJECT && isResult()) {
+            labels = Map.of(); // new series
+        } else if (depth == 4 && isResult() && "metric".equals(fieldAtDepth[4])) {
+            labels = new HashMap<>();
+        } else if ((depth == 4 && isResult() && "value".equals(fieldAtDepth[4]))
+                || (depth == 5 && isResult() && "values".equals(fieldAtDepth[4]))) {
+            pairIndex = 0;
+        }
+    }
+
+    /**
+     * Interprets scalar tokens: status fields, label values and [timestamp, "value"] pairs.
+     *
+     * @param token The scalar token.
+     * @param out   The list receiving completed samples.
+     * @throws IOException If a value cannot be read.
+     */
+    private void onScalar(JsonToken token, List<PromSample> out) throws IOException {
+        if (depth == 1) {
+            if (token == JsonToken.VALUE_STRING) {
+                switch (String.valueOf(fieldAtDepth[1])) {
+                    case "status" -> status = parser.getText();
+                    case "errorType" -> errorType = parser.getText();
+                    case "error" -> error = parser.getText();
+                    default -> { }
+                }
+            }
+            return;
+        }
+        if (!isResult()) return;
+
+        if (depth == 5 && "metric".equals(fieldAtDepth[4])) {
+            if (token == JsonToken.VALUE_STRING) {
+                labels.put(fieldAtDepth[5], parser.getText());
+            }
+        } else if ((depth == 5 && "value".equals(fieldAtDepth[4]))
+                || (depth == 6 && "values".equals(fieldAtDepth[4]))
+                || depth == 3) {
+            onPairElement(token, out);
+        }
+    }
+
+    /**
+     * Handles one element of a [timestamp, "value"] pair, emitting a sample once both are read.
+     *
+     * @param token The element token.
+     * @param out   The list receiving the sample.
+     * @throws IOException If a value cannot be read.
+     */
+    private void onPairElement(JsonToken token, List<PromSample> out) throws IOException {
+        if (pairIndex == 0) {
+            pairTimestampMillis = token == JsonToken.VALUE_NUMBER_INT
+                    ? parser.getLongValue() * 1000
+                    : Math.round(parser.getDoubleValue() * 1000);
+        } else if (pairIndex == 1 && token == JsonToken.VALUE_STRING) {
+            double value = parseSampleValue(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            out.add(new PromSample(labels, pairTimestampMillis, value));
+        }
+        pairIndex++;
+    }
+
+    /**
+     * Returns true while the parser is inside "data.result".
+     *
+     * @return Whether the current token belongs to the result.
+     */
+    private boolean isResult() {
+        return "data".equals(fieldAtDepth[1]) && "result".equals(fieldAtDepth[2]);
+    }
+
+    /**
+     * Parses a Prometheus sample value directly from the parser's character buffer.
+     * Handles the special "NaN", "+Inf" and "-Inf" values.
+     *
+     * @param chars  The character buffer.
+     * @param offset The value offset.
+     * @param length The value length.
+     * @return The parsed value.
+     */
+    static double parseSampleValue(char[] chars, int offset, int length) {
+        if (length == 0) return Double.NaN;
+        char last = chars[offset + length - 1];
+        if (last == 'f' || last == 'F') {
+            return chars[offset] == '-' ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        if (last == 'N' || last == 'n') {
+            return Double.NaN;
+        }
+        return NumberInput.parseDouble(chars, offset, length, true);
+    }
+}
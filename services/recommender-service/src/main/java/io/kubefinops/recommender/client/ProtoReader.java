@@ -0,0 +1,126 @@
+package io.kubefinops.recommender.client;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal protobuf wire-format reader over a byte array slice. Reads one field at a time:
+ * {@link #next()} positions on the next field, then the matching accessor reads its value.
+ * Unknown fields are skipped with {@link #skip()}.
+ */
+class ProtoReader {
+
+    private final byte[] buf;
+    private final int limit;
+    private int pos;
+    private int tag;
+    private int lastLength;
+
+    ProtoReader(byte[] buf, int offset, int length) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * Advances to the next field.
+     *
+     * @return The field number, or -1 at the end of the message.
+     */
+    int next() {
+        if (pos >= limit) return -1;
+        tag = (int) readRawVarint();
+        return tag >>> 3;
+    }
+
+    /**
+     * Reads the current field as a varint.
+     *
+     * @return The value.
+     */
+    long varint() {
+        return readRawVarint();
+    }
+
+    /**
+     * Reads the current length-delimited field as a UTF-8 string.
+     *
+     * @return The value.
+     */
+    String string() {
+        int length = (int) readRawVarint();
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    /**
+     * Returns a reader over the current length-delimited field (an embedded message) and skips past it.
+     *
+     * @return The nested reader.
+     */
+    ProtoReader message() {
+        int length = (int) readRawVarint();
+        ProtoReader nested = new ProtoReader(buf, pos, length);
+        pos += length;
+        return nested;
+    }
+
+    /**
+     * Reads the offset of the current length-delimited field and skips past it.
+     * The payload occupies [returned offset, returned offset + {@link #lastLength()}).
+     *
+     * @return The payload offset in {@link #buffer()}.
+     */
+    int bytesOffset() {
+        lastLength = (int) readRawVarint();
+        int offset = pos;
+        pos += lastLength;
+        return offset;
+    }
+
+    /**
+     * Returns the length of the payload located by the last {@link #bytesOffset()} call.
+     *
+     * @return The payload length.
+     */
+    int lastLength() {
+        return lastLength;
+    }
+
+    /**
+     * Returns the underlying buffer.
+     *
+     * @return The buffer.
+     */
+    byte[] buffer() {
+        return buf;
+    }
+
+    /**
+     * Skips the current field.
+     */
+    void skip() {
+        switch (tag & 7) {
+            case 0 -> readRawVarint();
+            case 1 -> pos += 8;
+            case 2 -> pos += (int) readRawVarint();
+            case 5 -> pos += 4;
+            default -> throw new IllegalStateException("Unsupported protobuf wire type " + (tag & 7));
+        }
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint.
+     *
+     * @return The value.
+     */
+    private long readRawVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf[pos++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalStateException("Malformed protobuf varint");
+    }
+}
@@ -0,0 +1,88 @@
+package io.kubefinops.recommender.client;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal protobuf wire-format writer for the handful of remote-read messages we exchange.
+ * Nested messages are written by encoding them into their own writer first and embedding the bytes.
+ */
+class ProtoWriter {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+    /**
+     * Writes a varint field (int64 or enum). Zero values are omitted, as proto3 does.
+     *
+     * @param field The field number.
+     * @param value The value.
+     * @return This writer.
+     */
+    ProtoWriter varint(int field, long value) {
+        if (value == 0) return this;
+        writeRawVarint((long) field << 3);
+        writeRawVarint(value);
+        return this;
+    }
+
+    /**
+     * Writes a string field. Empty strings are omitted.
+     *
+     * @param field The field number.
+     * @param value The value.
+     * @return This writer.
+     */
+    ProtoWriter string(int field, String value) {
+        if (value == null || value.isEmpty()) return this;
+        return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a length-delimited field (bytes or embedded message).
+     *
+     * @param field The field number.
+     * @param value The raw bytes.
+     * @return This writer.
+     */
+    ProtoWriter bytes(int field, byte[] value) {
+        writeRawVarint(((long) field << 3) | 2);
+        writeRawVarint(value.length);
+        out.writeBytes(value);
+        return this;
+    }
+
+    /**
+     * Writes a packed repeated varint field.
+     *
+     * @param field  The field number.
+     * @param values The values.
+     * @return This writer.
+     */
+    ProtoWriter packedVarints(int field, int... values) {
+        ProtoWriter packed = new ProtoWriter();
+        for (int value : values) packed.writeRawVarint(value);
+        return bytes(field, packed.toByteArray());
+    }
+
+    /**
+     * Returns the encoded message.
+     *
+     * @return The message bytes.
+     */
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    /**
+     * Appends an unsigned LEB128 varint.
+     *
+     * @param value The value.
+     */
+    void writeRawVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,135 @@
+package io.kubefinops.recommender.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Bounded TTL cache of decoded query results with single-flight loading.
+ * Concurrent callers of the same key share one in-flight request; completed results are served until
+ * their TTL expires. Entries are evicted least-recently-used beyond {@code maxEntries}. Failed loads
+ * are never cached, so the next caller retries. A load taking longer than {@code loadTimeout} fails, and
+ * an in-flight entry older than that (e.g. a load nobody subscribed to) is replaced by the next caller.
+ * <p>
+ * Sharing a result means materializing it: the samples of a cached query are collected into a list
+ * instead of being streamed to the caller as they are decoded. Results of more than {@code maxEntrySamples}
+ * samples are handed to the callers waiting for them but not retained.
+ */
+class QueryCache {
+
+    private final Duration ttl;
+    private final Duration loadTimeout;
+    private final int maxEntrySamples;
+    private final Map<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    QueryCache(Duration ttl, Duration loadTimeout, int maxEntries, int maxEntrySamples, MeterRegistry meterRegistry) {
+        this.ttl = ttl;
+        this.loadTimeout = loadTimeout;
+        this.maxEntrySamples = maxEntrySamples;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = meterRegistry.counter("prometheus_query_cache_total", "result", "hit");
+        this.misses = meterRegistry.counter("prometheus_query_cache_total", "result", "miss");
+        this.coalesced = meterRegistry.counter("prometheus_query_cache_total", "result", "coalesced");
+        meterRegistry.gauge("prometheus_query_cache_entries", this, QueryCache::size);
+    }
+
+    /**
+     * Returns the cached samples of a key, joins the in-flight load of that key, or starts a new load.
+     *
+     * @param key    The cache key (query string plus evaluation time).
+     * @param loader Supplies the request to run on a miss.
+     * @return A Flux replaying the samples of the shared result.
+     */
+    Flux<PromSample> get(String key, Supplier<Flux<PromSample>> loader) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired()) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                entry = new Entry(System.nanoTime() + loadTimeout.toNanos());
+                entry.result = load(key, entry, loader);
+                entries.put(key, entry);
+            } else if (entry.completed.get()) {
+                hits.increment();
+            } else {
+                coalesced.increment();
+            }
+        }
+        return entry.result.flatMapIterable(samples -> samples);
+    }
+
+    /**
+     * Returns the number of cached or in-flight entries.
+     *
+     * @return The entry count.
+     */
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Wraps a loader so it runs once for all subscribers, stamps the entry on success
+     * and drops the entry on failure, timeout, or when the result is too large to retain.
+     *
+     * @param key    The cache key.
+     * @param entry  The entry being loaded.
+     * @param loader Supplies the request.
+     * @return The shared result.
+     */
+    private Mono<List<PromSample>> load(String key, Entry entry, Supplier<Flux<PromSample>> loader) {
+        return Flux.defer(loader)
+                .collectList()
+                .timeout(loadTimeout)
+                .doOnSuccess(samples -> {
+                    entry.expiresAtNanos = System.nanoTime() + ttl.toNanos();
+                    entry.completed.set(true);
+                    if (samples.size() > maxEntrySamples) remove(key, entry);
+                })
+                .doOnError(e -> remove(key, entry))
+                .cache(samples -> samples.size() > maxEntrySamples ? Duration.ZERO : ttl, e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    private void remove(String key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    private static final class Entry {
+        final AtomicBoolean completed = new AtomicBoolean();
+        final long loadDeadlineNanos;
+        volatile long expiresAtNanos;
+        Mono<List<PromSample>> result;
+
+        Entry(long loadDeadlineNanos) {
+            this.loadDeadlineNanos = loadDeadlineNanos;
+        }
+
+        boolean isExpired() {
+            long deadline = completed.get() ? expiresAtNanos : loadDeadlineNanos; // in-flight entries expire after the load timeout
+            return System.nanoTime() - deadline > 0;
+        }
+    }
+}
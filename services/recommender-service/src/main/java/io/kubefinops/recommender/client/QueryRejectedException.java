@@ -0,0 +1,11 @@
+package io.kubefinops.recommender.client;
+
+/**
+ * Signals that a Prometheus query was shed by the concurrency limiter instead of being sent.
+ */
+public class QueryRejectedException extends RuntimeException {
+
+    public QueryRejectedException(String message) {
+        super(message);
+    }
+}
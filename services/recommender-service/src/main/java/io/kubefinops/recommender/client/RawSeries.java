@@ -0,0 +1,27 @@
+package io.kubefinops.recommender.client;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Raw samples of one series decoded from a remote-read response, stored as primitive arrays.
+ * Only the first {@code size} entries of the arrays are valid.
+ */
+@Value
+public class RawSeries {
+    Map<String, String> labels;
+    long[] timestampsMillis;
+    double[] values;
+    int size;
+
+    /**
+     * Returns the value of a label of this series.
+     *
+     * @param name The label name.
+     * @return The label value, or null if absent.
+     */
+    public String label(String name) {
+        return labels.get(name);
+    }
+}
@@ -0,0 +1,42 @@
+package io.kubefinops.recommender.client;
+
+import java.util.List;
+
+/**
+ * Encoder for the Prometheus remote-read request (prometheus/prompb remote.proto, types.proto).
+ * Requests are plain protobuf (snappy is applied by the caller); the streamed responses are read by
+ * {@link RemoteReadResponseDecoder}.
+ */
+final class RemoteReadCodec {
+
+    static final int STREAMED_XOR_CHUNKS = 1; // ReadRequest.ResponseType
+    static final int CHUNK_ENCODING_XOR = 1; // Chunk.Encoding
+
+    private RemoteReadCodec() {
+    }
+
+    /**
+     * Encodes a {@code ReadRequest} with one query that accepts streamed XOR chunks only.
+     *
+     * @param startMillis The range start in epoch milliseconds.
+     * @param endMillis   The range end in epoch milliseconds.
+     * @param matchers    The series selector.
+     * @return The protobuf-encoded request (uncompressed).
+     */
+    static byte[] encodeReadRequest(long startMillis, long endMillis, List<LabelMatcher> matchers) {
+        ProtoWriter query = new ProtoWriter()
+                .varint(1, startMillis)
+                .varint(2, endMillis);
+        for (LabelMatcher matcher : matchers) {
+            query.bytes(3, new ProtoWriter()
+                    .varint(1, matcher.getType().ordinal())
+                    .string(2, matcher.getName())
+                    .string(3, matcher.getValue())
+                    .toByteArray());
+        }
+        return new ProtoWriter()
+                .bytes(1, query.toByteArray())
+                .packedVarints(2, STREAMED_XOR_CHUNKS)
+                .toByteArray();
+    }
+}
@@ -0,0 +1,204 @@
+package io.kubefinops.recommender.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Incremental decoder for streamed remote-read responses ({@code application/x-streamed-protobuf;
+ * proto=prometheus.ChunkedReadResponse}). Body chunks are appended to a reusable byte buffer and every
+ * complete frame is checksummed and decoded straight into primitive sample arrays, one {@link RawSeries}
+ * per {@code ChunkedSeries}. A long series may be split by the server across frames and is then emitted
+ * as several consecutive RawSeries. A decoder instance is stateful and handles exactly one response.
+ */
+class RemoteReadResponseDecoder {
+
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private byte[] pending = new byte[64 * 1024];
+    private int start;
+    private int end;
+
+    /**
+     * Decodes a streamed response body into series.
+     *
+     * @param body The raw response body chunks.
+     * @return A Flux emitting every series, in response order.
+     */
+    static Flux<RawSeries> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            RemoteReadResponseDecoder decoder = new RemoteReadResponseDecoder();
+            return body.concatMapIterable(decoder::feed)
+                    .concatWith(Flux.defer(() -> {
+                        decoder.finish();
+                        return Flux.empty();
+                    }));
+        });
+    }
+
+    /**
+     * Appends one body chunk and returns the series of every frame it completed.
+     * The buffer is released once consumed.
+     *
+     * @param buffer The body chunk.
+     * @return The decoded series (possibly empty).
+     */
+    List<RawSeries> feed(DataBuffer buffer) {
+        try {
+            int length = buffer.readableByteCount();
+            ensureCapacity(length);
+            buffer.read(pending, end, length);
+            end += length;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        List<RawSeries> series = new ArrayList<>();
+        while (decodeFrame(series)) {
+            // keep draining complete frames
+        }
+        return series;
+    }
+
+    /**
+     * Signals the end of the body.
+     *
+     * @throws IllegalStateException If the body ended inside a frame.
+     */
+    void finish() {
+        if (end > start) {
+            throw new IllegalStateException("Remote-read response truncated: " + (end - start) + " trailing bytes");
+        }
+    }
+
+    /**
+     * Decodes the next frame if it is complete.
+     *
+     * @param out The list receiving the series.
+     * @return Whether a frame was decoded.
+     */
+    private boolean decodeFrame(List<RawSeries> out) {
+        int pos = start;
+        long length = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (pos >= end) return false;
+            byte b = pending[pos++];
+            length |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+            if (shift > 28) throw new IllegalStateException("Malformed remote-read frame length");
+        }
+        if (length > MAX_FRAME_BYTES) {
+            throw new IllegalStateException("Remote-read frame of " + length + " bytes exceeds limit");
+        }
+        if (end - pos < 4 + length) return false;
+
+        long expected = ((pending[pos] & 0xFFL) << 24) | ((pending[pos + 1] & 0xFFL) << 16)
+                | ((pending[pos + 2] & 0xFFL) << 8) | (pending[pos + 3] & 0xFFL);
+        int payload = pos + 4;
+        CRC32C crc = new CRC32C();
+        crc.update(pending, payload, (int) length);
+        if (crc.getValue() != expected) {
+            throw new IllegalStateException("Remote-read frame checksum mismatch");
+        }
+
+        decodeResponse(new ProtoReader(pending, payload, (int) length), out);
+        start = payload + (int) length;
+        return true;
+    }
+
+    /**
+     * Decodes a {@code ChunkedReadResponse}.
+     *
+     * @param response The message reader.
+     * @param out      The list receiving the series.
+     */
+    private void decodeResponse(ProtoReader response, List<RawSeries> out) {
+        int field;
+        while ((field = response.next()) != -1) {
+            if (field == 1) {
+                out.add(decodeSeries(response.message()));
+            } else {
+                response.skip(); // query_index: we send a single query
+            }
+        }
+    }
+
+    /**
+     * Decodes a {@code ChunkedSeries}: its labels and all of its XOR chunks.
+     *
+     * @param series The message reader.
+     * @return The series with its samples in primitive arrays.
+     */
+    private RawSeries decodeSeries(ProtoReader series) {
+        Map<String, String> labels = new HashMap<>();
+        SampleBuffer samples = new SampleBuffer(128);
+        int field;
+        while ((field = series.next()) != -1) {
+            if (field == 1) {
+                ProtoReader label = series.message();
+                String name = null;
+                String value = null;
+                int labelField;
+                while ((labelField = label.next()) != -1) {
+                    if (labelField == 1) name = label.string();
+                    else if (labelField == 2) value = label.string();
+                    else label.skip();
+                }
+                if (name != null) labels.put(name, value == null ? "" : value);
+            } else if (field == 2) {
+                decodeChunk(series.message(), samples);
+            } else {
+                series.skip();
+            }
+        }
+        return samples.toSeries(labels);
+    }
+
+    /**
+     * Decodes a {@code Chunk}, ignoring encodings other than XOR (native histograms).
+     *
+     * @param chunk   The message reader.
+     * @param samples The buffer receiving the samples.
+     */
+    private void decodeChunk(ProtoReader chunk, SampleBuffer samples) {
+        long encoding = 0;
+        int dataOffset = -1;
+        int dataLength = 0;
+        int field;
+        while ((field = chunk.next()) != -1) {
+            if (field == 3) {
+                encoding = chunk.varint();
+            } else if (field == 4) {
+                dataOffset = chunk.bytesOffset();
+                dataLength = chunk.lastLength();
+            } else {
+                chunk.skip();
+            }
+        }
+        if (encoding == RemoteReadCodec.CHUNK_ENCODING_XOR && dataOffset >= 0) {
+            XorChunk.decode(chunk.buffer(), dataOffset, dataLength, samples);
+        }
+    }
+
+    /**
+     * Makes room for more bytes, compacting consumed frames first.
+     *
+     * @param extra The number of bytes about to be appended.
+     */
+    private void ensureCapacity(int extra) {
+        if (start > 0) {
+            System.arraycopy(pending, start, pending, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+        if (end + extra > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, end + extra));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.kubefinops.recommender.client;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Growable pair of primitive arrays that decoded chunks append samples to.
+ */
+class SampleBuffer {
+
+    private long[] timestamps;
+    private double[] values;
+    private int size;
+
+    SampleBuffer(int initialCapacity) {
+        this.timestamps = new long[Math.max(initialCapacity, 8)];
+        this.values = new double[timestamps.length];
+    }
+
+    /**
+     * Appends a sample.
+     *
+     * @param timestampMillis The sample timestamp.
+     * @param value           The sample value.
+     */
+    void add(long timestampMillis, double value) {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        timestamps[size] = timestampMillis;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Hands the collected samples over to a series. The buffer must not be reused afterwards.
+     *
+     * @param labels The series labels.
+     * @return The series.
+     */
+    RawSeries toSeries(Map<String, String> labels) {
+        return new RawSeries(labels, timestamps, values, size);
+    }
+}
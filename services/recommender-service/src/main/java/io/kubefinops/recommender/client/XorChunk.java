@@ -0,0 +1,122 @@
+package io.kubefinops.recommender.client;
+
+/**
+ * Decoder for the Prometheus TSDB "XOR" chunk encoding (Gorilla compression): timestamps are stored as
+ * delta-of-deltas in variable bit widths and values as the XOR with the previous value, of which only
+ * the meaningful bits are written. Decoding appends straight into primitive arrays.
+ */
+final class XorChunk {
+
+    // Bit widths selected by the '10', '110', '1110' and '1111' delta-of-delta prefixes
+    private static final int[] DOD_WIDTHS = {14, 17, 20, 64};
+
+    private XorChunk() {
+    }
+
+    /**
+     * Decodes a chunk and appends its samples to a buffer.
+     *
+     * @param data   The buffer holding the chunk.
+     * @param offset The chunk offset.
+     * @param length The chunk length.
+     * @param out    The buffer receiving the samples.
+     */
+    static void decode(byte[] data, int offset, int length, SampleBuffer out) {
+        if (length < 2) return;
+        int count = ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+        if (count == 0) return;
+        BitReader in = new BitReader(data, offset + 2, offset + length);
+
+        long t = in.readVarint();
+        long valueBits = in.readBits(64);
+        out.add(t, Double.longBitsToDouble(valueBits));
+        if (count == 1) return;
+
+        long delta = in.readUvarint();
+        t += delta;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (i > 1) {
+                int size = 0;
+                for (int width : DOD_WIDTHS) {
+                    if (in.readBit() == 0) break;
+                    size = width;
+                }
+                long dod = 0;
+                if (size != 0) {
+                    dod = in.readBits(size);
+                    if (size != 64 && dod > (1L << (size - 1))) dod -= 1L << size;
+                }
+                delta += dod;
+                t += delta;
+            }
+            if (in.readBit() == 1) {
+                if (in.readBit() == 1) {
+                    leading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(6);
+                    if (significant == 0) significant = 64;
+                    trailing = 64 - leading - significant;
+                }
+                valueBits ^= in.readBits(64 - leading - trailing) << trailing;
+            }
+            out.add(t, Double.longBitsToDouble(valueBits));
+        }
+    }
+
+    private static final class BitReader {
+        private final byte[] data;
+        private final int end;
+        private int bytePos;
+        private int bitPos; // bits already consumed from data[bytePos]
+
+        BitReader(byte[] data, int start, int end) {
+            this.data = data;
+            this.bytePos = start;
+            this.end = end;
+        }
+
+        int readBit() {
+            if (bytePos >= end) throw new IllegalStateException("XOR chunk truncated");
+            int bit = (data[bytePos] >>> (7 - bitPos)) & 1;
+            if (++bitPos == 8) {
+                bitPos = 0;
+                bytePos++;
+            }
+            return bit;
+        }
+
+        long readBits(int count) {
+            long result = 0;
+            while (count > 0) {
+                if (bytePos >= end) throw new IllegalStateException("XOR chunk truncated");
+                int available = 8 - bitPos;
+                int take = Math.min(available, count);
+                int bits = (data[bytePos] >>> (available - take)) & ((1 << take) - 1);
+                result = (result << take) | bits;
+                count -= take;
+                bitPos += take;
+                if (bitPos == 8) {
+                    bitPos = 0;
+                    bytePos++;
+                }
+            }
+            return result;
+        }
+
+        long readUvarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                long b = readBits(8);
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw new IllegalStateException("Malformed varint in XOR chunk");
+        }
+
+        long readVarint() {
+            long zigzag = readUvarint();
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.kubefinops.recommender.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.analysis")
+public class AnalysisProperties {
+    private String usageSource = "prometheus"; // "prometheus" (server-side P95), "local-window" (in-process ring buffers) or "sketch" (mergeable quantile sketches)
+    private int concurrency = 16; // Max namespaces analyzed in parallel
+    private Duration namespaceTimeout = Duration.ofSeconds(10); // Per-namespace deadline before its workloads count as stragglers
+    private Duration passDeadline = Duration.ofSeconds(25); // Whole pass must finish inside app.scheduler.rate
+    private int batchSize = 500; // Max recommendations per RecommendationBatchEvent; 0 publishes one RecommendationCreatedEvent per workload
+    private List<String> excludedNamespaces = new ArrayList<>(List.of("kube-system", "kube-public", "kube-node-lease"));
+    private List<String> staticWorkloads = new ArrayList<>(List.of("dev/nginx")); // Fallback when discovery finds nothing
+}
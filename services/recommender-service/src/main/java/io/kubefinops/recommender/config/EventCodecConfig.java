@@ -0,0 +1,21 @@
+package io.kubefinops.recommender.config;
+
+import io.kubefinops.event.codec.BinaryEventMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+
+@Configuration
+public class EventCodecConfig {
+
+    /**
+     * Encodes the recommendations and scaling batches this service publishes with the binary codec,
+     * for bindings whose content type is application/x-kubefinops-event.
+     *
+     * @return The message converter.
+     */
+    @Bean
+    public MessageConverter binaryEventMessageConverter() {
+        return new BinaryEventMessageConverter();
+    }
+}
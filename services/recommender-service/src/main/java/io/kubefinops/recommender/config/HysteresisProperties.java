@@ -0,0 +1,19 @@
+package io.kubefinops.recommender.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.hysteresis")
+public class HysteresisProperties {
+    private boolean enabled = true; // Suppress recommendations that barely differ from the last one emitted for the workload
+    private long cpuAbsoluteMillis = 50; // CPU change must be at least this many millicores...
+    private double cpuRelative = 0.10; // ...and at least this fraction of the last emitted CPU
+    private long memoryAbsoluteBytes = 64L * 1024 * 1024; // Memory change must be at least this many bytes...
+    private double memoryRelative = 0.10; // ...and at least this fraction of the last emitted memory
+    private Duration maxAge = Duration.ofHours(6); // An unchanged suggestion is re-emitted after this long
+}
@@ -0,0 +1,18 @@
+package io.kubefinops.recommender.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.offload")
+public class OffloadProperties {
+    private String executor = "virtual-threads"; // "virtual-threads" (one per task) or "bounded-elastic" (capped platform threads)
+    private int maxOutstanding = 64; // Max publish tasks (Kafka send + report) running or queued; further analysis waits
+    private int threadCap = 32; // Platform threads of the bounded-elastic executor
+    private Duration lagProbeInterval = Duration.ofSeconds(1); // How often each Netty event loop is probed for scheduling lag
+    private Duration lagWarnThreshold = Duration.ofMillis(100); // Event loop lag logged as a warning
+}
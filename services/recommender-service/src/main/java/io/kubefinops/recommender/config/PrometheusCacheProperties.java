@@ -0,0 +1,19 @@
+package io.kubefinops.recommender.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "prometheus.cache")
+public class PrometheusCacheProperties {
+    private boolean enabled = true; // Set to false to send every query to Prometheus
+    private Duration evaluationStep = Duration.ofSeconds(30); // Instant queries are evaluated at now aligned down to this step
+    private Duration ttl = Duration.ofSeconds(30); // How long a completed result is served from memory
+    private int maxEntries = 10_000; // Least recently used results are evicted beyond this size
+    private Duration loadTimeout = Duration.ofSeconds(60); // A query still loading after this fails, and its in-flight entry is replaced
+    private int maxEntrySamples = 50_000; // Larger results are returned to their callers but not kept in memory
+}
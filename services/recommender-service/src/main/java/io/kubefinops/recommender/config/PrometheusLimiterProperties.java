@@ -0,0 +1,20 @@
+package io.kubefinops.recommender.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "prometheus.limiter")
+public class PrometheusLimiterProperties {
+    private int initialLimit = 8; // Concurrent queries allowed before any latency is observed
+    private int minLimit = 1; // The limit never drops below this
+    private int maxLimit = 64; // The limit never grows above this
+    private Duration latencyThreshold = Duration.ofSeconds(2); // Slower responses count as congestion
+    private double backoffRatio = 0.5; // Multiplicative decrease applied on congestion
+    private int maxQueue = 256; // Queries waiting for a slot beyond this are shed
+    private Duration queueTimeout = Duration.ofSeconds(5); // Queries waiting longer than this are shed
+}
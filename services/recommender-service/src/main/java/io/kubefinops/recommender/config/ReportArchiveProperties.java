@@ -0,0 +1,17 @@
+package io.kubefinops.recommender.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.report-archive")
+public class ReportArchiveProperties {
+    private Duration flushInterval = Duration.ofSeconds(2); // Max time a report waits in the buffer before its segment is written
+    private int maxBatchSize = 500; // Reports per NDJSON segment; a full batch is flushed immediately
+    private int maxPendingReports = 10000; // Reports buffered or uploading; new reports beyond this are dropped (and counted)
+    private long partSize = 5L * 1024 * 1024; // Segments larger than this are uploaded in parts of this size (S3 minimum is 5 MiB)
+}
@@ -0,0 +1,17 @@
+package io.kubefinops.recommender.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+    private boolean enabled = true; // Split namespaces across live replicas; when false every replica analyzes everything
+    private String memberId = ""; // Defaults to $HOSTNAME (the pod name) plus a random suffix
+    private Duration heartbeatInterval = Duration.ofSeconds(5); // How often the lease is renewed and membership re-read
+    private Duration leaseTtl = Duration.ofSeconds(15); // A replica missing heartbeats this long loses its namespaces
+}
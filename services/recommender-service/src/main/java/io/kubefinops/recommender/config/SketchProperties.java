@@ -0,0 +1,28 @@
+package io.kubefinops.recommender.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sketch")
+public class SketchProperties {
+    private double cpuQuantile = 0.95; // Percentile used to size CPU requests
+    private double memoryQuantile = 0.95; // Percentile used to size memory requests (e.g. 0.99 for OOM-sensitive fleets)
+    private Duration window = Duration.ofHours(24); // Usage history the percentiles are computed over
+    private Duration bucket = Duration.ofHours(1); // Time bucket granularity; expired buckets are dropped as a whole
+    private double relativeAccuracy = 0.01; // Max relative error of every reported percentile
+    private int maxBins = 1024; // Upper bound of bins per bucket sketch; lowest bins collapse beyond it
+
+    /**
+     * Returns the number of time buckets each windowed sketch keeps.
+     *
+     * @return The bucket count covering the window.
+     */
+    public int bucketCount() {
+        return (int) Math.max(1, (window.toMillis() + bucket.toMillis() - 1) / bucket.toMillis());
+    }
+}
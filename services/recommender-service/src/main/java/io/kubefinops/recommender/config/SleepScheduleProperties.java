@@ -0,0 +1,20 @@
+package io.kubefinops.recommender.config;
+
+import io.kubefinops.recommender.domain.ScalingSchedule;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sleep-schedule")
+public class SleepScheduleProperties {
+    private Duration tick = Duration.ofSeconds(1); // Timing wheel resolution; due transitions are batched per tick
+    private int wheelSize = 64; // Buckets per wheel level
+    private Duration reloadInterval = Duration.ofSeconds(60); // How often schedules and namespace workloads are re-read
+    private List<ScalingSchedule> schedules = new ArrayList<>(); // Static schedules, merged with the scaling_schedules collection
+}
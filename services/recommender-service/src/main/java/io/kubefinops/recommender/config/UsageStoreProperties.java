@@ -0,0 +1,26 @@
+package io.kubefinops.recommender.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.usage-store")
+public class UsageStoreProperties {
+    private Duration step = Duration.ofSeconds(60); // Sample resolution of the local ring buffers
+    private Duration retention = Duration.ofHours(24); // Window kept per container (capacity = retention / step)
+    private Duration initialBackfill = Duration.ofHours(1); // Range pulled for a namespace on its first tick
+    private String ingestProtocol = "query-range"; // "query-range" (JSON) or "remote-read" (protobuf + snappy, raw chunks)
+
+    /**
+     * Returns the number of slots each container ring buffer needs to cover the retention window.
+     *
+     * @return The ring buffer capacity.
+     */
+    public int capacity() {
+        return (int) Math.max(1, retention.toMillis() / step.toMillis());
+    }
+}
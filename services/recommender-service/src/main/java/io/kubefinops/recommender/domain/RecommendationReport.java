@@ -22,6 +22,7 @@ public class RecommendationReport {
     private String workloadRef;
     private Map<String, String> suggestedResources;
     private Double estimatedMonthlySavings;
-    private String s3Path;
+    private String s3Path; // NDJSON segment object holding this report
+    private Integer segmentLine; // Zero-based line of this report within the segment
     private Instant generatedAt;
 }
@@ -0,0 +1,33 @@
+package io.kubefinops.recommender.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Sleep/wake calendar of a namespace (every workload in it) or of a single workload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "scaling_schedules")
+public class ScalingSchedule {
+    @Id
+    private String id;
+    private String namespace;
+    private String workload; // Deployment name, or null for every workload of the namespace
+    @Builder.Default
+    private String timezone = "UTC"; // IANA zone the crons are evaluated in (DST-aware)
+    private String sleepCron; // Spring cron (6 fields, seconds first) scaling to sleepReplicas
+    private String wakeCron; // Spring cron scaling back to wakeReplicas
+    @Builder.Default
+    private int sleepReplicas = 0;
+    @Builder.Default
+    private int wakeReplicas = 1;
+    @Builder.Default
+    private boolean enabled = true;
+}
@@ -0,0 +1,23 @@
+package io.kubefinops.recommender.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Membership lease of one recommender replica, renewed on every heartbeat.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "recommender_shard_leases")
+public class ShardLease {
+    @Id
+    private String memberId;
+    private Instant renewedAt;
+    private Instant expiresAt;
+}
@@ -0,0 +1,33 @@
+package io.kubefinops.recommender.domain;
+
+import lombok.Value;
+
+@Value
+public class Workload {
+    String namespace;
+    String name;
+
+    /**
+     * Parses a workload from its "namespace/name" notation.
+     *
+     * @param qualifiedName The qualified workload name (e.g., "dev/nginx").
+     * @return The parsed Workload.
+     * @throws IllegalArgumentException If the value is not in "namespace/name" form.
+     */
+    public static Workload parse(String qualifiedName) {
+        int separator = qualifiedName.indexOf('/');
+        if (separator <= 0 || separator == qualifiedName.length() - 1) {
+            throw new IllegalArgumentException("Workload must be in 'namespace/name' form: " + qualifiedName);
+        }
+        return new Workload(qualifiedName.substring(0, separator), qualifiedName.substring(separator + 1));
+    }
+
+    /**
+     * Returns the workload reference used in events (e.g., "deployment/nginx").
+     *
+     * @return The workload reference.
+     */
+    public String getWorkloadRef() {
+        return "deployment/" + name;
+    }
+}
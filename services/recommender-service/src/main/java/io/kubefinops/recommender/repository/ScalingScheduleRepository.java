@@ -0,0 +1,11 @@
+package io.kubefinops.recommender.repository;
+
+import io.kubefinops.recommender.domain.ScalingSchedule;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface ScalingScheduleRepository extends MongoRepository<ScalingSchedule, String> {
+
+    List<ScalingSchedule> findByEnabledTrue();
+}
@@ -0,0 +1,14 @@
+package io.kubefinops.recommender.repository;
+
+import io.kubefinops.recommender.domain.ShardLease;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ShardLeaseRepository extends MongoRepository<ShardLease, String> {
+
+    List<ShardLease> findByExpiresAtAfter(Instant now);
+
+    void deleteByExpiresAtBefore(Instant now);
+}
@@ -0,0 +1,254 @@
+package io.kubefinops.recommender.schedule;
+
+import io.kubefinops.event.ScalingBatchEvent;
+import io.kubefinops.event.ScalingTransition;
+import io.kubefinops.event.kafka.KeyedMessages;
+import io.kubefinops.recommender.WorkloadInventory;
+import io.kubefinops.recommender.config.SleepScheduleProperties;
+import io.kubefinops.recommender.domain.ScalingSchedule;
+import io.kubefinops.recommender.domain.Workload;
+import io.kubefinops.recommender.repository.ScalingScheduleRepository;
+import io.kubefinops.recommender.shard.ShardCoordinator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires the sleep/wake transitions of every {@link ScalingSchedule} from one {@link TimingWheel}, instead of
+ * one cron trigger per schedule. Each armed transition holds its next occurrence (computed in the schedule's
+ * timezone); when it expires it is re-armed for the following one. All transitions that fall due in the same
+ * tick are grouped into one {@link ScalingBatchEvent} per namespace. Only the namespaces owned by this
+ * replica (see {@link ShardCoordinator}) are published, so replicas never fire the same transition twice.
+ */
+@Slf4j
+@Service
+public class SleepWakeScheduler {
+
+    private static final String BINDING_NAME = "scalingBatch-out-0";
+    private static final long HORIZON_MILLIS = Duration.ofDays(400).toMillis();
+
+    private final ScalingScheduleRepository repository;
+    private final SleepScheduleProperties properties;
+    private final WorkloadInventory workloadInventory;
+    private final ShardCoordinator shardCoordinator;
+    private final StreamBridge streamBridge;
+    private final MeterRegistry meterRegistry;
+
+    private final TimingWheel<Armed> wheel;
+    private final Map<String, Loaded> schedules = new HashMap<>();
+    private volatile Map<String, List<Workload>> workloadsByNamespace = Map.of();
+    private long generation;
+
+    public SleepWakeScheduler(ScalingScheduleRepository repository, SleepScheduleProperties properties,
+                              WorkloadInventory workloadInventory, ShardCoordinator shardCoordinator,
+                              StreamBridge streamBridge, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.workloadInventory = workloadInventory;
+        this.shardCoordinator = shardCoordinator;
+        this.streamBridge = streamBridge;
+        this.meterRegistry = meterRegistry;
+        this.wheel = new TimingWheel<>(properties.getTick().toMillis(), properties.getWheelSize(), HORIZON_MILLIS, System.currentTimeMillis());
+        meterRegistry.gauge("scheduler_armed_transitions", this, scheduler -> scheduler.armedCount());
+        meterRegistry.gauge("scheduler_schedules", this, scheduler -> scheduler.scheduleCount());
+    }
+
+    /**
+     * Loads the schedules as soon as the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+    }
+
+    /**
+     * Re-reads the static and stored schedules, re-arming the changed ones, and refreshes the workload
+     * list used to expand namespace-wide schedules. The list covers every namespace, not only the owned
+     * ones: ownership is checked when a transition fires, so a namespace acquired after this reload (or
+     * before the first heartbeat) still expands to its workloads. A failed read keeps the schedules already armed.
+     */
+    @Scheduled(fixedRateString = "${app.sleep-schedule.reload-interval:60s}", initialDelayString = "${app.sleep-schedule.reload-interval:60s}")
+    public void reload() {
+        List<ScalingSchedule> loaded = new ArrayList<>(properties.getSchedules());
+        try {
+            loaded.addAll(repository.findByEnabledTrue());
+        } catch (Exception e) {
+            log.warn("Could not read scaling schedules, keeping the {} armed ones: {}", scheduleCount(), e.getMessage());
+            return;
+        }
+        apply(loaded, System.currentTimeMillis());
+
+        workloadInventory.discoverAllWorkloads()
+                .subscribe(workloads -> {
+                    Map<String, List<Workload>> byNamespace = new HashMap<>();
+                    workloads.forEach(w -> byNamespace.computeIfAbsent(w.getNamespace(), ns -> new ArrayList<>()).add(w));
+                    workloadsByNamespace = byNamespace;
+                }, e -> log.warn("Could not refresh workloads for namespace-wide schedules: {}", e.getMessage()));
+    }
+
+    /**
+     * Advances the wheel to now and publishes the transitions that fell due, one event per namespace.
+     */
+    @Scheduled(fixedRateString = "${app.sleep-schedule.tick:1s}")
+    public void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+    /**
+     * Advances the wheel to a point in time and publishes the transitions that fell due.
+     *
+     * @param nowMillis The current time in epoch milliseconds.
+     */
+    void tick(long nowMillis) {
+        long startNanos = System.nanoTime();
+
+        // 1. Collect due transitions and re-arm their next occurrence
+        Map<String, List<ScalingTransition>> byNamespace = new LinkedHashMap<>();
+        synchronized (wheel) {
+            for (Armed armed : wheel.advance(nowMillis)) {
+                Loaded current = schedules.get(armed.scheduleId);
+                if (current == null || current.generation != armed.generation) continue; // changed or removed
+                arm(armed.scheduleId, current, armed.sleep, nowMillis);
+                if (shardCoordinator.owns(current.schedule.getNamespace())) {
+                    byNamespace.computeIfAbsent(current.schedule.getNamespace(), ns -> new ArrayList<>())
+                            .addAll(transitions(armed.scheduleId, current.schedule, armed.sleep));
+                }
+            }
+        }
+
+        // 2. Publish one batch per namespace
+        Instant dueAt = Instant.ofEpochMilli(nowMillis);
+        byNamespace.forEach((namespace, transitions) -> {
+            if (transitions.isEmpty()) return;
+            ScalingBatchEvent event = ScalingBatchEvent.builder()
+                    .id(UUID.randomUUID().toString())
+                    .namespace(namespace)
+                    .transitions(transitions)
+                    .dueAt(dueAt)
+                    .createdAt(Instant.now())
+                    .build();
+            log.info("Publishing {} scheduled transitions for namespace {}", transitions.size(), namespace);
+            streamBridge.send(BINDING_NAME, KeyedMessages.withKey(event));
+            meterRegistry.counter("scheduler_batches_total").increment();
+            meterRegistry.counter("scheduler_transitions_total").increment(transitions.size());
+        });
+        if (!byNamespace.isEmpty()) {
+            meterRegistry.timer("scheduler_tick_duration").record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Replaces the armed schedules with a new set. Unchanged schedules keep their armed timers;
+     * new or changed ones get a new generation (orphaning their old timers) and are armed afresh.
+     *
+     * @param loaded    The current schedules.
+     * @param nowMillis The current time in epoch milliseconds.
+     */
+    void apply(List<ScalingSchedule> loaded, long nowMillis) {
+        synchronized (wheel) {
+            Map<String, ScalingSchedule> byId = new LinkedHashMap<>();
+            loaded.stream().filter(ScalingSchedule::isEnabled).forEach(s -> byId.put(idOf(s), s));
+
+            schedules.keySet().retainAll(byId.keySet());
+            byId.forEach((id, schedule) -> {
+                Loaded previous = schedules.get(id);
+                if (previous != null && previous.schedule.equals(schedule)) return;
+                try {
+                    Loaded current = new Loaded(schedule, ++generation, parse(schedule.getSleepCron()), parse(schedule.getWakeCron()),
+                            ZoneId.of(schedule.getTimezone()));
+                    schedules.put(id, current);
+                    arm(id, current, true, nowMillis);
+                    arm(id, current, false, nowMillis);
+                } catch (RuntimeException e) {
+                    schedules.remove(id);
+                    log.error("Ignoring invalid scaling schedule {}: {}", id, e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Arms the next occurrence of one side (sleep or wake) of a schedule.
+     *
+     * @param id        The schedule id.
+     * @param loaded    The loaded schedule.
+     * @param sleep     True for the sleep transition, false for the wake transition.
+     * @param nowMillis The current time in epoch milliseconds.
+     */
+    private void arm(String id, Loaded loaded, boolean sleep, long nowMillis) {
+        CronExpression cron = sleep ? loaded.sleepCron : loaded.wakeCron;
+        if (cron == null) return;
+        ZonedDateTime next = cron.next(Instant.ofEpochMilli(nowMillis).atZone(loaded.zone));
+        if (next != null) {
+            wheel.add(next.toInstant().toEpochMilli(), new Armed(id, loaded.generation, sleep));
+        }
+    }
+
+    /**
+     * Expands a fired schedule into one transition per affected workload.
+     *
+     * @param id       The schedule id.
+     * @param schedule The schedule.
+     * @param sleep    True for the sleep transition, false for the wake transition.
+     * @return The transitions.
+     */
+    private List<ScalingTransition> transitions(String id, ScalingSchedule schedule, boolean sleep) {
+        int replicas = sleep ? schedule.getSleepReplicas() : schedule.getWakeReplicas();
+        List<String> refs = schedule.getWorkload() != null
+                ? List.of("deployment/" + schedule.getWorkload())
+                : workloadsByNamespace.getOrDefault(schedule.getNamespace(), List.of()).stream().map(Workload::getWorkloadRef).toList();
+        return refs.stream()
+                .map(ref -> ScalingTransition.builder()
+                        .workloadRef(ref)
+                        .replicas(replicas)
+                        .scheduleId(id)
+                        .reason(sleep ? "sleep" : "wake")
+                        .estimatedMonthlySavings(replicas == 0 ? 50.0 : 0.0) // Mock savings for sleep
+                        .build())
+                .toList();
+    }
+
+    private static CronExpression parse(String cron) {
+        return cron == null || cron.isBlank() ? null : CronExpression.parse(cron);
+    }
+
+    private static String idOf(ScalingSchedule schedule) {
+        if (schedule.getId() != null) return schedule.getId();
+        return "static:" + schedule.getNamespace() + "/" + (schedule.getWorkload() == null ? "*" : schedule.getWorkload());
+    }
+
+    private double armedCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private double scheduleCount() {
+        synchronized (wheel) {
+            return schedules.size();
+        }
+    }
+
+    private record Loaded(ScalingSchedule schedule, long generation, CronExpression sleepCron, CronExpression wakeCron, ZoneId zone) {
+    }
+
+    private record Armed(String scheduleId, long generation, boolean sleep) {
+    }
+}
@@ -0,0 +1,126 @@
+package io.kubefinops.recommender.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel holding any number of timers in O(1) per insertion and per expiry.
+ * Level 0 has {@code wheelSize} buckets of one tick each; every level above covers {@code wheelSize} buckets
+ * of the whole span of the level below (with a 1s tick and 64 buckets: 64s, 68min, 72h, 194 days, ...).
+ * A timer is placed on the lowest level whose span reaches its deadline; when time enters its bucket,
+ * the bucket cascades down one level, until the timer expires from level 0.
+ * Not thread-safe: callers serialize {@link #add} and {@link #advance}.
+ *
+ * @param <T> The timer payload.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final List<Timer<T>>[][] buckets;
+    private final List<Timer<T>> overflow = new ArrayList<>();
+    private final List<T> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis   The resolution of the wheel.
+     * @param wheelSize    The number of buckets per level.
+     * @param horizonMillis The farthest deadline held in buckets; later timers wait in an overflow list.
+     * @param nowMillis    The start time.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long horizonMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        int levels = 1;
+        for (long span = tickMillis * wheelSize; span < horizonMillis && span < Long.MAX_VALUE / wheelSize; span *= wheelSize) {
+            levels++;
+        }
+        this.levelTicks = new long[levels];
+        this.buckets = new List[levels][wheelSize];
+        long ticks = 1;
+        for (int level = 0; level < levels; level++) {
+            levelTicks[level] = ticks;
+            ticks *= wheelSize;
+            for (int i = 0; i < wheelSize; i++) buckets[level][i] = new ArrayList<>();
+        }
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    /**
+     * Schedules a payload. A deadline in the current tick or in the past is due on the next {@link #advance}.
+     *
+     * @param deadlineMillis The expiry time in epoch milliseconds.
+     * @param payload        The payload.
+     */
+    public void add(long deadlineMillis, T payload) {
+        place(new Timer<>(Math.floorDiv(deadlineMillis, tickMillis), payload));
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward to a point in time and returns every payload that expired on the way.
+     *
+     * @param nowMillis The current time in epoch milliseconds.
+     * @return The expired payloads, in expiry order.
+     */
+    public List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        List<T> expired = new ArrayList<>(due);
+        due.clear();
+        while (currentTick < targetTick) {
+            currentTick++;
+            // 1. Cascade the buckets that time just entered, highest level first
+            for (int level = levelTicks.length - 1; level > 0; level--) {
+                if (currentTick % levelTicks[level] == 0) {
+                    if (level == levelTicks.length - 1) cascade(overflow);
+                    cascade(buckets[level][(int) ((currentTick / levelTicks[level]) % wheelSize)]);
+                }
+            }
+            // 2. Expire the level-0 bucket of this tick
+            List<Timer<T>> bucket = buckets[0][(int) (currentTick % wheelSize)];
+            for (Timer<T> timer : bucket) expired.add(timer.payload);
+            bucket.clear();
+            expired.addAll(due);
+            due.clear();
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    /**
+     * Returns the number of pending payloads.
+     *
+     * @return The number of payloads added and not yet expired.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade(List<Timer<T>> bucket) {
+        if (bucket.isEmpty()) return;
+        List<Timer<T>> timers = new ArrayList<>(bucket);
+        bucket.clear();
+        timers.forEach(this::place);
+    }
+
+    private void place(Timer<T> timer) {
+        if (timer.deadlineTick <= currentTick) {
+            due.add(timer.payload);
+            return;
+        }
+        for (int level = 0; level < levelTicks.length; level++) {
+            long slot = timer.deadlineTick / levelTicks[level];
+            if (slot - currentTick / levelTicks[level] < wheelSize) {
+                buckets[level][(int) (slot % wheelSize)].add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private record Timer<T>(long deadlineTick, T payload) {
+    }
+}
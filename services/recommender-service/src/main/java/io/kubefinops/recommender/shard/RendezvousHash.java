@@ -0,0 +1,54 @@
+package io.kubefinops.recommender.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Rendezvous (highest random weight) hashing: a key belongs to the member with the highest hash of
+ * (member, key). Every replica computes the same owner from the same member list, and when a member
+ * joins or leaves only the keys it gains or loses move.
+ */
+public final class RendezvousHash {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private RendezvousHash() {
+    }
+
+    /**
+     * Returns the owner of a key.
+     *
+     * @param key     The key to place.
+     * @param members The live members.
+     * @return The owning member, or null if there are no members.
+     */
+    public static String owner(String key, List<String> members) {
+        String owner = null;
+        long best = Long.MIN_VALUE;
+        long keyHash = fnv1a(FNV_OFFSET, key);
+        for (String member : members) {
+            long weight = mix(fnv1a(keyHash, member));
+            if (owner == null || weight > best || (weight == best && member.compareTo(owner) < 0)) {
+                owner = member;
+                best = weight;
+            }
+        }
+        return owner;
+    }
+
+    private static long fnv1a(long hash, String value) {
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer, spreads FNV's weak low-order bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,122 @@
+package io.kubefinops.recommender.shard;
+
+import io.kubefinops.recommender.config.ShardingProperties;
+import io.kubefinops.recommender.domain.ShardLease;
+import io.kubefinops.recommender.repository.ShardLeaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Partitions namespaces across live recommender replicas. Each replica renews a lease document in
+ * MongoDB on every heartbeat and reads the set of unexpired leases as the membership; a namespace is
+ * analyzed only by its rendezvous-hash owner among those members. A replica that dies stops renewing,
+ * and its namespaces move to the survivors once its lease expires. A replica that cannot renew its own
+ * lease stops claiming any namespace, so a partitioned replica never duplicates the work of its successor.
+ */
+@Slf4j
+@Component
+public class ShardCoordinator {
+
+    private final ShardLeaseRepository repository;
+    private final ShardingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String memberId;
+
+    private volatile List<String> members = List.of();
+    private volatile long lastRenewalNanos;
+    private volatile boolean renewed;
+
+    public ShardCoordinator(ShardLeaseRepository repository, ShardingProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.memberId = properties.getMemberId() == null || properties.getMemberId().isBlank()
+                ? System.getenv().getOrDefault("HOSTNAME", "recommender") + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : properties.getMemberId();
+        meterRegistry.gauge("recommender_shard_members", this, coordinator -> coordinator.members.size());
+        meterRegistry.gauge("recommender_shard_lease_valid", this, coordinator -> coordinator.hasValidLease() ? 1 : 0);
+    }
+
+    /**
+     * Joins the shard ring as soon as the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void join() {
+        heartbeat();
+    }
+
+    /**
+     * Renews this replica's lease, purges expired leases and refreshes the membership.
+     */
+    @Scheduled(fixedRateString = "${app.sharding.heartbeat-interval:5s}", initialDelayString = "${app.sharding.heartbeat-interval:5s}")
+    public void heartbeat() {
+        if (!properties.isEnabled()) return;
+        try {
+            // 1. Renew our own lease
+            Instant now = Instant.now();
+            repository.save(new ShardLease(memberId, now, now.plus(properties.getLeaseTtl())));
+            lastRenewalNanos = System.nanoTime();
+            renewed = true;
+
+            // 2. Drop dead replicas and read the live ones
+            repository.deleteByExpiresAtBefore(now);
+            List<String> live = repository.findByExpiresAtAfter(now).stream()
+                    .map(ShardLease::getMemberId)
+                    .sorted()
+                    .toList();
+            if (!live.equals(members)) {
+                log.info("Shard membership changed: {} -> {} (this replica: {})", members, live, memberId);
+                meterRegistry.counter("recommender_shard_rebalances_total").increment();
+                members = live;
+            }
+        } catch (Exception e) {
+            log.warn("Shard lease renewal failed for {}: {}", memberId, e.getMessage());
+        }
+    }
+
+    /**
+     * Tells whether this replica is responsible for a shard key (a namespace).
+     *
+     * @param key The shard key.
+     * @return True if sharding is disabled, or this replica holds a valid lease and owns the key.
+     */
+    public boolean owns(String key) {
+        if (!properties.isEnabled()) return true;
+        return hasValidLease() && memberId.equals(RendezvousHash.owner(key, members));
+    }
+
+    /**
+     * Returns the identifier of this replica in the shard ring.
+     *
+     * @return The member id.
+     */
+    public String memberId() {
+        return memberId;
+    }
+
+    /**
+     * Releases the lease on shutdown so that the other replicas take over without waiting for expiry.
+     */
+    @PreDestroy
+    public void leave() {
+        if (!properties.isEnabled() || !renewed) return;
+        try {
+            repository.deleteById(memberId);
+        } catch (Exception e) {
+            log.warn("Could not release shard lease of {}: {}", memberId, e.getMessage());
+        }
+    }
+
+    private boolean hasValidLease() {
+        return renewed && System.nanoTime() - lastRenewalNanos < properties.getLeaseTtl().toNanos();
+    }
+}
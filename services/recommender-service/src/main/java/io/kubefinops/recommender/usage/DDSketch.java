@@ -0,0 +1,152 @@
+package io.kubefinops.recommender.usage;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with relative-error guarantees (DDSketch).
+ * Positive values are mapped to logarithmic buckets of width gamma = (1 + a) / (1 - a), so every
+ * quantile is answered within relative accuracy a. Bucket counts live in one dense int array covering
+ * only the observed index range; once it exceeds {@code maxBins} the lowest buckets are collapsed,
+ * which bounds memory per sketch while keeping the upper quantiles used for rightsizing exact to a.
+ * Not thread-safe.
+ */
+public class DDSketch {
+
+    private static final double MIN_INDEXABLE_VALUE = 1e-9;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final int maxBins;
+
+    private int[] counts = new int[0];
+    private int minIndex; // bucket index of counts[0]
+    private long zeroCount;
+    private long count;
+
+    public DDSketch(double relativeAccuracy, int maxBins) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be in (0, 1): " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.maxBins = maxBins;
+    }
+
+    /**
+     * Adds a value. Negative values are treated as zero (usage cannot be negative).
+     *
+     * @param value The value to add.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+        count++;
+        if (value < MIN_INDEXABLE_VALUE) {
+            zeroCount++;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        ensureCovered(index, index);
+        counts[Math.max(index, minIndex) - minIndex]++;
+    }
+
+    /**
+     * Merges another sketch into this one. Both sketches must share the same relative accuracy.
+     *
+     * @param other The sketch to merge.
+     */
+    public void merge(DDSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different relative accuracy");
+        }
+        if (other.count == 0) return;
+        count += other.count;
+        zeroCount += other.zeroCount;
+        if (other.counts.length == 0) return;
+        ensureCovered(other.minIndex, other.minIndex + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                counts[Math.max(other.minIndex + i, minIndex) - minIndex] += other.counts[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate value at a quantile.
+     *
+     * @param q The quantile in [0, 1].
+     * @return The value, within relative accuracy, or NaN if the sketch is empty.
+     */
+    public double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        double rank = q * (count - 1);
+        if (rank < zeroCount) return 0.0;
+
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return valueOf(minIndex + i);
+            }
+        }
+        return valueOf(minIndex + counts.length - 1);
+    }
+
+    /**
+     * Returns the number of values added (including merged ones).
+     *
+     * @return The total count.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Resets the sketch to empty while keeping its bucket array.
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        zeroCount = 0;
+        count = 0;
+    }
+
+    /**
+     * Returns the representative value of a bucket (the point with equal relative error to both bounds).
+     *
+     * @param index The bucket index.
+     * @return The bucket value.
+     */
+    private double valueOf(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    /**
+     * Grows the dense bucket array so it covers [low, high], collapsing the lowest buckets
+     * into the first retained one if the range would exceed {@code maxBins}.
+     *
+     * @param low  The lowest bucket index to cover.
+     * @param high The highest bucket index to cover.
+     */
+    private void ensureCovered(int low, int high) {
+        if (counts.length == 0) {
+            int newMin = Math.max(low, high - maxBins + 1);
+            counts = new int[Math.min(maxBins, Math.max(high - newMin + 1, 16))];
+            minIndex = newMin;
+            return;
+        }
+        int currentMax = minIndex + counts.length - 1;
+        if (low >= minIndex && high <= currentMax) return;
+
+        int newMax = Math.max(high, currentMax);
+        int newMin = Math.max(Math.min(low, minIndex), newMax - maxBins + 1);
+        int[] resized = new int[newMax - newMin + 1];
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                resized[Math.max(minIndex + i, newMin) - newMin] += counts[i];
+            }
+        }
+        counts = resized;
+        minIndex = newMin;
+    }
+}
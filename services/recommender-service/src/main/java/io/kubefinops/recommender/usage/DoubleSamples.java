@@ -0,0 +1,60 @@
+package io.kubefinops.recommender.usage;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive accumulator used to compute percentiles without boxing.
+ * Not thread-safe; reuse one instance per computation.
+ */
+public class DoubleSamples {
+
+    private double[] values;
+    private int size;
+
+    public DoubleSamples(int initialCapacity) {
+        this.values = new double[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Appends a value.
+     *
+     * @param value The value to append.
+     */
+    public void add(double value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+
+    /**
+     * Returns the number of accumulated values.
+     *
+     * @return The number of values.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Discards all values while keeping the backing array.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Computes a percentile with linear interpolation between closest ranks (same as PromQL quantile).
+     * Sorts the accumulated values in place.
+     *
+     * @param q The quantile in [0, 1].
+     * @return The percentile, or NaN if no values were accumulated.
+     */
+    public double percentile(double q) {
+        if (size == 0) return Double.NaN;
+        Arrays.sort(values, 0, size);
+        double rank = q * (size - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = Math.min(lower + 1, size - 1);
+        double weight = rank - lower;
+        return values[lower] * (1 - weight) + values[upper] * weight;
+    }
+}
@@ -0,0 +1,35 @@
+package io.kubefinops.recommender.usage;
+
+import io.kubefinops.recommender.config.UsageStoreProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.analysis.usage-source", havingValue = "local-window")
+public class LocalWindowUsageSource implements UsageSource {
+
+    private static final double QUANTILE = 0.95;
+
+    private final UsageIngestor ingestor;
+    private final UsageSeriesStore store;
+    private final UsageStoreProperties properties;
+
+    /**
+     * Pulls only the samples newer than the namespace watermark into the local ring buffers,
+     * then computes P95 usage per workload from the locally retained window.
+     *
+     * @param namespace The namespace to analyze.
+     * @return A Mono emitting usage keyed by workload name.
+     */
+    @Override
+    public Mono<Map<String, WorkloadUsage>> namespaceUsage(String namespace) {
+        return ingestor.pullDelta(namespace, store, properties.getRetention())
+                .then(Mono.fromSupplier(() -> store.percentiles(namespace, QUANTILE,
+                        System.currentTimeMillis() - properties.getRetention().toMillis())));
+    }
+}
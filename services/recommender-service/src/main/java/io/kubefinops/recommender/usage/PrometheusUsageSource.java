@@ -0,0 +1,43 @@
+package io.kubefinops.recommender.usage;
+
+import io.kubefinops.recommender.client.PrometheusClient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.analysis.usage-source", havingValue = "prometheus", matchIfMissing = true)
+public class PrometheusUsageSource implements UsageSource {
+
+    private final PrometheusClient prometheusClient;
+
+    /**
+     * Fetches namespace usage with one batched CPU and one batched memory query, evaluated by Prometheus.
+     * Workloads missing from either result are left out, so they are reported as missing rather than idle.
+     *
+     * @param namespace The namespace to analyze.
+     * @return A Mono emitting usage keyed by workload name.
+     */
+    @Override
+    public Mono<Map<String, WorkloadUsage>> namespaceUsage(String namespace) {
+        return Mono.zip(
+                prometheusClient.getP95CpuUsageByWorkload(namespace),
+                prometheusClient.getP95MemoryUsageByWorkload(namespace)
+        ).map(tuple -> {
+            Set<String> workloads = new HashSet<>(tuple.getT1().keySet());
+            workloads.retainAll(tuple.getT2().keySet());
+            Map<String, WorkloadUsage> usage = new HashMap<>(workloads.size() * 2);
+            for (String workload : workloads) {
+                usage.put(workload, new WorkloadUsage(tuple.getT1().get(workload), tuple.getT2().get(workload)));
+            }
+            return usage;
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package io.kubefinops.recommender.usage;
+
+import io.kubefinops.recommender.config.SketchProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process quantile sketches of container usage, one CPU and one memory {@link WindowedSketch}
+ * per workload. Samples of every pod and container of a workload feed the same sketches, so memory
+ * is bounded per workload regardless of replica count or pod churn.
+ */
+@Component
+@RequiredArgsConstructor
+public class SketchStore implements UsageSampleSink {
+
+    private final SketchProperties properties;
+    private final Map<String, Map<String, WindowedSketch[]>> namespaces = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a container sample to the sketch of its workload.
+     *
+     * @param namespace       The namespace of the pod.
+     * @param workload        The workload owning the pod.
+     * @param pod             The pod name.
+     * @param container       The container name.
+     * @param timestampMillis The sample timestamp in epoch milliseconds.
+     * @param resource        {@link #CPU} or {@link #MEMORY}.
+     * @param value           The sample value.
+     */
+    @Override
+    public void record(String namespace, String workload, String pod, String container, long timestampMillis, int resource, double value) {
+        namespaces.computeIfAbsent(namespace, ns -> new ConcurrentHashMap<>())
+                .computeIfAbsent(workload, w -> new WindowedSketch[]{newSketch(), newSketch()})[resource]
+                .add(timestampMillis, value);
+    }
+
+    /**
+     * Reads the configured CPU and memory percentiles of every workload of a namespace.
+     * Workloads without samples inside the window are evicted.
+     *
+     * @param namespace   The namespace.
+     * @param sinceMillis The window start in epoch milliseconds.
+     * @return Usage keyed by workload name.
+     */
+    public Map<String, WorkloadUsage> quantiles(String namespace, long sinceMillis) {
+        Map<String, WindowedSketch[]> workloads = namespaces.get(namespace);
+        if (workloads == null) return Map.of();
+
+        workloads.values().removeIf(sketches ->
+                Math.max(sketches[CPU].lastTimestamp(), sketches[MEMORY].lastTimestamp()) < sinceMillis);
+
+        Map<String, WorkloadUsage> usage = new HashMap<>(workloads.size() * 2);
+        workloads.forEach((workload, sketches) -> {
+            double cpu = sketches[CPU].quantile(properties.getCpuQuantile(), sinceMillis);
+            double memory = sketches[MEMORY].quantile(properties.getMemoryQuantile(), sinceMillis);
+            if (!Double.isNaN(cpu) && !Double.isNaN(memory)) { // otherwise the workload is reported as missing
+                usage.put(workload, new WorkloadUsage(cpu, memory));
+            }
+        });
+        return usage;
+    }
+
+    /**
+     * Returns the number of workloads currently tracked.
+     *
+     * @return The workload count across all namespaces.
+     */
+    public int workloadCount() {
+        return namespaces.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private WindowedSketch newSketch() {
+        return new WindowedSketch(properties.getBucket().toMillis(), properties.bucketCount(),
+                properties.getRelativeAccuracy(), properties.getMaxBins());
+    }
+}
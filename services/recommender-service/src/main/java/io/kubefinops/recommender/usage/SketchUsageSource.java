@@ -0,0 +1,34 @@
+package io.kubefinops.recommender.usage;
+
+import io.kubefinops.recommender.config.SketchProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.analysis.usage-source", havingValue = "sketch")
+public class SketchUsageSource implements UsageSource {
+
+    private final UsageIngestor ingestor;
+    private final SketchStore store;
+    private final SketchProperties properties;
+
+    /**
+     * Pulls only the samples newer than the namespace watermark into the workload sketches,
+     * then reads the configured percentiles from the merged time buckets of the window.
+     * No quantile is evaluated by Prometheus.
+     *
+     * @param namespace The namespace to analyze.
+     * @return A Mono emitting usage keyed by workload name.
+     */
+    @Override
+    public Mono<Map<String, WorkloadUsage>> namespaceUsage(String namespace) {
+        return ingestor.pullDelta(namespace, store, properties.getWindow())
+                .then(Mono.fromSupplier(() -> store.quantiles(namespace,
+                        System.currentTimeMillis() - properties.getWindow().toMillis())));
+    }
+}
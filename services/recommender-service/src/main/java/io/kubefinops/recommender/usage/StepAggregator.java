@@ -0,0 +1,117 @@
+package io.kubefinops.recommender.usage;
+
+import io.kubefinops.recommender.client.RawSeries;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns raw remote-read series into the same per-container, step-aligned values a range query returns:
+ * {@code rate()} of the CPU counter and the last memory gauge sample of each step, summed by
+ * (pod, container). Step T covers samples in (T - step, T]. Not thread-safe; one instance per pull.
+ */
+class StepAggregator {
+
+    private final long startMillis;
+    private final long stepMillis;
+    private final int steps;
+    private final boolean counter;
+    private final Map<String, double[]> byContainer = new HashMap<>();
+
+    // Per-series scratch arrays
+    private final double[] increase;
+    private final double[] seconds;
+    private final double[] last;
+
+    /**
+     * @param startMillis The first step to produce, step-aligned.
+     * @param endMillis   The last step to produce, step-aligned.
+     * @param stepMillis  The step.
+     * @param counter     True to compute per-second rates of a counter, false to sample a gauge.
+     */
+    StepAggregator(long startMillis, long endMillis, long stepMillis, boolean counter) {
+        this.startMillis = startMillis;
+        this.stepMillis = stepMillis;
+        this.steps = (int) ((endMillis - startMillis) / stepMillis) + 1;
+        this.counter = counter;
+        this.increase = new double[steps];
+        this.seconds = new double[steps];
+        this.last = new double[steps];
+    }
+
+    /**
+     * Folds one series into the totals of its container.
+     *
+     * @param series The raw series (must carry pod and container labels).
+     */
+    void add(RawSeries series) {
+        String pod = series.label("pod");
+        String container = series.label("container");
+        if (pod == null || container == null || container.isEmpty()) return;
+
+        long[] timestamps = series.getTimestampsMillis();
+        double[] values = series.getValues();
+        Arrays.fill(last, Double.NaN);
+        if (counter) {
+            Arrays.fill(increase, 0.0);
+            Arrays.fill(seconds, 0.0);
+        }
+        for (int i = 0; i < series.getSize(); i++) {
+            int step = stepOf(timestamps[i]);
+            if (step < 0 || step >= steps) continue;
+            if (!counter) {
+                last[step] = values[i];
+            } else if (i > 0) {
+                double delta = values[i] - values[i - 1];
+                increase[step] += delta >= 0 ? delta : values[i]; // counter reset
+                seconds[step] += (timestamps[i] - timestamps[i - 1]) / 1000.0;
+                last[step] = 0.0; // marks the step as covered
+            }
+        }
+
+        double[] totals = byContainer.computeIfAbsent(pod + "/" + container, key -> {
+            double[] empty = new double[steps];
+            Arrays.fill(empty, Double.NaN);
+            return empty;
+        });
+        for (int step = 0; step < steps; step++) {
+            if (Double.isNaN(last[step])) continue;
+            double value = counter ? (seconds[step] > 0 ? increase[step] / seconds[step] : 0.0) : last[step];
+            totals[step] = Double.isNaN(totals[step]) ? value : totals[step] + value;
+        }
+    }
+
+    /**
+     * Emits every aggregated step value.
+     *
+     * @param consumer Receives pod, container, step timestamp and value.
+     */
+    void forEach(StepConsumer consumer) {
+        byContainer.forEach((key, totals) -> {
+            int slash = key.indexOf('/');
+            String pod = key.substring(0, slash);
+            String container = key.substring(slash + 1);
+            for (int step = 0; step < steps; step++) {
+                if (!Double.isNaN(totals[step])) {
+                    consumer.accept(pod, container, startMillis + step * stepMillis, totals[step]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Maps a sample timestamp to the step that covers it.
+     *
+     * @param timestampMillis The sample timestamp.
+     * @return The step index (may be out of range).
+     */
+    private int stepOf(long timestampMillis) {
+        return (int) Math.floorDiv(timestampMillis - startMillis + stepMillis - 1, stepMillis);
+    }
+
+    @FunctionalInterface
+    interface StepConsumer {
+        void accept(String pod, String container, long timestampMillis, double value);
+    }
+}
@@ -0,0 +1,152 @@
+package io.kubefinops.recommender.usage;
+
+import io.kubefinops.recommender.client.LabelMatcher;
+import io.kubefinops.recommender.client.PrometheusClient;
+import io.kubefinops.recommender.config.UsageStoreProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pulls per-container usage deltas from Prometheus into a local {@link UsageSampleSink}.
+ * Each namespace keeps a watermark of the newest ingested step so every tick only asks for new samples.
+ * Samples come either from range queries (JSON) or, with {@code app.usage-store.ingest-protocol=remote-read},
+ * from raw remote-read chunks aggregated locally into the same step values.
+ */
+@Component
+@RequiredArgsConstructor
+public class UsageIngestor {
+
+    // ReplicaSet-managed pods are named <deployment>-<replicaset hash>-<pod suffix>
+    private static final Pattern POD_TO_WORKLOAD = Pattern.compile("^(.+)-[a-z0-9]+-[a-z0-9]+$");
+    private static final int MAX_MEMOIZED_PODS = 100_000;
+
+    private final PrometheusClient prometheusClient;
+    private final UsageStoreProperties properties;
+    private final Map<String, Long> watermarks = new ConcurrentHashMap<>();
+    private final Map<String, String> workloadByPod = new ConcurrentHashMap<>();
+
+    /**
+     * Pulls the samples of a namespace newer than its watermark into a sink.
+     *
+     * @param namespace The namespace to ingest.
+     * @param sink      The sink receiving the samples.
+     * @param maxRange  The furthest back a pull may reach (the sink's retention).
+     * @return A Mono completing once every sample was recorded and the watermark advanced.
+     */
+    public Mono<Void> pullDelta(String namespace, UsageSampleSink sink, Duration maxRange) {
+        long stepMillis = properties.getStep().toMillis();
+        long end = Math.floorDiv(System.currentTimeMillis(), stepMillis) * stepMillis;
+        long watermark = watermarks.getOrDefault(namespace, 0L);
+        long start = watermark == 0 ? end - properties.getInitialBackfill().toMillis() : watermark + stepMillis;
+        start = Math.max(start, end - maxRange.toMillis()); // never pull more than the sink can hold
+        if (start > end) return Mono.empty();
+
+        Mono<Void> pull = "remote-read".equals(properties.getIngestProtocol())
+                ? Mono.when(
+                        ingestRemote(namespace, "container_cpu_usage_seconds_total", UsageSampleSink.CPU, start, end, sink),
+                        ingestRemote(namespace, "container_memory_working_set_bytes", UsageSampleSink.MEMORY, start, end, sink))
+                : Mono.when(
+                        ingest(namespace, cpuQuery(namespace), UsageSampleSink.CPU, start, end, sink),
+                        ingest(namespace, memoryQuery(namespace), UsageSampleSink.MEMORY, start, end, sink));
+        return pull.doOnSuccess(v -> watermarks.merge(namespace, end, Math::max));
+    }
+
+    /**
+     * Returns the newest fully ingested step of a namespace.
+     *
+     * @param namespace The namespace.
+     * @return The watermark in epoch milliseconds, or 0 if nothing was ingested yet.
+     */
+    public long watermark(String namespace) {
+        return watermarks.getOrDefault(namespace, 0L);
+    }
+
+    /**
+     * Streams a range query into a sink.
+     *
+     * @param namespace   The namespace being ingested.
+     * @param query       The per-container range query.
+     * @param resource    The resource the samples belong to.
+     * @param startMillis The range start.
+     * @param endMillis   The range end.
+     * @param sink        The sink receiving the samples.
+     * @return A Mono completing once every sample was recorded.
+     */
+    private Mono<Void> ingest(String namespace, String query, int resource, long startMillis, long endMillis, UsageSampleSink sink) {
+        return prometheusClient.queryRange(query, startMillis, endMillis, properties.getStep())
+                .doOnNext(sample -> {
+                    String pod = sample.label("pod");
+                    String container = sample.label("container");
+                    if (pod == null || container == null || Double.isNaN(sample.getValue())) return;
+                    sink.record(namespace, workloadOf(pod), pod, container, sample.getTimestampMillis(), resource, sample.getValue());
+                })
+                .then();
+    }
+
+    /**
+     * Reads the raw series of a metric through remote-read and records their step-aligned values.
+     * The CPU counter is read one step early so the first step has a rate.
+     *
+     * @param namespace   The namespace being ingested.
+     * @param metric      The metric name.
+     * @param resource    The resource the samples belong to (CPU is treated as a counter).
+     * @param startMillis The first step.
+     * @param endMillis   The last step.
+     * @param sink        The sink receiving the samples.
+     * @return A Mono completing once every sample was recorded.
+     */
+    private Mono<Void> ingestRemote(String namespace, String metric, int resource, long startMillis, long endMillis, UsageSampleSink sink) {
+        long stepMillis = properties.getStep().toMillis();
+        StepAggregator aggregator = new StepAggregator(startMillis, endMillis, stepMillis, resource == UsageSampleSink.CPU);
+        List<LabelMatcher> matchers = List.of(
+                LabelMatcher.eq("__name__", metric),
+                LabelMatcher.eq("namespace", namespace),
+                LabelMatcher.neq("container", ""));
+        return prometheusClient.remoteRead(matchers, startMillis - stepMillis, endMillis)
+                .doOnNext(aggregator::add)
+                .then(Mono.fromRunnable(() -> aggregator.forEach((pod, container, timestampMillis, value) ->
+                        sink.record(namespace, workloadOf(pod), pod, container, timestampMillis, resource, value))));
+    }
+
+    /**
+     * Derives the owning workload from a pod name, memoized per pod so the regex runs once per pod.
+     *
+     * @param pod The pod name.
+     * @return The workload name, or the pod name itself if it does not follow the Deployment pattern.
+     */
+    private String workloadOf(String pod) {
+        if (workloadByPod.size() > MAX_MEMOIZED_PODS) workloadByPod.clear(); // bounded under pod churn
+        return workloadByPod.computeIfAbsent(pod, p -> {
+            Matcher matcher = POD_TO_WORKLOAD.matcher(p);
+            return matcher.matches() ? matcher.group(1) : p;
+        });
+    }
+
+    /**
+     * Builds the per-container CPU usage query of a namespace.
+     *
+     * @param namespace The namespace.
+     * @return The PromQL query string.
+     */
+    private String cpuQuery(String namespace) {
+        return String.format("sum by (pod, container) (rate(container_cpu_usage_seconds_total{namespace='%s', container!=''}[1m]))", namespace);
+    }
+
+    /**
+     * Builds the per-container memory working set query of a namespace.
+     *
+     * @param namespace The namespace.
+     * @return The PromQL query string.
+     */
+    private String memoryQuery(String namespace) {
+        return String.format("sum by (pod, container) (container_memory_working_set_bytes{namespace='%s', container!=''})", namespace);
+    }
+}
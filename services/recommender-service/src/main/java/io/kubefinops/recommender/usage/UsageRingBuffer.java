@@ -0,0 +1,73 @@
+package io.kubefinops.recommender.usage;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size, step-aligned ring of usage samples for one container, stored as parallel primitive arrays.
+ * A sample at timestamp t lands in slot (t / step) % capacity, so CPU and memory samples of the same
+ * step share a slot and old samples are overwritten in place without any allocation.
+ */
+public class UsageRingBuffer {
+
+    private final long stepMillis;
+    private final int capacity;
+    private final long[] timestamps;
+    private final double[] cpu;
+    private final double[] memory;
+    private long lastTimestamp;
+
+    public UsageRingBuffer(long stepMillis, int capacity) {
+        this.stepMillis = stepMillis;
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.cpu = new double[capacity];
+        this.memory = new double[capacity];
+        Arrays.fill(timestamps, Long.MIN_VALUE);
+    }
+
+    /**
+     * Records a sample. Samples older than the retained window are ignored.
+     *
+     * @param timestampMillis The sample timestamp in epoch milliseconds.
+     * @param resource        {@link UsageSampleSink#CPU} or {@link UsageSampleSink#MEMORY}.
+     * @param value           The sample value.
+     */
+    public synchronized void record(long timestampMillis, int resource, double value) {
+        long aligned = Math.floorDiv(timestampMillis, stepMillis) * stepMillis;
+        if (aligned <= lastTimestamp - (long) capacity * stepMillis) return;
+
+        int slot = (int) Math.floorMod(aligned / stepMillis, (long) capacity);
+        if (timestamps[slot] != aligned) {
+            timestamps[slot] = aligned;
+            cpu[slot] = Double.NaN;
+            memory[slot] = Double.NaN;
+        }
+        (resource == UsageSampleSink.CPU ? cpu : memory)[slot] = value;
+        lastTimestamp = Math.max(lastTimestamp, aligned);
+    }
+
+    /**
+     * Appends the samples of a resource recorded at or after a point in time to an accumulator.
+     *
+     * @param resource    {@link UsageSampleSink#CPU} or {@link UsageSampleSink#MEMORY}.
+     * @param sinceMillis The window start in epoch milliseconds.
+     * @param out         The accumulator receiving the values.
+     */
+    public synchronized void collect(int resource, long sinceMillis, DoubleSamples out) {
+        double[] values = resource == UsageSampleSink.CPU ? cpu : memory;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (timestamps[slot] >= sinceMillis && !Double.isNaN(values[slot])) {
+                out.add(values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the timestamp of the newest recorded sample.
+     *
+     * @return The newest sample timestamp in epoch milliseconds, or 0 if empty.
+     */
+    public synchronized long lastTimestamp() {
+        return lastTimestamp;
+    }
+}
@@ -0,0 +1,23 @@
+package io.kubefinops.recommender.usage;
+
+/**
+ * Receives container usage samples pulled by the {@link UsageIngestor}.
+ */
+public interface UsageSampleSink {
+
+    int CPU = 0;
+    int MEMORY = 1;
+
+    /**
+     * Records a container usage sample.
+     *
+     * @param namespace       The namespace of the pod.
+     * @param workload        The workload owning the pod.
+     * @param pod             The pod name.
+     * @param container       The container name.
+     * @param timestampMillis The sample timestamp in epoch milliseconds.
+     * @param resource        {@link #CPU} or {@link #MEMORY}.
+     * @param value           The sample value (cores or bytes).
+     */
+    void record(String namespace, String workload, String pod, String container, long timestampMillis, int resource, double value);
+}
@@ -0,0 +1,90 @@
+package io.kubefinops.recommender.usage;
+
+import io.kubefinops.recommender.config.UsageStoreProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process store of recent container usage, one {@link UsageRingBuffer} per container.
+ */
+@Component
+@RequiredArgsConstructor
+public class UsageSeriesStore implements UsageSampleSink {
+
+    private final UsageStoreProperties properties;
+    private final Map<String, NamespaceSeries> namespaces = new ConcurrentHashMap<>();
+
+    /**
+     * Records a container sample into the ring buffer of that container.
+     *
+     * @param namespace       The namespace of the pod.
+     * @param workload        The workload owning the pod.
+     * @param pod             The pod name.
+     * @param container       The container name.
+     * @param timestampMillis The sample timestamp in epoch milliseconds.
+     * @param resource        {@link #CPU} or {@link #MEMORY}.
+     * @param value           The sample value.
+     */
+    @Override
+    public void record(String namespace, String workload, String pod, String container, long timestampMillis, int resource, double value) {
+        NamespaceSeries series = namespaces.computeIfAbsent(namespace, ns -> new NamespaceSeries());
+        series.containers.computeIfAbsent(pod + "/" + container,
+                key -> new ContainerSeries(workload,
+                        new UsageRingBuffer(properties.getStep().toMillis(), properties.capacity())))
+                .buffer.record(timestampMillis, resource, value);
+    }
+
+    /**
+     * Computes a usage percentile per workload over the samples of all its containers.
+     * Containers without samples inside the retention window are evicted.
+     *
+     * @param namespace   The namespace.
+     * @param quantile    The quantile in [0, 1].
+     * @param sinceMillis The window start in epoch milliseconds.
+     * @return Usage keyed by workload name.
+     */
+    public Map<String, WorkloadUsage> percentiles(String namespace, double quantile, long sinceMillis) {
+        NamespaceSeries series = namespaces.get(namespace);
+        if (series == null) return Map.of();
+
+        series.containers.values().removeIf(c -> c.buffer.lastTimestamp() < sinceMillis);
+
+        Map<String, DoubleSamples[]> byWorkload = new HashMap<>();
+        for (ContainerSeries container : series.containers.values()) {
+            DoubleSamples[] samples = byWorkload.computeIfAbsent(container.workload,
+                    w -> new DoubleSamples[]{new DoubleSamples(properties.capacity()), new DoubleSamples(properties.capacity())});
+            container.buffer.collect(CPU, sinceMillis, samples[CPU]);
+            container.buffer.collect(MEMORY, sinceMillis, samples[MEMORY]);
+        }
+
+        Map<String, WorkloadUsage> usage = new HashMap<>(byWorkload.size() * 2);
+        byWorkload.forEach((workload, samples) -> {
+            double cpu = samples[CPU].percentile(quantile);
+            double memory = samples[MEMORY].percentile(quantile);
+            if (!Double.isNaN(cpu) && !Double.isNaN(memory)) { // otherwise the workload is reported as missing
+                usage.put(workload, new WorkloadUsage(cpu, memory));
+            }
+        });
+        return usage;
+    }
+
+    /**
+     * Returns the number of containers currently tracked.
+     *
+     * @return The container count across all namespaces.
+     */
+    public int containerCount() {
+        return namespaces.values().stream().mapToInt(ns -> ns.containers.size()).sum();
+    }
+
+    private static final class NamespaceSeries {
+        final Map<String, ContainerSeries> containers = new ConcurrentHashMap<>();
+    }
+
+    private record ContainerSeries(String workload, UsageRingBuffer buffer) {
+    }
+}
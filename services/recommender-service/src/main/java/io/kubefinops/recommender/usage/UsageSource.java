@@ -0,0 +1,20 @@
+package io.kubefinops.recommender.usage;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Supplies the P95 usage of every workload of a namespace to the analysis pass.
+ * The active implementation is selected with {@code app.analysis.usage-source}.
+ */
+public interface UsageSource {
+
+    /**
+     * Fetches the usage of all workloads of a namespace.
+     *
+     * @param namespace The namespace to analyze.
+     * @return A Mono emitting usage keyed by workload name; workloads without data may be absent.
+     */
+    Mono<Map<String, WorkloadUsage>> namespaceUsage(String namespace);
+}
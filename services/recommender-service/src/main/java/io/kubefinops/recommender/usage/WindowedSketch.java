@@ -0,0 +1,71 @@
+package io.kubefinops.recommender.usage;
+
+/**
+ * Sliding window of {@link DDSketch}es, one per time bucket. A sample at timestamp t lands in bucket
+ * (t / bucket) % buckets; a bucket is cleared when it is reused for a newer period, so memory stays
+ * fixed per window and expiry costs nothing. Queries merge the buckets inside the window.
+ */
+public class WindowedSketch {
+
+    private final long bucketMillis;
+    private final DDSketch[] buckets;
+    private final long[] bucketStarts;
+    private final DDSketch scratch;
+    private long lastTimestamp;
+
+    public WindowedSketch(long bucketMillis, int bucketCount, double relativeAccuracy, int maxBins) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = new DDSketch[bucketCount];
+        this.bucketStarts = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new DDSketch(relativeAccuracy, maxBins);
+            bucketStarts[i] = Long.MIN_VALUE;
+        }
+        this.scratch = new DDSketch(relativeAccuracy, maxBins);
+    }
+
+    /**
+     * Adds a sample. Samples older than the retained buckets are ignored.
+     *
+     * @param timestampMillis The sample timestamp in epoch milliseconds.
+     * @param value           The sample value.
+     */
+    public synchronized void add(long timestampMillis, double value) {
+        long start = Math.floorDiv(timestampMillis, bucketMillis) * bucketMillis;
+        if (start <= lastTimestamp - (long) buckets.length * bucketMillis) return;
+
+        int slot = (int) Math.floorMod(start / bucketMillis, (long) buckets.length);
+        if (bucketStarts[slot] != start) {
+            bucketStarts[slot] = start;
+            buckets[slot].clear();
+        }
+        buckets[slot].add(value);
+        lastTimestamp = Math.max(lastTimestamp, timestampMillis);
+    }
+
+    /**
+     * Merges the buckets overlapping the window and reads a quantile from the result.
+     *
+     * @param quantile    The quantile in [0, 1].
+     * @param sinceMillis The window start in epoch milliseconds.
+     * @return The quantile value, or NaN if the window holds no samples.
+     */
+    public synchronized double quantile(double quantile, long sinceMillis) {
+        scratch.clear();
+        for (int slot = 0; slot < buckets.length; slot++) {
+            if (bucketStarts[slot] != Long.MIN_VALUE && bucketStarts[slot] + bucketMillis > sinceMillis) {
+                scratch.merge(buckets[slot]);
+            }
+        }
+        return scratch.quantile(quantile);
+    }
+
+    /**
+     * Returns the timestamp of the newest added sample.
+     *
+     * @return The newest sample timestamp in epoch milliseconds, or 0 if empty.
+     */
+    public synchronized long lastTimestamp() {
+        return lastTimestamp;
+    }
+}
@@ -0,0 +1,9 @@
+package io.kubefinops.recommender.usage;
+
+import lombok.Value;
+
+@Value
+public class WorkloadUsage {
+    double cpuCores;
+    double memoryBytes;
+}
@@ -0,0 +1,86 @@
+package io.kubefinops.recommender;
+
+import io.kubefinops.event.ResourceQuantities;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CostCalculatorTest {
+
+    private static final long MIB = 1024 * 1024;
+
+    /**
+     * Unit test verifying that the scalar batch kernel prices every workload like the per-workload path,
+     * including cost increases clamped to 0.
+     */
+    @Test
+    void shouldPriceBatchLikePerWorkloadPath() {
+        // Given
+        CostCalculator scalar = new CostCalculator(false);
+        assertThat(scalar.isVectorized()).isFalse();
+
+        // When / Then
+        assertBatchPricedLikePerWorkloadPath(scalar);
+    }
+
+    /**
+     * Unit test verifying that the Vector API kernel prices every workload like the per-workload path,
+     * including the tail that does not fill a whole vector. Skipped unless the kernel is built and its module
+     * loaded; required under the vector-api profile, which sets {@code kubefinops.vector-api}.
+     */
+    @Test
+    void shouldPriceBatchWithVectorKernel() {
+        // Given
+        CostCalculator vector = new CostCalculator(true);
+        if (Boolean.getBoolean("kubefinops.vector-api")) {
+            assertThat(vector.isVectorized()).as("vector kernel under the vector-api profile").isTrue();
+        }
+        assumeTrue(vector.isVectorized(), "VectorCostKernel is only built and loaded with -Pvector-api");
+
+        // When / Then
+        assertBatchPricedLikePerWorkloadPath(vector);
+    }
+
+    private static void assertBatchPricedLikePerWorkloadPath(CostCalculator calculator) {
+        Random random = new Random(7);
+        List<ResourceQuantities[]> workloads = new ArrayList<>();
+        CostBatch batch = new CostBatch(4);
+        for (int i = 0; i < 1003; i++) {
+            ResourceQuantities current = new ResourceQuantities(100 + random.nextInt(4000), (64 + random.nextInt(8192)) * MIB);
+            ResourceQuantities suggested = new ResourceQuantities(10 + random.nextInt(4000), (64 + random.nextInt(8192)) * MIB);
+            workloads.add(new ResourceQuantities[]{current, suggested});
+            batch.add(current, suggested);
+        }
+
+        double[] savings = calculator.calculateMonthlySavings(batch);
+
+        for (int i = 0; i < workloads.size(); i++) {
+            double expected = calculator.calculateMonthlySavings(workloads.get(i)[0], workloads.get(i)[1]);
+            assertThat(savings[i]).isCloseTo(expected, within(1e-9));
+            assertThat(batch.savings(i)).isGreaterThanOrEqualTo(0.0);
+        }
+    }
+
+    /**
+     * Unit test verifying the savings of a single workload, from both parsed quantities and resource maps.
+     */
+    @Test
+    void shouldCalculateMonthlySavings() {
+        CostCalculator calculator = new CostCalculator(false);
+
+        double savings = calculator.calculateMonthlySavings(
+                new ResourceQuantities(1000, 2048 * MIB), new ResourceQuantities(500, 1024 * MIB));
+
+        assertThat(savings).isCloseTo(20.0, within(1e-9));
+        assertThat(calculator.calculateMonthlySavings(
+                Map.of("cpu", "1", "memory", "2Gi"), Map.of("cpu", "500m", "memory", "1Gi")))
+                .isCloseTo(20.0, within(1e-9));
+    }
+}
@@ -1,8 +1,11 @@
 package io.kubefinops.recommender;
 
+import io.kubefinops.event.RecommendationBatchEvent;
 import io.kubefinops.event.RecommendationCreatedEvent;
+import io.kubefinops.event.codec.EventCodec;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +16,6 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.KafkaMessageListenerContainer;
 import org.springframework.kafka.listener.MessageListener;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.KafkaContainer;
@@ -74,7 +76,7 @@ class RecommendationIntegrationTest {
         wireMock.stubFor(get(urlPathEqualTo("/api/v1/query"))
                 .willReturn(aResponse()
                         .withHeader("Content-Type", "application/json")
-                        .withBody("{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":[{\"value\":[1643061600,\"0.150\"]}]}}")));
+                        .withBody("{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":[{\"metric\":{\"namespace\":\"dev\",\"workload\":\"nginx\"},\"value\":[1643061600,\"0.150\"]}]}}")));
 
         // 2. Setup Kafka Consumer
         BlockingQueue<RecommendationCreatedEvent> events = new LinkedBlockingQueue<>();
@@ -95,8 +97,8 @@ class RecommendationIntegrationTest {
     }
 
     /**
-     * Helper method to configure and start a Kafka consumer listening to the recommendation.created topic.
-     * The consumer deserializes RecommendationCreatedEvent messages and adds them to the provided queue
+     * Helper method to configure and start a Kafka consumer listening to the recommendation.created.batch topic.
+     * The consumer decodes RecommendationBatchEvent messages and adds their recommendations to the provided queue
      * for test assertions.
      *
      * @param queue the blocking queue to receive deserialized events from Kafka
@@ -108,17 +110,17 @@ class RecommendationIntegrationTest {
                 ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"
         );
 
-        JsonDeserializer<RecommendationCreatedEvent> deserializer = new JsonDeserializer<>(RecommendationCreatedEvent.class);
-        deserializer.addTrustedPackages("io.kubefinops.*", "io.kubefinops.*");
+        // Events are published with the binary codec (see the binding content-type)
+        Deserializer<RecommendationBatchEvent> deserializer = (topic, data) -> EventCodec.decode(data, RecommendationBatchEvent.class);
 
-        DefaultKafkaConsumerFactory<String, RecommendationCreatedEvent> cf = 
+        DefaultKafkaConsumerFactory<String, RecommendationBatchEvent> cf = 
                 new DefaultKafkaConsumerFactory<>(consumerProps, new StringDeserializer(), deserializer);
 
-        ContainerProperties containerProperties = new ContainerProperties("recommendation.created");
-        KafkaMessageListenerContainer<String, RecommendationCreatedEvent> container = 
+        ContainerProperties containerProperties = new ContainerProperties("recommendation.created.batch");
+        KafkaMessageListenerContainer<String, RecommendationBatchEvent> container = 
                 new KafkaMessageListenerContainer<>(cf, containerProperties);
         
-        container.setupMessageListener((MessageListener<String, RecommendationCreatedEvent>) record -> queue.add(record.value()));
+        container.setupMessageListener((MessageListener<String, RecommendationBatchEvent>) record -> queue.addAll(record.value().toEvents()));
         container.start();
     }
 }
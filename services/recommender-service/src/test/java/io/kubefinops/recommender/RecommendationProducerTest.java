@@ -1,16 +1,39 @@
 package io.kubefinops.recommender;
 
+import io.kubefinops.event.RecommendationBatchEvent;
 import io.kubefinops.event.RecommendationCreatedEvent;
-import io.kubefinops.recommender.client.PrometheusClient;
+import io.kubefinops.recommender.client.QueryRejectedException;
+import io.kubefinops.recommender.config.AnalysisProperties;
+import io.kubefinops.recommender.config.HysteresisProperties;
+import io.kubefinops.recommender.config.OffloadProperties;
+import io.kubefinops.recommender.domain.Workload;
+import io.kubefinops.recommender.usage.UsageSource;
+import io.kubefinops.recommender.usage.WorkloadUsage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -23,7 +46,7 @@ class RecommendationProducerTest {
     private StreamBridge streamBridge;
 
     @Mock
-    private PrometheusClient prometheusClient;
+    private UsageSource usageSource;
 
     @Mock
     private CostCalculator costCalculator;
@@ -37,15 +60,30 @@ class RecommendationProducerTest {
     @Mock
     private io.micrometer.core.instrument.Counter counter;
 
+    @Mock
+    private io.micrometer.core.instrument.Timer timer;
+
+    @Mock
+    private WorkloadInventory workloadInventory;
+
+    @Spy
+    private AnalysisProperties analysisProperties = new AnalysisProperties();
+
+    @Spy
+    private BlockingOffloader offloader = new BlockingOffloader(new OffloadProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private SuggestionHysteresis hysteresis = new SuggestionHysteresis(new HysteresisProperties(), new SimpleMeterRegistry());
+
     @InjectMocks
     private RecommendationProducer recommendationProducer;
 
     /**
      * Unit test for RecommendationProducer verifying the complete recommendation generation flow:
-     * 1. Mocks Prometheus client to return P95 CPU and memory usage metrics
+     * 1. Mocks the usage source to return P95 CPU and memory usage metrics
      * 2. Mocks cost calculator to return estimated monthly savings
      * 3. Triggers recommendation generation
-     * 4. Verifies that the generated RecommendationCreatedEvent is sent to the correct Kafka topic
+     * 4. Verifies that the generated recommendation is sent to the batch Kafka topic, in its namespace batch
      * 5. Validates the event contains correct namespace, workload reference, and savings amount
      */
     @Test
@@ -53,21 +91,200 @@ class RecommendationProducerTest {
         // Given
         double mockCpuUsage = 0.100; // 100m
         double mockMemUsage = 1024 * 1024 * 128.0; // 128Mi
-        when(prometheusClient.getP95CpuUsage(anyString(), anyString())).thenReturn(Mono.just(mockCpuUsage));
-        when(prometheusClient.getP95MemoryUsage(anyString(), anyString())).thenReturn(Mono.just(mockMemUsage));
-        when(costCalculator.calculateMonthlySavings(anyMap(), anyMap())).thenReturn(10.0);
+        when(usageSource.namespaceUsage("dev")).thenReturn(Mono.just(Map.of("nginx", new WorkloadUsage(mockCpuUsage, mockMemUsage))));
+        when(costCalculator.calculateMonthlySavings(any(CostBatch.class))).thenAnswer(invocation -> savingsOf(invocation.getArgument(0), 10.0));
         when(meterRegistry.counter(anyString(), any(String[].class))).thenReturn(counter);
+        when(meterRegistry.timer(anyString(), any(String[].class))).thenReturn(timer);
+        when(workloadInventory.discoverWorkloads()).thenReturn(Mono.just(List.of(new Workload("dev", "nginx"))));
         
         // When
         recommendationProducer.generateRecommendation();
 
         // Then
-        ArgumentCaptor<RecommendationCreatedEvent> eventCaptor = ArgumentCaptor.forClass(RecommendationCreatedEvent.class);
-        verify(streamBridge, timeout(2000)).send(eq("recommendationCreated-out-0"), eventCaptor.capture());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<RecommendationBatchEvent>> batchCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(timer, timeout(2000)).record(any(Duration.class));
+        verify(streamBridge).send(eq("recommendationBatch-out-0"), batchCaptor.capture());
         
-        RecommendationCreatedEvent event = eventCaptor.getValue();
+        assertThat(batchCaptor.getValue().getHeaders().get(KafkaHeaders.KEY, byte[].class)).isEqualTo("dev".getBytes(StandardCharsets.UTF_8));
+        assertThat(batchCaptor.getValue().getPayload().getRecommendations()).hasSize(1);
+        RecommendationCreatedEvent event = batchCaptor.getValue().getPayload().toEvents().get(0);
         assertEquals("dev", event.getNamespace());
         assertEquals("deployment/nginx", event.getWorkloadRef());
         assertEquals(10.0, event.getEstimatedMonthlySavings());
     }
+
+    /**
+     * Unit test verifying that a single pass analyzes every discovered workload across namespaces,
+     * looks up usage once per namespace, and publishes one recommendation per workload in one batch per namespace.
+     */
+    @Test
+    void shouldAnalyzeEveryDiscoveredWorkloadInOnePass() {
+        // Given
+        List<Workload> fleet = List.of(
+                new Workload("dev", "nginx"),
+                new Workload("dev", "api"),
+                new Workload("staging", "worker"));
+        when(workloadInventory.discoverWorkloads()).thenReturn(Mono.just(fleet));
+        when(usageSource.namespaceUsage("dev")).thenReturn(Mono.just(Map.of(
+                "nginx", new WorkloadUsage(0.2, 256 * 1024 * 1024.0),
+                "api", new WorkloadUsage(0.3, 0.0))));
+        when(usageSource.namespaceUsage("staging")).thenReturn(Mono.just(Map.of(
+                "worker", new WorkloadUsage(0.1, 128 * 1024 * 1024.0))));
+        when(costCalculator.calculateMonthlySavings(any(CostBatch.class))).thenAnswer(invocation -> savingsOf(invocation.getArgument(0), 5.0));
+        when(meterRegistry.counter(anyString(), any(String[].class))).thenReturn(counter);
+        when(meterRegistry.timer(anyString(), any(String[].class))).thenReturn(timer);
+
+        // When
+        recommendationProducer.generateRecommendation();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<RecommendationBatchEvent>> batchCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge, timeout(2000).times(2)).send(eq("recommendationBatch-out-0"), batchCaptor.capture());
+
+        Set<String> analyzed = batchCaptor.getAllValues().stream()
+                .flatMap(batch -> batch.getPayload().toEvents().stream())
+                .map(e -> e.getNamespace() + "/" + e.getWorkloadRef())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("dev/deployment/nginx", "dev/deployment/api", "staging/deployment/worker"), analyzed);
+        verify(timer).record(any(Duration.class));
+        verify(usageSource).namespaceUsage("dev");
+        verify(usageSource).namespaceUsage("staging");
+    }
+
+    /**
+     * Unit test verifying that workloads without usage data are skipped instead of being sized as idle,
+     * and that a namespace whose usage lookup fails publishes nothing.
+     */
+    @Test
+    void shouldSkipWorkloadsWithMissingUsage() {
+        // Given
+        List<Workload> fleet = List.of(
+                new Workload("dev", "nginx"),
+                new Workload("dev", "api"),
+                new Workload("staging", "worker"));
+        when(workloadInventory.discoverWorkloads()).thenReturn(Mono.just(fleet));
+        when(usageSource.namespaceUsage("dev")).thenReturn(Mono.just(Map.of(
+                "nginx", new WorkloadUsage(0.2, 256 * 1024 * 1024.0))));
+        when(usageSource.namespaceUsage("staging")).thenReturn(Mono.error(new QueryRejectedException("queue full")));
+        when(costCalculator.calculateMonthlySavings(any(CostBatch.class))).thenAnswer(invocation -> savingsOf(invocation.getArgument(0), 5.0));
+        when(meterRegistry.counter(anyString(), any(String[].class))).thenReturn(counter);
+        when(meterRegistry.timer(anyString(), any(String[].class))).thenReturn(timer);
+
+        // When
+        recommendationProducer.generateRecommendation();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<RecommendationBatchEvent>> batchCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(timer, timeout(2000)).record(any(Duration.class));
+        verify(streamBridge, times(1)).send(eq("recommendationBatch-out-0"), batchCaptor.capture());
+        assertThat(batchCaptor.getValue().getPayload().toEvents()).extracting(RecommendationCreatedEvent::getWorkloadRef).containsExactly("deployment/nginx");
+    }
+
+    /**
+     * Unit test verifying that publishing is moved off the thread that delivered the usage data
+     * (a non-blocking thread, like the Netty event loop of a WebClient response).
+     */
+    @Test
+    void shouldPublishOffNonBlockingThreads() {
+        // Given
+        when(workloadInventory.discoverWorkloads()).thenReturn(Mono.just(List.of(new Workload("dev", "nginx"))));
+        when(usageSource.namespaceUsage("dev")).thenReturn(Mono.just(Map.of("nginx", new WorkloadUsage(0.1, 128 * 1024 * 1024.0)))
+                .publishOn(Schedulers.parallel()));
+        when(costCalculator.calculateMonthlySavings(any(CostBatch.class))).thenAnswer(invocation -> savingsOf(invocation.getArgument(0), 5.0));
+        when(meterRegistry.counter(anyString(), any(String[].class))).thenReturn(counter);
+        when(meterRegistry.timer(anyString(), any(String[].class))).thenReturn(timer);
+        AtomicReference<String> publishThread = new AtomicReference<>();
+        when(streamBridge.send(anyString(), any())).thenAnswer(invocation -> {
+            publishThread.set(Thread.currentThread().getName());
+            return true;
+        });
+
+        // When
+        recommendationProducer.generateRecommendation();
+
+        // Then
+        verify(timer, timeout(2000)).record(any(Duration.class));
+        assertThat(publishThread.get()).startsWith("recommender-offload-");
+    }
+
+    /**
+     * Unit test verifying that with batching disabled every recommendation is published as its own
+     * RecommendationCreatedEvent, for consumers that do not read the batch topic yet.
+     */
+    @Test
+    void shouldPublishSingleEventsWhenBatchingDisabled() {
+        // Given
+        analysisProperties.setBatchSize(0);
+        when(workloadInventory.discoverWorkloads()).thenReturn(Mono.just(List.of(new Workload("dev", "nginx"), new Workload("dev", "api"))));
+        when(usageSource.namespaceUsage("dev")).thenReturn(Mono.just(Map.of(
+                "nginx", new WorkloadUsage(0.2, 256 * 1024 * 1024.0),
+                "api", new WorkloadUsage(0.3, 128 * 1024 * 1024.0))));
+        when(costCalculator.calculateMonthlySavings(any(CostBatch.class))).thenAnswer(invocation -> savingsOf(invocation.getArgument(0), 5.0));
+        when(meterRegistry.counter(anyString(), any(String[].class))).thenReturn(counter);
+        when(meterRegistry.timer(anyString(), any(String[].class))).thenReturn(timer);
+
+        // When
+        recommendationProducer.generateRecommendation();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<RecommendationCreatedEvent>> eventCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(timer, timeout(2000)).record(any(Duration.class));
+        verify(streamBridge, times(2)).send(eq("recommendationCreated-out-0"), eventCaptor.capture());
+        verify(streamBridge, never()).send(eq("recommendationBatch-out-0"), any());
+        assertThat(eventCaptor.getAllValues()).allSatisfy(message -> {
+            RecommendationCreatedEvent event = message.getPayload();
+            assertThat(event.getNamespace()).isEqualTo("dev");
+            assertThat(event.getCreatedAt()).isNotNull();
+            assertThat(new String(message.getHeaders().get(KafkaHeaders.KEY, byte[].class), StandardCharsets.UTF_8))
+                    .isEqualTo("dev/" + event.getWorkloadRef());
+        });
+    }
+
+    /**
+     * Unit test verifying that a second pass over unchanged usage publishes nothing: every suggestion is
+     * inside the hysteresis band of the one published by the first pass.
+     */
+    @Test
+    void shouldNotRepublishUnchangedSuggestions() {
+        // Given
+        when(workloadInventory.discoverWorkloads()).thenReturn(Mono.just(List.of(new Workload("dev", "nginx"), new Workload("dev", "api"))));
+        when(usageSource.namespaceUsage("dev")).thenReturn(Mono.just(Map.of(
+                "nginx", new WorkloadUsage(0.2, 256 * 1024 * 1024.0),
+                "api", new WorkloadUsage(0.3, 128 * 1024 * 1024.0))));
+        when(costCalculator.calculateMonthlySavings(any(CostBatch.class))).thenAnswer(invocation -> savingsOf(invocation.getArgument(0), 5.0));
+        when(meterRegistry.counter(anyString(), any(String[].class))).thenReturn(counter);
+        when(meterRegistry.timer(anyString(), any(String[].class))).thenReturn(timer);
+        recommendationProducer.generateRecommendation();
+        verify(timer, timeout(2000)).record(any(Duration.class));
+
+        // When: the next tick, once the first pass has released it (a tick during the first pass is skipped)
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() -> {
+            recommendationProducer.generateRecommendation();
+            verify(hysteresis, times(2)).evictExpired();
+        });
+
+        // Then
+        verify(timer, timeout(2000).times(2)).record(any(Duration.class));
+        verify(streamBridge, times(1)).send(eq("recommendationBatch-out-0"), any());
+        verify(hysteresis, times(4)).shouldEmit(eq("dev"), anyString(), any());
+        verify(hysteresis, times(2)).recordEmitted(eq("dev"), anyString(), any());
+        verify(reportService, times(2)).generateAndStoreReport(anyString(), anyString(), any(), any());
+    }
+
+    /**
+     * Builds the savings column a stubbed {@link CostCalculator} returns for a batch.
+     *
+     * @param batch   The priced batch.
+     * @param savings The savings of every workload.
+     * @return The savings column.
+     */
+    private static double[] savingsOf(CostBatch batch, double savings) {
+        double[] column = new double[batch.size()];
+        Arrays.fill(column, savings);
+        return column;
+    }
 }
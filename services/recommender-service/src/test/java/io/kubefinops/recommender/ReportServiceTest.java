@@ -0,0 +1,162 @@
+package io.kubefinops.recommender;
+
+import io.kubefinops.recommender.config.ReportArchiveProperties;
+import io.kubefinops.recommender.domain.RecommendationReport;
+import io.kubefinops.recommender.repository.RecommendationReportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private RecommendationReportRepository repository;
+
+    @Mock
+    private MinioClient minioClient;
+
+    @Mock
+    private MinioAsyncClient minioAsyncClient;
+
+    @Mock
+    private BlockingOffloader offloader;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        ReportArchiveProperties properties = new ReportArchiveProperties();
+        properties.setMaxBatchSize(3);
+        reportService = new ReportService(repository, minioClient, minioAsyncClient, properties, meterRegistry, offloader);
+        ReflectionTestUtils.setField(reportService, "bucketName", "reports");
+        ReflectionTestUtils.setField(reportService, "bucketReady", true);
+    }
+
+    /**
+     * Unit test verifying that a full batch is written as one gzip NDJSON segment and indexed with one
+     * bulk insert, each report pointing at its segment line, and that the remainder waits for the next flush.
+     */
+    @Test
+    void shouldArchiveFullBatchAsOneSegment() throws Exception {
+        // Given
+        when(minioAsyncClient.putObject(any(PutObjectArgs.class))).thenReturn(CompletableFuture.completedFuture(null));
+        when(offloader.executor()).thenReturn(Runnable::run);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            reportService.generateAndStoreReport("rec-" + i, "deployment/app-" + i, Map.of("cpu", "100m"), 1.0);
+        }
+
+        // Then
+        ArgumentCaptor<PutObjectArgs> upload = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(minioAsyncClient, times(1)).putObject(upload.capture());
+        byte[] segment = upload.getValue().stream().readAllBytes();
+        assertThat(upload.getValue().objectSize()).isEqualTo(segment.length);
+        String[] lines = gunzip(segment).split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).contains("\"recommendationId\":\"rec-0\"");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RecommendationReport>> indexed = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).insert(indexed.capture());
+        assertThat(indexed.getValue()).extracting(RecommendationReport::getSegmentLine).containsExactly(0, 1, 2);
+        assertThat(indexed.getValue().get(2).getS3Path())
+                .isEqualTo("s3://reports/" + upload.getValue().object())
+                .endsWith(".ndjson.gz");
+        assertThat(meterRegistry.summary("report_archive_batch_size").totalAmount()).isEqualTo(3);
+
+        // When the interval elapses, the remainder is flushed as its own segment
+        reportService.flush();
+        verify(minioAsyncClient, times(2)).putObject(any(PutObjectArgs.class));
+        assertThat(meterRegistry.get("report_archive_pending").gauge().value()).isZero();
+    }
+
+    /**
+     * Unit test verifying that a failed upload skips the index insert and counts the dropped reports.
+     */
+    @Test
+    void shouldCountReportsOfFailedUpload() throws Exception {
+        // Given
+        when(minioAsyncClient.putObject(any(PutObjectArgs.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("minio down")));
+        reportService.generateAndStoreReport("rec-0", "deployment/app", Map.of("cpu", "100m"), 1.0);
+
+        // When
+        reportService.flush();
+
+        // Then
+        verify(repository, never()).insert(any(Iterable.class));
+        assertThat(meterRegistry.counter("report_archive_dropped_total", "reason", "error").count()).isEqualTo(1);
+    }
+
+    /**
+     * Unit test verifying that the bulk index insert runs on the offload executor, not on the thread
+     * completing the MinIO upload.
+     */
+    @Test
+    void shouldIndexOnOffloadExecutor() throws Exception {
+        // Given
+        when(minioAsyncClient.putObject(any(PutObjectArgs.class))).thenReturn(CompletableFuture.completedFuture(null));
+        List<Runnable> offloaded = new ArrayList<>();
+        when(offloader.executor()).thenReturn(offloaded::add);
+        reportService.generateAndStoreReport("rec-0", "deployment/app", Map.of("cpu", "100m"), 1.0);
+
+        // When
+        reportService.flush();
+
+        // Then
+        verify(repository, never()).insert(any(Iterable.class));
+        assertThat(offloaded).hasSize(1);
+        offloaded.get(0).run();
+        verify(repository).insert(any(Iterable.class));
+    }
+
+    /**
+     * Unit test verifying that the shutdown flush records its latency from the oldest buffered report,
+     * like a scheduled flush, rather than only the upload time.
+     */
+    @Test
+    void shouldMeasureShutdownFlushFromOldestReport() throws Exception {
+        // Given
+        when(minioAsyncClient.putObject(any(PutObjectArgs.class))).thenReturn(CompletableFuture.completedFuture(null));
+        when(offloader.executor()).thenReturn(Runnable::run);
+        reportService.generateAndStoreReport("rec-0", "deployment/app", Map.of("cpu", "100m"), 1.0);
+        Thread.sleep(50);
+
+        // When
+        reportService.flushOnShutdown();
+
+        // Then
+        verify(repository).insert(any(Iterable.class));
+        assertThat(meterRegistry.timer("report_archive_flush_latency").totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(50.0);
+    }
+
+    private static String gunzip(byte[] compressed) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.kubefinops.recommender;
+
+import io.kubefinops.event.ResourceQuantities;
+import io.kubefinops.recommender.config.HysteresisProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionHysteresisTest {
+
+    private static final long MIB = 1024 * 1024;
+    private static final String REF = "deployment/api";
+
+    /**
+     * Unit test verifying that suggestions inside the hysteresis band are suppressed until the max age,
+     * that a change beyond both thresholds is emitted, and that both decisions are counted, emissions only
+     * once published.
+     */
+    @Test
+    void shouldSuppressInsignificantChanges() {
+        // Given
+        HysteresisProperties properties = new HysteresisProperties();
+        properties.setMaxAge(Duration.ofHours(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SuggestionHysteresis hysteresis = new SuggestionHysteresis(properties, meterRegistry);
+        long now = 1_700_000_000_000L;
+
+        // When / Then: first suggestion is always emitted
+        assertThat(hysteresis.shouldEmit("dev", REF, new ResourceQuantities(1000, 1024 * MIB), now)).isTrue();
+        hysteresis.recordEmitted("dev", REF, new ResourceQuantities(1000, 1024 * MIB), now);
+
+        // +8% CPU (above 50m but below 10%) and +32Mi memory (below 64Mi) stay inside the band
+        assertThat(hysteresis.shouldEmit("dev", REF, new ResourceQuantities(1080, 1056 * MIB), now + 1000)).isFalse();
+
+        // +15% CPU leaves the band, but is only counted as emitted once published
+        assertThat(hysteresis.shouldEmit("dev", REF, new ResourceQuantities(1150, 1024 * MIB), now + 2000)).isTrue();
+        assertThat(meterRegistry.counter("recommender_hysteresis_total", "decision", "emitted", "reason", "changed").count()).isZero();
+        hysteresis.recordEmitted("dev", REF, new ResourceQuantities(1150, 1024 * MIB), now + 2000);
+
+        // An unchanged suggestion is re-emitted once the last emission is older than the max age
+        // (eviction at the start of the pass keeps it, so its re-emission is counted as expired)
+        long expired = now + 2000 + Duration.ofHours(1).toMillis();
+        hysteresis.evictExpired(expired);
+        assertThat(hysteresis.shouldEmit("dev", REF, new ResourceQuantities(1150, 1024 * MIB), expired)).isTrue();
+        hysteresis.recordEmitted("dev", REF, new ResourceQuantities(1150, 1024 * MIB), expired);
+
+        assertThat(meterRegistry.counter("recommender_hysteresis_total", "decision", "suppressed", "reason", "unchanged").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("recommender_hysteresis_total", "decision", "emitted", "reason", "first").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("recommender_hysteresis_total", "decision", "emitted", "reason", "changed").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("recommender_hysteresis_total", "decision", "emitted", "reason", "expired").count()).isEqualTo(1);
+    }
+
+    /**
+     * Unit test verifying that emissions are only forgotten once they are older than twice the max age.
+     */
+    @Test
+    void shouldEvictEmissionsAfterTwiceTheMaxAge() {
+        // Given
+        HysteresisProperties properties = new HysteresisProperties();
+        properties.setMaxAge(Duration.ofHours(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SuggestionHysteresis hysteresis = new SuggestionHysteresis(properties, meterRegistry);
+        long now = 1_700_000_000_000L;
+        hysteresis.recordEmitted("dev", REF, new ResourceQuantities(1000, 1024 * MIB), now);
+
+        // When
+        hysteresis.evictExpired(now + Duration.ofHours(2).toMillis());
+        hysteresis.recordEmitted("dev", REF, new ResourceQuantities(1000, 1024 * MIB), now + Duration.ofHours(2).toMillis());
+        hysteresis.evictExpired(now + Duration.ofHours(4).toMillis() + 1);
+        hysteresis.recordEmitted("dev", REF, new ResourceQuantities(1000, 1024 * MIB), now + Duration.ofHours(4).toMillis() + 1);
+
+        // Then
+        assertThat(meterRegistry.counter("recommender_hysteresis_total", "decision", "emitted", "reason", "expired").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("recommender_hysteresis_total", "decision", "emitted", "reason", "first").count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,97 @@
+package io.kubefinops.recommender.client;
+
+import io.kubefinops.recommender.config.PrometheusLimiterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Unit test verifying that the limit grows additively on fast successes and is halved on errors.
+     */
+    @Test
+    void shouldIncreaseAdditivelyAndDecreaseMultiplicatively() {
+        PrometheusLimiterProperties properties = new PrometheusLimiterProperties();
+        properties.setInitialLimit(4);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        for (int i = 0; i < 4; i++) {
+            limiter.run(() -> Flux.just(1)).blockLast();
+        }
+        assertThat(limiter.limit()).isBetween(4.9, 5.0);
+
+        limiter.run(() -> Flux.error(new IllegalStateException("503"))).onErrorResume(e -> Flux.empty()).blockLast();
+        assertThat(limiter.limit()).isBetween(2.45, 2.5);
+        assertThat(meterRegistry.get("prometheus_query_limit").gauge().value()).isEqualTo(limiter.limit());
+    }
+
+    /**
+     * Unit test verifying that queries above the limit wait in the queue, and are shed once the queue is full.
+     */
+    @Test
+    void shouldQueueAboveTheLimitAndShedWhenTheQueueIsFull() {
+        PrometheusLimiterProperties properties = new PrometheusLimiterProperties();
+        properties.setInitialLimit(1);
+        properties.setMaxQueue(1);
+        properties.setQueueTimeout(Duration.ofSeconds(30));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        Sinks.One<Integer> slow = Sinks.one();
+
+        limiter.run(() -> slow.asMono().flux()).subscribe();
+        Flux<Integer> queued = limiter.run(() -> Flux.just(2));
+        Integer[] queuedResult = new Integer[1];
+        queued.subscribe(value -> queuedResult[0] = value);
+
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.queueDepth()).isEqualTo(1);
+        assertThatThrownBy(() -> limiter.run(() -> Flux.just(3)).blockLast())
+                .isInstanceOf(QueryRejectedException.class);
+        assertThat(meterRegistry.counter("prometheus_query_rejected_total").count()).isEqualTo(1.0);
+
+        slow.tryEmitValue(1);
+        assertThat(queuedResult[0]).isEqualTo(2);
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.queueDepth()).isZero();
+    }
+
+    /**
+     * Unit test verifying that queries granted a slot, immediately or from the queue, and queries shed
+     * because the queue is full, are signalled outside the limiter lock, so downstream code never runs
+     * while holding it.
+     */
+    @Test
+    void shouldSignalWaitingQueriesOutsideTheLock() {
+        PrometheusLimiterProperties properties = new PrometheusLimiterProperties();
+        properties.setInitialLimit(1);
+        properties.setMaxQueue(1);
+        properties.setQueueTimeout(Duration.ofSeconds(30));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        Sinks.One<Integer> slow = Sinks.one();
+        List<Boolean> lockHeld = new ArrayList<>();
+
+        limiter.run(() -> {
+            lockHeld.add(Thread.holdsLock(limiter));
+            return slow.asMono().flux();
+        }).subscribe();
+        limiter.run(() -> {
+            lockHeld.add(Thread.holdsLock(limiter));
+            return Flux.just(2);
+        }).subscribe();
+        limiter.run(() -> Flux.just(3)).subscribe(value -> { }, e -> lockHeld.add(Thread.holdsLock(limiter)));
+        slow.tryEmitValue(1);
+
+        assertThat(lockHeld).containsExactly(false, false, false);
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,93 @@
+package io.kubefinops.recommender.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrometheusResponseDecoderTest {
+
+    /**
+     * Splits a response body into fixed-size chunks to simulate a streamed HTTP body
+     * whose chunk boundaries fall inside tokens.
+     *
+     * @param json      The response body.
+     * @param chunkSize The chunk size in bytes.
+     * @return A Flux of data buffers.
+     */
+    private Flux<DataBuffer> chunked(String json, int chunkSize) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            int len = Math.min(chunkSize, bytes.length - i);
+            DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.allocateBuffer(len);
+            buffer.write(bytes, i, len);
+            buffers.add(buffer);
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+    /**
+     * Unit test verifying that a vector result split into 7-byte chunks is decoded into one
+     * typed sample per series, with labels and primitive timestamp/value intact.
+     */
+    @Test
+    void shouldDecodeVectorAcrossChunkBoundaries() {
+        String json = """
+                {"status":"success","data":{"resultType":"vector","result":[
+                  {"metric":{"namespace":"dev","workload":"nginx"},"value":[1643061600.5,"0.150"]},
+                  {"metric":{"namespace":"dev","workload":"api"},"value":[1643061600,"2.5e3"]}
+                ]}}""";
+
+        List<PromSample> samples = PrometheusResponseDecoder.decode(chunked(json, 7)).collectList().block();
+
+        assertThat(samples).hasSize(2);
+        assertThat(samples.get(0).label("workload")).isEqualTo("nginx");
+        assertThat(samples.get(0).getTimestampMillis()).isEqualTo(1643061600500L);
+        assertThat(samples.get(0).getValue()).isEqualTo(0.150);
+        assertThat(samples.get(1).label("workload")).isEqualTo("api");
+        assertThat(samples.get(1).getValue()).isEqualTo(2500.0);
+    }
+
+    /**
+     * Unit test verifying that range matrices emit every sample of every series, that samples
+     * of one series share its labels, and that NaN/Inf values are understood.
+     */
+    @Test
+    void shouldDecodeMatrixWithSpecialValues() {
+        String json = """
+                {"status":"success","data":{"resultType":"matrix","result":[
+                  {"metric":{"pod":"nginx-6d4cf56db6-abcde"},"values":[[100,"1"],[130,"NaN"],[160,"+Inf"]]},
+                  {"metric":{"pod":"api-7b9c8d7f6-xyz12"},"values":[[100,"-Inf"]]}
+                ]},"warnings":["ignored"]}""";
+
+        List<PromSample> samples = PrometheusResponseDecoder.decode(chunked(json, 3)).collectList().block();
+
+        assertThat(samples).hasSize(4);
+        assertThat(samples.get(0).getLabels()).isSameAs(samples.get(2).getLabels());
+        assertThat(samples.get(0).getTimestampMillis()).isEqualTo(100_000L);
+        assertThat(samples.get(1).getValue()).isNaN();
+        assertThat(samples.get(2).getValue()).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(samples.get(3).label("pod")).isEqualTo("api-7b9c8d7f6-xyz12");
+        assertThat(samples.get(3).getValue()).isEqualTo(Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Unit test verifying that an error response from Prometheus surfaces as an error signal.
+     */
+    @Test
+    void shouldFailOnErrorStatus() {
+        String json = "{\"status\":\"error\",\"errorType\":\"bad_data\",\"error\":\"parse error\"}";
+
+        assertThatThrownBy(() -> PrometheusResponseDecoder.decode(chunked(json, 5)).collectList().block())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("bad_data");
+    }
+}
@@ -0,0 +1,129 @@
+package io.kubefinops.recommender.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryCache cache = new QueryCache(Duration.ofMinutes(1), Duration.ofMinutes(1), 100, 10, meterRegistry);
+
+    private double count(String result) {
+        return meterRegistry.counter("prometheus_query_cache_total", "result", result).count();
+    }
+
+    /**
+     * Unit test verifying that concurrent callers of the same query share one in-flight request
+     * and that later callers are served from the cache.
+     */
+    @Test
+    void shouldCoalesceInFlightQueriesAndCacheTheResult() {
+        AtomicInteger requests = new AtomicInteger();
+        Sinks.One<PromSample> response = Sinks.one();
+        PromSample sample = new PromSample(Map.of("workload", "nginx"), 0L, 0.15);
+
+        Flux<PromSample> first = cache.get("q", () -> {
+            requests.incrementAndGet();
+            return response.asMono().flux();
+        });
+        Flux<PromSample> second = cache.get("q", () -> {
+            requests.incrementAndGet();
+            return Flux.empty();
+        });
+        List<PromSample> firstResult = new ArrayList<>();
+        List<PromSample> secondResult = new ArrayList<>();
+        first.subscribe(firstResult::add);
+        second.subscribe(secondResult::add);
+        response.tryEmitValue(sample);
+
+        assertThat(firstResult).containsExactly(sample);
+        assertThat(secondResult).containsExactly(sample);
+        assertThat(cache.get("q", Flux::empty).collectList().block()).containsExactly(sample);
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(count("miss")).isEqualTo(1.0);
+        assertThat(count("coalesced")).isEqualTo(1.0);
+        assertThat(count("hit")).isEqualTo(1.0);
+    }
+
+    /**
+     * Unit test verifying that a failed query is not cached, so the next caller retries it.
+     */
+    @Test
+    void shouldNotCacheFailures() {
+        AtomicInteger requests = new AtomicInteger();
+
+        cache.get("q", () -> {
+            requests.incrementAndGet();
+            return Flux.error(new IllegalStateException("boom"));
+        }).onErrorResume(e -> Flux.empty()).blockLast();
+        List<PromSample> retried = cache.get("q", () -> {
+            requests.incrementAndGet();
+            return Flux.just(new PromSample(Map.of(), 0L, 1.0));
+        }).collectList().block();
+
+        assertThat(retried).hasSize(1);
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    /**
+     * Unit test verifying that a load that hangs, or that nobody subscribes to, does not pin its key:
+     * the hung load fails after the load timeout and the stale in-flight entry is replaced by a new load.
+     */
+    @Test
+    void shouldExpireInFlightLoadsAfterTimeout() throws InterruptedException {
+        QueryCache shortCache = new QueryCache(Duration.ofMinutes(1), Duration.ofMillis(50), 100, 10, meterRegistry);
+        AtomicInteger requests = new AtomicInteger();
+
+        shortCache.get("hung", () -> {
+            requests.incrementAndGet();
+            return Flux.never();
+        }).onErrorResume(e -> Flux.empty()).blockLast(Duration.ofSeconds(5));
+        shortCache.get("unsubscribed", () -> {
+            requests.incrementAndGet();
+            return Flux.never();
+        });
+        Thread.sleep(100);
+        List<PromSample> hung = shortCache.get("hung", () -> {
+            requests.incrementAndGet();
+            return Flux.just(new PromSample(Map.of(), 0L, 1.0));
+        }).collectList().block();
+        List<PromSample> unsubscribed = shortCache.get("unsubscribed", () -> {
+            requests.incrementAndGet();
+            return Flux.just(new PromSample(Map.of(), 0L, 2.0));
+        }).collectList().block();
+
+        assertThat(hung).extracting(PromSample::getValue).containsExactly(1.0);
+        assertThat(unsubscribed).extracting(PromSample::getValue).containsExactly(2.0);
+        assertThat(requests.get()).isEqualTo(3);
+    }
+
+    /**
+     * Unit test verifying that results larger than the entry bound are returned but not retained.
+     */
+    @Test
+    void shouldNotRetainOversizedResults() {
+        AtomicInteger requests = new AtomicInteger();
+        Supplier<Flux<PromSample>> large = () -> {
+            requests.incrementAndGet();
+            return Flux.range(0, 11).map(i -> new PromSample(Map.of(), 0L, i));
+        };
+
+        assertThat(cache.get("large", large).collectList().block()).hasSize(11);
+        assertThat(cache.get("large", large).collectList().block()).hasSize(11);
+
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(cache.size()).isZero();
+    }
+}
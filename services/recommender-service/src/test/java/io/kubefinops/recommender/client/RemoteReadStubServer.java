@@ -0,0 +1,135 @@
+package io.kubefinops.recommender.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for a Prometheus remote-read endpoint, serving an in-memory dataset.
+ * Decodes the snappy-compressed ReadRequest, applies the label matchers and time range,
+ * and streams the matching series back as framed ChunkedReadResponses.
+ */
+class RemoteReadStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final List<RawSeries> dataset;
+    private final int seriesPerFrame;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile List<LabelMatcher> lastMatchers = List.of();
+
+    RemoteReadStubServer(List<RawSeries> dataset, int seriesPerFrame) throws IOException {
+        this.dataset = dataset;
+        this.seriesPerFrame = seriesPerFrame;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/api/v1/read", this::handle);
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int requestCount() {
+        return requests.get();
+    }
+
+    List<LabelMatcher> lastMatchers() {
+        return lastMatchers;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        byte[] request = Snappy.uncompress(exchange.getRequestBody().readAllBytes());
+
+        long start = 0;
+        long end = Long.MAX_VALUE;
+        List<LabelMatcher> matchers = new ArrayList<>();
+        ProtoReader readRequest = new ProtoReader(request, 0, request.length);
+        for (int field; (field = readRequest.next()) != -1; ) {
+            if (field != 1) {
+                readRequest.skip();
+                continue;
+            }
+            ProtoReader query = readRequest.message();
+            for (int queryField; (queryField = query.next()) != -1; ) {
+                switch (queryField) {
+                    case 1 -> start = query.varint();
+                    case 2 -> end = query.varint();
+                    case 3 -> matchers.add(readMatcher(query.message()));
+                    default -> query.skip();
+                }
+            }
+        }
+        lastMatchers = matchers;
+
+        exchange.getResponseHeaders().add("Content-Type", "application/x-streamed-protobuf; proto=prometheus.ChunkedReadResponse");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            List<RawSeries> frame = new ArrayList<>();
+            for (RawSeries series : dataset) {
+                if (!matches(series, matchers)) continue;
+                RawSeries inRange = slice(series, start, end);
+                if (inRange.getSize() == 0) continue;
+                frame.add(inRange);
+                if (frame.size() == seriesPerFrame) {
+                    out.write(RemoteReadEncoder.encodeFrame(frame, 0, 120));
+                    frame.clear();
+                }
+            }
+            if (!frame.isEmpty()) out.write(RemoteReadEncoder.encodeFrame(frame, 0, 120));
+        }
+    }
+
+    private LabelMatcher readMatcher(ProtoReader matcher) {
+        int type = 0;
+        String name = "";
+        String value = "";
+        for (int field; (field = matcher.next()) != -1; ) {
+            switch (field) {
+                case 1 -> type = (int) matcher.varint();
+                case 2 -> name = matcher.string();
+                case 3 -> value = matcher.string();
+                default -> matcher.skip();
+            }
+        }
+        return new LabelMatcher(LabelMatcher.Type.values()[type], name, value);
+    }
+
+    private boolean matches(RawSeries series, List<LabelMatcher> matchers) {
+        for (LabelMatcher matcher : matchers) {
+            String actual = series.getLabels().getOrDefault(matcher.getName(), "");
+            boolean ok = switch (matcher.getType()) {
+                case EQ -> actual.equals(matcher.getValue());
+                case NEQ -> !actual.equals(matcher.getValue());
+                case RE -> actual.matches(matcher.getValue());
+                case NRE -> !actual.matches(matcher.getValue());
+            };
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    private RawSeries slice(RawSeries series, long start, long end) {
+        int from = 0;
+        while (from < series.getSize() && series.getTimestampsMillis()[from] < start) from++;
+        int to = from;
+        while (to < series.getSize() && series.getTimestampsMillis()[to] <= end) to++;
+        return new RawSeries(Map.copyOf(series.getLabels()),
+                Arrays.copyOfRange(series.getTimestampsMillis(), from, to),
+                Arrays.copyOfRange(series.getValues(), from, to), to - from);
+    }
+}
@@ -0,0 +1,135 @@
+package io.kubefinops.recommender.client;
+
+import io.kubefinops.recommender.config.PrometheusCacheProperties;
+import io.kubefinops.recommender.config.PrometheusLimiterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RemoteReadTest {
+
+    /**
+     * Builds a synthetic series with jittered scrape timestamps and a noisy counter-like value.
+     *
+     * @param labels  The series labels.
+     * @param samples The number of samples.
+     * @param seed    The random seed.
+     * @return The series.
+     */
+    static RawSeries syntheticSeries(Map<String, String> labels, int samples, long seed) {
+        Random random = new Random(seed);
+        long[] timestamps = new long[samples];
+        double[] values = new double[samples];
+        long t = 1_700_000_000_000L;
+        double v = 0;
+        for (int i = 0; i < samples; i++) {
+            t += 15_000 + random.nextInt(200) - 100;
+            v += random.nextDouble() * 3;
+            timestamps[i] = t;
+            values[i] = i % 50 == 0 ? Math.round(v) : v;
+        }
+        return new RawSeries(labels, timestamps, values, samples);
+    }
+
+    /**
+     * Unit test verifying that XOR chunks round-trip irregular timestamps, repeated values and
+     * large jumps bit-exactly.
+     */
+    @Test
+    void shouldRoundTripXorChunks() {
+        RawSeries series = syntheticSeries(Map.of(), 1000, 7);
+        series.getTimestampsMillis()[500] += 10_000_000L; // forces the 64-bit delta-of-delta branch
+        series.getValues()[600] = series.getValues()[599];
+
+        byte[] chunk = RemoteReadEncoder.encodeXorChunk(series.getTimestampsMillis(), series.getValues(), 0, series.getSize());
+        SampleBuffer decoded = new SampleBuffer(16);
+        XorChunk.decode(chunk, 0, chunk.length, decoded);
+        RawSeries result = decoded.toSeries(Map.of());
+
+        assertThat(result.getSize()).isEqualTo(series.getSize());
+        for (int i = 0; i < series.getSize(); i++) {
+            assertThat(result.getTimestampsMillis()[i]).isEqualTo(series.getTimestampsMillis()[i]);
+            assertThat(result.getValues()[i]).isEqualTo(series.getValues()[i]);
+        }
+    }
+
+    /**
+     * Unit test decoding a fixed streamed remote-read frame, laid out byte for byte as Prometheus writes
+     * it (storage/remote/chunked.go framing, prompb messages without the default query_index, and a
+     * tsdb/chunkenc/xor.go chunk), so the decoder is checked against the wire format rather than only
+     * against {@link RemoteReadEncoder}. The chunk covers an unchanged value, positive and negative
+     * delta-of-deltas, and both a new and a reused XOR window.
+     */
+    @Test
+    void shouldDecodeGoldenPrometheusFrame() {
+        byte[] frame = HexFormat.of().parseHex(
+                "6e" + "6061cbb1" // uvarint payload length 110, big-endian CRC32C
+                        + "0a6c" // ChunkedReadResponse.chunked_series
+                        + "0a0e0a085f5f6e616d655f5f12027570" // __name__="up"
+                        + "0a1e0a08696e7374616e636512126e6f64652d6578706f727465723a39313030" // instance="node-exporter:9100"
+                        + "0a0b0a036a6f6212046e6f6465" // job="node"
+                        + "122d0880d095ffbc3110c6af98ffbc311801221b" // Chunk min/max time, type XOR, data
+                        + "0004" // 4 samples
+                        + "80a0abfef962" + "3ff0000000000000" // varint t0, raw 1.0
+                        + "98754000e22bffbffcbff0"); // delta 15000, then dod and XOR bit fields
+        DataBuffer body = DefaultDataBufferFactory.sharedInstance.wrap(frame);
+
+        List<RawSeries> result = RemoteReadResponseDecoder.decode(Flux.just(body)).collectList().block();
+
+        assertThat(result).hasSize(1);
+        RawSeries series = result.get(0);
+        assertThat(series.getLabels()).containsExactlyInAnyOrderEntriesOf(
+                Map.of("__name__", "up", "instance", "node-exporter:9100", "job", "node"));
+        assertThat(series.getSize()).isEqualTo(4);
+        assertThat(Arrays.copyOf(series.getTimestampsMillis(), 4))
+                .containsExactly(1_700_000_000_000L, 1_700_000_015_000L, 1_700_000_030_001L, 1_700_000_044_998L);
+        assertThat(Arrays.copyOf(series.getValues(), 4)).containsExactly(1.0, 1.0, 0.0, 1.0);
+    }
+
+    /**
+     * Integration test against the local stand-in server verifying that the client sends a snappy
+     * protobuf ReadRequest with the selector and decodes the streamed chunk frames into raw series.
+     */
+    @Test
+    void shouldReadRawSeriesThroughTheRemoteReadProtocol() throws Exception {
+        List<RawSeries> dataset = new ArrayList<>();
+        for (int pod = 0; pod < 5; pod++) {
+            dataset.add(syntheticSeries(Map.of("__name__", "container_cpu_usage_seconds_total",
+                    "namespace", "dev", "pod", "nginx-6d4cf56db6-" + pod, "container", "nginx"), 400, pod));
+        }
+        dataset.add(syntheticSeries(Map.of("__name__", "container_cpu_usage_seconds_total",
+                "namespace", "prod", "pod", "api-7d9f8b6c5d-x", "container", "api"), 400, 99));
+
+        try (RemoteReadStubServer server = new RemoteReadStubServer(dataset, 2)) {
+            PrometheusClient client = new PrometheusClient(WebClient.builder(), server.baseUrl(),
+                    new PrometheusCacheProperties(), new PrometheusLimiterProperties(), new SimpleMeterRegistry());
+            List<LabelMatcher> matchers = List.of(
+                    LabelMatcher.eq("__name__", "container_cpu_usage_seconds_total"),
+                    LabelMatcher.eq("namespace", "dev"),
+                    LabelMatcher.neq("container", ""));
+
+            List<RawSeries> result = client.remoteRead(matchers, 0, Long.MAX_VALUE).collectList().block();
+
+            assertThat(server.lastMatchers()).isEqualTo(matchers);
+            assertThat(result).hasSize(5);
+            assertThat(result).allSatisfy(series -> assertThat(series.label("namespace")).isEqualTo("dev"));
+            RawSeries first = result.get(0);
+            RawSeries expected = dataset.get(0);
+            assertThat(first.getSize()).isEqualTo(400);
+            assertThat(first.getTimestampsMillis()[399]).isEqualTo(expected.getTimestampsMillis()[399]);
+            assertThat(first.getValues()[399]).isEqualTo(expected.getValues()[399]);
+        }
+    }
+}
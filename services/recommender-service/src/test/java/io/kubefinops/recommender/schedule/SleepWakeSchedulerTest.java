@@ -0,0 +1,137 @@
+package io.kubefinops.recommender.schedule;
+
+import io.kubefinops.event.ScalingBatchEvent;
+import io.kubefinops.event.ScalingTransition;
+import io.kubefinops.recommender.WorkloadInventory;
+import io.kubefinops.recommender.config.SleepScheduleProperties;
+import io.kubefinops.recommender.domain.ScalingSchedule;
+import io.kubefinops.recommender.domain.Workload;
+import io.kubefinops.recommender.repository.ScalingScheduleRepository;
+import io.kubefinops.recommender.shard.ShardCoordinator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
+
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SleepWakeSchedulerTest {
+
+    @Mock
+    private ScalingScheduleRepository repository;
+
+    @Mock
+    private WorkloadInventory workloadInventory;
+
+    @Mock
+    private ShardCoordinator shardCoordinator;
+
+    @Mock
+    private StreamBridge streamBridge;
+
+    /**
+     * Unit test verifying that schedules of different workloads due in the same tick are published as one
+     * batch per namespace, evaluated in each schedule's timezone, and re-armed for their next occurrence.
+     */
+    @Test
+    void shouldBatchDueTransitionsPerNamespace() {
+        // Given
+        when(shardCoordinator.owns(anyString())).thenReturn(true);
+        SleepWakeScheduler scheduler = new SleepWakeScheduler(repository, new SleepScheduleProperties(),
+                workloadInventory, shardCoordinator, streamBridge, new SimpleMeterRegistry());
+        long start = ZonedDateTime.now(ZoneId.of("Europe/Paris"))
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                .withHour(18).truncatedTo(ChronoUnit.HOURS)
+                .toInstant().toEpochMilli();
+        scheduler.apply(List.of(
+                schedule("dev", "api", "Europe/Paris", "0 0 19 * * MON-FRI"),
+                schedule("dev", "web", "Europe/Paris", "0 0 19 * * MON-FRI"),
+                schedule("qa", "api", "America/New_York", "0 0 13 * * MON-FRI")), start);
+
+        // When: 19:00 in Paris is 13:00 in New York
+        scheduler.tick(start + 30 * 60_000);
+        scheduler.tick(start + 60 * 60_000);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<ScalingBatchEvent>> batches = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge, times(2)).send(eq("scalingBatch-out-0"), batches.capture());
+        ScalingBatchEvent dev = batches.getAllValues().stream().map(Message::getPayload)
+                .filter(b -> b.getNamespace().equals("dev")).findFirst().orElseThrow();
+        assertThat(batches.getAllValues()).allSatisfy(m -> assertThat(m.getHeaders()).containsKey(KafkaHeaders.KEY));
+        assertThat(dev.getTransitions()).extracting(ScalingTransition::getWorkloadRef)
+                .containsExactlyInAnyOrder("deployment/api", "deployment/web");
+        assertThat(dev.getTransitions()).allMatch(t -> t.getReplicas() == 0 && t.getReason().equals("sleep"));
+
+        // The next occurrence is armed for the following weekday
+        scheduler.tick(start + 2 * 60 * 60_000);
+        verifyNoMoreInteractions(streamBridge);
+        scheduler.tick(start + 25 * 60 * 60_000);
+        verify(streamBridge, times(4)).send(eq("scalingBatch-out-0"), batches.capture());
+    }
+
+    /**
+     * Unit test verifying that a namespace-wide transition fires for a namespace acquired after the last
+     * reload: the cached workloads cover every namespace, and ownership is only checked when the transition fires.
+     */
+    @Test
+    void shouldExpandNamespaceAcquiredAfterReload() {
+        // Given: the namespace is not owned yet when the workloads are reloaded
+        when(repository.findByEnabledTrue()).thenReturn(List.of());
+        when(workloadInventory.discoverAllWorkloads())
+                .thenReturn(Mono.just(List.of(new Workload("dev", "api"), new Workload("dev", "web"), new Workload("qa", "api"))));
+        SleepWakeScheduler scheduler = new SleepWakeScheduler(repository, new SleepScheduleProperties(),
+                workloadInventory, shardCoordinator, streamBridge, new SimpleMeterRegistry());
+        scheduler.reload();
+        long start = ZonedDateTime.now(ZoneId.of("UTC"))
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                .withHour(6).truncatedTo(ChronoUnit.HOURS)
+                .toInstant().toEpochMilli();
+        scheduler.apply(List.of(ScalingSchedule.builder()
+                .namespace("dev")
+                .wakeCron("0 0 7 * * MON-FRI")
+                .wakeReplicas(2)
+                .build()), start);
+
+        // When: the namespace is acquired before the wake is due
+        when(shardCoordinator.owns("dev")).thenReturn(true);
+        scheduler.tick(start + 60 * 60_000);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<ScalingBatchEvent>> batch = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge).send(eq("scalingBatch-out-0"), batch.capture());
+        assertThat(batch.getValue().getPayload().getNamespace()).isEqualTo("dev");
+        assertThat(batch.getValue().getPayload().getTransitions())
+                .allMatch(t -> t.getReplicas() == 2 && t.getReason().equals("wake"))
+                .extracting(ScalingTransition::getWorkloadRef)
+                .containsExactlyInAnyOrder("deployment/api", "deployment/web");
+        verify(workloadInventory, never()).discoverWorkloads();
+    }
+
+    private static ScalingSchedule schedule(String namespace, String workload, String timezone, String sleepCron) {
+        return ScalingSchedule.builder()
+                .namespace(namespace)
+                .workload(workload)
+                .timezone(timezone)
+                .sleepCron(sleepCron)
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package io.kubefinops.recommender.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    /**
+     * Unit test verifying that every timer, from the current tick to beyond the horizon, expires in the
+     * tick of its deadline and never earlier, while the wheel advances in irregular steps.
+     */
+    @Test
+    void shouldExpireTimersInTheirTick() {
+        // Given
+        long start = 1_700_000_000_000L;
+        long horizon = Duration.ofDays(3).toMillis();
+        TimingWheel<Long> wheel = new TimingWheel<>(1000, 8, horizon, start);
+        Random random = new Random(3);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long deadline = start + (long) (random.nextDouble() * 2 * horizon);
+            deadlines.add(deadline);
+            wheel.add(deadline, deadline);
+        }
+        wheel.add(start - 5000, start - 5000);
+
+        // When / Then
+        assertThat(wheel.advance(start)).containsExactly(start - 5000);
+        long now = start;
+        int expired = 0;
+        while (now < start + 2 * horizon + 1000) {
+            now += 1000 + random.nextInt(600_000);
+            long tickEnd = Math.floorDiv(now, 1000) * 1000 + 1000;
+            for (long deadline : wheel.advance(now)) {
+                assertThat(deadline).isLessThan(tickEnd);
+                expired++;
+            }
+            long pending = deadlines.stream().filter(d -> d < tickEnd).count();
+            assertThat(expired).isEqualTo(pending);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+}
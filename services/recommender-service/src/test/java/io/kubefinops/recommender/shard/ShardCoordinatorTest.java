@@ -0,0 +1,93 @@
+package io.kubefinops.recommender.shard;
+
+import io.kubefinops.recommender.config.ShardingProperties;
+import io.kubefinops.recommender.domain.ShardLease;
+import io.kubefinops.recommender.repository.ShardLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShardCoordinatorTest {
+
+    private static final List<String> NAMESPACES = IntStream.range(0, 3000).mapToObj(i -> "ns-" + i).toList();
+
+    /**
+     * Unit test verifying that namespaces spread evenly across members, and that removing a member
+     * only moves the namespaces it owned.
+     */
+    @Test
+    void shouldSpreadAndMoveOnlyOrphanedKeys() {
+        // Given
+        List<String> members = List.of("replica-a", "replica-b", "replica-c");
+        Map<String, String> before = new HashMap<>();
+        NAMESPACES.forEach(ns -> before.put(ns, RendezvousHash.owner(ns, members)));
+
+        // When
+        List<String> survivors = List.of("replica-a", "replica-c");
+        Map<String, String> after = new HashMap<>();
+        NAMESPACES.forEach(ns -> after.put(ns, RendezvousHash.owner(ns, survivors)));
+
+        // Then
+        for (String member : members) {
+            assertThat(before.values().stream().filter(member::equals).count()).isBetween(900L, 1100L);
+        }
+        NAMESPACES.stream()
+                .filter(ns -> !before.get(ns).equals("replica-b"))
+                .forEach(ns -> assertThat(after.get(ns)).isEqualTo(before.get(ns)));
+    }
+
+    /**
+     * Unit test verifying that live replicas claim disjoint, complete sets of namespaces,
+     * and that a replica which cannot renew its lease claims nothing.
+     */
+    @Test
+    void shouldPartitionNamespacesAcrossLiveReplicas() {
+        // Given
+        ShardLeaseRepository repository = mock(ShardLeaseRepository.class);
+        List<ShardLease> leases = new ArrayList<>();
+        when(repository.save(any(ShardLease.class))).thenAnswer(invocation -> {
+            ShardLease lease = invocation.getArgument(0);
+            leases.removeIf(l -> l.getMemberId().equals(lease.getMemberId()));
+            leases.add(lease);
+            return lease;
+        });
+        when(repository.findByExpiresAtAfter(any(Instant.class))).thenAnswer(invocation -> List.copyOf(leases));
+        ShardCoordinator first = coordinator(repository, "replica-a");
+        ShardCoordinator second = coordinator(repository, "replica-b");
+
+        // When
+        first.heartbeat();
+        second.heartbeat();
+        first.heartbeat();
+
+        // Then
+        for (String ns : NAMESPACES) {
+            assertThat(first.owns(ns)).isNotEqualTo(second.owns(ns));
+        }
+        assertThat(NAMESPACES.stream().filter(first::owns).count()).isBetween(1300L, 1700L);
+
+        // When the store becomes unreachable, a replica that never renewed owns nothing
+        doThrow(new IllegalStateException("mongo down")).when(repository).save(any(ShardLease.class));
+        ShardCoordinator isolated = coordinator(repository, "replica-c");
+        isolated.heartbeat();
+        assertThat(NAMESPACES.stream().anyMatch(isolated::owns)).isFalse();
+    }
+
+    private static ShardCoordinator coordinator(ShardLeaseRepository repository, String memberId) {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setMemberId(memberId);
+        return new ShardCoordinator(repository, properties, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,65 @@
+package io.kubefinops.recommender.usage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DDSketchTest {
+
+    private static final double ACCURACY = 0.01;
+
+    /**
+     * Unit test verifying that P50/P95/P99 of a skewed distribution stay within the configured
+     * relative accuracy of the exact percentiles.
+     */
+    @Test
+    void shouldAnswerQuantilesWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        double[] values = new double[10_000];
+        DDSketch sketch = new DDSketch(ACCURACY, 2048);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian()) * 0.2; // log-normal, like CPU usage
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.5, 0.95, 0.99}) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertThat(sketch.quantile(q)).isCloseTo(exact, within(exact * ACCURACY * 1.01));
+        }
+        assertThat(sketch.count()).isEqualTo(values.length);
+    }
+
+    /**
+     * Unit test verifying that merging per-pod sketches gives the same answer as one sketch fed
+     * with the combined stream, and that time buckets outside the window are not merged.
+     */
+    @Test
+    void shouldMergeAcrossPodsAndTimeBuckets() {
+        DDSketch podA = new DDSketch(ACCURACY, 1024);
+        DDSketch podB = new DDSketch(ACCURACY, 1024);
+        DDSketch combined = new DDSketch(ACCURACY, 1024);
+        for (int i = 1; i <= 500; i++) {
+            podA.add(i * 1e6);
+            podB.add(i * 3e6);
+            combined.add(i * 1e6);
+            combined.add(i * 3e6);
+        }
+        podA.merge(podB);
+        assertThat(podA.quantile(0.95)).isEqualTo(combined.quantile(0.95));
+
+        long hour = 3_600_000L;
+        WindowedSketch windowed = new WindowedSketch(hour, 3, ACCURACY, 1024);
+        windowed.add(0, 100.0);       // bucket 0, evicted once bucket 3 reuses its slot
+        windowed.add(hour, 1.0);
+        windowed.add(2 * hour, 2.0);
+        windowed.add(3 * hour, 3.0);
+
+        assertThat(windowed.quantile(1.0, 0)).isCloseTo(3.0, within(3.0 * ACCURACY));
+        assertThat(windowed.quantile(0.0, 2 * hour)).isCloseTo(2.0, within(2.0 * ACCURACY));
+    }
+}
@@ -0,0 +1,60 @@
+package io.kubefinops.recommender.usage;
+
+import io.kubefinops.recommender.config.UsageStoreProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class UsageSeriesStoreTest {
+
+    private static final long STEP = 60_000L;
+
+    /**
+     * Unit test verifying that the ring buffer overwrites its oldest slots once full, so only
+     * the most recent capacity-many steps contribute to the percentile.
+     */
+    @Test
+    void shouldKeepOnlyTheMostRecentWindowInTheRing() {
+        UsageRingBuffer buffer = new UsageRingBuffer(STEP, 10);
+        for (int i = 0; i < 25; i++) {
+            buffer.record(i * STEP, UsageSampleSink.CPU, i);
+        }
+
+        DoubleSamples samples = new DoubleSamples(16);
+        buffer.collect(UsageSampleSink.CPU, 0, samples);
+
+        assertThat(samples.size()).isEqualTo(10);
+        assertThat(samples.percentile(0.0)).isEqualTo(15.0);
+        assertThat(samples.percentile(1.0)).isEqualTo(24.0);
+        assertThat(buffer.lastTimestamp()).isEqualTo(24 * STEP);
+    }
+
+    /**
+     * Unit test verifying that samples of all pods of a workload are merged into one per-workload
+     * percentile.
+     */
+    @Test
+    void shouldComputeWorkloadPercentilesAcrossPods() {
+        UsageStoreProperties properties = new UsageStoreProperties();
+        properties.setStep(Duration.ofMillis(STEP));
+        properties.setRetention(Duration.ofMillis(STEP * 100));
+        UsageSeriesStore store = new UsageSeriesStore(properties);
+
+        for (int i = 1; i <= 50; i++) {
+            store.record("dev", "nginx", "nginx-6d4cf56db6-aaaaa", "nginx", i * STEP, UsageSampleSink.CPU, i / 100.0);
+            store.record("dev", "nginx", "nginx-6d4cf56db6-bbbbb", "nginx", i * STEP, UsageSampleSink.CPU, (i + 50) / 100.0);
+            store.record("dev", "nginx", "nginx-6d4cf56db6-aaaaa", "nginx", i * STEP, UsageSampleSink.MEMORY, 1024.0);
+        }
+
+        Map<String, WorkloadUsage> usage = store.percentiles("dev", 0.95, 0);
+
+        assertThat(usage).containsOnlyKeys("nginx");
+        assertThat(usage.get("nginx").getCpuCores()).isCloseTo(0.9505, within(1e-9));
+        assertThat(usage.get("nginx").getMemoryBytes()).isEqualTo(1024.0);
+        assertThat(store.containerCount()).isEqualTo(2);
+    }
+}
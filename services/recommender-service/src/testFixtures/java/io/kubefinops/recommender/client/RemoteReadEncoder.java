@@ -0,0 +1,190 @@
+package io.kubefinops.recommender.client;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Encoders for the Prometheus remote-read responses, the counterpart of {@link RemoteReadResponseDecoder}
+ * and {@link XorChunk}: streamed responses are a sequence of frames (uvarint length, big-endian CRC32C of
+ * the payload, then one {@code ChunkedReadResponse}). Used by the stand-in server in tests and by the benchmarks.
+ */
+final class RemoteReadEncoder {
+
+    private RemoteReadEncoder() {
+    }
+
+    /**
+     * Encodes series as one framed {@code ChunkedReadResponse}, splitting each series into XOR chunks.
+     *
+     * @param series          The series to encode.
+     * @param queryIndex      The index of the query the series answer.
+     * @param samplesPerChunk The maximum number of samples per chunk (Prometheus cuts chunks at 120).
+     * @return The frame bytes.
+     */
+    static byte[] encodeFrame(List<RawSeries> series, long queryIndex, int samplesPerChunk) {
+        ProtoWriter response = new ProtoWriter();
+        for (RawSeries s : series) {
+            ProtoWriter chunkedSeries = new ProtoWriter();
+            for (Map.Entry<String, String> label : s.getLabels().entrySet()) {
+                chunkedSeries.bytes(1, new ProtoWriter()
+                        .string(1, label.getKey())
+                        .string(2, label.getValue())
+                        .toByteArray());
+            }
+            for (int from = 0; from < s.getSize(); from += samplesPerChunk) {
+                int to = Math.min(from + samplesPerChunk, s.getSize());
+                chunkedSeries.bytes(2, new ProtoWriter()
+                        .varint(1, s.getTimestampsMillis()[from])
+                        .varint(2, s.getTimestampsMillis()[to - 1])
+                        .varint(3, RemoteReadCodec.CHUNK_ENCODING_XOR)
+                        .bytes(4, encodeXorChunk(s.getTimestampsMillis(), s.getValues(), from, to))
+                        .toByteArray());
+            }
+            response.bytes(1, chunkedSeries.toByteArray());
+        }
+        byte[] payload = response.varint(2, queryIndex).toByteArray();
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        long checksum = crc.getValue();
+        ProtoWriter header = new ProtoWriter();
+        header.writeRawVarint(payload.length);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.length + 10);
+        frame.writeBytes(header.toByteArray());
+        frame.write((int) (checksum >>> 24));
+        frame.write((int) (checksum >>> 16));
+        frame.write((int) (checksum >>> 8));
+        frame.write((int) checksum);
+        frame.writeBytes(payload);
+        return frame.toByteArray();
+    }
+
+    /**
+     * Encodes samples into one chunk (at most 65535 samples).
+     *
+     * @param timestamps The sample timestamps in milliseconds, ascending.
+     * @param values     The sample values.
+     * @param from       The first sample index (inclusive).
+     * @param to         The last sample index (exclusive).
+     * @return The encoded chunk.
+     */
+    static byte[] encodeXorChunk(long[] timestamps, double[] values, int from, int to) {
+        int count = to - from;
+        if (count > 0xFFFF) throw new IllegalArgumentException("Too many samples for one chunk: " + count);
+        BitWriter out = new BitWriter(16 + count * 4);
+        out.writeBits(count, 16);
+        if (count == 0) return out.toByteArray();
+
+        long t = timestamps[from];
+        long valueBits = Double.doubleToRawLongBits(values[from]);
+        out.writeVarint(t);
+        out.writeBits(valueBits, 64);
+
+        long delta = 0;
+        int leading = 0xFF;
+        int trailing = 0;
+        for (int i = from + 1; i < to; i++) {
+            long newDelta = timestamps[i] - t;
+            if (i == from + 1) {
+                out.writeUvarint(newDelta);
+            } else {
+                long dod = newDelta - delta;
+                if (dod == 0) {
+                    out.writeBit(0);
+                } else if (fits(dod, 14)) {
+                    out.writeBits(0b10, 2);
+                    out.writeBits(dod, 14);
+                } else if (fits(dod, 17)) {
+                    out.writeBits(0b110, 3);
+                    out.writeBits(dod, 17);
+                } else if (fits(dod, 20)) {
+                    out.writeBits(0b1110, 4);
+                    out.writeBits(dod, 20);
+                } else {
+                    out.writeBits(0b1111, 4);
+                    out.writeBits(dod, 64);
+                }
+            }
+            t = timestamps[i];
+            delta = newDelta;
+
+            long newBits = Double.doubleToRawLongBits(values[i]);
+            long xor = newBits ^ valueBits;
+            valueBits = newBits;
+            if (xor == 0) {
+                out.writeBit(0);
+                continue;
+            }
+            out.writeBit(1);
+            int newLeading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int newTrailing = Long.numberOfTrailingZeros(xor);
+            if (leading != 0xFF && newLeading >= leading && newTrailing >= trailing) {
+                out.writeBit(0);
+                out.writeBits(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                leading = newLeading;
+                trailing = newTrailing;
+                int significant = 64 - leading - trailing;
+                out.writeBit(1);
+                out.writeBits(leading, 5);
+                out.writeBits(significant, 6); // 64 wraps to 0
+                out.writeBits(xor >>> trailing, significant);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns true if a delta-of-delta fits the signed range of a bit width.
+     *
+     * @param value The delta-of-delta.
+     * @param bits  The bit width.
+     * @return Whether the value is representable.
+     */
+    private static boolean fits(long value, int bits) {
+        return -((1L << (bits - 1)) - 1) <= value && value <= (1L << (bits - 1));
+    }
+
+    private static final class BitWriter {
+        private byte[] data;
+        private int bitCount;
+
+        BitWriter(int initialBytes) {
+            this.data = new byte[Math.max(initialBytes, 16)];
+        }
+
+        void writeBit(int bit) {
+            writeBits(bit, 1);
+        }
+
+        void writeBits(long value, int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                int byteIndex = bitCount >>> 3;
+                if (byteIndex == data.length) data = Arrays.copyOf(data, data.length * 2);
+                if (((value >>> i) & 1) != 0) {
+                    data[byteIndex] |= (byte) (0x80 >>> (bitCount & 7));
+                }
+                bitCount++;
+            }
+        }
+
+        void writeUvarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeBits((value & 0x7F) | 0x80, 8);
+                value >>>= 7;
+            }
+            writeBits(value, 8);
+        }
+
+        void writeVarint(long value) {
+            writeUvarint((value << 1) ^ (value >> 63));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(data, (bitCount + 7) >>> 3);
+        }
+    }
+}